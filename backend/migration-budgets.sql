@@ -0,0 +1,65 @@
+-- Migration Script: Orçamentos mensais por categoria com contadores incrementais
+-- Execute este script no banco de dados existente
+
+-- 1. Orçamentos
+CREATE TABLE IF NOT EXISTS budget (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    category VARCHAR(255) NOT NULL,
+    monthly_limit NUMERIC(14, 2) NOT NULL,
+    alert_threshold INTEGER NOT NULL DEFAULT 80,
+    CONSTRAINT fk_budget_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT uk_budget_user_category UNIQUE (user_id, category)
+);
+
+-- 2. Contadores de despesas por categoria e mês (yyyyMM)
+CREATE TABLE IF NOT EXISTS budget_usage (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    category VARCHAR(255) NOT NULL,
+    period_month INTEGER NOT NULL,
+    spent NUMERIC(15, 2) NOT NULL,
+    CONSTRAINT fk_budget_usage_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT uk_budget_usage_user_category_period UNIQUE (user_id, category, period_month)
+);
+
+-- 3. Alertas disparados (um por nível, categoria e mês)
+CREATE TABLE IF NOT EXISTS budget_alert (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    category VARCHAR(255) NOT NULL,
+    period_month INTEGER NOT NULL,
+    level VARCHAR(255) NOT NULL,
+    spent NUMERIC(15, 2) NOT NULL,
+    monthly_limit NUMERIC(14, 2) NOT NULL,
+    created_at TIMESTAMP,
+    CONSTRAINT fk_budget_alert_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT uk_budget_alert_user_category_period_level UNIQUE (user_id, category, period_month, level)
+);
+
+-- 4. Preencher os contadores: transações gravadas + parcelas ainda virtuais dos planos em modo regra
+INSERT INTO budget_usage (user_id, category, period_month, spent)
+SELECT user_id, category, period_month, SUM(amount)
+FROM (
+    SELECT t.user_id,
+           t.category,
+           CAST(to_char(t.date_time, 'YYYYMM') AS INTEGER) AS period_month,
+           t.amount
+    FROM transactions t
+    WHERE t.type = 'EXPENSE' AND t.category IS NOT NULL AND t.amount IS NOT NULL
+    UNION ALL
+    SELECT p.user_id,
+           p.category,
+           CAST(to_char(p.first_due_at + (n - 1) * INTERVAL '1 month', 'YYYYMM') AS INTEGER),
+           p.installment_value
+    FROM installment_plan p
+    CROSS JOIN LATERAL generate_series(p.materialized_through + 1, p.total_installments) AS n
+    WHERE p.schedule_only AND p.category IS NOT NULL
+      AND NOT EXISTS (SELECT 1 FROM transactions t
+                      WHERE t.installment_plan_id = p.id AND t.installment_number = n)
+) AS expenses
+GROUP BY user_id, category, period_month
+ON CONFLICT (user_id, category, period_month) DO UPDATE SET spent = EXCLUDED.spent;
+
+-- Comentários para documentação
+COMMENT ON TABLE budget_usage IS 'Gasto acumulado por categoria e mês, mantido a cada escrita de transação';
@@ -0,0 +1,42 @@
+-- Migration Script: Dicionário de categorias por usuário com chave inteira
+-- Execute este script no banco de dados existente
+
+-- 1. Tabela de categorias (um nome por usuário)
+CREATE TABLE IF NOT EXISTS categories (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    CONSTRAINT fk_categories_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT uk_categories_user_name UNIQUE (user_id, name)
+);
+
+-- 2. Coluna inteira em transactions
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS category_id INTEGER;
+
+-- 3. Criar as categorias a partir dos textos existentes (sem espaços nas pontas)
+INSERT INTO categories (user_id, name)
+SELECT DISTINCT user_id, TRIM(category)
+FROM transactions
+WHERE category IS NOT NULL AND TRIM(category) <> ''
+ON CONFLICT (user_id, name) DO NOTHING;
+
+-- 4. Preencher category_id
+UPDATE transactions t
+SET category_id = c.id
+FROM categories c
+WHERE c.user_id = t.user_id
+  AND c.name = TRIM(t.category)
+  AND t.category_id IS NULL;
+
+-- 5. Chave estrangeira e índice para agrupamentos/filtros por categoria
+ALTER TABLE transactions
+    ADD CONSTRAINT fk_transactions_category FOREIGN KEY (category_id) REFERENCES categories(id);
+
+CREATE INDEX IF NOT EXISTS idx_transactions_user_category ON transactions(user_id, category_id);
+
+-- 6. Remover a coluna de texto (o nome passa a vir da tabela categories)
+ALTER TABLE transactions DROP COLUMN IF EXISTS category;
+
+-- Comentários para documentação
+COMMENT ON TABLE categories IS 'Categorias por usuário; transactions referencia o id inteiro';
+COMMENT ON COLUMN transactions.category_id IS 'Categoria da transação (categories.id)';
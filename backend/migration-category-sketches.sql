@@ -0,0 +1,23 @@
+-- Migration Script: Sketches de quantis das despesas por categoria
+-- Execute este script no banco de dados existente
+
+-- 1. Um sketch KLL serializado por (usuário, categoria) com os valores das despesas na
+--    moeda base. sketch NULL = precisa ser reconstruído a partir das transações (na próxima leitura)
+CREATE TABLE IF NOT EXISTS category_sketches (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    category_id INTEGER NOT NULL,
+    sketch BYTEA,
+    CONSTRAINT fk_category_sketches_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT fk_category_sketches_category FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE CASCADE,
+    CONSTRAINT uk_category_sketches_user_category UNIQUE (user_id, category_id)
+);
+
+-- 2. Categorias existentes entram pendentes: o backend monta cada sketch na primeira consulta
+INSERT INTO category_sketches (user_id, category_id)
+SELECT user_id, id FROM categories
+ON CONFLICT (user_id, category_id) DO NOTHING;
+
+-- Comentários para documentação
+COMMENT ON TABLE category_sketches IS 'Sketches KLL dos valores de despesa por usuário e categoria (mediana, p90, outliers)';
+COMMENT ON COLUMN category_sketches.sketch IS 'KllSketch.toBytes(); NULL = reconstruir a partir das transações';
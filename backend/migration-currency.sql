@@ -0,0 +1,50 @@
+-- Migration Script: Transações em várias moedas e tabela local de cotações
+-- Execute este script no banco de dados existente
+
+-- 1. Moeda da transação (ISO 4217); NULL = moeda base da aplicação (fx.base-currency)
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS currency CHAR(3);
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'chk_transactions_currency') THEN
+        ALTER TABLE transactions ADD CONSTRAINT chk_transactions_currency CHECK (currency ~ '^[A-Z]{3}$');
+    END IF;
+END $$;
+
+-- 2. Cotações: 1 base_currency = rate quote_currency a partir de rate_date.
+--    Vale a cotação mais recente até a data da transação
+CREATE TABLE IF NOT EXISTS fx_rates (
+    id BIGSERIAL PRIMARY KEY,
+    base_currency CHAR(3) NOT NULL,
+    quote_currency CHAR(3) NOT NULL,
+    rate_date DATE NOT NULL,
+    rate NUMERIC(20, 10) NOT NULL CHECK (rate > 0),
+    CONSTRAINT uk_fx_rates_pair_date UNIQUE (base_currency, quote_currency, rate_date)
+);
+
+-- 3. Carga inicial: médias anuais aproximadas do BCE, com o euro como pivô (as conversões
+--    BRL ↔ GBP passam pelo EUR). Séries diárias podem ser carregadas por arquivo (fx.rates.file)
+INSERT INTO fx_rates (base_currency, quote_currency, rate_date, rate) VALUES
+    ('EUR', 'BRL', DATE '2019-01-01', 4.4134), ('EUR', 'GBP', DATE '2019-01-01', 0.8778), ('EUR', 'USD', DATE '2019-01-01', 1.1195),
+    ('EUR', 'BRL', DATE '2020-01-01', 5.8943), ('EUR', 'GBP', DATE '2020-01-01', 0.8897), ('EUR', 'USD', DATE '2020-01-01', 1.1422),
+    ('EUR', 'BRL', DATE '2021-01-01', 6.3779), ('EUR', 'GBP', DATE '2021-01-01', 0.8596), ('EUR', 'USD', DATE '2021-01-01', 1.1827),
+    ('EUR', 'BRL', DATE '2022-01-01', 5.4399), ('EUR', 'GBP', DATE '2022-01-01', 0.8528), ('EUR', 'USD', DATE '2022-01-01', 1.0530),
+    ('EUR', 'BRL', DATE '2023-01-01', 5.4010), ('EUR', 'GBP', DATE '2023-01-01', 0.8698), ('EUR', 'USD', DATE '2023-01-01', 1.0813),
+    ('EUR', 'BRL', DATE '2024-01-01', 5.8283), ('EUR', 'GBP', DATE '2024-01-01', 0.8466), ('EUR', 'USD', DATE '2024-01-01', 1.0824),
+    ('EUR', 'BRL', DATE '2025-01-01', 6.3000), ('EUR', 'GBP', DATE '2025-01-01', 0.8550), ('EUR', 'USD', DATE '2025-01-01', 1.1300),
+    ('EUR', 'BRL', DATE '2026-01-01', 6.2000), ('EUR', 'GBP', DATE '2026-01-01', 0.8700), ('EUR', 'USD', DATE '2026-01-01', 1.1600)
+ON CONFLICT (base_currency, quote_currency, rate_date) DO NOTHING;
+
+-- 4. Valor na moeda base com a cotação usada ao gravar a transação: saldos (daily_balance) e
+--    orçamentos (budget_usage) revertem edições e exclusões por ele, sem resíduo quando a
+--    cotação muda depois. Transações em outra moeda gravadas antes desta coluna ficam nulas e
+--    são convertidas com a cotação vigente na reversão
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS amount_base_minor BIGINT;
+
+UPDATE transactions SET amount_base_minor = amount_minor
+WHERE currency IS NULL AND amount_base_minor IS NULL;
+
+-- Comentários para documentação
+COMMENT ON COLUMN transactions.currency IS 'Moeda ISO 4217 da transação; NULL = moeda base (fx.base-currency)';
+COMMENT ON COLUMN transactions.amount_base_minor IS 'Valor em centavos na moeda base com a cotação da gravação; NULL = linha anterior à coluna';
+COMMENT ON TABLE fx_rates IS 'Cotações locais: 1 base_currency = rate quote_currency a partir de rate_date';
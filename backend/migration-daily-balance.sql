@@ -0,0 +1,26 @@
+-- Migration Script: Saldo acumulado pré-calculado por dia
+-- Execute este script no banco de dados existente
+
+-- 1. Criar tabela daily_balance (variação líquida por usuário e dia)
+CREATE TABLE IF NOT EXISTS daily_balance (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    balance_date DATE NOT NULL,
+    net_amount NUMERIC(15, 2) NOT NULL,
+    CONSTRAINT fk_daily_balance_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT uk_daily_balance_user_date UNIQUE (user_id, balance_date)
+);
+
+-- 2. Preencher a partir das transações existentes (receitas - despesas por dia)
+INSERT INTO daily_balance (user_id, balance_date, net_amount)
+SELECT user_id,
+       CAST(date_time AS DATE),
+       SUM(CASE WHEN type = 'INCOME' THEN amount ELSE -amount END)
+FROM transactions
+WHERE date_time IS NOT NULL AND amount IS NOT NULL
+GROUP BY user_id, CAST(date_time AS DATE)
+ON CONFLICT (user_id, balance_date) DO UPDATE SET net_amount = EXCLUDED.net_amount;
+
+-- Comentários para documentação
+COMMENT ON TABLE daily_balance IS 'Variação diária do saldo por usuário, base das consultas de saldo acumulado';
+COMMENT ON COLUMN daily_balance.net_amount IS 'Receitas menos despesas do dia';
@@ -0,0 +1,50 @@
+-- Migration Script: Fingerprint de transações para detectar duplicatas
+-- Execute este script no banco de dados existente
+
+-- 1. Fórmula do fingerprint (a mesma de TransactionFingerprint.of no backend):
+--    primeiros 8 bytes do MD5 de "user_id|amount_minor|dias desde 1970-01-01|descrição normalizada",
+--    com "|MOEDA" no fim quando a moeda não é a base (NULL)
+CREATE OR REPLACE FUNCTION transaction_fingerprint(p_user_id BIGINT,
+                                                  p_amount_minor BIGINT,
+                                                  p_currency TEXT,
+                                                  p_date_time TIMESTAMP,
+                                                  p_description TEXT)
+RETURNS BIGINT
+LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT ('x' || substr(md5(
+               p_user_id::text || '|' ||
+               p_amount_minor::text || '|' ||
+               (p_date_time::date - DATE '1970-01-01')::text || '|' ||
+               lower(btrim(regexp_replace(coalesce(p_description, ''), '\s+', ' ', 'g'))) ||
+               coalesce('|' || p_currency, '')
+           ), 1, 16))::bit(64)::bigint
+$$;
+
+-- 2. Coluna comum, gravada pelo backend (TransactionFingerprint) em todo INSERT/UPDATE.
+--    Bancos em que ela foi criada como coluna gerada passam a ter uma coluna comum (os
+--    valores ficam): o backend grava o fingerprint explicitamente e o banco recusaria
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS fingerprint BIGINT;
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'transactions' AND column_name = 'fingerprint'
+                 AND is_generated = 'ALWAYS') THEN
+        ALTER TABLE transactions ALTER COLUMN fingerprint DROP EXPRESSION;
+    END IF;
+END $$;
+
+-- Versão sem a moeda (só depois de a coluna deixar de ser gerada por ela)
+DROP FUNCTION IF EXISTS transaction_fingerprint(BIGINT, BIGINT, TIMESTAMP, TEXT);
+
+-- Linhas gravadas antes do backend calcular o fingerprint (ou pelo ddl-auto, com a coluna nula)
+-- e linhas em outra moeda gravadas antes de ela entrar na fórmula
+UPDATE transactions
+SET fingerprint = transaction_fingerprint(user_id, amount_minor, currency, date_time, description)
+WHERE fingerprint IS DISTINCT FROM transaction_fingerprint(user_id, amount_minor, currency, date_time, description);
+
+-- 3. Índice da checagem no save e do agrupamento de duplicatas
+CREATE INDEX IF NOT EXISTS idx_transactions_user_fingerprint ON transactions (user_id, fingerprint);
+
+-- Comentários para documentação
+COMMENT ON COLUMN transactions.fingerprint IS 'Hash de usuário, valor, moeda, dia e descrição normalizada; iguais = possível duplicata';
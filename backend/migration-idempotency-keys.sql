@@ -0,0 +1,29 @@
+-- Migration Script: Chaves de idempotência das escritas
+-- Execute este script no banco de dados existente
+
+CREATE TABLE IF NOT EXISTS idempotency_key (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    scope VARCHAR(64) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    status_code INTEGER,
+    response_body TEXT,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    reservation_id UUID,
+    CONSTRAINT fk_idempotency_key_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT uk_idempotency_key_user_scope_key UNIQUE (user_id, scope, idempotency_key)
+);
+
+-- Bancos que já tinham a tabela: dono da reserva, trocado quando o lease vence e outra
+-- requisição retoma a chave
+ALTER TABLE idempotency_key ADD COLUMN IF NOT EXISTS reservation_id UUID;
+
+-- Limpeza periódica das chaves vencidas (IdempotencyKeyPurgeJob)
+CREATE INDEX IF NOT EXISTS idx_idempotency_key_expires_at ON idempotency_key(expires_at);
+
+-- Comentários para documentação
+COMMENT ON TABLE idempotency_key IS 'Respostas guardadas de requisições com cabeçalho Idempotency-Key';
+COMMENT ON COLUMN idempotency_key.status_code IS 'Nulo enquanto a requisição original executa';
+COMMENT ON COLUMN idempotency_key.reservation_id IS 'Requisição dona da reserva; a conclusão só grava se ainda for a dona'
@@ -0,0 +1,28 @@
+-- Migration Script: Planos de parcelamento como regra de agendamento
+-- Execute este script no banco de dados existente
+
+-- 1. Adicionar colunas da regra na tabela installment_plan
+ALTER TABLE installment_plan ADD COLUMN IF NOT EXISTS schedule_only BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE installment_plan ADD COLUMN IF NOT EXISTS first_due_at TIMESTAMP;
+ALTER TABLE installment_plan ADD COLUMN IF NOT EXISTS category VARCHAR(255);
+ALTER TABLE installment_plan ADD COLUMN IF NOT EXISTS description VARCHAR(255);
+ALTER TABLE installment_plan ADD COLUMN IF NOT EXISTS materialized_through INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE installment_plan ADD COLUMN IF NOT EXISTS next_due_at TIMESTAMP;
+
+-- 2. Preencher a regra dos planos existentes a partir da primeira parcela
+UPDATE installment_plan p
+SET first_due_at = t.date_time,
+    category = t.category,
+    materialized_through = p.total_installments
+FROM transactions t
+WHERE t.installment_plan_id = p.id
+  AND t.installment_number = 1
+  AND p.first_due_at IS NULL;
+
+-- 3. Índice usado pelo job que grava as parcelas vencidas
+CREATE INDEX IF NOT EXISTS idx_installment_plan_next_due ON installment_plan(next_due_at);
+
+-- Comentários para documentação
+COMMENT ON COLUMN installment_plan.schedule_only IS 'Plano guarda só a regra; parcelas gravadas ao vencer ou ao serem editadas';
+COMMENT ON COLUMN installment_plan.materialized_through IS 'Parcelas 1..N já gravadas em transactions';
+COMMENT ON COLUMN installment_plan.next_due_at IS 'Vencimento da próxima parcela ainda virtual';
@@ -0,0 +1,16 @@
+-- Migration Script: Valores de transações em centavos (BIGINT)
+-- Execute este script no banco de dados existente
+
+-- 1. Nova coluna em centavos
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS amount_minor BIGINT;
+
+-- 2. Converter os valores existentes (numeric(14,2) -> centavos)
+UPDATE transactions
+SET amount_minor = CAST(ROUND(amount * 100) AS BIGINT)
+WHERE amount_minor IS NULL AND amount IS NOT NULL;
+
+-- 3. Remover a coluna numeric
+ALTER TABLE transactions DROP COLUMN IF EXISTS amount;
+
+-- Comentários para documentação
+COMMENT ON COLUMN transactions.amount_minor IS 'Valor da transação em centavos (a API expõe o valor decimal)';
@@ -0,0 +1,20 @@
+-- Migration Script: Ações referenciais das FKs de "transactions" após o particionamento
+-- Execute este script no banco de dados existente (só se migration-partitioning.sql já foi
+-- aplicado na versão que recriava a tabela sem ON DELETE nessas duas FKs)
+
+-- 1. Excluir um plano de parcelas volta a excluir suas parcelas (como em
+--    migration-installment-plans.sql) e excluir uma regra recorrente volta a só desvincular
+--    as ocorrências já gravadas (como em migration-recurring-rules.sql)
+BEGIN;
+
+ALTER TABLE transactions DROP CONSTRAINT IF EXISTS fk_transactions_installment_plan;
+ALTER TABLE transactions
+    ADD CONSTRAINT fk_transactions_installment_plan
+    FOREIGN KEY (installment_plan_id) REFERENCES installment_plan(id) ON DELETE CASCADE;
+
+ALTER TABLE transactions DROP CONSTRAINT IF EXISTS fk_transactions_recurring_rule;
+ALTER TABLE transactions
+    ADD CONSTRAINT fk_transactions_recurring_rule
+    FOREIGN KEY (recurring_rule_id) REFERENCES recurring_rule(id) ON DELETE SET NULL;
+
+COMMIT;
@@ -0,0 +1,87 @@
+-- Migration Script: Particionamento mensal de "transactions" por date_time
+-- Execute este script no banco de dados existente (após migration-categories.sql e
+-- migration-money-minor-units.sql), com a aplicação parada.
+--
+-- A tabela passa a ser particionada por RANGE(date_time), uma partição por mês
+-- (transactions_pYYYYMM). Consultas por intervalo de datas (resumo mensal, busca,
+-- saldos) leem só as partições do período. As partições futuras são criadas pela
+-- aplicação (TransactionPartitionJob e antes de gravar parcelas/ocorrências).
+
+BEGIN;
+
+-- 1. Preservar a tabela atual, liberando os nomes de restrições/índices para a nova
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+ALTER TABLE transactions_unpartitioned DROP CONSTRAINT IF EXISTS uk_transactions_recurring_occurrence;
+DROP INDEX IF EXISTS idx_transactions_user_category;
+
+-- 2. Sequência própria para o id (a identidade da tabela antiga some com ela)
+CREATE SEQUENCE IF NOT EXISTS transactions_id_sequence;
+SELECT setval('transactions_id_sequence', COALESCE((SELECT MAX(id) FROM transactions_unpartitioned), 0) + 1, false);
+
+-- 3. Tabela particionada (a chave primária precisa incluir a coluna de partição)
+CREATE TABLE transactions (
+    id BIGINT NOT NULL DEFAULT nextval('transactions_id_sequence'),
+    date_time TIMESTAMP(6) NOT NULL,
+    type VARCHAR(255) CHECK (type IN ('INCOME', 'EXPENSE')),
+    category_id INTEGER,
+    description VARCHAR(255),
+    amount_minor BIGINT,
+    user_id BIGINT NOT NULL,
+    installment_plan_id BIGINT,
+    installment_number INTEGER,
+    recurring_rule_id BIGINT,
+    CONSTRAINT transactions_pkey_partitioned PRIMARY KEY (id, date_time),
+    CONSTRAINT uk_transactions_recurring_occurrence UNIQUE (recurring_rule_id, date_time),
+    CONSTRAINT fk_transactions_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT fk_transactions_category FOREIGN KEY (category_id) REFERENCES categories(id),
+    CONSTRAINT fk_transactions_installment_plan FOREIGN KEY (installment_plan_id) REFERENCES installment_plan(id) ON DELETE CASCADE,
+    CONSTRAINT fk_transactions_recurring_rule FOREIGN KEY (recurring_rule_id) REFERENCES recurring_rule(id) ON DELETE SET NULL
+) PARTITION BY RANGE (date_time);
+
+ALTER SEQUENCE transactions_id_sequence OWNED BY transactions.id;
+
+-- 4. Partições mensais do primeiro mês com dados até 12 meses à frente (ou a última parcela)
+DO $$
+DECLARE
+    first_month DATE;
+    last_month DATE;
+    month DATE;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(date_time), now()))::date INTO first_month
+    FROM transactions_unpartitioned;
+    SELECT date_trunc('month', GREATEST(COALESCE(MAX(date_time), now()), now() + INTERVAL '12 months'))::date
+    INTO last_month
+    FROM transactions_unpartitioned;
+
+    month := first_month;
+    WHILE month <= last_month LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+                       'transactions_p' || to_char(month, 'YYYYMM'), month, (month + INTERVAL '1 month')::date);
+        month := (month + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+-- 5. Partição padrão: rede de segurança para datas sem partição mensal
+CREATE TABLE IF NOT EXISTS transactions_default PARTITION OF transactions DEFAULT;
+
+-- 6. Índices (criados em cada partição automaticamente)
+CREATE INDEX IF NOT EXISTS idx_transactions_user_date ON transactions(user_id, date_time);
+CREATE INDEX IF NOT EXISTS idx_transactions_user_category ON transactions(user_id, category_id);
+CREATE INDEX IF NOT EXISTS idx_transactions_installment_plan ON transactions(installment_plan_id);
+
+-- 7. Copiar os dados (cada linha vai para a partição do seu mês)
+INSERT INTO transactions (id, date_time, type, category_id, description, amount_minor, user_id,
+                          installment_plan_id, installment_number, recurring_rule_id)
+SELECT id, COALESCE(date_time, now()), type, category_id, description, amount_minor, user_id,
+       installment_plan_id, installment_number, recurring_rule_id
+FROM transactions_unpartitioned;
+
+DROP TABLE transactions_unpartitioned;
+
+COMMIT;
+
+-- Arquivar um mês antigo é barato: desanexar a partição (sem reescrever linhas),
+-- exportá-la e removê-la, por exemplo:
+--   ALTER TABLE transactions DETACH PARTITION transactions_p202001;
+--   \copy transactions_p202001 TO 'transactions_p202001.csv' CSV HEADER
+--   DROP TABLE transactions_p202001;
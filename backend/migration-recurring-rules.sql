@@ -0,0 +1,45 @@
+-- Migration Script: Regras de transações recorrentes
+-- Execute este script no banco de dados existente
+
+-- 1. Criar tabela recurring_rule
+CREATE TABLE IF NOT EXISTS recurring_rule (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    category VARCHAR(255),
+    description VARCHAR(255),
+    amount NUMERIC(14, 2) NOT NULL,
+    frequency VARCHAR(255) NOT NULL,
+    start_at TIMESTAMP NOT NULL,
+    end_date DATE,
+    occurrence_count INTEGER NOT NULL DEFAULT 0,
+    next_occurrence_at TIMESTAMP,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    CONSTRAINT fk_recurring_rule_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- 2. Ligação das transações geradas com a regra
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS recurring_rule_id BIGINT;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.table_constraints
+                   WHERE constraint_name='fk_transaction_recurring_rule') THEN
+        ALTER TABLE transactions
+        ADD CONSTRAINT fk_transaction_recurring_rule
+        FOREIGN KEY (recurring_rule_id) REFERENCES recurring_rule(id) ON DELETE SET NULL;
+    END IF;
+END $$;
+
+-- 3. Uma ocorrência por regra e data: impede gravação duplicada entre nós
+CREATE UNIQUE INDEX IF NOT EXISTS uk_transactions_recurring_occurrence
+    ON transactions(recurring_rule_id, date_time);
+
+-- 4. Índice usado pelo materializador (regras vencidas, percorridas por id)
+CREATE INDEX IF NOT EXISTS idx_recurring_rule_next_occurrence
+    ON recurring_rule(next_occurrence_at) WHERE active;
+
+-- Comentários para documentação
+COMMENT ON TABLE recurring_rule IS 'Regras de receitas/despesas recorrentes (salário, aluguel...)';
+COMMENT ON COLUMN recurring_rule.next_occurrence_at IS 'Próxima ocorrência a ser gravada pelo materializador';
+COMMENT ON COLUMN transactions.recurring_rule_id IS 'Regra recorrente que gerou a transação (se aplicável)';
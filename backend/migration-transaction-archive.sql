@@ -0,0 +1,45 @@
+-- Migration Script: Arquivo frio de anos fechados em segmentos comprimidos
+-- Execute este script no banco de dados existente
+
+-- 1. Um registro por (usuário, ano) arquivado. As transações do ano saem de "transactions" e
+--    passam a morar no arquivo de segmento (transactions.archive.dir/user-<id>/<ano>-<ms>.seg).
+--    O registro é criado no início do arquivamento e serve de trava entre instâncias.
+--    Transações gravadas depois com data no ano são rearquivadas: o segmento é regravado com
+--    um nome novo, file_name passa a apontar para ele e row_count soma as linhas novas
+CREATE TABLE IF NOT EXISTS transaction_archives (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    year INTEGER NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    row_count INTEGER NOT NULL DEFAULT 0,
+    size_bytes BIGINT NOT NULL DEFAULT 0,
+    archived_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    CONSTRAINT fk_transaction_archives_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT uk_transaction_archives_user_year UNIQUE (user_id, year)
+);
+
+-- 2. Totais mensais das transações arquivadas, por categoria e moeda (valores em centavos da
+--    moeda da linha; moeda NULL = moeda base). O resumo mensal de meses arquivados sai daqui.
+--    Um rearquivamento acrescenta linhas para as transações novas: as leituras somam as linhas
+--    de mesmo (mês, categoria, moeda)
+CREATE TABLE IF NOT EXISTS archived_monthly_totals (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    month DATE NOT NULL,
+    category_id INTEGER,
+    currency VARCHAR(3),
+    income_minor BIGINT NOT NULL DEFAULT 0,
+    expense_minor BIGINT NOT NULL DEFAULT 0,
+    transaction_count INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT fk_archived_monthly_totals_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT fk_archived_monthly_totals_category FOREIGN KEY (category_id) REFERENCES categories(id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_archived_monthly_totals_user_month ON archived_monthly_totals (user_id, month);
+
+-- Comentários para documentação
+COMMENT ON TABLE transaction_archives IS 'Anos fechados de cada usuário movidos para segmentos colunares comprimidos em disco';
+COMMENT ON COLUMN transaction_archives.file_name IS 'Caminho do segmento atual relativo a transactions.archive.dir (muda a cada rearquivamento)';
+COMMENT ON COLUMN transaction_archives.row_count IS 'Transações no segmento atual (somadas a cada rearquivamento)';
+COMMENT ON TABLE archived_monthly_totals IS 'Receitas e despesas por mês, categoria e moeda das transações arquivadas';
+COMMENT ON COLUMN archived_monthly_totals.month IS 'Primeiro dia do mês';
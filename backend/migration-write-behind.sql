@@ -0,0 +1,18 @@
+-- Migration Script: Id gerado pelo cliente para a fila de escrita assíncrona
+-- Execute este script no banco de dados existente
+
+-- 1. Nova coluna (nula para transações gravadas pelo caminho síncrono)
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS client_id UUID;
+
+-- 2. Unicidade por usuário; date_time entra na chave porque a tabela é particionada por ela.
+--    Reenvios do journal colidem aqui e são ignorados (ON CONFLICT DO NOTHING)
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_transactions_client_id') THEN
+        ALTER TABLE transactions
+            ADD CONSTRAINT uk_transactions_client_id UNIQUE (user_id, client_id, date_time);
+    END IF;
+END $$;
+
+-- Comentários para documentação
+COMMENT ON COLUMN transactions.client_id IS 'Id gerado pelo cliente nas gravações pela fila (write-behind)';
@@ -0,0 +1,55 @@
+#!/usr/bin/env bash
+# Smoke test do executável nativo (mvn -Pnative native:compile -DskipTests) contra um
+# PostgreSQL local (padrão: o serviço "db" do docker-compose, exposto em localhost:5433).
+#
+# Sobe o binário, mede o tempo até /health responder, cadastra um usuário, faz login,
+# grava e lista uma transação, pede o resumo do mês e imprime o RSS do processo.
+#
+#   BIN   executável (padrão: target/personalbudget-backend)
+#   PORT  porta HTTP (padrão: 8080)
+#   DB_HOST / DB_PORT / DB_NAME / DB_USER / DB_PASSWORD  repassadas à aplicação
+set -euo pipefail
+
+BIN=${BIN:-target/personalbudget-backend}
+PORT=${PORT:-8080}
+export DB_HOST=${DB_HOST:-localhost}
+export DB_PORT=${DB_PORT:-5433}
+BASE="http://localhost:${PORT}"
+LOG=$(mktemp -t native-smoke.XXXXXX.log)
+
+fail() {
+  echo "FALHOU: $1 (log: ${LOG})" >&2
+  exit 1
+}
+
+start=$(date +%s%N)
+"$BIN" --server.port="$PORT" "$@" > "$LOG" 2>&1 &
+pid=$!
+trap 'kill "$pid" 2>/dev/null || true' EXIT
+
+until [[ "$(curl -s -o /dev/null -w '%{http_code}' "${BASE}/health" || true)" == "200" ]]; do
+  kill -0 "$pid" 2>/dev/null || fail "o processo terminou durante a inicialização"
+  (( ($(date +%s%N) - start) / 1000000 < 60000 )) || fail "sem resposta em 60 s"
+  sleep 0.02
+done
+echo "primeira resposta em $(( ($(date +%s%N) - start) / 1000000 )) ms"
+
+email="smoke-$(date +%s%N)@example.com"
+curl -sf -X POST "${BASE}/api/auth/register" -H 'Content-Type: application/json' \
+  -d "{\"name\":\"Smoke\",\"email\":\"${email}\",\"password\":\"smoke-pass\"}" > /dev/null \
+  || fail "cadastro"
+token=$(curl -sf -X POST "${BASE}/api/auth/login" -H 'Content-Type: application/json' \
+  -d "{\"email\":\"${email}\",\"password\":\"smoke-pass\"}" | sed -n 's/.*"token":"\([^"]*\)".*/\1/p')
+[[ -n "$token" ]] || fail "login"
+auth=(-H "Authorization: Bearer ${token}")
+
+curl -sf -X POST "${BASE}/api/transactions" "${auth[@]}" -H 'Content-Type: application/json' \
+  -d '{"type":"EXPENSE","category":"Smoke","description":"native smoke","amount":12.34}' > /dev/null \
+  || fail "criar transação"
+curl -sf "${BASE}/api/transactions" "${auth[@]}" | grep -q '"description":"native smoke"' \
+  || fail "listar transações"
+curl -sf "${BASE}/api/summary/month?year=$(date +%Y)&month=$(date +%-m)" "${auth[@]}" | grep -q '"totalExpense"' \
+  || fail "resumo do mês"
+
+echo "RSS: $(awk '/VmRSS/ {print $2, $3}' "/proc/${pid}/status")"
+echo "OK"
@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Mede o tempo entre o início da JVM e a primeira resposta 200 de um endpoint real.
+#
+# Uso: scripts/time-to-first-request.sh [argumentos da aplicação...]
+#   JAR        jar a executar (padrão: target/personalbudget-backend-0.0.1-SNAPSHOT.jar)
+#   JAVA_OPTS  opções da JVM (ex: -XX:SharedArchiveFile=app.jsa, -Dspring.aot.enabled=true)
+#   PORT       porta HTTP (padrão: 8080)
+#   TOKEN      JWT de um usuário; com ele mede GET /api/transactions, sem ele GET /health
+#   RUNS       quantidade de execuções (padrão: 5); imprime cada uma e a mediana
+#
+# Exemplo (perfil faststart contra o PostgreSQL do docker-compose):
+#   DB_HOST=localhost DB_PORT=5433 scripts/time-to-first-request.sh --spring.profiles.active=faststart
+set -euo pipefail
+
+JAR=${JAR:-target/personalbudget-backend-0.0.1-SNAPSHOT.jar}
+PORT=${PORT:-8080}
+RUNS=${RUNS:-5}
+if [[ -n "${TOKEN:-}" ]]; then
+  URL="http://localhost:${PORT}/api/transactions"
+  AUTH=(-H "Authorization: Bearer ${TOKEN}")
+else
+  URL="http://localhost:${PORT}/health"
+  AUTH=()
+fi
+
+results=()
+for run in $(seq 1 "$RUNS"); do
+  start=$(date +%s%N)
+  # shellcheck disable=SC2086
+  java ${JAVA_OPTS:-} -jar "$JAR" --server.port="$PORT" "$@" > "/tmp/ttfr-${run}.log" 2>&1 &
+  pid=$!
+  until [[ "$(curl -s -o /dev/null -w '%{http_code}' "${AUTH[@]}" "$URL" || true)" == "200" ]]; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "A aplicação terminou antes de responder; veja /tmp/ttfr-${run}.log" >&2
+      exit 1
+    fi
+    sleep 0.05
+  done
+  elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+  results+=("$elapsed")
+  echo "execução ${run}: ${elapsed} ms"
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+done
+
+sorted=($(printf '%s\n' "${results[@]}" | sort -n))
+echo "mediana: ${sorted[$(( RUNS / 2 ))]} ms (${URL})"
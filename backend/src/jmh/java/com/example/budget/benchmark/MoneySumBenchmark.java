@@ -0,0 +1,79 @@
+package com.example.budget.benchmark;
+
+import com.example.budget.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Soma de 1M valores: BigDecimal (caminho antigo) contra centavos em long.
+ *
+ * mvn -Pjmh test-compile exec:exec
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneySumBenchmark {
+
+    private static final int SIZE = 1_000_000;
+
+    private BigDecimal[] decimals;
+    private long[] minors;
+    private Money[] monies;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        decimals = new BigDecimal[SIZE];
+        minors = new long[SIZE];
+        monies = new Money[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            // até R$ 10.000,00, como valores típicos de transações
+            long cents = random.nextLong(1, 1_000_000);
+            decimals[i] = BigDecimal.valueOf(cents, 2);
+            minors[i] = cents;
+            monies[i] = Money.ofMinor(cents);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalAdd() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BigDecimal value : decimals) {
+            sum = sum.add(value);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long longAddExact() {
+        long sum = 0;
+        for (long value : minors) {
+            sum = Math.addExact(sum, value);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Money moneyPlus() {
+        Money sum = Money.ZERO;
+        for (Money value : monies) {
+            sum = sum.plus(value);
+        }
+        return sum;
+    }
+}
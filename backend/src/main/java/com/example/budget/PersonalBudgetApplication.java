@@ -1,9 +1,14 @@
 package com.example.budget;
 
+import com.example.budget.config.BudgetRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(BudgetRuntimeHints.class)
 public class PersonalBudgetApplication {
     public static void main(String[] args) {
         SpringApplication.run(PersonalBudgetApplication.class, args);
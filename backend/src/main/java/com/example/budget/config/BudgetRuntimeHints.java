@@ -0,0 +1,85 @@
+package com.example.budget.config;
+
+import com.example.budget.dto.InstallmentPlanDTO;
+import com.example.budget.dto.QueuedTransactionDTO;
+import com.example.budget.model.Budget;
+import com.example.budget.model.BudgetAlert;
+import com.example.budget.model.BudgetUsage;
+import com.example.budget.model.Category;
+import com.example.budget.model.DailyBalance;
+import com.example.budget.model.IdempotencyKey;
+import com.example.budget.model.InstallmentPlan;
+import com.example.budget.model.MoneyConverter;
+import com.example.budget.model.RecurringRule;
+import com.example.budget.model.Transaction;
+import com.example.budget.model.User;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * Hints de reflexão e recursos para a imagem nativa (perfil Maven "native").
+ *
+ * O processamento AOT do Spring já cobre beans, repositórios e os tipos declarados nos
+ * controllers. Ficam de fora: entidades acessadas pelo Hibernate por campo, respostas
+ * devolvidas como {@code ResponseEntity<?>} (idempotência, fila de escrita), o jjwt 0.11, que cria
+ * suas implementações por nome de classe e ServiceLoader, e o JavaTimeModule registrado à
+ * mão no JacksonConfig.
+ */
+public class BudgetRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<?>> ENTITIES = List.of(
+            Transaction.class, User.class, InstallmentPlan.class, RecurringRule.class, Category.class,
+            Budget.class, BudgetUsage.class, BudgetAlert.class, DailyBalance.class, IdempotencyKey.class);
+
+    // Instanciadas via Classes.newInstance pelo jjwt-api (Jwts, Keys) e pelo resolvedor de compressão
+    private static final List<String> JJWT_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver",
+            "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+            "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    private static final List<String> JJWT_SERVICES = List.of(
+            "META-INF/services/io.jsonwebtoken.CompressionCodec",
+            "META-INF/services/io.jsonwebtoken.io.Serializer",
+            "META-INF/services/io.jsonwebtoken.io.Deserializer");
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> entity : ENTITIES) {
+            hints.reflection().registerType(entity,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        hints.reflection().registerType(MoneyConverter.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+        // Corpos JSON serializados pelo Jackson sem tipo declarado no controller
+        bindingRegistrar.registerReflectionHints(hints.reflection(),
+                Transaction.class, InstallmentPlanDTO.class, InstallmentPlanDTO.InstallmentTransactionDTO.class,
+                QueuedTransactionDTO.class);
+
+        for (String type : JJWT_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        JJWT_SERVICES.forEach(hints.resources()::registerPattern);
+
+        hints.reflection().registerType(JavaTimeModule.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.budget.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Aplica {@link DataSourceTuningProperties} aos pools Hikari (antes de abrirem conexões),
+ * ao JdbcTemplate e ao Hibernate. As métricas dos pools (hikaricp.*) são publicadas pelo
+ * Actuator para cada HikariDataSource registrado.
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceTuningProperties.class)
+public class DataSourceTuningConfig {
+
+    // static: o BeanPostProcessor precisa existir antes dos demais beans
+    @Bean
+    public static BeanPostProcessor dataSourceTuningPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof HikariDataSource pool) {
+                    tune(pool, tuning(environment));
+                } else if (bean instanceof JdbcTemplate jdbcTemplate) {
+                    jdbcTemplate.setFetchSize(tuning(environment).getFetchSize());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer fetchSizeCustomizer(DataSourceTuningProperties tuning) {
+        return properties -> properties.putIfAbsent("hibernate.jdbc.fetch_size", tuning.getFetchSize());
+    }
+
+    private static DataSourceTuningProperties tuning(Environment environment) {
+        return Binder.get(environment)
+                .bind("budget.datasource.tuning", DataSourceTuningProperties.class)
+                .orElseGet(DataSourceTuningProperties::new);
+    }
+
+    private static void tune(HikariDataSource pool, DataSourceTuningProperties tuning) {
+        if (tuning.getMaximumPoolSize() != null) {
+            pool.setMaximumPoolSize(tuning.getMaximumPoolSize());
+        }
+        if (tuning.getMinimumIdle() != null) {
+            pool.setMinimumIdle(tuning.getMinimumIdle());
+        }
+        if (tuning.getConnectionTimeoutMs() != null) {
+            pool.setConnectionTimeout(tuning.getConnectionTimeoutMs());
+        }
+        pool.addDataSourceProperty("prepareThreshold", String.valueOf(tuning.getPrepareThreshold()));
+        pool.addDataSourceProperty("preparedStatementCacheQueries", String.valueOf(tuning.getPreparedStatementCacheQueries()));
+        pool.addDataSourceProperty("preparedStatementCacheSizeMiB", String.valueOf(tuning.getPreparedStatementCacheSizeMb()));
+        pool.addDataSourceProperty("reWriteBatchedInserts", String.valueOf(tuning.isReWriteBatchedInserts()));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.budget.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Ajustes do pool (HikariCP) e do driver PostgreSQL aplicados a todos os pools da aplicação
+ * (primário e, quando configurada, réplica). Valores de pool nulos mantêm os do spring.datasource.hikari.*.
+ */
+@ConfigurationProperties("budget.datasource.tuning")
+public class DataSourceTuningProperties {
+
+    // ---- Pool ----
+    private Integer maximumPoolSize;
+    private Integer minimumIdle;
+    private Long connectionTimeoutMs;
+
+    // ---- Driver PostgreSQL ----
+    // Execuções de um mesmo PreparedStatement antes de usar prepared statement no servidor
+    private int prepareThreshold = 5;
+    // Cache de statements preparados por conexão (quantidade e tamanho)
+    private int preparedStatementCacheQueries = 256;
+    private int preparedStatementCacheSizeMb = 5;
+    // Reescreve lotes de INSERT em INSERTs multi-linha (VALUES (...), (...))
+    private boolean reWriteBatchedInserts = true;
+
+    // Linhas buscadas por ida ao banco em consultas grandes (JdbcTemplate e Hibernate)
+    private int fetchSize = 500;
+
+    // Mede a latência do banco na inicialização e registra um tamanho de pool recomendado (opcional)
+    private boolean selfBenchmark = false;
+    private int selfBenchmarkIterations = 50;
+
+    // ---- Getters e Setters ----
+    public Integer getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(Integer maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public Integer getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    public void setMinimumIdle(Integer minimumIdle) {
+        this.minimumIdle = minimumIdle;
+    }
+
+    public Long getConnectionTimeoutMs() {
+        return connectionTimeoutMs;
+    }
+
+    public void setConnectionTimeoutMs(Long connectionTimeoutMs) {
+        this.connectionTimeoutMs = connectionTimeoutMs;
+    }
+
+    public int getPrepareThreshold() {
+        return prepareThreshold;
+    }
+
+    public void setPrepareThreshold(int prepareThreshold) {
+        this.prepareThreshold = prepareThreshold;
+    }
+
+    public int getPreparedStatementCacheQueries() {
+        return preparedStatementCacheQueries;
+    }
+
+    public void setPreparedStatementCacheQueries(int preparedStatementCacheQueries) {
+        this.preparedStatementCacheQueries = preparedStatementCacheQueries;
+    }
+
+    public int getPreparedStatementCacheSizeMb() {
+        return preparedStatementCacheSizeMb;
+    }
+
+    public void setPreparedStatementCacheSizeMb(int preparedStatementCacheSizeMb) {
+        this.preparedStatementCacheSizeMb = preparedStatementCacheSizeMb;
+    }
+
+    public boolean isReWriteBatchedInserts() {
+        return reWriteBatchedInserts;
+    }
+
+    public void setReWriteBatchedInserts(boolean reWriteBatchedInserts) {
+        this.reWriteBatchedInserts = reWriteBatchedInserts;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public boolean isSelfBenchmark() {
+        return selfBenchmark;
+    }
+
+    public void setSelfBenchmark(boolean selfBenchmark) {
+        this.selfBenchmark = selfBenchmark;
+    }
+
+    public int getSelfBenchmarkIterations() {
+        return selfBenchmarkIterations;
+    }
+
+    public void setSelfBenchmarkIterations(int selfBenchmarkIterations) {
+        this.selfBenchmarkIterations = selfBenchmarkIterations;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.budget.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Autoteste de inicialização: mede a ida e volta ao banco (SELECT 1) e uma consulta típica
+ * (agregação do último mês de um usuário, como o resumo mensal) e registra um tamanho de
+ * pool recomendado. Desligado por padrão (budget.datasource.tuning.self-benchmark): roda
+ * em cada inicialização de cada instância.
+ *
+ * Enquanto a conexão espera a rede, outra pode usar o núcleo; daí a estimativa
+ * núcleos × (1 + espera / serviço), limitada a [2, max_connections / 2].
+ * É uma referência para ajustar budget.datasource.tuning.maximum-pool-size, não um ajuste automático.
+ */
+@Component
+public class PoolSizingBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(PoolSizingBenchmark.class);
+
+    // Um usuário com movimento no período; o LIMIT para na primeira linha das partições recentes
+    private static final String SAMPLE_USER_QUERY =
+            "SELECT user_id FROM transactions WHERE date_time >= ? LIMIT 1";
+
+    // Mesmo caminho de acesso dos endpoints: índice (user_id, date_time) de um único usuário
+    private static final String TYPICAL_QUERY =
+            "SELECT category_id, SUM(amount_minor) FROM transactions " +
+            "WHERE user_id = ? AND date_time >= ? GROUP BY category_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceTuningProperties tuning;
+    private final ObjectProvider<HikariDataSource> pools;
+    private final AtomicInteger recommended = new AtomicInteger();
+
+    public PoolSizingBenchmark(JdbcTemplate jdbcTemplate,
+                               DataSourceTuningProperties tuning,
+                               ObjectProvider<HikariDataSource> pools,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tuning = tuning;
+        this.pools = pools;
+        Gauge.builder("budget.datasource.pool.recommended", recommended, AtomicInteger::get)
+                .description("Tamanho de pool recomendado pelo autoteste de inicialização")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        if (!tuning.isSelfBenchmark()) {
+            return;
+        }
+        try {
+            int iterations = Math.max(5, tuning.getSelfBenchmarkIterations());
+            double roundTripMs = medianMillis(iterations, () -> jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+            Timestamp since = Timestamp.valueOf(LocalDateTime.now().minusMonths(1));
+            Long userId = jdbcTemplate.query(SAMPLE_USER_QUERY, (rs, rowNum) -> rs.getLong(1), since)
+                    .stream().findFirst().orElse(0L);
+            double queryMs = medianMillis(iterations, () -> jdbcTemplate.queryForList(TYPICAL_QUERY, userId, since));
+            Integer maxConnections = jdbcTemplate.queryForObject(
+                    "SELECT setting::int FROM pg_settings WHERE name = 'max_connections'", Integer.class);
+
+            int cores = Runtime.getRuntime().availableProcessors();
+            double serviceMs = Math.max(queryMs - roundTripMs, 0.05);
+            int size = (int) Math.ceil(cores * (1 + roundTripMs / serviceMs));
+            int ceiling = maxConnections != null ? Math.max(2, maxConnections / 2) : size;
+            size = Math.max(2, Math.min(size, ceiling));
+            recommended.set(size);
+
+            StringBuilder configured = new StringBuilder();
+            pools.orderedStream().forEach(pool -> configured.append(configured.length() > 0 ? ", " : "")
+                    .append(pool.getPoolName()).append('=').append(pool.getMaximumPoolSize()));
+            logger.info("Pool sizing: cores={}, round trip p50={} ms, typical query p50={} ms, max_connections={} "
+                            + "-> recommended maximum-pool-size={} (configured: {})",
+                    cores, String.format("%.3f", roundTripMs), String.format("%.3f", queryMs), maxConnections,
+                    size, configured);
+        } catch (DataAccessException e) {
+            logger.warn("Pool sizing self-benchmark skipped: {}", e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private static double medianMillis(int iterations, Runnable query) {
+        query.run(); // aquecimento (plano em cache, conexão aberta)
+        long[] samples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            query.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[iterations / 2] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
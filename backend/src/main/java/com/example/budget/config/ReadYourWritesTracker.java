@@ -0,0 +1,43 @@
+package com.example.budget.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lembra quando cada usuário escreveu pela última vez. Durante a janela de aderência
+ * as leituras desse usuário continuam no primário, para que ele veja a própria escrita
+ * mesmo que a réplica ainda não a tenha recebido. O estado é local a cada instância.
+ */
+public class ReadYourWritesTracker {
+
+    // Acima deste tamanho, entradas vencidas são removidas a cada escrita
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    private final Map<Long, Long> lastWriteAt = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(long windowMillis) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    }
+
+    public void markWrite(Long userId) {
+        long now = System.nanoTime();
+        lastWriteAt.put(userId, now);
+        if (lastWriteAt.size() > PRUNE_THRESHOLD) {
+            lastWriteAt.values().removeIf(at -> now - at > windowNanos);
+        }
+    }
+
+    public boolean recentlyWrote(Long userId) {
+        Long at = lastWriteAt.get(userId);
+        if (at == null) {
+            return false;
+        }
+        if (System.nanoTime() - at > windowNanos) {
+            lastWriteAt.remove(userId, at);
+            return false;
+        }
+        return true;
+    }
+}
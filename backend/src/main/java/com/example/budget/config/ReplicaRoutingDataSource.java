@@ -0,0 +1,64 @@
+package com.example.budget.config;
+
+import com.example.budget.model.User;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Envia transações @Transactional(readOnly = true) abertas pelos serviços da aplicação para
+ * a réplica e o resto para o primário. Transações somente leitura implícitas do Spring Data
+ * (ex: a busca do usuário no filtro JWT logo após o cadastro) continuam no primário.
+ *
+ * Deve ficar atrás de um LazyConnectionDataSourceProxy: a conexão só é obtida no primeiro
+ * comando, quando o flag readOnly da transação já foi definido.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route { PRIMARY, REPLICA }
+
+    // Nome da transação = classe.método que a abriu
+    private static final String SERVICE_PACKAGE = "com.example.budget.service.";
+
+    private final ReadYourWritesTracker tracker;
+
+    public ReplicaRoutingDataSource(ReadYourWritesTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = currentUserId();
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            String name = TransactionSynchronizationManager.getCurrentTransactionName();
+            if (name == null || !name.startsWith(SERVICE_PACKAGE)) {
+                return Route.PRIMARY;
+            }
+            // Leitura logo após escrita do próprio usuário: réplica pode estar atrasada
+            return userId != null && tracker.recentlyWrote(userId) ? Route.PRIMARY : Route.REPLICA;
+        }
+        if (userId != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+            tracker.markWrite(userId);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                // A janela conta a partir do fim da transação, não do início
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        tracker.markWrite(userId);
+                    }
+                });
+            }
+        }
+        return Route.PRIMARY;
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.budget.controller;
+
+import com.example.budget.dto.BalancePoint;
+import com.example.budget.model.User;
+import com.example.budget.service.BalanceService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/balance")
+@CrossOrigin
+public class BalanceController {
+
+    private final BalanceService balanceService;
+
+    public BalanceController(BalanceService balanceService) {
+        this.balanceService = balanceService;
+    }
+
+    /**
+     * Saldo acumulado ao fim do dia (padrão: hoje), opcionalmente em outra moeda
+     * GET /api/balance?at=2025-01-31&currency=GBP
+     */
+    @GetMapping
+    public ResponseEntity<BalancePoint> balanceAt(
+            @RequestParam(value = "at", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate at,
+            @RequestParam(value = "currency", required = false) String currency,
+            Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            return ResponseEntity.ok(balanceService.balanceAt(at != null ? at : LocalDate.now(), user, currency));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Curva de saldo diária entre duas datas
+     * GET /api/balance/curve?from=2025-01-01&to=2025-12-31&currency=EUR
+     */
+    @GetMapping("/curve")
+    public ResponseEntity<List<BalancePoint>> balanceCurve(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "currency", required = false) String currency,
+            Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            return ResponseEntity.ok(balanceService.balanceCurve(from, to, user, currency));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
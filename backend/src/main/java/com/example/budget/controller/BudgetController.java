@@ -0,0 +1,88 @@
+package com.example.budget.controller;
+
+import com.example.budget.dto.BudgetRequest;
+import com.example.budget.dto.BudgetStatusDTO;
+import com.example.budget.model.Budget;
+import com.example.budget.model.BudgetAlert;
+import com.example.budget.model.User;
+import com.example.budget.service.BudgetService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/budgets")
+@CrossOrigin
+public class BudgetController {
+
+    private final BudgetService budgetService;
+
+    public BudgetController(BudgetService budgetService) {
+        this.budgetService = budgetService;
+    }
+
+    /**
+     * Lista os orçamentos do usuário
+     * GET /api/budgets
+     */
+    @GetMapping
+    public List<Budget> all(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return budgetService.findAllByUser(user);
+    }
+
+    /**
+     * Cria ou atualiza o orçamento de uma categoria
+     * POST /api/budgets
+     */
+    @PostMapping
+    public ResponseEntity<Budget> save(@RequestBody BudgetRequest request, Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            return ResponseEntity.ok(budgetService.save(request, user));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * DELETE /api/budgets/{id}
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id, Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            budgetService.delete(id, user);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Situação dos orçamentos no mês (padrão: mês atual)
+     * GET /api/budgets/status?year=2025&month=10
+     */
+    @GetMapping("/status")
+    public List<BudgetStatusDTO> status(
+            @RequestParam(value = "year", required = false) Integer year,
+            @RequestParam(value = "month", required = false) Integer month,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        YearMonth period = (year != null && month != null) ? YearMonth.of(year, month) : YearMonth.now();
+        return budgetService.status(period, user);
+    }
+
+    /**
+     * Alertas disparados mais recentes
+     * GET /api/budgets/alerts
+     */
+    @GetMapping("/alerts")
+    public List<BudgetAlert> alerts(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return budgetService.recentAlerts(user);
+    }
+}
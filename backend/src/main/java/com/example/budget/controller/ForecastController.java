@@ -0,0 +1,38 @@
+package com.example.budget.controller;
+
+import com.example.budget.dto.ForecastMonth;
+import com.example.budget.model.User;
+import com.example.budget.service.ForecastService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/forecast")
+@CrossOrigin
+public class ForecastController {
+
+    private final ForecastService forecastService;
+
+    public ForecastController(ForecastService forecastService) {
+        this.forecastService = forecastService;
+    }
+
+    /**
+     * Saldo previsto mês a mês, a partir do mês atual
+     * GET /api/forecast?months=6
+     */
+    @GetMapping
+    public ResponseEntity<List<ForecastMonth>> forecast(
+            @RequestParam(value = "months", defaultValue = "6") int months,
+            Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            return ResponseEntity.ok(forecastService.forecast(user, months));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.budget.controller;
+
+import com.example.budget.dto.CategorySpendStats;
+import com.example.budget.dto.OutlierCheck;
+import com.example.budget.model.User;
+import com.example.budget.service.CategorySpendService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/insights")
+@CrossOrigin
+public class InsightsController {
+
+    private final CategorySpendService categorySpendService;
+
+    public InsightsController(CategorySpendService categorySpendService) {
+        this.categorySpendService = categorySpendService;
+    }
+
+    /**
+     * Mediana, p90, menor e maior despesa e limite de outlier por categoria
+     * GET /api/insights/categories
+     */
+    @GetMapping("/categories")
+    public ResponseEntity<List<CategorySpendStats>> categories(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(categorySpendService.categoryStats(user));
+    }
+
+    /**
+     * Indica se um valor de despesa é atípico para a categoria
+     * GET /api/insights/outlier?category=Mercado&amount=850.00
+     */
+    @GetMapping("/outlier")
+    public ResponseEntity<OutlierCheck> outlier(
+            @RequestParam("category") String category,
+            @RequestParam("amount") BigDecimal amount,
+            Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            return ResponseEntity.ok(categorySpendService.checkOutlier(user, category, amount));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
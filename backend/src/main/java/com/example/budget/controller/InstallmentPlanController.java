@@ -2,7 +2,9 @@ package com.example.budget.controller;
 
 import com.example.budget.dto.CreateInstallmentPlanRequest;
 import com.example.budget.dto.InstallmentPlanDTO;
+import com.example.budget.dto.UpdateInstallmentRequest;
 import com.example.budget.model.User;
+import com.example.budget.service.IdempotencyService;
 import com.example.budget.service.InstallmentPlanService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,21 +19,31 @@ import java.util.List;
 public class InstallmentPlanController {
 
     private final InstallmentPlanService installmentPlanService;
+    private final IdempotencyService idempotencyService;
 
-    public InstallmentPlanController(InstallmentPlanService installmentPlanService) {
+    public InstallmentPlanController(InstallmentPlanService installmentPlanService,
+                                     IdempotencyService idempotencyService) {
         this.installmentPlanService = installmentPlanService;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
      * Cria um novo plano de parcelamento
      * POST /api/installment-plans
+     * Com o cabeçalho Idempotency-Key, reenvios devolvem o plano já criado em vez de duplicá-lo
      */
     @PostMapping
-    public ResponseEntity<InstallmentPlanDTO> createInstallmentPlan(
+    public ResponseEntity<?> createInstallmentPlan(
             @RequestBody CreateInstallmentPlanRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return idempotencyService.execute(user, "installment-plans", idempotencyKey, request,
+                () -> create(request, user));
+    }
+
+    private ResponseEntity<InstallmentPlanDTO> create(CreateInstallmentPlanRequest request, User user) {
         try {
-            User user = (User) authentication.getPrincipal();
             InstallmentPlanDTO plan = installmentPlanService.createInstallmentPlan(request, user);
             return ResponseEntity.status(HttpStatus.CREATED).body(plan);
         } catch (IllegalArgumentException e) {
@@ -81,6 +93,26 @@ public class InstallmentPlanController {
         }
     }
 
+    /**
+     * Edita uma parcela (materializa parcelas ainda virtuais)
+     * PUT /api/installment-plans/{id}/installments/{number}
+     */
+    @PutMapping("/{id}/installments/{number}")
+    public ResponseEntity<InstallmentPlanDTO.InstallmentTransactionDTO> updateInstallment(
+            @PathVariable Long id,
+            @PathVariable int number,
+            @RequestBody UpdateInstallmentRequest request,
+            Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            return ResponseEntity.ok(installmentPlanService.updateInstallment(id, number, request, user));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     /**
      * Deleta um plano de parcelamento e todas as suas transações
      * DELETE /api/installment-plans/{id}
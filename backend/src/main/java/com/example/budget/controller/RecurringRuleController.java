@@ -0,0 +1,67 @@
+package com.example.budget.controller;
+
+import com.example.budget.dto.CreateRecurringRuleRequest;
+import com.example.budget.dto.RecurringRuleDTO;
+import com.example.budget.model.User;
+import com.example.budget.service.RecurringRuleService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/recurring-rules")
+@CrossOrigin
+public class RecurringRuleController {
+
+    private final RecurringRuleService recurringRuleService;
+
+    public RecurringRuleController(RecurringRuleService recurringRuleService) {
+        this.recurringRuleService = recurringRuleService;
+    }
+
+    /**
+     * Cria uma nova regra recorrente
+     * POST /api/recurring-rules
+     */
+    @PostMapping
+    public ResponseEntity<RecurringRuleDTO> create(
+            @RequestBody CreateRecurringRuleRequest request,
+            Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            return ResponseEntity.status(HttpStatus.CREATED).body(recurringRuleService.create(request, user));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Lista as regras recorrentes do usuário
+     * GET /api/recurring-rules
+     */
+    @GetMapping
+    public List<RecurringRuleDTO> all(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return recurringRuleService.findAllByUser(user);
+    }
+
+    /**
+     * Encerra uma regra recorrente (as transações já geradas são mantidas)
+     * DELETE /api/recurring-rules/{id}
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deactivate(
+            @PathVariable Long id,
+            Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            recurringRuleService.deactivate(id, user);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
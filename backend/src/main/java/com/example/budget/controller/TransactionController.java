@@ -1,13 +1,28 @@
 package com.example.budget.controller;
 
+import com.example.budget.dto.BulkOperationResult;
+import com.example.budget.dto.BulkRecategorizeRequest;
+import com.example.budget.dto.CategoryPrediction;
+import com.example.budget.dto.DescriptionSuggestion;
+import com.example.budget.dto.DuplicateGroupDTO;
 import com.example.budget.dto.MonthlySummary;
 import com.example.budget.dto.TransactionSearchDTO;
+import com.example.budget.model.Money;
 import com.example.budget.model.Transaction;
+import com.example.budget.model.TransactionType;
 import com.example.budget.model.User;
+import com.example.budget.service.DescriptionSuggestionService;
+import com.example.budget.service.IdempotencyService;
+import com.example.budget.service.TransactionCategorizer;
 import com.example.budget.service.TransactionService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -16,9 +31,16 @@ import java.util.List;
 public class TransactionController {
 
     private final TransactionService service;
+    private final IdempotencyService idempotencyService;
+    private final DescriptionSuggestionService suggestionService;
+    private final TransactionCategorizer categorizer;
 
-    public TransactionController(TransactionService service) {
+    public TransactionController(TransactionService service, IdempotencyService idempotencyService,
+            DescriptionSuggestionService suggestionService, TransactionCategorizer categorizer) {
         this.service = service;
+        this.idempotencyService = idempotencyService;
+        this.suggestionService = suggestionService;
+        this.categorizer = categorizer;
     }
 
     @GetMapping("/transactions")
@@ -29,26 +51,69 @@ public class TransactionController {
     }
 
     @PostMapping("/transactions")
-    public Transaction create(@RequestBody Transaction tx, Authentication authentication) {
+    public ResponseEntity<?> create(@RequestBody Transaction tx,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        return service.save(tx, user);
+        // Reenvio com a mesma Idempotency-Key devolve a transação já gravada
+        try {
+            return idempotencyService.execute(user, "transactions", idempotencyKey, tx,
+                    () -> ResponseEntity.ok(service.save(tx, user)));
+        } catch (IllegalArgumentException e) {
+            // Moeda desconhecida ou sem cotação
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            // Edição de uma transação de um ano arquivado
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @DeleteMapping("/transactions/{id}")
-    public void delete(@PathVariable("id") Long id, Authentication authentication) {
+    public ResponseEntity<Void> delete(@PathVariable("id") Long id, Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        service.delete(id, user);
+        try {
+            service.delete(id, user);
+            return ResponseEntity.ok().build();
+        } catch (IllegalStateException e) {
+            // Transação de um ano arquivado
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @DeleteMapping("/transactions")
+    public ResponseEntity<BulkOperationResult> deleteAll(@RequestParam("ids") List<Long> ids,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        try {
+            int deleted = service.deleteAll(ids, user);
+            return ResponseEntity.ok(new BulkOperationResult(ids.size(), deleted));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PatchMapping("/transactions/category")
+    public ResponseEntity<BulkOperationResult> recategorize(@RequestBody BulkRecategorizeRequest request,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        try {
+            int updated = service.recategorize(request.getIds(), request.getCategory(), user);
+            return ResponseEntity.ok(new BulkOperationResult(request.getIds().size(), updated));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/summary/month")
     public MonthlySummary monthSummary(
             @RequestParam("year") int year,
             @RequestParam("month") int month,
+            @RequestParam(value = "currency", required = false) String currency,
             Authentication authentication) {
         User user = (User) authentication.getPrincipal();
         System.out.println("Received year: " + year + ", month: " + month + ", user: " + user.getId());
         try {
-            MonthlySummary result = service.monthlySummary(year, month, user);
+            MonthlySummary result = service.monthlySummary(year, month, user, currency);
             System.out.println("Monthly summary result: " + result);
             return result;
         } catch (Exception e) {
@@ -71,14 +136,51 @@ public class TransactionController {
         List<Transaction> results = service.searchTransactions(text, type, category, startDate, endDate, user);
 
         return results.stream()
-                .map(tx -> new TransactionSearchDTO(
-                        tx.getId(),
-                        tx.getDescription(),
-                        tx.getType(),
-                        tx.getCategory(),
-                        tx.getAmount(),
-                        tx.getDateTime().toLocalDate(),
-                        tx.getInstallmentPlan() != null ? tx.getInstallmentPlan().getId() : null))
+                .map(tx -> {
+                    TransactionSearchDTO dto = new TransactionSearchDTO(
+                            tx.getId(),
+                            tx.getDescription(),
+                            tx.getType(),
+                            tx.getCategory(),
+                            tx.getAmount(),
+                            tx.getDateTime().toLocalDate(),
+                            tx.getInstallmentPlan() != null ? tx.getInstallmentPlan().getId() : null);
+                    dto.setCurrency(tx.getCurrency());
+                    return dto;
+                })
                 .toList();
     }
+
+    // Possíveis duplicatas: transações com mesmo valor, dia e descrição (datas yyyy-MM-dd)
+    @GetMapping("/transactions/duplicates")
+    public List<DuplicateGroupDTO> duplicates(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return service.findDuplicateGroups(startDate, endDate, user);
+    }
+
+    // Autocompletar da descrição: índice em memória por usuário, sem baixar o livro-caixa
+    @GetMapping("/transactions/suggest")
+    public List<DescriptionSuggestion> suggest(
+            @RequestParam("prefix") String prefix,
+            @RequestParam(value = "limit", defaultValue = "10") int limit,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return suggestionService.suggest(user.getId(), prefix, limit);
+    }
+
+    // Categorias prováveis para a descrição/valor digitados (o create usa a primeira se vier sem categoria)
+    @GetMapping("/transactions/categorize")
+    public List<CategoryPrediction> categorize(
+            @RequestParam("description") String description,
+            @RequestParam(value = "amount", required = false) BigDecimal amount,
+            @RequestParam(value = "type", defaultValue = "EXPENSE") TransactionType type,
+            @RequestParam(value = "limit", defaultValue = "3") int limit,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        long amountMinor = amount != null ? Money.minorOf(amount) : 0L;
+        return categorizer.predict(user.getId(), description, type, amountMinor, limit);
+    }
 }
@@ -0,0 +1,44 @@
+package com.example.budget.controller;
+
+import com.example.budget.dto.QueuedTransactionDTO;
+import com.example.budget.model.Transaction;
+import com.example.budget.model.User;
+import com.example.budget.service.TransactionWriteBehindService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/transactions/queue")
+@CrossOrigin
+@ConditionalOnProperty(name = "transactions.write-behind.enabled", havingValue = "true")
+public class TransactionQueueController {
+
+    private final TransactionWriteBehindService writeBehindService;
+
+    public TransactionQueueController(TransactionWriteBehindService writeBehindService) {
+        this.writeBehindService = writeBehindService;
+    }
+
+    /**
+     * Aceita a transação na fila de escrita (já persistida no journal) e responde 202
+     * POST /api/transactions/queue
+     */
+    @PostMapping
+    public ResponseEntity<QueuedTransactionDTO> enqueue(@RequestBody Transaction tx, Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        try {
+            UUID clientId = writeBehindService.enqueue(tx, user);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new QueuedTransactionDTO(clientId, writeBehindService.pendingCount()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.budget.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class BalancePoint {
+    private LocalDate date;
+    private BigDecimal balance;
+
+    public BalancePoint() {
+    }
+
+    public BalancePoint(LocalDate date, BigDecimal balance) {
+        this.date = date;
+        this.balance = balance;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.budget.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.math.BigDecimal;
+
+public class BudgetRequest {
+    @JsonProperty("category")
+    private String category;
+
+    @JsonProperty("monthlyLimit")
+    private BigDecimal monthlyLimit;
+
+    @JsonProperty("alertThreshold")
+    private Integer alertThreshold; // Percentual do limite para o alerta de aviso (padrão 80)
+
+    // Getters e Setters
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public BigDecimal getMonthlyLimit() {
+        return monthlyLimit;
+    }
+
+    public void setMonthlyLimit(BigDecimal monthlyLimit) {
+        this.monthlyLimit = monthlyLimit;
+    }
+
+    public Integer getAlertThreshold() {
+        return alertThreshold;
+    }
+
+    public void setAlertThreshold(Integer alertThreshold) {
+        this.alertThreshold = alertThreshold;
+    }
+}
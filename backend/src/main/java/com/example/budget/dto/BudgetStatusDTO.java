@@ -0,0 +1,95 @@
+package com.example.budget.dto;
+
+import com.example.budget.model.BudgetAlertLevel;
+import java.math.BigDecimal;
+
+public class BudgetStatusDTO {
+    private Long budgetId;
+    private String category;
+    private BigDecimal monthlyLimit;
+    private BigDecimal spent;
+    private BigDecimal remaining;
+    private int percentUsed;
+    private int alertThreshold;
+    private BudgetAlertLevel level; // null enquanto abaixo do limiar
+
+    public BudgetStatusDTO() {
+    }
+
+    public BudgetStatusDTO(Long budgetId, String category, BigDecimal monthlyLimit, BigDecimal spent,
+                           int percentUsed, int alertThreshold, BudgetAlertLevel level) {
+        this.budgetId = budgetId;
+        this.category = category;
+        this.monthlyLimit = monthlyLimit;
+        this.spent = spent;
+        this.remaining = monthlyLimit.subtract(spent);
+        this.percentUsed = percentUsed;
+        this.alertThreshold = alertThreshold;
+        this.level = level;
+    }
+
+    // Getters e Setters
+    public Long getBudgetId() {
+        return budgetId;
+    }
+
+    public void setBudgetId(Long budgetId) {
+        this.budgetId = budgetId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public BigDecimal getMonthlyLimit() {
+        return monthlyLimit;
+    }
+
+    public void setMonthlyLimit(BigDecimal monthlyLimit) {
+        this.monthlyLimit = monthlyLimit;
+    }
+
+    public BigDecimal getSpent() {
+        return spent;
+    }
+
+    public void setSpent(BigDecimal spent) {
+        this.spent = spent;
+    }
+
+    public BigDecimal getRemaining() {
+        return remaining;
+    }
+
+    public void setRemaining(BigDecimal remaining) {
+        this.remaining = remaining;
+    }
+
+    public int getPercentUsed() {
+        return percentUsed;
+    }
+
+    public void setPercentUsed(int percentUsed) {
+        this.percentUsed = percentUsed;
+    }
+
+    public int getAlertThreshold() {
+        return alertThreshold;
+    }
+
+    public void setAlertThreshold(int alertThreshold) {
+        this.alertThreshold = alertThreshold;
+    }
+
+    public BudgetAlertLevel getLevel() {
+        return level;
+    }
+
+    public void setLevel(BudgetAlertLevel level) {
+        this.level = level;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.budget.dto;
+
+public class BulkOperationResult {
+    private int requested;
+    private int affected; // Linhas do usuário efetivamente alteradas
+
+    public BulkOperationResult() {
+    }
+
+    public BulkOperationResult(int requested, int affected) {
+        this.requested = requested;
+        this.affected = affected;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getAffected() {
+        return affected;
+    }
+
+    public void setAffected(int affected) {
+        this.affected = affected;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.budget.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+public class BulkRecategorizeRequest {
+    @JsonProperty("ids")
+    private List<Long> ids;
+
+    @JsonProperty("category")
+    private String category;
+
+    // Getters e Setters
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.budget.dto;
+
+public class CategoryPrediction {
+    private String category;
+    private double confidence; // Probabilidade entre as categorias do usuário (0 a 1)
+
+    public CategoryPrediction() {
+    }
+
+    public CategoryPrediction(String category, double confidence) {
+        this.category = category;
+        this.confidence = confidence;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public double getConfidence() {
+        return confidence;
+    }
+
+    public void setConfidence(double confidence) {
+        this.confidence = confidence;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.budget.dto;
+
+import java.math.BigDecimal;
+
+public class CategorySpendStats {
+    private String category;
+    private long count; // Despesas da categoria (gravadas e parcelas virtuais)
+    private BigDecimal min;
+    private BigDecimal median; // Estimados pelo sketch (erro de posto ~1,7%)
+    private BigDecimal p90;
+    private BigDecimal max;
+    private BigDecimal outlierThreshold; // Acima disso a despesa é atípica; null com poucas despesas
+
+    public CategorySpendStats() {
+    }
+
+    public CategorySpendStats(String category, long count, BigDecimal min, BigDecimal median,
+                              BigDecimal p90, BigDecimal max, BigDecimal outlierThreshold) {
+        this.category = category;
+        this.count = count;
+        this.min = min;
+        this.median = median;
+        this.p90 = p90;
+        this.max = max;
+        this.outlierThreshold = outlierThreshold;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public BigDecimal getMin() {
+        return min;
+    }
+
+    public void setMin(BigDecimal min) {
+        this.min = min;
+    }
+
+    public BigDecimal getMedian() {
+        return median;
+    }
+
+    public void setMedian(BigDecimal median) {
+        this.median = median;
+    }
+
+    public BigDecimal getP90() {
+        return p90;
+    }
+
+    public void setP90(BigDecimal p90) {
+        this.p90 = p90;
+    }
+
+    public BigDecimal getMax() {
+        return max;
+    }
+
+    public void setMax(BigDecimal max) {
+        this.max = max;
+    }
+
+    public BigDecimal getOutlierThreshold() {
+        return outlierThreshold;
+    }
+
+    public void setOutlierThreshold(BigDecimal outlierThreshold) {
+        this.outlierThreshold = outlierThreshold;
+    }
+}
@@ -24,6 +24,9 @@ public class CreateInstallmentPlanRequest {
     @JsonProperty("startDateTime")
     private LocalDateTime startDateTime; // Data e hora da primeira parcela (opcional)
 
+    @JsonProperty("scheduleOnly")
+    private boolean scheduleOnly; // Guarda só a regra; parcelas geradas quando vencem
+
     // Getters e Setters
     public int getTotalInstallments() {
         return totalInstallments;
@@ -72,5 +75,12 @@ public class CreateInstallmentPlanRequest {
     public void setStartDateTime(LocalDateTime startDateTime) {
         this.startDateTime = startDateTime;
     }
-}
 
+    public boolean isScheduleOnly() {
+        return scheduleOnly;
+    }
+
+    public void setScheduleOnly(boolean scheduleOnly) {
+        this.scheduleOnly = scheduleOnly;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.budget.dto;
+
+import com.example.budget.model.RecurrenceFrequency;
+import com.example.budget.model.TransactionType;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class CreateRecurringRuleRequest {
+    @JsonProperty("type")
+    private TransactionType type;
+
+    @JsonProperty("category")
+    private String category;
+
+    @JsonProperty("description")
+    private String description;
+
+    @JsonProperty("amount")
+    private BigDecimal amount;
+
+    @JsonProperty("frequency")
+    private RecurrenceFrequency frequency;
+
+    @JsonProperty("startDate")
+    private LocalDate startDate; // Data da primeira ocorrência
+
+    @JsonProperty("startDateTime")
+    private LocalDateTime startDateTime; // Data e hora da primeira ocorrência (opcional)
+
+    @JsonProperty("endDate")
+    private LocalDate endDate; // Última data possível (opcional)
+
+    // Getters e Setters
+    public TransactionType getType() {
+        return type;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(RecurrenceFrequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDateTime getStartDateTime() {
+        return startDateTime;
+    }
+
+    public void setStartDateTime(LocalDateTime startDateTime) {
+        this.startDateTime = startDateTime;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+}
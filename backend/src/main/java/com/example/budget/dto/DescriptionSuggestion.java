@@ -0,0 +1,42 @@
+package com.example.budget.dto;
+
+import java.time.LocalDate;
+
+public class DescriptionSuggestion {
+    private String description;
+    private int count;          // Transações com esta descrição
+    private LocalDate lastUsed; // Data da transação mais recente
+
+    public DescriptionSuggestion() {
+    }
+
+    public DescriptionSuggestion(String description, int count, LocalDate lastUsed) {
+        this.description = description;
+        this.count = count;
+        this.lastUsed = lastUsed;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public LocalDate getLastUsed() {
+        return lastUsed;
+    }
+
+    public void setLastUsed(LocalDate lastUsed) {
+        this.lastUsed = lastUsed;
+    }
+}
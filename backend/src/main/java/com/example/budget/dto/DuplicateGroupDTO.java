@@ -0,0 +1,32 @@
+package com.example.budget.dto;
+
+import java.util.List;
+
+public class DuplicateGroupDTO {
+    private String fingerprint; // Hash comum às transações do grupo (hexadecimal)
+    private List<TransactionSearchDTO> transactions; // Da mais antiga para a mais recente
+
+    public DuplicateGroupDTO() {
+    }
+
+    public DuplicateGroupDTO(String fingerprint, List<TransactionSearchDTO> transactions) {
+        this.fingerprint = fingerprint;
+        this.transactions = transactions;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public List<TransactionSearchDTO> getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(List<TransactionSearchDTO> transactions) {
+        this.transactions = transactions;
+    }
+}
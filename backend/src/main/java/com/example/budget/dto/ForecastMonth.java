@@ -0,0 +1,118 @@
+package com.example.budget.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class ForecastMonth {
+    private int year;
+    private int month;
+    private BigDecimal scheduledIncome; // Parcelas, ocorrências recorrentes e lançamentos futuros
+    private BigDecimal scheduledExpense;
+    private BigDecimal estimatedIncome; // Média sazonal das categorias (histórico sem parcelas/recorrências)
+    private BigDecimal estimatedExpense;
+    private BigDecimal projectedBalance; // Saldo previsto ao fim do mês
+    private List<CategoryForecast> byCategory;
+
+    public static class CategoryForecast {
+        private String category;
+        private BigDecimal income;
+        private BigDecimal expense;
+
+        public CategoryForecast() {
+        }
+
+        public CategoryForecast(String category, BigDecimal income, BigDecimal expense) {
+            this.category = category;
+            this.income = income;
+            this.expense = expense;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public void setCategory(String category) {
+            this.category = category;
+        }
+
+        public BigDecimal getIncome() {
+            return income;
+        }
+
+        public void setIncome(BigDecimal income) {
+            this.income = income;
+        }
+
+        public BigDecimal getExpense() {
+            return expense;
+        }
+
+        public void setExpense(BigDecimal expense) {
+            this.expense = expense;
+        }
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public void setMonth(int month) {
+        this.month = month;
+    }
+
+    public BigDecimal getScheduledIncome() {
+        return scheduledIncome;
+    }
+
+    public void setScheduledIncome(BigDecimal scheduledIncome) {
+        this.scheduledIncome = scheduledIncome;
+    }
+
+    public BigDecimal getScheduledExpense() {
+        return scheduledExpense;
+    }
+
+    public void setScheduledExpense(BigDecimal scheduledExpense) {
+        this.scheduledExpense = scheduledExpense;
+    }
+
+    public BigDecimal getEstimatedIncome() {
+        return estimatedIncome;
+    }
+
+    public void setEstimatedIncome(BigDecimal estimatedIncome) {
+        this.estimatedIncome = estimatedIncome;
+    }
+
+    public BigDecimal getEstimatedExpense() {
+        return estimatedExpense;
+    }
+
+    public void setEstimatedExpense(BigDecimal estimatedExpense) {
+        this.estimatedExpense = estimatedExpense;
+    }
+
+    public BigDecimal getProjectedBalance() {
+        return projectedBalance;
+    }
+
+    public void setProjectedBalance(BigDecimal projectedBalance) {
+        this.projectedBalance = projectedBalance;
+    }
+
+    public List<CategoryForecast> getByCategory() {
+        return byCategory;
+    }
+
+    public void setByCategory(List<CategoryForecast> byCategory) {
+        this.byCategory = byCategory;
+    }
+}
@@ -9,6 +9,7 @@ public class InstallmentPlanDTO {
     private int totalInstallments;
     private BigDecimal totalAmount;
     private BigDecimal installmentValue;
+    private boolean scheduleOnly;
     private List<InstallmentTransactionDTO> transactions;
 
     public InstallmentPlanDTO() {
@@ -56,6 +57,14 @@ public class InstallmentPlanDTO {
         this.installmentValue = installmentValue;
     }
 
+    public boolean isScheduleOnly() {
+        return scheduleOnly;
+    }
+
+    public void setScheduleOnly(boolean scheduleOnly) {
+        this.scheduleOnly = scheduleOnly;
+    }
+
     public List<InstallmentTransactionDTO> getTransactions() {
         return transactions;
     }
@@ -6,6 +6,7 @@ import java.util.List;
 public class MonthlySummary {
     public int year;
     public int month;
+    public String currency; // Moeda dos valores (ISO 4217)
     public BigDecimal totalIncome;
     public BigDecimal totalExpense;
     public BigDecimal balance;
@@ -37,6 +38,7 @@ public class MonthlySummary {
         return "MonthlySummary{" +
                 "year=" + year +
                 ", month=" + month +
+                ", currency=" + currency +
                 ", totalIncome=" + totalIncome +
                 ", totalExpense=" + totalExpense +
                 ", balance=" + balance +
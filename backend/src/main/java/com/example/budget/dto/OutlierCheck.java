@@ -0,0 +1,62 @@
+package com.example.budget.dto;
+
+import java.math.BigDecimal;
+
+public class OutlierCheck {
+    private String category;
+    private BigDecimal amount;
+    private long count; // Despesas da categoria usadas na comparação
+    private double percentile; // Fração das despesas menores ou iguais ao valor (0 a 1)
+    private boolean outlier;
+
+    public OutlierCheck() {
+    }
+
+    public OutlierCheck(String category, BigDecimal amount, long count, double percentile, boolean outlier) {
+        this.category = category;
+        this.amount = amount;
+        this.count = count;
+        this.percentile = percentile;
+        this.outlier = outlier;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public boolean isOutlier() {
+        return outlier;
+    }
+
+    public void setOutlier(boolean outlier) {
+        this.outlier = outlier;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.budget.dto;
+
+import java.util.UUID;
+
+public class QueuedTransactionDTO {
+    private UUID clientId; // Id gerado pelo cliente; a transação gravada traz o mesmo clientId
+    private int pending;   // Entradas na fila no momento da confirmação
+
+    public QueuedTransactionDTO() {
+    }
+
+    public QueuedTransactionDTO(UUID clientId, int pending) {
+        this.clientId = clientId;
+        this.pending = pending;
+    }
+
+    public UUID getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(UUID clientId) {
+        this.clientId = clientId;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public void setPending(int pending) {
+        this.pending = pending;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.budget.dto;
+
+import com.example.budget.model.RecurrenceFrequency;
+import com.example.budget.model.TransactionType;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class RecurringRuleDTO {
+    private Long id;
+    private TransactionType type;
+    private String category;
+    private String description;
+    private BigDecimal amount;
+    private RecurrenceFrequency frequency;
+    private LocalDateTime startAt;
+    private LocalDate endDate;
+    private int occurrenceCount;
+    private LocalDateTime nextOccurrenceAt;
+    private boolean active;
+
+    public RecurringRuleDTO() {
+    }
+
+    public RecurringRuleDTO(Long id, TransactionType type, String category, String description,
+                            BigDecimal amount, RecurrenceFrequency frequency, LocalDateTime startAt,
+                            LocalDate endDate, int occurrenceCount, LocalDateTime nextOccurrenceAt,
+                            boolean active) {
+        this.id = id;
+        this.type = type;
+        this.category = category;
+        this.description = description;
+        this.amount = amount;
+        this.frequency = frequency;
+        this.startAt = startAt;
+        this.endDate = endDate;
+        this.occurrenceCount = occurrenceCount;
+        this.nextOccurrenceAt = nextOccurrenceAt;
+        this.active = active;
+    }
+
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(RecurrenceFrequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public LocalDateTime getStartAt() {
+        return startAt;
+    }
+
+    public void setStartAt(LocalDateTime startAt) {
+        this.startAt = startAt;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public int getOccurrenceCount() {
+        return occurrenceCount;
+    }
+
+    public void setOccurrenceCount(int occurrenceCount) {
+        this.occurrenceCount = occurrenceCount;
+    }
+
+    public LocalDateTime getNextOccurrenceAt() {
+        return nextOccurrenceAt;
+    }
+
+    public void setNextOccurrenceAt(LocalDateTime nextOccurrenceAt) {
+        this.nextOccurrenceAt = nextOccurrenceAt;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+}
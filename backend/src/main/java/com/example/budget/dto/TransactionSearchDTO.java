@@ -10,6 +10,7 @@ public class TransactionSearchDTO {
     private TransactionType type;
     private String category;
     private BigDecimal amount;
+    private String currency; // Moeda do valor (nula = moeda base)
     private LocalDate date;
     private Long installmentPlanId; // ID do plano de parcelamento (se houver)
     private boolean isInstallment; // Indica se faz parte de um parcelamento
@@ -81,6 +82,14 @@ public class TransactionSearchDTO {
         this.amount = amount;
     }
 
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
     public LocalDate getDate() {
         return date;
     }
@@ -0,0 +1,40 @@
+package com.example.budget.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.math.BigDecimal;
+
+public class UpdateInstallmentRequest {
+    @JsonProperty("amount")
+    private BigDecimal amount;
+
+    @JsonProperty("description")
+    private String description;
+
+    @JsonProperty("category")
+    private String category;
+
+    // Getters e Setters
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+}
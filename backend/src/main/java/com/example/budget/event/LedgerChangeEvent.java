@@ -0,0 +1,28 @@
+package com.example.budget.event;
+
+import com.example.budget.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Publicado dentro da transação de banco sempre que transações são gravadas ou removidas.
+ * Os listeners síncronos atualizam estruturas derivadas (saldos, contadores) no mesmo commit.
+ */
+public record LedgerChangeEvent(List<LedgerEntry> added, List<LedgerEntry> removed) {
+
+    public static LedgerChangeEvent added(List<Transaction> transactions) {
+        return new LedgerChangeEvent(toEntries(transactions), List.of());
+    }
+
+    public static LedgerChangeEvent removed(List<Transaction> transactions) {
+        return new LedgerChangeEvent(List.of(), toEntries(transactions));
+    }
+
+    public static LedgerChangeEvent replaced(LedgerEntry before, Transaction after) {
+        return new LedgerChangeEvent(List.of(LedgerEntry.of(after)), List.of(before));
+    }
+
+    private static List<LedgerEntry> toEntries(List<Transaction> transactions) {
+        return transactions.stream().map(LedgerEntry::of).toList();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.budget.event;
+
+import com.example.budget.model.Money;
+import com.example.budget.model.Transaction;
+import com.example.budget.model.TransactionType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fotografia imutável de uma transação no momento em que entrou ou saiu do livro-caixa.
+ * O valor é guardado em centavos para que os consumidores agreguem com long, na moeda
+ * da transação (null = moeda base; FxRateService.toBase converte). amountBaseMinor é o valor
+ * na moeda base gravado com a transação: a remoção desfaz exatamente o que a inclusão somou,
+ * mesmo que a cotação tenha mudado depois (null = linha antiga, convertida na hora).
+ */
+public record LedgerEntry(Long userId,
+                          LocalDateTime dateTime,
+                          TransactionType type,
+                          String category,
+                          String description,
+                          long amountMinor,
+                          String currency,
+                          Long amountBaseMinor) {
+
+    public static LedgerEntry of(Transaction tx) {
+        return new LedgerEntry(
+                tx.getUser().getId(),
+                tx.getDateTime(),
+                tx.getType(),
+                tx.getCategory(),
+                tx.getDescription(),
+                tx.getMoney() != null ? tx.getMoney().minor() : 0L,
+                tx.getCurrency(),
+                tx.getAmountBaseMinor());
+    }
+
+    /**
+     * Valor com sinal em centavos: receitas somam, despesas subtraem.
+     */
+    public long signedMinor() {
+        return type == TransactionType.INCOME ? amountMinor : Math.negateExact(amountMinor);
+    }
+}
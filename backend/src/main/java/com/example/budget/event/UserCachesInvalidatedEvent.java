@@ -0,0 +1,19 @@
+package com.example.budget.event;
+
+import java.util.Set;
+
+/**
+ * Publicado localmente quando outra instância do backend avisa (via NOTIFY) que gravou dados
+ * destes usuários. Quem mantém cache em memória por usuário descarta as entradas deles.
+ * Com allUsers, avisos podem ter sido perdidos (conexão de escuta caiu) e tudo é descartado.
+ */
+public record UserCachesInvalidatedEvent(Set<Long> userIds, boolean allUsers) {
+
+    public static UserCachesInvalidatedEvent of(Set<Long> userIds) {
+        return new UserCachesInvalidatedEvent(userIds, false);
+    }
+
+    public static UserCachesInvalidatedEvent everyone() {
+        return new UserCachesInvalidatedEvent(Set.of(), true);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.budget.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Receitas e despesas (centavos da moeda da linha) de um mês arquivado, por categoria e moeda.
+ * Ficam no banco quando as transações do ano vão para o segmento em disco.
+ */
+@Entity
+@Table(name = "archived_monthly_totals",
+        indexes = @Index(name = "idx_archived_monthly_totals_user_month", columnList = "user_id, month"))
+public class ArchivedMonthlyTotal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Primeiro dia do mês
+    @Column(nullable = false)
+    private LocalDate month;
+
+    @Column(name = "category_id")
+    private Integer categoryId;
+
+    // Nula = moeda base
+    @Column(length = 3)
+    private String currency;
+
+    @Column(name = "income_minor", nullable = false)
+    private Long incomeMinor;
+
+    @Column(name = "expense_minor", nullable = false)
+    private Long expenseMinor;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Integer transactionCount;
+
+    // ---- Getters e Setters ----
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public LocalDate getMonth() {
+        return month;
+    }
+
+    public void setMonth(LocalDate month) {
+        this.month = month;
+    }
+
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Integer categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public Long getIncomeMinor() {
+        return incomeMinor;
+    }
+
+    public void setIncomeMinor(Long incomeMinor) {
+        this.incomeMinor = incomeMinor;
+    }
+
+    public Long getExpenseMinor() {
+        return expenseMinor;
+    }
+
+    public void setExpenseMinor(Long expenseMinor) {
+        this.expenseMinor = expenseMinor;
+    }
+
+    public Integer getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(Integer transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.budget.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Orçamento mensal de uma categoria de despesas.
+ */
+@Entity
+@Table(name = "budget",
+        uniqueConstraints = @UniqueConstraint(name = "uk_budget_user_category", columnNames = {"user_id", "category"}))
+public class Budget {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    @Column(nullable = false)
+    private String category;
+
+    // Limite de gastos por mês
+    @Column(name = "monthly_limit", nullable = false, precision = 14, scale = 2)
+    private BigDecimal monthlyLimit;
+
+    // Percentual do limite que dispara o alerta de aviso (ex: 80)
+    @Column(name = "alert_threshold", nullable = false)
+    private int alertThreshold = 80;
+
+    // ---- Getters e Setters ----
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public BigDecimal getMonthlyLimit() {
+        return monthlyLimit;
+    }
+
+    public void setMonthlyLimit(BigDecimal monthlyLimit) {
+        this.monthlyLimit = monthlyLimit;
+    }
+
+    public int getAlertThreshold() {
+        return alertThreshold;
+    }
+
+    public void setAlertThreshold(int alertThreshold) {
+        this.alertThreshold = alertThreshold;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.budget.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Alerta disparado quando o gasto do mês cruza o limiar (WARNING) ou o limite (EXCEEDED).
+ * Cada nível dispara no máximo uma vez por categoria e mês.
+ */
+@Entity
+@Table(name = "budget_alert",
+        uniqueConstraints = @UniqueConstraint(name = "uk_budget_alert_user_category_period_level",
+                columnNames = {"user_id", "category", "period_month", "level"}))
+public class BudgetAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    @Column(nullable = false)
+    private String category;
+
+    @Column(name = "period_month", nullable = false)
+    private int periodMonth;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BudgetAlertLevel level;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal spent;
+
+    @Column(name = "monthly_limit", nullable = false, precision = 14, scale = 2)
+    private BigDecimal monthlyLimit;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // ---- Getters e Setters ----
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public int getPeriodMonth() {
+        return periodMonth;
+    }
+
+    public void setPeriodMonth(int periodMonth) {
+        this.periodMonth = periodMonth;
+    }
+
+    public BudgetAlertLevel getLevel() {
+        return level;
+    }
+
+    public void setLevel(BudgetAlertLevel level) {
+        this.level = level;
+    }
+
+    public BigDecimal getSpent() {
+        return spent;
+    }
+
+    public void setSpent(BigDecimal spent) {
+        this.spent = spent;
+    }
+
+    public BigDecimal getMonthlyLimit() {
+        return monthlyLimit;
+    }
+
+    public void setMonthlyLimit(BigDecimal monthlyLimit) {
+        this.monthlyLimit = monthlyLimit;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.budget.model;
+
+public enum BudgetAlertLevel {
+    WARNING,
+    EXCEEDED
+}
@@ -0,0 +1,70 @@
+package com.example.budget.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Contador de despesas por usuário, categoria e mês, atualizado na mesma transação
+ * de cada escrita. Permite avaliar orçamentos sem agregar "transactions".
+ */
+@Entity
+@Table(name = "budget_usage",
+        uniqueConstraints = @UniqueConstraint(name = "uk_budget_usage_user_category_period",
+                columnNames = {"user_id", "category", "period_month"}))
+public class BudgetUsage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private String category;
+
+    // Mês no formato yyyyMM (ex: 202510)
+    @Column(name = "period_month", nullable = false)
+    private int periodMonth;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal spent;
+
+    // ---- Getters e Setters ----
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public int getPeriodMonth() {
+        return periodMonth;
+    }
+
+    public void setPeriodMonth(int periodMonth) {
+        this.periodMonth = periodMonth;
+    }
+
+    public BigDecimal getSpent() {
+        return spent;
+    }
+
+    public void setSpent(BigDecimal spent) {
+        this.spent = spent;
+    }
+}
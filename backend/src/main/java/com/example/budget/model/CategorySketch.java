@@ -0,0 +1,58 @@
+package com.example.budget.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Sketch de quantis (KLL) serializado com os valores das despesas de uma categoria do usuário.
+ * Gravado e lido pelo CategorySpendService via CategorySketchJdbcRepository.
+ */
+@Entity
+@Table(name = "category_sketches",
+        uniqueConstraints = @UniqueConstraint(name = "uk_category_sketches_user_category", columnNames = {"user_id", "category_id"}))
+public class CategorySketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", nullable = false)
+    private Category category;
+
+    // Nulo enquanto precisa ser reconstruído a partir das transações
+    @Column(name = "sketch")
+    private byte[] sketch;
+
+    // ---- Getters e Setters ----
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    public void setCategory(Category category) {
+        this.category = category;
+    }
+
+    public byte[] getSketch() {
+        return sketch;
+    }
+
+    public void setSketch(byte[] sketch) {
+        this.sketch = sketch;
+    }
+}
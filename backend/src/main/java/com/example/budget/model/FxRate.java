@@ -0,0 +1,53 @@
+package com.example.budget.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Cotação de um par de moedas a partir de uma data: 1 baseCurrency = rate quoteCurrency.
+ * Gravada e lida pelo FxRateJdbcRepository; o FxRateService mantém a tabela em memória.
+ */
+@Entity
+@Table(name = "fx_rates",
+        uniqueConstraints = @UniqueConstraint(name = "uk_fx_rates_pair_date",
+                columnNames = {"base_currency", "quote_currency", "rate_date"}))
+public class FxRate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "base_currency", nullable = false, length = 3)
+    private String baseCurrency;
+
+    @Column(name = "quote_currency", nullable = false, length = 3)
+    private String quoteCurrency;
+
+    @Column(name = "rate_date", nullable = false)
+    private LocalDate rateDate;
+
+    @Column(nullable = false, precision = 20, scale = 10)
+    private BigDecimal rate;
+
+    // ---- Getters ----
+    public Long getId() {
+        return id;
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public String getQuoteCurrency() {
+        return quoteCurrency;
+    }
+
+    public LocalDate getRateDate() {
+        return rateDate;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+}
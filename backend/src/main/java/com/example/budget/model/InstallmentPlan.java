@@ -2,11 +2,15 @@ package com.example.budget.model;
 
 import jakarta.persistence.*;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @Entity
-@Table(name = "installment_plan")
+@Table(name = "installment_plan",
+        indexes = @Index(name = "idx_installment_plan_next_due", columnList = "next_due_at"))
 public class InstallmentPlan {
 
     @Id
@@ -25,12 +29,34 @@ public class InstallmentPlan {
     @Column(nullable = false, precision = 15, scale = 2)
     private BigDecimal installmentValue;
 
+    // Modo regra de agendamento: as parcelas só viram linhas em "transactions"
+    // quando vencem ou são editadas; até lá são geradas virtualmente nas consultas
+    @Column(name = "schedule_only", nullable = false, columnDefinition = "boolean default false")
+    private boolean scheduleOnly;
+
+    // Data/hora da primeira parcela (as demais seguem mês a mês)
+    @Column(name = "first_due_at")
+    private LocalDateTime firstDueAt;
+
+    private String category;
+
+    private String description;
+
+    // Parcelas 1..N já materializadas em sequência (modo regra de agendamento)
+    @Column(name = "materialized_through", nullable = false, columnDefinition = "integer default 0")
+    private int materializedThrough;
+
+    // Vencimento da próxima parcela ainda virtual (null quando não há mais nenhuma)
+    @Column(name = "next_due_at")
+    private LocalDateTime nextDueAt;
+
     // Usuário dono do plano
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
     // Transações geradas automaticamente (1 plano → N transações)
+    // A exclusão do plano remove as parcelas em lote (InstallmentPlanService.delete)
     @OneToMany(mappedBy = "installmentPlan", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Transaction> transactions = new ArrayList<>();
 
@@ -39,6 +65,10 @@ public class InstallmentPlan {
         return id;
     }
 
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public int getTotalInstallments() {
         return totalInstallments;
     }
@@ -63,6 +93,114 @@ public class InstallmentPlan {
         this.installmentValue = installmentValue;
     }
 
+    public boolean isScheduleOnly() {
+        return scheduleOnly;
+    }
+
+    public void setScheduleOnly(boolean scheduleOnly) {
+        this.scheduleOnly = scheduleOnly;
+    }
+
+    public LocalDateTime getFirstDueAt() {
+        return firstDueAt;
+    }
+
+    public void setFirstDueAt(LocalDateTime firstDueAt) {
+        this.firstDueAt = firstDueAt;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public int getMaterializedThrough() {
+        return materializedThrough;
+    }
+
+    public void setMaterializedThrough(int materializedThrough) {
+        this.materializedThrough = materializedThrough;
+    }
+
+    public LocalDateTime getNextDueAt() {
+        return nextDueAt;
+    }
+
+    public void setNextDueAt(LocalDateTime nextDueAt) {
+        this.nextDueAt = nextDueAt;
+    }
+
+    /**
+     * Vencimento da parcela de número {@code number} (1-based)
+     */
+    public LocalDateTime dueAt(int number) {
+        return firstDueAt.plusMonths(number - 1L);
+    }
+
+    /**
+     * Descrição da transação da parcela (ex: "Notebook (Installment 2/10)")
+     */
+    public String installmentDescription(int number) {
+        return String.format("%s (Installment %d/%d)", description, number, totalInstallments);
+    }
+
+    /**
+     * Números das parcelas ainda virtuais com vencimento em [start, end] (limites opcionais),
+     * sem as já gravadas fora de ordem ({@code materialized})
+     */
+    public List<Integer> virtualInstallmentNumbers(Set<Integer> materialized, LocalDateTime start, LocalDateTime end) {
+        int first = materializedThrough + 1;
+        if (start != null) {
+            // Pula direto para perto do primeiro mês do intervalo
+            long monthsAhead = ChronoUnit.MONTHS.between(firstDueAt, start);
+            first = (int) Math.max(first, Math.min(monthsAhead, totalInstallments + 1L));
+        }
+
+        List<Integer> numbers = new ArrayList<>();
+        for (int number = first; number <= totalInstallments; number++) {
+            LocalDateTime dueAt = dueAt(number);
+            if (end != null && dueAt.isAfter(end)) {
+                break;
+            }
+            if ((start == null || !dueAt.isBefore(start)) && !materialized.contains(number)) {
+                numbers.add(number);
+            }
+        }
+        return numbers;
+    }
+
+    /**
+     * Número da parcela de uma transação do plano; para linhas antigas sem a coluna
+     * preenchida, extrai da descrição ("Purchase (Installment 2/3)" -> 2) ou devolve 0
+     */
+    public static int installmentNumberOf(Integer installmentNumber, String description) {
+        if (installmentNumber != null) {
+            return installmentNumber;
+        }
+        try {
+            // Procura por padrão "Installment X/Y"
+            int start = description.indexOf("Installment ") + 12;
+            int end = description.indexOf("/", start);
+            if (start > 11 && end > start) {
+                return Integer.parseInt(description.substring(start, end));
+            }
+        } catch (Exception e) {
+            // Se não conseguir extrair, retorna 0
+        }
+        return 0;
+    }
+
     public User getUser() {
         return user;
     }
@@ -0,0 +1,75 @@
+package com.example.budget.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Valor monetário em centavos (unidades menores, 2 casas decimais) guardado em um long.
+ * Somas e multiplicações usam Math.*Exact: um estouro lança ArithmeticException em vez
+ * de produzir um valor errado. BigDecimal só aparece nas bordas (JSON e colunas numeric).
+ */
+public record Money(long minor) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    public static Money ofMinor(long minor) {
+        return minor == 0 ? ZERO : new Money(minor);
+    }
+
+    /**
+     * Converte arredondando para centavos (HALF_UP, como uma coluna numeric(…, 2))
+     */
+    public static Money of(BigDecimal value) {
+        return ofMinor(value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    public static Money ofNullable(BigDecimal value) {
+        return value != null ? of(value) : null;
+    }
+
+    /**
+     * Centavos do valor, ou 0 quando ausente
+     */
+    public static long minorOf(BigDecimal value) {
+        return value != null ? of(value).minor : 0L;
+    }
+
+    public static BigDecimal toBigDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(minor);
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minor, other.minor));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minor, other.minor));
+    }
+
+    public Money times(long factor) {
+        return ofMinor(Math.multiplyExact(minor, factor));
+    }
+
+    public Money negate() {
+        return ofMinor(Math.negateExact(minor));
+    }
+
+    public int signum() {
+        return Long.signum(minor);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minor, other.minor);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.budget.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Grava {@link Money} como BIGINT em centavos: o Hibernate lê um long por linha,
+ * sem materializar BigDecimal.
+ */
+@Converter
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Money money) {
+        return money != null ? money.minor() : null;
+    }
+
+    @Override
+    public Money convertToEntityAttribute(Long minor) {
+        return minor != null ? Money.ofMinor(minor) : null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.budget.model;
+
+import java.time.LocalDateTime;
+
+public enum RecurrenceFrequency {
+    WEEKLY,
+    MONTHLY,
+    YEARLY;
+
+    /**
+     * Data da ocorrência {@code index} (0 = primeira), sempre calculada a partir do início
+     * para não acumular desvios (ex: dia 31 em meses curtos).
+     */
+    public LocalDateTime occurrence(LocalDateTime start, long index) {
+        return switch (this) {
+            case WEEKLY -> start.plusWeeks(index);
+            case MONTHLY -> start.plusMonths(index);
+            case YEARLY -> start.plusYears(index);
+        };
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.budget.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Regra de receita/despesa recorrente (salário, aluguel...). As ocorrências vencidas
+ * são gravadas em "transactions" pelo RecurringTransactionMaterializer.
+ */
+@Entity
+@Table(name = "recurring_rule",
+        indexes = @Index(name = "idx_recurring_rule_next_occurrence", columnList = "next_occurrence_at"))
+public class RecurringRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+
+    private String category;
+
+    private String description;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RecurrenceFrequency frequency;
+
+    // Data/hora da primeira ocorrência
+    @Column(name = "start_at", nullable = false)
+    private LocalDateTime startAt;
+
+    // Último dia em que ainda pode haver ocorrência (null = sem fim)
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    // Quantas ocorrências já foram gravadas
+    @Column(name = "occurrence_count", nullable = false)
+    private int occurrenceCount;
+
+    // Próxima ocorrência a gravar (null quando a regra terminou ou foi desativada)
+    @Column(name = "next_occurrence_at")
+    private LocalDateTime nextOccurrenceAt;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    // ---- Getters e Setters ----
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(RecurrenceFrequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public LocalDateTime getStartAt() {
+        return startAt;
+    }
+
+    public void setStartAt(LocalDateTime startAt) {
+        this.startAt = startAt;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public int getOccurrenceCount() {
+        return occurrenceCount;
+    }
+
+    public void setOccurrenceCount(int occurrenceCount) {
+        this.occurrenceCount = occurrenceCount;
+    }
+
+    public LocalDateTime getNextOccurrenceAt() {
+        return nextOccurrenceAt;
+    }
+
+    public void setNextOccurrenceAt(LocalDateTime nextOccurrenceAt) {
+        this.nextOccurrenceAt = nextOccurrenceAt;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+}
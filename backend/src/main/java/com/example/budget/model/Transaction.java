@@ -1,12 +1,23 @@
 package com.example.budget.model;
 
+import com.example.budget.service.CategoryNameListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_transactions_recurring_occurrence",
+                        columnNames = {"recurring_rule_id", "date_time"}),
+                @UniqueConstraint(name = "uk_transactions_client_id",
+                        columnNames = {"user_id", "client_id", "date_time"})},
+        indexes = {
+                @Index(name = "idx_transactions_user_category", columnList = "user_id, category_id"),
+                @Index(name = "idx_transactions_user_fingerprint", columnList = "user_id, fingerprint")})
+@EntityListeners(CategoryNameListener.class)
 public class Transaction {
 
     @Id
@@ -19,12 +30,29 @@ public class Transaction {
     @Enumerated(EnumType.STRING)
     private TransactionType type;
 
+    // 🔹 Categoria gravada como id inteiro (tabela categories); o nome é resolvido em memória
+    @Column(name = "category_id")
+    @JsonIgnore
+    private Integer categoryId;
+
+    @Transient
     private String category;
 
     private String description;
 
-    @Column(precision = 14, scale = 2)
-    private BigDecimal amount;
+    // 🔹 Valor em centavos (coluna amount_minor BIGINT); a API continua expondo BigDecimal
+    @Column(name = "amount_minor")
+    @Convert(converter = MoneyConverter.class)
+    private Money amount;
+
+    // 🔹 Moeda ISO 4217 do valor (GBP, EUR...); nula = moeda base (fx.base-currency)
+    @Column(name = "currency", length = 3)
+    private String currency;
+
+    // 🔹 Valor na moeda base com a cotação usada ao gravar; saldos e orçamentos revertem por ele
+    @Column(name = "amount_base_minor")
+    @JsonIgnore
+    private Long amountBaseMinor;
 
     // 🔹 Relacionamento com o usuário
     @ManyToOne(fetch = FetchType.LAZY)
@@ -42,12 +70,49 @@ public class Transaction {
     @Column(name = "installment_number")
     private Integer installmentNumber;
 
+    // 🔹 Regra recorrente que gerou a transação (salário, aluguel...)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "recurring_rule_id")
+    @JsonIgnore
+    private RecurringRule recurringRule;
+
+    // 🔹 Id gerado pelo cliente nas gravações pela fila (write-behind); evita duplicar ao reenviar
+    @Column(name = "client_id")
+    private UUID clientId;
+
+    // 🔹 Hash de usuário, valor, dia e descrição (TransactionFingerprint), calculado a cada gravação
+    @Column(name = "fingerprint")
+    @JsonIgnore
+    private Long fingerprint;
+
+    // 🔹 Id de uma transação já gravada com o mesmo fingerprint (só na resposta do save)
+    @Transient
+    private Long possibleDuplicateOf;
+
     // ⚡ Define automaticamente o horário ao criar a transação
     @PrePersist
     protected void onCreate() {
         if (this.dateTime == null) {
             this.dateTime = LocalDateTime.now();
         }
+        updateDerivedColumns();
+    }
+
+    // ⚡ Valor, moeda, data ou descrição podem ter mudado: recalcula as colunas derivadas
+    @PreUpdate
+    protected void onUpdate() {
+        updateDerivedColumns();
+    }
+
+    // Na moeda base o valor base é o próprio valor; nas outras quem grava converte (FxRateService)
+    private void updateDerivedColumns() {
+        if (amount != null && currency == null) {
+            this.amountBaseMinor = amount.minor();
+        }
+        if (user != null && amount != null && dateTime != null) {
+            this.fingerprint = TransactionFingerprint.of(user.getId(), amount.minor(), currency,
+                    dateTime.toLocalDate(), description);
+        }
     }
 
     // ---------- Getters e Setters ----------
@@ -84,6 +149,14 @@ public class Transaction {
         this.category = category;
     }
 
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Integer categoryId) {
+        this.categoryId = categoryId;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -93,10 +166,35 @@ public class Transaction {
     }
 
     public BigDecimal getAmount() {
-        return amount;
+        return amount != null ? amount.toBigDecimal() : null;
     }
 
     public void setAmount(BigDecimal amount) {
+        this.amount = Money.ofNullable(amount);
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public Long getAmountBaseMinor() {
+        return amountBaseMinor;
+    }
+
+    public void setAmountBaseMinor(Long amountBaseMinor) {
+        this.amountBaseMinor = amountBaseMinor;
+    }
+
+    @JsonIgnore
+    public Money getMoney() {
+        return amount;
+    }
+
+    public void setMoney(Money amount) {
         this.amount = amount;
     }
 
@@ -123,4 +221,32 @@ public class Transaction {
     public void setInstallmentNumber(Integer installmentNumber) {
         this.installmentNumber = installmentNumber;
     }
+
+    public RecurringRule getRecurringRule() {
+        return recurringRule;
+    }
+
+    public void setRecurringRule(RecurringRule recurringRule) {
+        this.recurringRule = recurringRule;
+    }
+
+    public UUID getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(UUID clientId) {
+        this.clientId = clientId;
+    }
+
+    public Long getFingerprint() {
+        return fingerprint;
+    }
+
+    public Long getPossibleDuplicateOf() {
+        return possibleDuplicateOf;
+    }
+
+    public void setPossibleDuplicateOf(Long possibleDuplicateOf) {
+        this.possibleDuplicateOf = possibleDuplicateOf;
+    }
 }
@@ -0,0 +1,59 @@
+package com.example.budget.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Impressão digital de 64 bits de uma transação: usuário, valor em centavos, moeda, dia e
+ * descrição normalizada (minúsculas, espaços colapsados). Duas transações com o mesmo
+ * fingerprint são candidatas a duplicata.
+ *
+ * A coluna transactions.fingerprint é gravada pelo backend (callbacks do JPA em Transaction e
+ * INSERTs do TransactionJdbcRepository), e não gerada pelo banco: com ddl-auto=update a coluna
+ * seria criada comum e ficaria nula. A função SQL transaction_fingerprint
+ * (migration-fingerprint.sql) usa a mesma fórmula para preencher as linhas antigas: os
+ * primeiros 8 bytes do MD5 de "user_id|amount_minor|dias desde 1970-01-01|descrição", com
+ * "|MOEDA" no fim quando a moeda não é a base (nula), lidos como bigint com sinal. A descrição
+ * normalizada é minúscula e o código ISO maiúsculo: os dois formatos não colidem, e as
+ * transações na moeda base mantêm o fingerprint anterior à inclusão da moeda.
+ */
+public final class TransactionFingerprint {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private TransactionFingerprint() {
+    }
+
+    public static long of(Long userId, long amountMinor, String currency, LocalDate day, String description) {
+        String key = userId + "|" + amountMinor + "|" + day.toEpochDay() + "|" + normalize(description)
+                + (currency != null ? "|" + currency : "");
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest, 0, Long.BYTES).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 indisponível", e);
+        }
+    }
+
+    // Mesma ordem do SQL: colapsa espaços, tira os das pontas (btrim) e passa para minúsculas
+    static String normalize(String description) {
+        if (description == null) {
+            return "";
+        }
+        String collapsed = WHITESPACE.matcher(description).replaceAll(" ");
+        int start = 0;
+        int end = collapsed.length();
+        while (start < end && collapsed.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && collapsed.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return collapsed.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+}
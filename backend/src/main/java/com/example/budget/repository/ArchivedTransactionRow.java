@@ -0,0 +1,23 @@
+package com.example.budget.repository;
+
+import com.example.budget.model.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Linha de "transactions" levada para o arquivo frio (segmento em disco): categoria como id,
+ * moeda nula = moeda base e o fingerprint usado na busca de duplicatas.
+ */
+public record ArchivedTransactionRow(long id,
+                                     LocalDateTime dateTime,
+                                     TransactionType type,
+                                     Integer categoryId,
+                                     String description,
+                                     long amountMinor,
+                                     String currency,
+                                     Long recurringRuleId,
+                                     Integer installmentNumber,
+                                     UUID clientId,
+                                     long fingerprint) {
+}
@@ -0,0 +1,29 @@
+package com.example.budget.repository;
+
+import com.example.budget.model.BudgetAlert;
+import com.example.budget.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface BudgetAlertRepository extends JpaRepository<BudgetAlert, Long> {
+
+        List<BudgetAlert> findTop50ByUserOrderByCreatedAtDesc(User user);
+
+        // 🔹 Cada nível de alerta dispara uma única vez por categoria e mês
+        @Modifying
+        @Query(value = "INSERT INTO budget_alert (user_id, category, period_month, level, spent, monthly_limit, created_at) " +
+                        "VALUES (:userId, :category, :period, :level, :spent, :limit, now()) " +
+                        "ON CONFLICT (user_id, category, period_month, level) DO NOTHING",
+                        nativeQuery = true)
+        int insertIfAbsent(@Param("userId") Long userId,
+                        @Param("category") String category,
+                        @Param("period") int period,
+                        @Param("level") String level,
+                        @Param("spent") BigDecimal spent,
+                        @Param("limit") BigDecimal limit);
+}
@@ -0,0 +1,20 @@
+package com.example.budget.repository;
+
+import com.example.budget.model.Budget;
+import com.example.budget.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface BudgetRepository extends JpaRepository<Budget, Long> {
+
+    List<Budget> findByUserOrderByCategory(User user);
+
+    Optional<Budget> findByUserAndCategory(User user, String category);
+
+    @Query("SELECT b FROM Budget b WHERE b.user.id = :userId AND b.category = :category")
+    Optional<Budget> findByUserIdAndCategory(@Param("userId") Long userId, @Param("category") String category);
+}
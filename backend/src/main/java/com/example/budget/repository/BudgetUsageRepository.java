@@ -0,0 +1,37 @@
+package com.example.budget.repository;
+
+import com.example.budget.model.BudgetUsage;
+import com.example.budget.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+public interface BudgetUsageRepository extends JpaRepository<BudgetUsage, Long> {
+
+        // 🔹 Soma a variação ao contador do mês (cria a linha se ainda não existir)
+        @Modifying
+        @Query(value = "INSERT INTO budget_usage (user_id, category, period_month, spent) " +
+                        "VALUES (:userId, :category, :period, :delta) " +
+                        "ON CONFLICT (user_id, category, period_month) " +
+                        "DO UPDATE SET spent = budget_usage.spent + EXCLUDED.spent",
+                        nativeQuery = true)
+        void addSpent(@Param("userId") Long userId,
+                        @Param("category") String category,
+                        @Param("period") int period,
+                        @Param("delta") BigDecimal delta);
+
+        @Query("SELECT u.spent FROM BudgetUsage u " +
+                        "WHERE u.user.id = :userId AND u.category = :category AND u.periodMonth = :period")
+        Optional<BigDecimal> findSpent(@Param("userId") Long userId,
+                        @Param("category") String category,
+                        @Param("period") int period);
+
+        @Query("SELECT u.category, u.spent FROM BudgetUsage u " +
+                        "WHERE u.user = :user AND u.periodMonth = :period")
+        List<Object[]> findSpentByCategory(@Param("user") User user, @Param("period") int period);
+}
@@ -0,0 +1,22 @@
+package com.example.budget.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * NOTIFY no canal de invalidação de caches. Dentro de uma transação o PostgreSQL só entrega
+ * a mensagem no commit (e a descarta no rollback).
+ */
+@Repository
+public class CacheInvalidationJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CacheInvalidationJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void notify(String channel, String payload) {
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, payload);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.budget.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Acesso à tabela "categories" usado pelo CategoryDictionary.
+ */
+@Repository
+public class CategoryJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO categories (user_id, name) VALUES (?, ?) " +
+            "ON CONFLICT (user_id, name) DO NOTHING RETURNING id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CategoryJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Nome → id de todas as categorias do usuário
+     */
+    public Map<String, Integer> findIdsByName(Long userId) {
+        Map<String, Integer> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM categories WHERE user_id = ?",
+                rs -> {
+                    ids.put(rs.getString("name"), rs.getInt("id"));
+                }, userId);
+        return ids;
+    }
+
+    public Optional<String> findName(Integer id) {
+        List<String> names = jdbcTemplate.queryForList("SELECT name FROM categories WHERE id = ?", String.class, id);
+        return names.stream().findFirst();
+    }
+
+    /**
+     * Devolve o id da categoria, criando-a se ainda não existir
+     */
+    public Integer findOrCreate(Long userId, String name) {
+        List<Integer> created = jdbcTemplate.queryForList(INSERT_SQL, Integer.class, userId, name);
+        if (!created.isEmpty()) {
+            return created.get(0);
+        }
+        return jdbcTemplate.queryForObject("SELECT id FROM categories WHERE user_id = ? AND name = ?",
+                Integer.class, userId, name);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.budget.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Acesso à tabela "category_sketches" usado pelo CategorySpendService. As linhas são
+ * travadas (FOR UPDATE) antes de cada atualização, então duas escritas na mesma categoria
+ * não perdem valores uma da outra.
+ */
+@Repository
+public class CategorySketchJdbcRepository {
+
+    private static final String ENSURE_SQL =
+            "INSERT INTO category_sketches (user_id, category_id) VALUES (?, ?) " +
+            "ON CONFLICT (user_id, category_id) DO NOTHING";
+
+    private static final String LOCK_SQL =
+            "SELECT sketch FROM category_sketches WHERE user_id = ? AND category_id = ? FOR UPDATE";
+
+    private static final String UPDATE_SQL =
+            "UPDATE category_sketches SET sketch = ? WHERE user_id = ? AND category_id = ?";
+
+    private static final String SELECT_BY_USER_SQL =
+            "SELECT category_id, sketch FROM category_sketches WHERE user_id = ? ORDER BY category_id";
+
+    private static final String SELECT_ONE_SQL =
+            "SELECT category_id, sketch FROM category_sketches WHERE user_id = ? AND category_id = ?";
+
+    private static final String SELECT_EXPENSES_SQL =
+            "SELECT amount_minor, currency, date_time FROM transactions " +
+            "WHERE user_id = ? AND category_id = ? AND type = 'EXPENSE'";
+
+    /**
+     * Sketch serializado de uma categoria (null = pendente de reconstrução)
+     */
+    public record Row(int categoryId, byte[] sketch) {
+    }
+
+    /**
+     * Despesa gravada: valor na moeda da transação (null = moeda base) e data
+     */
+    public record Expense(long amountMinor, String currency, LocalDateTime dateTime) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CategorySketchJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Cria a linha da categoria (pendente) se ainda não existir e a trava até o fim da
+     * transação. Devolve o sketch atual ou null
+     */
+    public byte[] lock(Long userId, int categoryId) {
+        jdbcTemplate.update(ENSURE_SQL, userId, categoryId);
+        return jdbcTemplate.queryForObject(LOCK_SQL, (rs, rowNum) -> rs.getBytes("sketch"), userId, categoryId);
+    }
+
+    public void update(Long userId, int categoryId, byte[] sketch) {
+        jdbcTemplate.update(UPDATE_SQL, sketch, userId, categoryId);
+    }
+
+    public List<Row> findByUser(Long userId) {
+        return jdbcTemplate.query(SELECT_BY_USER_SQL,
+                (rs, rowNum) -> new Row(rs.getInt("category_id"), rs.getBytes("sketch")), userId);
+    }
+
+    public Optional<Row> find(Long userId, int categoryId) {
+        return jdbcTemplate.query(SELECT_ONE_SQL,
+                (rs, rowNum) -> new Row(rs.getInt("category_id"), rs.getBytes("sketch")), userId, categoryId)
+                .stream().findFirst();
+    }
+
+    /**
+     * Todas as despesas gravadas da categoria, para reconstruir o sketch
+     */
+    public List<Expense> findExpenses(Long userId, int categoryId) {
+        return jdbcTemplate.query(SELECT_EXPENSES_SQL, (rs, rowNum) -> new Expense(
+                rs.getLong("amount_minor"),
+                rs.getString("currency"),
+                rs.getTimestamp("date_time").toLocalDateTime()), userId, categoryId);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.budget.repository;
+
+import com.example.budget.model.DailyBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyBalanceRepository extends JpaRepository<DailyBalance, Long> {
+
+        @Query("SELECT d.day, d.netAmount " +
+                        "FROM DailyBalance d " +
+                        "WHERE d.user.id = :userId " +
+                        "ORDER BY d.day")
+        List<Object[]> findDeltasByUserId(@Param("userId") Long userId);
+
+        // 🔹 Dias fora da janela do BalanceIndex: saldo e variações direto da tabela
+        @Query("SELECT COALESCE(SUM(d.netAmount), 0) " +
+                        "FROM DailyBalance d " +
+                        "WHERE d.user.id = :userId AND d.day <= :day")
+        BigDecimal sumUntil(@Param("userId") Long userId, @Param("day") LocalDate day);
+
+        @Query("SELECT d.day, d.netAmount " +
+                        "FROM DailyBalance d " +
+                        "WHERE d.user.id = :userId AND d.day BETWEEN :from AND :to " +
+                        "ORDER BY d.day")
+        List<Object[]> findDeltasByUserIdBetween(@Param("userId") Long userId,
+                        @Param("from") LocalDate from,
+                        @Param("to") LocalDate to);
+
+        // 🔹 Soma a variação ao dia (cria a linha se ainda não existir)
+        @Modifying
+        @Query(value = "INSERT INTO daily_balance (user_id, balance_date, net_amount) " +
+                        "VALUES (:userId, :day, :delta) " +
+                        "ON CONFLICT (user_id, balance_date) " +
+                        "DO UPDATE SET net_amount = daily_balance.net_amount + EXCLUDED.net_amount",
+                        nativeQuery = true)
+        void addDelta(@Param("userId") Long userId,
+                        @Param("day") LocalDate day,
+                        @Param("delta") BigDecimal delta);
+}
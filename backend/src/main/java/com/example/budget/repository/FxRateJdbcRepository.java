@@ -0,0 +1,59 @@
+package com.example.budget.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Acesso à tabela "fx_rates" usado pelo FxRateService.
+ */
+@Repository
+public class FxRateJdbcRepository {
+
+    private static final String SELECT_ALL_SQL =
+            "SELECT base_currency, quote_currency, rate_date, rate FROM fx_rates " +
+            "ORDER BY base_currency, quote_currency, rate_date";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO fx_rates (base_currency, quote_currency, rate_date, rate) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (base_currency, quote_currency, rate_date) DO UPDATE SET rate = EXCLUDED.rate";
+
+    /**
+     * Linha de fx_rates: 1 base = rate quote a partir de date
+     */
+    public record Row(String base, String quote, LocalDate date, BigDecimal rate) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FxRateJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Todas as cotações, ordenadas por par e data
+     */
+    public List<Row> findAll() {
+        return jdbcTemplate.query(SELECT_ALL_SQL, (rs, rowNum) -> new Row(
+                rs.getString("base_currency"),
+                rs.getString("quote_currency"),
+                rs.getDate("rate_date").toLocalDate(),
+                rs.getBigDecimal("rate")));
+    }
+
+    /**
+     * Grava as cotações, substituindo as já existentes para o mesmo par e data
+     */
+    public void upsertAll(List<Row> rows) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, 500, (ps, row) -> {
+            ps.setString(1, row.base());
+            ps.setString(2, row.quote());
+            ps.setDate(3, Date.valueOf(row.date()));
+            ps.setBigDecimal(4, row.rate());
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.budget.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Acesso à tabela "idempotency_key" usado pelo IdempotencyService. A reserva e a liberação
+ * rodam em auto-commit, fora da transação da operação protegida, para que a reserva fique
+ * visível a requisições concorrentes com a mesma chave; a conclusão roda dentro dela.
+ */
+@Repository
+public class IdempotencyKeyJdbcRepository {
+
+    /**
+     * Linha da tabela; statusCode nulo indica requisição original ainda em execução
+     */
+    public record StoredKey(String requestHash, Integer statusCode, String responseBody, LocalDateTime expiresAt) {
+
+        public boolean completed() {
+            return statusCode != null;
+        }
+    }
+
+    // Reserva a chave no mesmo comando em que retoma uma chave vencida ou uma reserva
+    // abandonada (sem resposta e mais antiga que o lease: processo caiu no meio da operação)
+    private static final String RESERVE_SQL =
+            "INSERT INTO idempotency_key " +
+            "(user_id, scope, idempotency_key, request_hash, created_at, expires_at, reservation_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_id, scope, idempotency_key) DO UPDATE " +
+            "SET request_hash = EXCLUDED.request_hash, status_code = NULL, response_body = NULL, " +
+            "    created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at, " +
+            "    reservation_id = EXCLUDED.reservation_id " +
+            "WHERE idempotency_key.expires_at < EXCLUDED.created_at " +
+            "   OR (idempotency_key.status_code IS NULL AND idempotency_key.created_at < ?) " +
+            "RETURNING id";
+
+    // Só a dona da reserva conclui: se o lease venceu e outra requisição retomou a chave,
+    // nenhuma linha é alterada e a operação é desfeita
+    private static final String COMPLETE_SQL =
+            "UPDATE idempotency_key SET status_code = ?, response_body = ? " +
+            "WHERE user_id = ? AND scope = ? AND idempotency_key = ? " +
+            "AND reservation_id = ? AND status_code IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyKeyJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Tenta reservar a chave para {@code reservationId}; false se ela já existe, não venceu e
+     * não é uma reserva abandonada (criada antes de {@code leaseCutoff} e sem resposta)
+     */
+    public boolean reserve(Long userId, String scope, String key, String requestHash, UUID reservationId,
+                           LocalDateTime now, LocalDateTime expiresAt, LocalDateTime leaseCutoff) {
+        List<Long> ids = jdbcTemplate.queryForList(RESERVE_SQL, Long.class, userId, scope, key, requestHash,
+                Timestamp.valueOf(now), Timestamp.valueOf(expiresAt), reservationId, Timestamp.valueOf(leaseCutoff));
+        return !ids.isEmpty();
+    }
+
+    public Optional<StoredKey> find(Long userId, String scope, String key) {
+        return jdbcTemplate.query(
+                "SELECT request_hash, status_code, response_body, expires_at FROM idempotency_key " +
+                "WHERE user_id = ? AND scope = ? AND idempotency_key = ?",
+                (rs, rowNum) -> new StoredKey(
+                        rs.getString("request_hash"),
+                        rs.getObject("status_code", Integer.class),
+                        rs.getString("response_body"),
+                        rs.getTimestamp("expires_at").toLocalDateTime()),
+                userId, scope, key).stream().findFirst();
+    }
+
+    /**
+     * Guarda a resposta; deve rodar na transação da operação, para que resposta e escrita
+     * sejam gravadas juntas. false se a reserva não pertence mais a {@code reservationId}
+     */
+    public boolean complete(Long userId, String scope, String key, UUID reservationId,
+                            int statusCode, String responseBody) {
+        return jdbcTemplate.update(COMPLETE_SQL, statusCode, responseBody, userId, scope, key, reservationId) == 1;
+    }
+
+    /**
+     * Libera a reserva de uma requisição que falhou, permitindo repetir com a mesma chave
+     */
+    public void release(Long userId, String scope, String key, UUID reservationId) {
+        jdbcTemplate.update(
+                "DELETE FROM idempotency_key WHERE user_id = ? AND scope = ? AND idempotency_key = ? " +
+                "AND reservation_id = ? AND status_code IS NULL",
+                userId, scope, key, reservationId);
+    }
+
+    public int deleteExpired(LocalDateTime now) {
+        return jdbcTemplate.update("DELETE FROM idempotency_key WHERE expires_at < ?", Timestamp.valueOf(now));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.budget.repository;
+
+import com.example.budget.model.InstallmentPlan;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Operações em lote sobre "installment_plan" que não precisam carregar o plano no contexto JPA.
+ */
+@Repository
+public class InstallmentPlanJdbcRepository {
+
+    private static final String DELETE_SQL =
+            "DELETE FROM installment_plan WHERE id = ? AND user_id = ? " +
+            "RETURNING id, total_installments, total_amount, installment_value, schedule_only, first_due_at, " +
+            "category, description, materialized_through";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InstallmentPlanJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Remove o plano do usuário e devolve sua regra (instância não gerenciada), se existia
+     */
+    public Optional<InstallmentPlan> delete(Long planId, Long userId) {
+        List<InstallmentPlan> deleted = jdbcTemplate.query(DELETE_SQL, (rs, rowNum) -> {
+            InstallmentPlan plan = new InstallmentPlan();
+            plan.setId(rs.getLong("id"));
+            plan.setTotalInstallments(rs.getInt("total_installments"));
+            plan.setTotalAmount(rs.getBigDecimal("total_amount"));
+            plan.setInstallmentValue(rs.getBigDecimal("installment_value"));
+            plan.setScheduleOnly(rs.getBoolean("schedule_only"));
+            Timestamp firstDueAt = rs.getTimestamp("first_due_at");
+            plan.setFirstDueAt(firstDueAt != null ? firstDueAt.toLocalDateTime() : null);
+            plan.setCategory(rs.getString("category"));
+            plan.setDescription(rs.getString("description"));
+            plan.setMaterializedThrough(rs.getInt("materialized_through"));
+            return plan;
+        }, planId, userId);
+        return deleted.stream().findFirst();
+    }
+}
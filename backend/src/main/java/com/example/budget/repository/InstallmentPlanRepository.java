@@ -2,8 +2,16 @@ package com.example.budget.repository;
 
 import com.example.budget.model.InstallmentPlan;
 import com.example.budget.model.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface InstallmentPlanRepository extends JpaRepository<InstallmentPlan, Long> {
@@ -11,5 +19,17 @@ public interface InstallmentPlanRepository extends JpaRepository<InstallmentPlan
     List<InstallmentPlan> findByUser(User user);
     
     List<InstallmentPlan> findByUserOrderByIdDesc(User user);
-}
 
+    // 🔹 Planos em modo regra que ainda têm parcelas virtuais
+    @Query("SELECT p FROM InstallmentPlan p " +
+            "WHERE p.user = :user AND p.scheduleOnly = true AND p.nextDueAt IS NOT NULL")
+    List<InstallmentPlan> findPendingSchedulesByUser(@Param("user") User user);
+
+    // 🔹 Planos com parcelas vencidas; SKIP LOCKED deixa vários nós dividirem o trabalho
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT p FROM InstallmentPlan p " +
+            "WHERE p.scheduleOnly = true AND p.nextDueAt <= :now " +
+            "ORDER BY p.id")
+    List<InstallmentPlan> findDueSchedulesForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,14 @@
+package com.example.budget.repository;
+
+import com.example.budget.model.RecurringRule;
+import com.example.budget.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface RecurringRuleRepository extends JpaRepository<RecurringRule, Long> {
+
+    List<RecurringRule> findByUserOrderByIdDesc(User user);
+
+    List<RecurringRule> findByUserAndActiveTrue(User user);
+}
@@ -0,0 +1,202 @@
+package com.example.budget.repository;
+
+import com.example.budget.model.TransactionType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Acesso às tabelas do arquivo frio ("transaction_archives" e "archived_monthly_totals") e às
+ * linhas de "transactions" que saem para os segmentos. Parcelas de planos não são arquivadas:
+ * o InstallmentPlanService continua lendo todas do banco.
+ */
+@Repository
+public class TransactionArchiveJdbcRepository {
+
+    // (usuário, ano) com transações antes do corte ainda no banco, inclusive as gravadas depois
+    // que o ano foi arquivado; a faixa de datas restringe a leitura às partições antigas
+    private static final String PENDING_YEARS_SQL =
+            "SELECT DISTINCT t.user_id, CAST(EXTRACT(YEAR FROM t.date_time) AS INTEGER) AS year " +
+            "FROM transactions t " +
+            "WHERE t.date_time < ? AND t.installment_plan_id IS NULL " +
+            "ORDER BY 1, 2";
+
+    // Sem conflito = este processo arquiva o ano; a linha fica travada até o fim da transação
+    private static final String REGISTER_SQL =
+            "INSERT INTO transaction_archives (user_id, year, file_name, row_count, size_bytes, archived_at) " +
+            "VALUES (?, ?, ?, 0, 0, ?) " +
+            "ON CONFLICT (user_id, year) DO NOTHING";
+
+    // Ano já arquivado: trava o registro até o fim da transação (um rearquivamento por vez)
+    private static final String LOCK_ARCHIVE_SQL =
+            "SELECT file_name FROM transaction_archives WHERE user_id = ? AND year = ? FOR UPDATE";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE transaction_archives SET file_name = ?, row_count = row_count + ?, size_bytes = ?, archived_at = ? " +
+            "WHERE user_id = ? AND year = ?";
+
+    private static final String FILE_NAMES_SQL = "SELECT file_name FROM transaction_archives";
+
+    private static final String LOCK_ROWS_SQL =
+            "SELECT id, date_time, type, category_id, description, amount_minor, currency, " +
+            "recurring_rule_id, installment_number, client_id, fingerprint " +
+            "FROM transactions " +
+            "WHERE user_id = ? AND date_time >= ? AND date_time < ? AND installment_plan_id IS NULL " +
+            "ORDER BY date_time, id " +
+            "FOR UPDATE";
+
+    private static final String DELETE_ROWS_SQL =
+            "DELETE FROM transactions WHERE user_id = ? AND id = ANY(?)";
+
+    private static final String INSERT_TOTAL_SQL =
+            "INSERT INTO archived_monthly_totals " +
+            "(user_id, month, category_id, currency, income_minor, expense_minor, transaction_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String ARCHIVED_YEARS_SQL =
+            "SELECT year, file_name FROM transaction_archives WHERE user_id = ? ORDER BY year";
+
+    private static final String TOTALS_BETWEEN_SQL =
+            "SELECT month, category_id, currency, income_minor, expense_minor, transaction_count " +
+            "FROM archived_monthly_totals " +
+            "WHERE user_id = ? AND month >= ? AND month <= ? " +
+            "ORDER BY month, id";
+
+    /**
+     * Ano de um usuário com transações a arquivar
+     */
+    public record PendingYear(Long userId, int year) {
+    }
+
+    /**
+     * Ano arquivado e o caminho do segmento (relativo ao diretório do arquivo)
+     */
+    public record ArchivedYear(int year, String fileName) {
+    }
+
+    /**
+     * Totais de um mês arquivado por categoria e moeda (null = moeda base), em centavos
+     */
+    public record MonthlyTotal(LocalDate month, Integer categoryId, String currency,
+                               long incomeMinor, long expenseMinor, int transactionCount) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public TransactionArchiveJdbcRepository(JdbcTemplate jdbcTemplate,
+                                            @Value("${budget.jdbc.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public List<PendingYear> findPendingYears(int beforeYear) {
+        return jdbcTemplate.query(PENDING_YEARS_SQL,
+                (rs, rowNum) -> new PendingYear(rs.getLong("user_id"), rs.getInt("year")),
+                Timestamp.valueOf(LocalDate.of(beforeYear, 1, 1).atStartOfDay()));
+    }
+
+    /**
+     * Registra o ano como arquivado; false se outro processo já o arquivou (ou está arquivando)
+     */
+    public boolean register(Long userId, int year, String fileName) {
+        return jdbcTemplate.update(REGISTER_SQL, userId, year, fileName, Timestamp.valueOf(LocalDateTime.now())) == 1;
+    }
+
+    /**
+     * Trava o registro de um ano já arquivado e devolve o segmento atual
+     */
+    public String lockArchive(Long userId, int year) {
+        return jdbcTemplate.queryForObject(LOCK_ARCHIVE_SQL, String.class, userId, year);
+    }
+
+    /**
+     * Aponta o ano para o segmento gravado e soma as linhas que entraram nele
+     */
+    public void complete(Long userId, int year, String fileName, int addedRows, long sizeBytes) {
+        jdbcTemplate.update(COMPLETE_SQL, fileName, addedRows, sizeBytes, Timestamp.valueOf(LocalDateTime.now()),
+                userId, year);
+    }
+
+    /**
+     * Segmentos referenciados por algum ano arquivado (de todos os usuários)
+     */
+    public List<String> findFileNames() {
+        return jdbcTemplate.queryForList(FILE_NAMES_SQL, String.class);
+    }
+
+    /**
+     * Transações do usuário no ano (sem parcelas), ordenadas por data e id e travadas até o fim
+     * da transação: edições concorrentes esperam o arquivamento e depois não encontram a linha
+     */
+    public List<ArchivedTransactionRow> lockRows(Long userId, int year) {
+        return jdbcTemplate.query(LOCK_ROWS_SQL, (rs, rowNum) -> new ArchivedTransactionRow(
+                        rs.getLong("id"),
+                        rs.getTimestamp("date_time").toLocalDateTime(),
+                        TransactionType.valueOf(rs.getString("type")),
+                        rs.getObject("category_id", Integer.class),
+                        rs.getString("description"),
+                        rs.getLong("amount_minor"),
+                        rs.getString("currency"),
+                        rs.getObject("recurring_rule_id", Long.class),
+                        rs.getObject("installment_number", Integer.class),
+                        rs.getObject("client_id", UUID.class),
+                        rs.getLong("fingerprint")),
+                userId, Timestamp.valueOf(LocalDate.of(year, 1, 1).atStartOfDay()),
+                Timestamp.valueOf(LocalDate.of(year + 1, 1, 1).atStartOfDay()));
+    }
+
+    /**
+     * Remove só as linhas lidas por {@link #lockRows}: transações do mesmo ano gravadas depois
+     * continuam no banco
+     */
+    public int deleteRows(Long userId, Collection<Long> ids) {
+        return jdbcTemplate.update(DELETE_ROWS_SQL, ps -> {
+            ps.setLong(1, userId);
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+        });
+    }
+
+    public void insertMonthlyTotals(Long userId, List<MonthlyTotal> totals) {
+        if (totals.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_TOTAL_SQL, totals, batchSize, (ps, total) -> {
+            ps.setLong(1, userId);
+            ps.setDate(2, Date.valueOf(total.month()));
+            ps.setObject(3, total.categoryId(), Types.INTEGER);
+            ps.setString(4, total.currency());
+            ps.setLong(5, total.incomeMinor());
+            ps.setLong(6, total.expenseMinor());
+            ps.setInt(7, total.transactionCount());
+        });
+    }
+
+    public List<ArchivedYear> findArchivedYears(Long userId) {
+        return jdbcTemplate.query(ARCHIVED_YEARS_SQL,
+                (rs, rowNum) -> new ArchivedYear(rs.getInt("year"), rs.getString("file_name")), userId);
+    }
+
+    /**
+     * Totais dos meses arquivados entre {@code firstMonth} e {@code lastMonth} (primeiros dias)
+     */
+    public List<MonthlyTotal> findMonthlyTotals(Long userId, LocalDate firstMonth, LocalDate lastMonth) {
+        return jdbcTemplate.query(TOTALS_BETWEEN_SQL, (rs, rowNum) -> new MonthlyTotal(
+                        rs.getDate("month").toLocalDate(),
+                        rs.getObject("category_id", Integer.class),
+                        rs.getString("currency"),
+                        rs.getLong("income_minor"),
+                        rs.getLong("expense_minor"),
+                        rs.getInt("transaction_count")),
+                userId, Date.valueOf(firstMonth), Date.valueOf(lastMonth));
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.budget.repository;
+
+import com.example.budget.model.TransactionType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Escritas em lote na tabela "transactions" sem passar pelo contexto de persistência:
+ * INSERTs preparados enviados em lotes JDBC e DELETE/UPDATE em um único comando,
+ * sempre restritos ao usuário dono. As linhas devolvidas trazem o id e o nome da categoria.
+ */
+@Repository
+public class TransactionJdbcRepository {
+
+    private static final String RETURNING_COLUMNS =
+            "RETURNING t.user_id, t.date_time, t.type, t.category_id, " +
+            "(SELECT c.name FROM categories c WHERE c.id = t.category_id) AS category, " +
+            "t.description, t.amount_minor, t.currency, t.amount_base_minor, t.recurring_rule_id, " +
+            "t.installment_number, t.client_id";
+
+    // Várias linhas por comando; o RETURNING só traz as que não colidiram com uma linha já
+    // gravada (mesmo client_id ou mesma ocorrência recorrente)
+    private static final String MULTI_ROW_INSERT_PREFIX =
+            "INSERT INTO transactions AS t " +
+            "(user_id, date_time, type, category_id, description, amount_minor, currency, amount_base_minor, " +
+            "recurring_rule_id, client_id, fingerprint) " +
+            "VALUES ";
+
+    private static final String MULTI_ROW_INSERT_VALUES = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String DELETE_BY_IDS_SQL =
+            "DELETE FROM transactions t WHERE t.user_id = ? AND t.id = ANY(?) " + RETURNING_COLUMNS;
+
+    private static final String DELETE_BY_PLAN_SQL =
+            "DELETE FROM transactions t WHERE t.user_id = ? AND t.installment_plan_id = ? " + RETURNING_COLUMNS;
+
+    // Devolve a categoria anterior de cada linha para ajustar contadores derivados
+    private static final String RECATEGORIZE_SQL =
+            "UPDATE transactions t SET category_id = ? " +
+            "FROM (SELECT id, category_id AS old_category_id FROM transactions " +
+            "      WHERE user_id = ? AND id = ANY(?) FOR UPDATE) o " +
+            "WHERE t.id = o.id " +
+            "RETURNING t.user_id, t.date_time, t.type, o.old_category_id AS category_id, " +
+            "(SELECT c.name FROM categories c WHERE c.id = o.old_category_id) AS category, " +
+            "t.description, t.amount_minor, t.currency, t.amount_base_minor, t.recurring_rule_id, " +
+            "t.installment_number, t.client_id";
+
+    // O fingerprint inclui o dia: o filtro por data restringe a busca a uma partição
+    private static final String FIND_DUPLICATE_SQL =
+            "SELECT id FROM transactions " +
+            "WHERE user_id = ? AND fingerprint = ? AND date_time >= ? AND date_time < ? " +
+            "ORDER BY id LIMIT 1";
+
+    // Grupos de transações com o mesmo fingerprint numa única leitura do índice (user_id, fingerprint)
+    private static final String DUPLICATE_GROUPS_SQL =
+            "SELECT fingerprint, id, date_time, type, category_id, description, amount_minor, installment_plan_id " +
+            "FROM (SELECT t.*, COUNT(*) OVER (PARTITION BY t.fingerprint) AS copies " +
+            "      FROM transactions t " +
+            "      WHERE t.user_id = ? AND t.date_time >= ? AND t.date_time <= ?) d " +
+            "WHERE copies > 1 " +
+            "ORDER BY fingerprint, date_time, id";
+
+    /**
+     * Transação de um grupo de possíveis duplicatas
+     */
+    public record DuplicateRow(long fingerprint,
+                               Long id,
+                               LocalDateTime dateTime,
+                               TransactionType type,
+                               Integer categoryId,
+                               String description,
+                               long amountMinor,
+                               Long installmentPlanId) {
+    }
+
+    private static final RowMapper<TransactionRow> ROW_MAPPER = (rs, rowNum) -> new TransactionRow(
+            rs.getLong("user_id"),
+            rs.getTimestamp("date_time").toLocalDateTime(),
+            TransactionType.valueOf(rs.getString("type")),
+            rs.getObject("category_id", Integer.class),
+            rs.getString("category"),
+            rs.getString("description"),
+            rs.getLong("amount_minor"),
+            rs.getString("currency"),
+            rs.getObject("amount_base_minor", Long.class),
+            rs.getObject("recurring_rule_id", Long.class),
+            rs.getObject("installment_number", Integer.class),
+            rs.getObject("client_id", UUID.class));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public TransactionJdbcRepository(JdbcTemplate jdbcTemplate,
+                                     @Value("${budget.jdbc.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Id da transação mais antiga do usuário no dia com o fingerprint informado, se houver
+     */
+    public Optional<Long> findDuplicateId(Long userId, long fingerprint, LocalDate day) {
+        return jdbcTemplate.query(FIND_DUPLICATE_SQL, (rs, rowNum) -> rs.getLong(1), userId, fingerprint,
+                        Timestamp.valueOf(day.atStartOfDay()), Timestamp.valueOf(day.plusDays(1).atStartOfDay()))
+                .stream().findFirst();
+    }
+
+    /**
+     * Transações do usuário no período que compartilham o fingerprint com outra, agrupadas
+     * (ordenadas por fingerprint e data)
+     */
+    public List<DuplicateRow> findDuplicateGroups(Long userId, LocalDateTime start, LocalDateTime end) {
+        return jdbcTemplate.query(DUPLICATE_GROUPS_SQL, (rs, rowNum) -> new DuplicateRow(
+                rs.getLong("fingerprint"),
+                rs.getLong("id"),
+                rs.getTimestamp("date_time").toLocalDateTime(),
+                TransactionType.valueOf(rs.getString("type")),
+                rs.getObject("category_id", Integer.class),
+                rs.getString("description"),
+                rs.getLong("amount_minor"),
+                rs.getObject("installment_plan_id", Long.class)),
+                userId, Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    /**
+     * Grava as linhas em INSERTs de várias linhas (até o tamanho do lote por comando) e devolve
+     * apenas as efetivamente inseridas: linhas com client_id já gravado são ignoradas, o que
+     * torna a reaplicação do journal de escrita idempotente, assim como ocorrências recorrentes
+     * já gravadas (recurring_rule_id, date_time).
+     */
+    public List<TransactionRow> insertReturning(List<TransactionRow> rows) {
+        List<TransactionRow> inserted = new ArrayList<>(rows.size());
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<TransactionRow> chunk = rows.subList(from, Math.min(from + batchSize, rows.size()));
+            String sql = MULTI_ROW_INSERT_PREFIX
+                    + String.join(", ", Collections.nCopies(chunk.size(), MULTI_ROW_INSERT_VALUES))
+                    + " ON CONFLICT DO NOTHING " + RETURNING_COLUMNS;
+            inserted.addAll(jdbcTemplate.query(sql, ps -> {
+                int index = 1;
+                for (TransactionRow row : chunk) {
+                    ps.setLong(index++, row.userId());
+                    ps.setTimestamp(index++, Timestamp.valueOf(row.dateTime()));
+                    ps.setString(index++, row.type().name());
+                    ps.setObject(index++, row.categoryId(), Types.INTEGER);
+                    ps.setString(index++, row.description());
+                    ps.setLong(index++, row.amountMinor());
+                    ps.setString(index++, row.currency());
+                    ps.setObject(index++, row.amountBaseMinor(), Types.BIGINT);
+                    ps.setObject(index++, row.recurringRuleId(), Types.BIGINT);
+                    ps.setObject(index++, row.clientId());
+                    ps.setLong(index++, row.fingerprint());
+                }
+            }, ROW_MAPPER));
+        }
+        return inserted;
+    }
+
+    /**
+     * Remove as transações do usuário com os ids informados e devolve as linhas removidas
+     */
+    public List<TransactionRow> deleteByIds(Long userId, Collection<Long> ids) {
+        return jdbcTemplate.query(DELETE_BY_IDS_SQL, ps -> {
+            ps.setLong(1, userId);
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+        }, ROW_MAPPER);
+    }
+
+    /**
+     * Remove todas as parcelas gravadas de um plano do usuário
+     */
+    public List<TransactionRow> deleteByInstallmentPlan(Long userId, Long planId) {
+        return jdbcTemplate.query(DELETE_BY_PLAN_SQL, ps -> {
+            ps.setLong(1, userId);
+            ps.setLong(2, planId);
+        }, ROW_MAPPER);
+    }
+
+    /**
+     * Troca a categoria das transações do usuário; as linhas devolvidas trazem a categoria anterior
+     */
+    public List<TransactionRow> recategorize(Long userId, Collection<Long> ids, Integer categoryId) {
+        return jdbcTemplate.query(RECATEGORIZE_SQL, ps -> {
+            ps.setObject(1, categoryId, Types.INTEGER);
+            ps.setLong(2, userId);
+            ps.setArray(3, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+        }, ROW_MAPPER);
+    }
+}
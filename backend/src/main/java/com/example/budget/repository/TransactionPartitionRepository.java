@@ -0,0 +1,90 @@
+package com.example.budget.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * DDL das partições mensais de "transactions" (particionamento declarativo por date_time).
+ * As partições seguem o nome transactions_pYYYYMM.
+ */
+@Repository
+public class TransactionPartitionRepository {
+
+    private static final String PARTITION_PREFIX = "transactions_p";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Indica se "transactions" já foi convertida em tabela particionada (migration-partitioning.sql)
+     */
+    public boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid " +
+                "WHERE c.relname = 'transactions' AND c.relnamespace = current_schema()::regnamespace",
+                Integer.class);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Nomes das partições existentes
+     */
+    public List<String> findPartitionNames() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = 'transactions' AND p.relnamespace = current_schema()::regnamespace",
+                String.class);
+    }
+
+    public void createMonthlyPartition(YearMonth month) {
+        YearMonth next = month.plusMonths(1);
+        // Identificadores e limites derivados de YearMonth, não de entrada do usuário
+        jdbcTemplate.execute(String.format(
+                "CREATE TABLE IF NOT EXISTS %s PARTITION OF transactions " +
+                "FOR VALUES FROM ('%s-01 00:00:00') TO ('%s-01 00:00:00')",
+                partitionName(month), month, next));
+    }
+
+    /**
+     * Último vencimento entre todos os planos de parcelamento (para criar as partições futuras)
+     */
+    public Optional<YearMonth> findLastInstallmentMonth() {
+        List<Timestamp> last = jdbcTemplate.queryForList(
+                "SELECT MAX(first_due_at + (total_installments - 1) * INTERVAL '1 month') FROM installment_plan",
+                Timestamp.class);
+        return last.stream()
+                .filter(Objects::nonNull)
+                .findFirst()
+                .map(ts -> YearMonth.from(ts.toLocalDateTime()));
+    }
+
+    public static String partitionName(YearMonth month) {
+        return String.format("%s%04d%02d", PARTITION_PREFIX, month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * Mês de uma partição pelo nome, ou vazio para partições fora do padrão (ex: transactions_default)
+     */
+    public static Optional<YearMonth> monthOf(String partitionName) {
+        if (!partitionName.startsWith(PARTITION_PREFIX) || partitionName.length() != PARTITION_PREFIX.length() + 6) {
+            return Optional.empty();
+        }
+        String digits = partitionName.substring(PARTITION_PREFIX.length());
+        if (!digits.chars().allMatch(Character::isDigit)) {
+            return Optional.empty();
+        }
+        return Optional.of(YearMonth.of(Integer.parseInt(digits.substring(0, 4)),
+                Integer.parseInt(digits.substring(4))));
+    }
+}
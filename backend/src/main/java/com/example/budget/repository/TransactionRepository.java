@@ -1,16 +1,16 @@
 package com.example.budget.repository;
 
+import com.example.budget.model.InstallmentPlan;
 import com.example.budget.model.Transaction;
-import com.example.budget.model.TransactionType;
 import com.example.budget.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction> {
 
@@ -19,40 +19,93 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>,
 
         List<Transaction> findByUser(User user);
 
-        @Query("SELECT COALESCE(SUM(t.amount), 0) " +
+        Optional<Transaction> findByInstallmentPlanAndInstallmentNumber(InstallmentPlan installmentPlan,
+                        Integer installmentNumber);
+
+        // 🔹 Parcelas de planos em modo regra materializadas fora de ordem (ex: editadas antes do vencimento)
+        @Query("SELECT t.installmentPlan.id, t.installmentNumber " +
                         "FROM Transaction t " +
-                        "WHERE t.dateTime BETWEEN :start AND :end " +
-                        "AND t.type = :type")
-        BigDecimal sumByDateTimeBetweenAndType(@Param("start") LocalDateTime start,
+                        "WHERE t.installmentPlan IN :plans " +
+                        "AND t.installmentNumber > t.installmentPlan.materializedThrough")
+        List<Object[]> findInstallmentsAheadOfSchedule(@Param("plans") List<InstallmentPlan> plans);
+
+        // 🔹 Somas em centavos (BIGINT); o CAST falha com erro em vez de estourar silenciosamente
+        @Query(value = "SELECT CAST(COALESCE(SUM(amount_minor), 0) AS BIGINT) " +
+                        "FROM transactions " +
+                        "WHERE date_time BETWEEN :start AND :end " +
+                        "AND type = :type", nativeQuery = true)
+        long sumMinorByDateTimeBetweenAndType(@Param("start") LocalDateTime start,
                         @Param("end") LocalDateTime end,
-                        @Param("type") TransactionType type);
+                        @Param("type") String type);
 
-        @Query("SELECT COALESCE(SUM(t.amount), 0) " +
-                        "FROM Transaction t " +
-                        "WHERE t.dateTime BETWEEN :start AND :end " +
-                        "AND t.type = :type AND t.user = :user")
-        BigDecimal sumByDateTimeBetweenAndTypeAndUser(@Param("start") LocalDateTime start,
+        @Query(value = "SELECT CAST(COALESCE(SUM(amount_minor), 0) AS BIGINT) " +
+                        "FROM transactions " +
+                        "WHERE date_time BETWEEN :start AND :end " +
+                        "AND type = :type AND user_id = :userId", nativeQuery = true)
+        long sumMinorByDateTimeBetweenAndTypeAndUser(@Param("start") LocalDateTime start,
                         @Param("end") LocalDateTime end,
-                        @Param("type") TransactionType type,
-                        @Param("user") User user);
+                        @Param("type") String type,
+                        @Param("userId") Long userId);
 
-        @Query("SELECT t.category, " +
-                        "COALESCE(SUM(CASE WHEN t.type = 'INCOME' THEN t.amount ELSE 0 END), 0), " +
-                        "COALESCE(SUM(CASE WHEN t.type = 'EXPENSE' THEN t.amount ELSE 0 END), 0) " +
-                        "FROM Transaction t " +
-                        "WHERE t.dateTime BETWEEN :start AND :end " +
-                        "GROUP BY t.category")
-        List<Object[]> sumByCategoryBetween(@Param("start") LocalDateTime start,
+        // 🔹 Linhas (category_id, receitas, despesas) com valores em centavos
+        @Query(value = "SELECT category_id, " +
+                        "CAST(COALESCE(SUM(CASE WHEN type = 'INCOME' THEN amount_minor ELSE 0 END), 0) AS BIGINT), " +
+                        "CAST(COALESCE(SUM(CASE WHEN type = 'EXPENSE' THEN amount_minor ELSE 0 END), 0) AS BIGINT) " +
+                        "FROM transactions " +
+                        "WHERE date_time BETWEEN :start AND :end " +
+                        "GROUP BY category_id", nativeQuery = true)
+        List<Object[]> sumMinorByCategoryBetween(@Param("start") LocalDateTime start,
                         @Param("end") LocalDateTime end);
 
-        @Query("SELECT t.category, " +
-                        "COALESCE(SUM(CASE WHEN t.type = 'INCOME' THEN t.amount ELSE 0 END), 0), " +
-                        "COALESCE(SUM(CASE WHEN t.type = 'EXPENSE' THEN t.amount ELSE 0 END), 0) " +
-                        "FROM Transaction t " +
-                        "WHERE t.dateTime BETWEEN :start AND :end " +
-                        "AND t.user = :user " +
-                        "GROUP BY t.category")
-        List<Object[]> sumByCategoryBetweenAndUser(@Param("start") LocalDateTime start,
+        // 🔹 Linhas (category_id, moeda, dia, receitas, despesas) em centavos da moeda da linha.
+        //    Só as moedas diferentes de :target são separadas por dia (para a cotação do dia);
+        //    moeda nula = moeda base
+        @Query(value = "SELECT category_id, currency, " +
+                        "CASE WHEN COALESCE(currency, :base) = :target THEN NULL ELSE CAST(date_time AS DATE) END, " +
+                        "CAST(COALESCE(SUM(CASE WHEN type = 'INCOME' THEN amount_minor ELSE 0 END), 0) AS BIGINT), " +
+                        "CAST(COALESCE(SUM(CASE WHEN type = 'EXPENSE' THEN amount_minor ELSE 0 END), 0) AS BIGINT) " +
+                        "FROM transactions " +
+                        "WHERE date_time BETWEEN :start AND :end " +
+                        "AND user_id = :userId " +
+                        "GROUP BY 1, 2, 3", nativeQuery = true)
+        List<Object[]> sumMinorByCategoryAndCurrencyBetweenAndUser(@Param("start") LocalDateTime start,
                         @Param("end") LocalDateTime end,
-                        @Param("user") User user);
+                        @Param("userId") Long userId,
+                        @Param("base") String baseCurrency,
+                        @Param("target") String targetCurrency);
+
+        // 🔹 Linhas (descrição, ocorrências, última data) para o índice de sugestões
+        @Query(value = "SELECT description, COUNT(*), MAX(date_time) " +
+                        "FROM transactions " +
+                        "WHERE user_id = :userId AND description IS NOT NULL " +
+                        "GROUP BY description", nativeQuery = true)
+        List<Object[]> countDescriptionsByUser(@Param("userId") Long userId);
+
+        // 🔹 Linhas (descrição, tipo, valor em centavos, category_id) para treinar o categorizador
+        @Query(value = "SELECT description, type, amount_minor, category_id " +
+                        "FROM transactions " +
+                        "WHERE user_id = :userId AND category_id IS NOT NULL", nativeQuery = true)
+        List<Object[]> findCategorizedByUser(@Param("userId") Long userId);
+
+        // 🔹 Linhas (category_id, tipo, moeda, mês, soma em centavos) do histórico lançado à mão
+        //    (sem parcelas nem ocorrências recorrentes), base das médias sazonais da previsão
+        @Query(value = "SELECT category_id, type, currency, CAST(date_trunc('month', date_time) AS DATE), " +
+                        "CAST(SUM(amount_minor) AS BIGINT) " +
+                        "FROM transactions " +
+                        "WHERE user_id = :userId AND date_time BETWEEN :start AND :end " +
+                        "AND installment_plan_id IS NULL AND recurring_rule_id IS NULL " +
+                        "GROUP BY 1, 2, 3, 4", nativeQuery = true)
+        List<Object[]> sumMinorUnscheduledByCategoryAndMonth(@Param("userId") Long userId,
+                        @Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end);
+
+        // 🔹 Linhas (category_id, tipo, moeda, mês, soma em centavos) de lançamentos com data futura
+        @Query(value = "SELECT category_id, type, currency, CAST(date_trunc('month', date_time) AS DATE), " +
+                        "CAST(SUM(amount_minor) AS BIGINT) " +
+                        "FROM transactions " +
+                        "WHERE user_id = :userId AND date_time > :start AND date_time <= :end " +
+                        "GROUP BY 1, 2, 3, 4", nativeQuery = true)
+        List<Object[]> sumMinorByCategoryAndMonthAfter(@Param("userId") Long userId,
+                        @Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end);
 }
@@ -0,0 +1,47 @@
+package com.example.budget.repository;
+
+import com.example.budget.event.LedgerEntry;
+import com.example.budget.model.TransactionFingerprint;
+import com.example.budget.model.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Linha de "transactions" gravada ou devolvida (RETURNING) por SQL em lote via JDBC, fora do JPA.
+ */
+public record TransactionRow(Long userId,
+                             LocalDateTime dateTime,
+                             TransactionType type,
+                             Integer categoryId,
+                             String category,
+                             String description,
+                             long amountMinor,
+                             String currency,
+                             Long amountBaseMinor,
+                             Long recurringRuleId,
+                             Integer installmentNumber,
+                             UUID clientId) {
+
+    public static TransactionRow recurring(Long userId, LocalDateTime dateTime, TransactionType type, Integer categoryId,
+                                           String category, String description, long amountMinor,
+                                           Long recurringRuleId) {
+        return new TransactionRow(userId, dateTime, type, categoryId, category, description, amountMinor,
+                null, amountMinor, recurringRuleId, null, null);
+    }
+
+    public static TransactionRow queued(UUID clientId, Long userId, LocalDateTime dateTime, TransactionType type,
+                                        Integer categoryId, String category, String description, long amountMinor,
+                                        String currency, long amountBaseMinor) {
+        return new TransactionRow(userId, dateTime, type, categoryId, category, description, amountMinor,
+                currency, amountBaseMinor, null, null, clientId);
+    }
+
+    public long fingerprint() {
+        return TransactionFingerprint.of(userId, amountMinor, currency, dateTime.toLocalDate(), description);
+    }
+
+    public LedgerEntry toLedgerEntry() {
+        return new LedgerEntry(userId, dateTime, type, category, description, amountMinor, currency, amountBaseMinor);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.budget.scheduler;
+
+import com.example.budget.service.FxRateService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Importa o arquivo de cotações (fx.rates.file) e recarrega a tabela fx_rates em memória.
+ * A primeira execução acontece logo após a subida.
+ */
+@Component
+public class FxRateRefreshJob {
+
+    private final FxRateService fxRateService;
+
+    public FxRateRefreshJob(FxRateService fxRateService) {
+        this.fxRateService = fxRateService;
+    }
+
+    @Scheduled(fixedDelayString = "${fx.rates.refresh-ms:3600000}")
+    public void refresh() {
+        fxRateService.refresh();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.budget.scheduler;
+
+import com.example.budget.repository.IdempotencyKeyJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Remove periodicamente as chaves de idempotência vencidas.
+ */
+@Component
+public class IdempotencyKeyPurgeJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyKeyPurgeJob.class);
+
+    private final IdempotencyKeyJdbcRepository repository;
+
+    public IdempotencyKeyPurgeJob(IdempotencyKeyJdbcRepository repository) {
+        this.repository = repository;
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge.delay-ms:3600000}", initialDelay = 60000)
+    public void purgeExpired() {
+        int deleted = repository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+}
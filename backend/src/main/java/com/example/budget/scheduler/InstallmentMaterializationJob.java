@@ -0,0 +1,44 @@
+package com.example.budget.scheduler;
+
+import com.example.budget.service.InstallmentPlanService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Grava periodicamente as parcelas vencidas dos planos em modo regra de agendamento.
+ */
+@Component
+public class InstallmentMaterializationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstallmentMaterializationJob.class);
+
+    private final InstallmentPlanService installmentPlanService;
+    private final int batchSize;
+
+    public InstallmentMaterializationJob(InstallmentPlanService installmentPlanService,
+                                         @Value("${installments.materializer.batch-size:200}") int batchSize) {
+        this.installmentPlanService = installmentPlanService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${installments.materializer.delay-ms:3600000}", initialDelay = 60000)
+    public void materializeDueInstallments() {
+        LocalDateTime now = LocalDateTime.now();
+        int plans = 0;
+        int processed;
+        // Cada lote roda em sua própria transação
+        do {
+            processed = installmentPlanService.materializeDueInstallments(now, batchSize);
+            plans += processed;
+        } while (processed == batchSize);
+
+        if (plans > 0) {
+            logger.info("Materialized due installments for {} plans", plans);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.budget.scheduler;
+
+import com.example.budget.event.LedgerChangeEvent;
+import com.example.budget.model.Money;
+import com.example.budget.model.RecurrenceFrequency;
+import com.example.budget.model.TransactionType;
+import com.example.budget.repository.TransactionJdbcRepository;
+import com.example.budget.repository.TransactionRow;
+import com.example.budget.service.CategoryDictionary;
+import com.example.budget.service.TransactionPartitionManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grava as ocorrências vencidas das regras recorrentes de todos os usuários.
+ *
+ * As regras são percorridas por cursor (id > último id do lote) e reivindicadas com
+ * FOR UPDATE SKIP LOCKED: cada lote roda em sua própria transação e vários nós podem
+ * executar o job ao mesmo tempo sem gravar a mesma ocorrência duas vezes.
+ */
+@Component
+public class RecurringTransactionMaterializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurringTransactionMaterializer.class);
+
+    private static final String CLAIM_SQL =
+            "SELECT id, user_id, type, category, description, amount, frequency, start_at, end_date, occurrence_count " +
+            "FROM recurring_rule " +
+            "WHERE active = TRUE AND next_occurrence_at <= ? AND id > ? " +
+            "ORDER BY id " +
+            "LIMIT ? " +
+            "FOR UPDATE SKIP LOCKED";
+
+    private static final String ADVANCE_SQL =
+            "UPDATE recurring_rule SET occurrence_count = ?, next_occurrence_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionJdbcRepository transactionJdbcRepository;
+    private final CategoryDictionary categoryDictionary;
+    private final TransactionPartitionManager partitionManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxOccurrencesPerRule;
+
+    private final Timer runTimer;
+    private final Counter occurrenceCounter;
+    private final DistributionSummary throughput;
+
+    public RecurringTransactionMaterializer(JdbcTemplate jdbcTemplate,
+                                            TransactionJdbcRepository transactionJdbcRepository,
+                                            CategoryDictionary categoryDictionary,
+                                            TransactionPartitionManager partitionManager,
+                                            PlatformTransactionManager transactionManager,
+                                            ApplicationEventPublisher eventPublisher,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${recurring.materializer.batch-size:500}") int batchSize,
+                                            @Value("${recurring.materializer.max-occurrences-per-rule:400}") int maxOccurrencesPerRule) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionJdbcRepository = transactionJdbcRepository;
+        this.categoryDictionary = categoryDictionary;
+        this.partitionManager = partitionManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxOccurrencesPerRule = maxOccurrencesPerRule;
+
+        this.runTimer = Timer.builder("recurring.materializer.run")
+                .description("Duração de cada execução do materializador de regras recorrentes")
+                .register(meterRegistry);
+        this.occurrenceCounter = Counter.builder("recurring.materializer.occurrences")
+                .description("Ocorrências recorrentes gravadas")
+                .register(meterRegistry);
+        this.throughput = DistributionSummary.builder("recurring.materializer.throughput")
+                .description("Ocorrências gravadas por segundo em cada execução")
+                .baseUnit("occurrences/s")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${recurring.materializer.delay-ms:300000}", initialDelay = 30000)
+    public void materializeDueOccurrences() {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+
+        long cursor = 0;
+        int rules = 0;
+        int occurrences = 0;
+        while (true) {
+            final long after = cursor;
+            BatchResult batch = transactionTemplate.execute(status -> materializeBatch(now, after));
+            if (batch == null || batch.rules() == 0) {
+                break;
+            }
+            cursor = batch.lastRuleId();
+            rules += batch.rules();
+            occurrences += batch.occurrences();
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        runTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        occurrenceCounter.increment(occurrences);
+        double perSecond = occurrences / Math.max(elapsedNanos / 1_000_000_000.0, 1e-9);
+        throughput.record(perSecond);
+
+        if (rules > 0) {
+            logger.info("Materialized {} recurring occurrences from {} rules in {} ms ({} occurrences/s)",
+                    occurrences, rules, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(perSecond));
+        }
+    }
+
+    private BatchResult materializeBatch(LocalDateTime now, long afterId) {
+        List<ClaimedRule> claimed = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new ClaimedRule(
+                rs.getLong("id"),
+                rs.getLong("user_id"),
+                TransactionType.valueOf(rs.getString("type")),
+                rs.getString("category"),
+                rs.getString("description"),
+                Money.minorOf(rs.getBigDecimal("amount")),
+                RecurrenceFrequency.valueOf(rs.getString("frequency")),
+                rs.getTimestamp("start_at").toLocalDateTime(),
+                rs.getObject("end_date", LocalDate.class),
+                rs.getInt("occurrence_count")),
+                Timestamp.valueOf(now), afterId, batchSize);
+        if (claimed.isEmpty()) {
+            return new BatchResult(0, afterId, 0);
+        }
+
+        List<TransactionRow> rows = new ArrayList<>();
+        List<Object[]> advances = new ArrayList<>(claimed.size());
+        for (ClaimedRule rule : claimed) {
+            int count = rule.occurrenceCount();
+            Integer categoryId = categoryDictionary.idFor(rule.userId(), rule.category());
+            String categoryName = categoryDictionary.nameOf(categoryId);
+            LocalDateTime next = rule.occurrence(count);
+            int generated = 0;
+            while (next != null && !next.isAfter(now) && generated < maxOccurrencesPerRule) {
+                rows.add(TransactionRow.recurring(rule.userId(), next, rule.type(), categoryId, categoryName,
+                        rule.description(), rule.amountMinor(), rule.id()));
+                count++;
+                generated++;
+                next = rule.occurrence(count);
+            }
+            advances.add(new Object[]{count, next != null ? Timestamp.valueOf(next) : null, rule.id()});
+        }
+
+        if (!rows.isEmpty()) {
+            // Ocorrências retroativas podem cair em meses ainda sem partição
+            partitionManager.ensureCovered(
+                    rows.stream().map(TransactionRow::dateTime).min(Comparator.naturalOrder()).orElseThrow(),
+                    rows.stream().map(TransactionRow::dateTime).max(Comparator.naturalOrder()).orElseThrow());
+        }
+        // Só as linhas efetivamente inseridas: ocorrências já gravadas (conflito em
+        // recurring_rule_id, date_time) não podem ser contadas de novo nos derivados
+        List<TransactionRow> inserted = transactionJdbcRepository.insertReturning(rows);
+        jdbcTemplate.batchUpdate(ADVANCE_SQL, advances, new int[]{Types.INTEGER, Types.TIMESTAMP, Types.BIGINT});
+
+        // Saldos e contadores derivados são atualizados na mesma transação
+        eventPublisher.publishEvent(new LedgerChangeEvent(
+                inserted.stream().map(TransactionRow::toLedgerEntry).toList(), List.of()));
+
+        return new BatchResult(claimed.size(), claimed.get(claimed.size() - 1).id(), inserted.size());
+    }
+
+    private record ClaimedRule(long id, long userId, TransactionType type, String category, String description,
+                               long amountMinor, RecurrenceFrequency frequency, LocalDateTime startAt,
+                               LocalDate endDate, int occurrenceCount) {
+
+        // Ocorrência de índice "index" ou null se passar da data final da regra
+        LocalDateTime occurrence(int index) {
+            LocalDateTime at = frequency.occurrence(startAt, index);
+            return endDate != null && at.toLocalDate().isAfter(endDate) ? null : at;
+        }
+    }
+
+    private record BatchResult(int rules, long lastRuleId, int occurrences) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.budget.scheduler;
+
+import com.example.budget.repository.TransactionArchiveJdbcRepository;
+import com.example.budget.service.TransactionArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Year;
+
+/**
+ * Move para o arquivo frio os anos fechados de cada usuário: tudo antes dos últimos
+ * transactions.archive.keep-years anos, além do atual. Anos já arquivados com transações
+ * gravadas depois são rearquivados. Cada (usuário, ano) roda na própria transação; uma falha
+ * não impede os demais. No fim apaga os segmentos que deixaram de ser referenciados.
+ */
+@Component
+public class TransactionArchiveJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiveJob.class);
+
+    private final TransactionArchiveService archiveService;
+    private final boolean enabled;
+    private final int keepYears;
+
+    public TransactionArchiveJob(TransactionArchiveService archiveService,
+                                 @Value("${transactions.archive.enabled:false}") boolean enabled,
+                                 @Value("${transactions.archive.keep-years:2}") int keepYears) {
+        this.archiveService = archiveService;
+        this.enabled = enabled;
+        this.keepYears = keepYears;
+    }
+
+    @Scheduled(fixedDelayString = "${transactions.archive.delay-ms:86400000}", initialDelay = 120000)
+    public void archiveClosedYears() {
+        if (!enabled) {
+            return;
+        }
+        int beforeYear = Year.now().getValue() - Math.max(0, keepYears);
+        int archived = 0;
+        for (TransactionArchiveJdbcRepository.PendingYear pending : archiveService.findPendingYears(beforeYear)) {
+            try {
+                archived += archiveService.archiveYear(pending.userId(), pending.year());
+            } catch (RuntimeException e) {
+                logger.warn("Could not archive {} for user {}: {}", pending.year(), pending.userId(), e.getMessage());
+            }
+        }
+        if (archived > 0) {
+            logger.info("Archived {} transactions from years before {}", archived, beforeYear);
+        }
+        try {
+            int pruned = archiveService.pruneSegments();
+            if (pruned > 0) {
+                logger.info("Deleted {} superseded archive segments", pruned);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not prune archive segments: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.budget.scheduler;
+
+import com.example.budget.repository.TransactionPartitionRepository;
+import com.example.budget.service.TransactionPartitionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+
+/**
+ * Cria com antecedência as partições mensais de "transactions": os próximos meses e
+ * todos os meses até o último vencimento de parcelas já planejado.
+ */
+@Component
+public class TransactionPartitionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionPartitionJob.class);
+
+    private final TransactionPartitionManager partitionManager;
+    private final TransactionPartitionRepository partitionRepository;
+    private final int monthsAhead;
+
+    public TransactionPartitionJob(TransactionPartitionManager partitionManager,
+                                   TransactionPartitionRepository partitionRepository,
+                                   @Value("${transactions.partitions.months-ahead:12}") int monthsAhead) {
+        this.partitionManager = partitionManager;
+        this.partitionRepository = partitionRepository;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @Scheduled(fixedDelayString = "${transactions.partitions.delay-ms:86400000}", initialDelay = 30000)
+    public void createUpcomingPartitions() {
+        if (!partitionManager.isPartitioned()) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        YearMonth until = current.plusMonths(monthsAhead);
+        YearMonth lastInstallment = partitionRepository.findLastInstallmentMonth().orElse(until);
+        if (lastInstallment.isAfter(until)) {
+            until = lastInstallment;
+        }
+
+        partitionManager.ensureCovered(current.atDay(1).atStartOfDay(), until.atDay(1).atStartOfDay());
+        logger.debug("Transaction partitions ensured through {} ({} known)", until, partitionManager.knownPartitions());
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.budget.scheduler;
+
+import com.example.budget.service.TransactionWriteBehindService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Esvazia periodicamente a fila de escrita assíncrona em lotes de INSERTs de várias linhas.
+ */
+@Component
+@ConditionalOnProperty(name = "transactions.write-behind.enabled", havingValue = "true")
+public class TransactionWriteBehindJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionWriteBehindJob.class);
+
+    private final TransactionWriteBehindService writeBehindService;
+
+    public TransactionWriteBehindJob(TransactionWriteBehindService writeBehindService) {
+        this.writeBehindService = writeBehindService;
+    }
+
+    @Scheduled(fixedDelayString = "${transactions.write-behind.flush-delay-ms:200}")
+    public void flush() {
+        try {
+            int flushed = writeBehindService.flush();
+            if (flushed > 0) {
+                logger.debug("Flushed {} queued transactions", flushed);
+            }
+        } catch (DataAccessException e) {
+            // Entradas continuam no journal e na fila; tenta de novo na próxima execução
+            logger.warn("Write-behind flush failed ({} pending): {}",
+                    writeBehindService.pendingCount(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.budget.security;
+
+import com.example.budget.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limita requisições por usuário e por classe de endpoint (busca, resumos, escrita, leitura).
+ *
+ * Roda dentro da cadeia do Spring Security logo depois do {@link JwtAuthenticationFilter},
+ * quando o usuário já está no contexto; requisições anônimas passam direto. Cada usuário tem
+ * um balde de tokens por classe, guardado num único AtomicLong (o instante teórico em que o
+ * balde volta a ficar cheio, como no GCRA) e atualizado por CAS, sem locks. O mapa de usuários
+ * é limitado: acima do máximo, os baldes já cheios são descartados (equivalem a um balde novo).
+ * Quem estoura recebe 429 com Retry-After em segundos.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    /**
+     * Classes de endpoint com orçamentos separados
+     */
+    enum EndpointClass {
+        SEARCH, SUMMARY, WRITE, READ;
+
+        static EndpointClass of(HttpServletRequest request) {
+            String path = request.getRequestURI();
+            if (path.startsWith("/api/transactions/search")) {
+                return SEARCH;
+            }
+            if (path.startsWith("/api/summary/") || path.startsWith("/api/balance")
+                    || path.startsWith("/api/forecast") || path.startsWith("/api/insights")) {
+                return SUMMARY;
+            }
+            String method = request.getMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                return WRITE;
+            }
+            return READ;
+        }
+    }
+
+    private final boolean enabled;
+    private final int maxUsers;
+    private final Map<EndpointClass, Limit> limits = new EnumMap<>(EndpointClass.class);
+    private final ConcurrentHashMap<Long, AtomicLong[]> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final Map<EndpointClass, Counter> rejectedCounters = new EnumMap<>(EndpointClass.class);
+
+    public RateLimitFilter(MeterRegistry meterRegistry,
+                           @Value("${rate-limit.enabled:true}") boolean enabled,
+                           @Value("${rate-limit.max-users:100000}") int maxUsers,
+                           @Value("${rate-limit.search.per-minute:60}") int searchPerMinute,
+                           @Value("${rate-limit.search.burst:20}") int searchBurst,
+                           @Value("${rate-limit.summary.per-minute:120}") int summaryPerMinute,
+                           @Value("${rate-limit.summary.burst:30}") int summaryBurst,
+                           @Value("${rate-limit.write.per-minute:120}") int writePerMinute,
+                           @Value("${rate-limit.write.burst:60}") int writeBurst,
+                           @Value("${rate-limit.read.per-minute:600}") int readPerMinute,
+                           @Value("${rate-limit.read.burst:100}") int readBurst) {
+        this.enabled = enabled;
+        this.maxUsers = maxUsers;
+        limits.put(EndpointClass.SEARCH, Limit.of(searchPerMinute, searchBurst));
+        limits.put(EndpointClass.SUMMARY, Limit.of(summaryPerMinute, summaryBurst));
+        limits.put(EndpointClass.WRITE, Limit.of(writePerMinute, writeBurst));
+        limits.put(EndpointClass.READ, Limit.of(readPerMinute, readBurst));
+
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            rejectedCounters.put(endpointClass, Counter.builder("ratelimit.rejected")
+                    .description("Requisições recusadas com 429 por excesso de uso")
+                    .tag("endpoint", endpointClass.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("ratelimit.tracked-users", buckets, Map::size)
+                .description("Usuários com baldes de tokens em memória")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || !request.getRequestURI().startsWith("/api/")
+                || request.getRequestURI().startsWith("/api/auth/")
+                || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        EndpointClass endpointClass = EndpointClass.of(request);
+        long waitNanos = tryAcquire(user.getId(), endpointClass, System.nanoTime());
+        if (waitNanos > 0) {
+            rejectedCounters.get(endpointClass).increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Consome um token; retorna 0 se liberado ou quantos nanos faltam para o próximo token
+     */
+    long tryAcquire(Long userId, EndpointClass endpointClass, long now) {
+        AtomicLong[] userBuckets = buckets.get(userId);
+        if (userBuckets == null) {
+            userBuckets = buckets.computeIfAbsent(userId, id -> newBuckets(now));
+            if (buckets.size() > maxUsers) {
+                evictIdle(now);
+            }
+        }
+        Limit limit = limits.get(endpointClass);
+        AtomicLong fullAt = userBuckets[endpointClass.ordinal()];
+        while (true) {
+            long current = fullAt.get();
+            // Balde cheio no passado equivale a cheio agora
+            long next = Math.max(current, now) + limit.intervalNanos();
+            long excess = next - now - limit.toleranceNanos();
+            if (excess > 0) {
+                return excess;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private AtomicLong[] newBuckets(long now) {
+        AtomicLong[] userBuckets = new AtomicLong[EndpointClass.values().length];
+        for (int i = 0; i < userBuckets.length; i++) {
+            userBuckets[i] = new AtomicLong(now);
+        }
+        return userBuckets;
+    }
+
+    /**
+     * Remove usuários com todos os baldes cheios; se ainda sobrar gente demais (muitos usuários
+     * ativos ao mesmo tempo), remove quaisquer outros até 90% do limite. Um thread por vez.
+     */
+    private void evictIdle(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.values().removeIf(userBuckets -> isFull(userBuckets, now));
+            Iterator<Long> iterator = buckets.keySet().iterator();
+            while (buckets.size() > maxUsers * 9L / 10 && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static boolean isFull(AtomicLong[] userBuckets, long now) {
+        for (AtomicLong fullAt : userBuckets) {
+            if (fullAt.get() > now) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Intervalo entre tokens e tolerância (rajada) em nanossegundos
+     */
+    record Limit(long intervalNanos, long toleranceNanos) {
+
+        static Limit of(int perMinute, int burst) {
+            if (perMinute <= 0 || burst <= 0) {
+                throw new IllegalArgumentException("Limites de requisição precisam ser positivos");
+            }
+            long interval = TimeUnit.MINUTES.toNanos(1) / perMinute;
+            // Balde de "burst" tokens: burst requisições seguidas a partir do balde cheio
+            return new Limit(interval, interval * burst);
+        }
+    }
+}
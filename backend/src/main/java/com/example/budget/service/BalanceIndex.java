@@ -0,0 +1,193 @@
+package com.example.budget.service;
+
+import com.example.budget.model.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Árvore de Fenwick (Binary Indexed Tree) sobre as variações diárias de saldo de um usuário.
+ * Cada posição representa um dia a partir de {@code origin}; consultas de saldo acumulado
+ * e atualizações custam O(log n). A faixa de dias cresce sob demanda quando uma transação
+ * cai antes da origem (lançamentos retroativos) ou depois do último dia coberto.
+ * Os valores são centavos em long[]; somas usam Math.addExact para acusar estouro.
+ *
+ * A faixa nunca sai da janela [windowStart, windowEnd] (ver balance.index.years-back e
+ * years-ahead): uma data absurda (ano 0001 ou 9999) não aloca milhões de dias. Variações antes
+ * da janela viram um saldo inicial único; as depois dela não são guardadas, e dias fora da
+ * janela ({@link #covers}) são respondidos pela tabela daily_balance.
+ */
+final class BalanceIndex {
+
+    // Folga adicionada ao expandir, para evitar reconstruções a cada novo dia
+    private static final int PADDING_DAYS = 366;
+
+    // Momento (System.nanoTime) em que a leitura da tabela terminou
+    private final long loadedAt;
+
+    // Dias (epoch day) que o índice pode cobrir, inclusive
+    private final long windowStart;
+    private final long windowEnd;
+
+    // Soma das variações anteriores à janela
+    private long before;
+    private long origin;
+    private long[] raw;
+    private long[] tree;
+
+    private BalanceIndex(long loadedAt, LocalDate windowStart, LocalDate windowEnd, long origin, long end) {
+        this.loadedAt = loadedAt;
+        this.windowStart = windowStart.toEpochDay();
+        this.windowEnd = windowEnd.toEpochDay();
+        this.origin = origin;
+        int capacity = Math.toIntExact(end - origin + 1);
+        this.raw = new long[capacity];
+        this.tree = new long[capacity + 1];
+    }
+
+    /**
+     * Constrói o índice a partir das linhas (dia, variação numeric) ordenadas por dia, limitado
+     * à janela [windowStart, windowEnd].
+     */
+    static BalanceIndex build(List<Object[]> rows, long loadedAt, LocalDate windowStart, LocalDate windowEnd) {
+        if (windowEnd.isBefore(windowStart)) {
+            throw new IllegalArgumentException("Empty balance index window");
+        }
+        long start = windowStart.toEpochDay();
+        long end = windowEnd.toEpochDay();
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (Object[] row : rows) {
+            long day = ((LocalDate) row[0]).toEpochDay();
+            if (day >= start && day <= end) {
+                first = Math.min(first, day);
+                last = Math.max(last, day);
+            }
+        }
+        if (first == Long.MAX_VALUE) {
+            first = Math.min(Math.max(LocalDate.now().toEpochDay(), start), end);
+            last = first;
+        }
+        BalanceIndex index = new BalanceIndex(loadedAt, windowStart, windowEnd, first,
+                Math.min(last + PADDING_DAYS, end));
+        for (Object[] row : rows) {
+            long day = ((LocalDate) row[0]).toEpochDay();
+            long delta = Money.minorOf((BigDecimal) row[1]);
+            if (day < start) {
+                index.before = Math.addExact(index.before, delta);
+            } else if (day <= end) {
+                int i = (int) (day - first);
+                index.raw[i] = Math.addExact(index.raw[i], delta);
+            }
+        }
+        index.rebuildTree();
+        return index;
+    }
+
+    long loadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Se o dia está na janela do índice; os demais vêm de daily_balance
+     */
+    boolean covers(LocalDate day) {
+        long epochDay = day.toEpochDay();
+        return epochDay >= windowStart && epochDay <= windowEnd;
+    }
+
+    synchronized void add(LocalDate day, long delta) {
+        long epochDay = day.toEpochDay();
+        if (epochDay < windowStart) {
+            before = Math.addExact(before, delta);
+            return;
+        }
+        if (epochDay > windowEnd) {
+            return;
+        }
+        ensureCovers(epochDay);
+        int i = (int) (epochDay - origin);
+        raw[i] = Math.addExact(raw[i], delta);
+        for (int k = i + 1; k < tree.length; k += k & -k) {
+            tree[k] = Math.addExact(tree[k], delta);
+        }
+    }
+
+    /**
+     * Saldo acumulado (centavos) até o fim do dia informado (inclusive); o dia precisa estar
+     * na janela ({@link #covers}).
+     */
+    synchronized long balanceAt(LocalDate day) {
+        long epochDay = day.toEpochDay();
+        checkCovered(epochDay);
+        if (epochDay < origin) {
+            return before;
+        }
+        int i = (int) Math.min(epochDay - origin, raw.length - 1);
+        return Math.addExact(before, prefix(i));
+    }
+
+    /**
+     * Saldo ao fim de cada dia de {@code from} até {@code to} (inclusive), os dois na janela:
+     * uma consulta O(log n) para o primeiro dia e depois soma corrida das variações.
+     */
+    synchronized long[] curve(LocalDate from, LocalDate to) {
+        checkCovered(to.toEpochDay());
+        long start = from.toEpochDay();
+        int days = Math.toIntExact(to.toEpochDay() - start + 1);
+        long[] result = new long[days];
+        long running = balanceAt(from);
+        result[0] = running;
+        for (int d = 1; d < days; d++) {
+            long i = start + d - origin;
+            if (i >= 0 && i < raw.length) {
+                running = Math.addExact(running, raw[(int) i]);
+            }
+            result[d] = running;
+        }
+        return result;
+    }
+
+    private long prefix(int i) {
+        long sum = 0L;
+        for (int k = i + 1; k > 0; k -= k & -k) {
+            sum = Math.addExact(sum, tree[k]);
+        }
+        return sum;
+    }
+
+    private void checkCovered(long epochDay) {
+        if (epochDay < windowStart || epochDay > windowEnd) {
+            throw new IllegalArgumentException("Day " + LocalDate.ofEpochDay(epochDay) + " is outside the balance index");
+        }
+    }
+
+    private void ensureCovers(long epochDay) {
+        long end = origin + raw.length - 1;
+        if (epochDay >= origin && epochDay <= end) {
+            return;
+        }
+        long newOrigin = epochDay < origin ? Math.max(epochDay - PADDING_DAYS, windowStart) : origin;
+        long newEnd = epochDay > end ? Math.min(epochDay + PADDING_DAYS, windowEnd) : end;
+        long[] newRaw = new long[Math.toIntExact(newEnd - newOrigin + 1)];
+        System.arraycopy(raw, 0, newRaw, (int) (origin - newOrigin), raw.length);
+        origin = newOrigin;
+        raw = newRaw;
+        tree = new long[newRaw.length + 1];
+        rebuildTree();
+    }
+
+    // Construção em O(n): cada nó propaga seu valor para o pai imediato
+    private void rebuildTree() {
+        Arrays.fill(tree, 0L);
+        for (int k = 1; k < tree.length; k++) {
+            tree[k] = Math.addExact(tree[k], raw[k - 1]);
+            int parent = k + (k & -k);
+            if (parent < tree.length) {
+                tree[parent] = Math.addExact(tree[parent], tree[k]);
+            }
+        }
+    }
+}
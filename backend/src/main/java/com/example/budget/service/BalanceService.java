@@ -0,0 +1,196 @@
+package com.example.budget.service;
+
+import com.example.budget.dto.BalancePoint;
+import com.example.budget.event.LedgerChangeEvent;
+import com.example.budget.event.LedgerEntry;
+import com.example.budget.event.UserCachesInvalidatedEvent;
+import com.example.budget.model.Money;
+import com.example.budget.model.User;
+import com.example.budget.repository.DailyBalanceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class BalanceService {
+
+    // Intervalo máximo aceito pela curva de saldo (~10 anos)
+    private static final int MAX_CURVE_DAYS = 3660;
+
+    private final DailyBalanceRepository dailyBalanceRepository;
+    private final FxRateService fxRateService;
+    private final int yearsBack;
+    private final int yearsAhead;
+    private final Map<Long, BalanceIndex> indexes = new ConcurrentHashMap<>();
+
+    public BalanceService(DailyBalanceRepository dailyBalanceRepository, FxRateService fxRateService,
+                          @Value("${balance.index.years-back:20}") int yearsBack,
+                          @Value("${balance.index.years-ahead:20}") int yearsAhead) {
+        this.dailyBalanceRepository = dailyBalanceRepository;
+        this.fxRateService = fxRateService;
+        this.yearsBack = yearsBack;
+        this.yearsAhead = yearsAhead;
+    }
+
+    /**
+     * Saldo acumulado do usuário ao fim do dia informado, na moeda pedida (null = moeda base)
+     */
+    public BalancePoint balanceAt(LocalDate day, User user, String currency) {
+        String target = fxRateService.normalize(currency);
+        long balance = fxRateService.convert(balanceAt(user.getId(), day), null, target, day);
+        return new BalancePoint(day, Money.toBigDecimal(balance));
+    }
+
+    /**
+     * Saldo ao fim de cada dia do intervalo [from, to], convertido com a cotação de cada dia
+     */
+    public List<BalancePoint> balanceCurve(LocalDate from, LocalDate to, User user, String currency) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("A data final deve ser posterior à data inicial");
+        }
+        if (to.toEpochDay() - from.toEpochDay() >= MAX_CURVE_DAYS) {
+            throw new IllegalArgumentException("Intervalo máximo da curva de saldo excedido");
+        }
+
+        String target = fxRateService.normalize(currency);
+        BalanceIndex index = indexFor(user.getId());
+        long[] balances = index.covers(from) && index.covers(to)
+                ? index.curve(from, to)
+                : curveFromTable(user.getId(), from, to);
+        List<BalancePoint> points = new ArrayList<>(balances.length);
+        for (int d = 0; d < balances.length; d++) {
+            LocalDate day = from.plusDays(d);
+            points.add(new BalancePoint(day, Money.toBigDecimal(fxRateService.convert(balances[d], null, target, day))));
+        }
+        return points;
+    }
+
+    /**
+     * Mantém a tabela daily_balance na mesma transação da escrita; a árvore em memória
+     * só é atualizada após o commit para não divergir em caso de rollback.
+     */
+    @EventListener
+    public void onLedgerChange(LedgerChangeEvent event) {
+        Map<Long, Map<LocalDate, Long>> deltas = new HashMap<>();
+        // daily_balance fica na moeda base, com a cotação do dia de cada transação
+        collect(deltas, fxRateService.toBase(event.added()), false);
+        collect(deltas, fxRateService.toBase(event.removed()), true);
+
+        deltas.forEach((userId, byDay) -> byDay.forEach((day, delta) -> {
+            if (delta != 0) {
+                dailyBalanceRepository.addDelta(userId, day, Money.toBigDecimal(delta));
+            }
+        }));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private long committingAt;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    committingAt = System.nanoTime();
+                }
+
+                @Override
+                public void afterCommit() {
+                    applyToIndexes(deltas, committingAt);
+                }
+            });
+        } else {
+            applyToIndexes(deltas, System.nanoTime());
+        }
+    }
+
+    /**
+     * Saldo em centavos da moeda base ao fim de cada dia informado (inclui parcelas futuras)
+     */
+    public long[] balancesAt(Long userId, List<LocalDate> days) {
+        BalanceIndex index = indexFor(userId);
+        long[] balances = new long[days.size()];
+        for (int i = 0; i < balances.length; i++) {
+            LocalDate day = days.get(i);
+            balances[i] = index.covers(day) ? index.balanceAt(day) : balanceFromTable(userId, day);
+        }
+        return balances;
+    }
+
+    /**
+     * Descarta a árvore em memória do usuário; será reconstruída na próxima consulta
+     */
+    public void evict(Long userId) {
+        indexes.remove(userId);
+    }
+
+    /**
+     * Outra instância gravou lançamentos destes usuários (ver CacheInvalidationBus)
+     */
+    @EventListener
+    public void onCachesInvalidated(UserCachesInvalidatedEvent event) {
+        if (event.allUsers()) {
+            indexes.clear();
+        } else {
+            event.userIds().forEach(indexes::remove);
+        }
+    }
+
+    private BalanceIndex indexFor(Long userId) {
+        return indexes.computeIfAbsent(userId, id -> {
+            List<Object[]> rows = dailyBalanceRepository.findDeltasByUserId(id);
+            LocalDate today = LocalDate.now();
+            return BalanceIndex.build(rows, System.nanoTime(), today.minusYears(yearsBack), today.plusYears(yearsAhead));
+        });
+    }
+
+    private long balanceAt(Long userId, LocalDate day) {
+        BalanceIndex index = indexFor(userId);
+        return index.covers(day) ? index.balanceAt(day) : balanceFromTable(userId, day);
+    }
+
+    // Dias fora da janela do índice (datas muito antigas ou muito à frente)
+    private long balanceFromTable(Long userId, LocalDate day) {
+        return Money.minorOf(dailyBalanceRepository.sumUntil(userId, day));
+    }
+
+    private long[] curveFromTable(Long userId, LocalDate from, LocalDate to) {
+        long[] result = new long[Math.toIntExact(to.toEpochDay() - from.toEpochDay() + 1)];
+        Map<LocalDate, Long> deltas = new HashMap<>();
+        for (Object[] row : dailyBalanceRepository.findDeltasByUserIdBetween(userId, from, to)) {
+            deltas.merge((LocalDate) row[0], Money.minorOf((BigDecimal) row[1]), Math::addExact);
+        }
+        long running = balanceFromTable(userId, from.minusDays(1));
+        for (int d = 0; d < result.length; d++) {
+            running = Math.addExact(running, deltas.getOrDefault(from.plusDays(d), 0L));
+            result[d] = running;
+        }
+        return result;
+    }
+
+    private void applyToIndexes(Map<Long, Map<LocalDate, Long>> deltas, long committingAt) {
+        deltas.forEach((userId, byDay) -> indexes.computeIfPresent(userId, (id, index) -> {
+            // Leitura terminada durante o commit pode já conter estas variações: reconstrói depois
+            if (index.loadedAt() >= committingAt) {
+                return null;
+            }
+            byDay.forEach(index::add);
+            return index;
+        }));
+    }
+
+    private static void collect(Map<Long, Map<LocalDate, Long>> deltas, List<LedgerEntry> entries, boolean negate) {
+        for (LedgerEntry entry : entries) {
+            long signed = negate ? Math.negateExact(entry.signedMinor()) : entry.signedMinor();
+            deltas.computeIfAbsent(entry.userId(), id -> new HashMap<>())
+                    .merge(entry.dateTime().toLocalDate(), signed, Math::addExact);
+        }
+    }
+}
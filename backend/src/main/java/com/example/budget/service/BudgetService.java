@@ -0,0 +1,205 @@
+package com.example.budget.service;
+
+import com.example.budget.dto.BudgetRequest;
+import com.example.budget.dto.BudgetStatusDTO;
+import com.example.budget.event.LedgerChangeEvent;
+import com.example.budget.event.LedgerEntry;
+import com.example.budget.model.Budget;
+import com.example.budget.model.BudgetAlert;
+import com.example.budget.model.BudgetAlertLevel;
+import com.example.budget.model.Money;
+import com.example.budget.model.TransactionType;
+import com.example.budget.model.User;
+import com.example.budget.repository.BudgetAlertRepository;
+import com.example.budget.repository.BudgetRepository;
+import com.example.budget.repository.BudgetUsageRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class BudgetService {
+
+    private final BudgetRepository budgetRepository;
+    private final BudgetUsageRepository budgetUsageRepository;
+    private final BudgetAlertRepository budgetAlertRepository;
+    private final FxRateService fxRateService;
+    private final CategoryDictionary categoryDictionary;
+
+    public BudgetService(BudgetRepository budgetRepository,
+                         BudgetUsageRepository budgetUsageRepository,
+                         BudgetAlertRepository budgetAlertRepository,
+                         FxRateService fxRateService,
+                         CategoryDictionary categoryDictionary) {
+        this.budgetRepository = budgetRepository;
+        this.budgetUsageRepository = budgetUsageRepository;
+        this.budgetAlertRepository = budgetAlertRepository;
+        this.fxRateService = fxRateService;
+        this.categoryDictionary = categoryDictionary;
+    }
+
+    /**
+     * Cria ou atualiza o orçamento mensal de uma categoria
+     */
+    @Transactional
+    public Budget save(BudgetRequest request, User user) {
+        if (request.getCategory() == null || request.getCategory().isBlank()) {
+            throw new IllegalArgumentException("A categoria é obrigatória");
+        }
+        if (request.getMonthlyLimit() == null || request.getMonthlyLimit().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("O limite mensal deve ser maior que zero");
+        }
+        if (request.getAlertThreshold() != null
+                && (request.getAlertThreshold() <= 0 || request.getAlertThreshold() > 100)) {
+            throw new IllegalArgumentException("O limiar de alerta deve estar entre 1 e 100");
+        }
+
+        // O consumo (budget_usage) é gravado com o nome canônico do dicionário: o orçamento
+        // precisa usar o mesmo nome, senão " food" nunca casa com o gasto em "Food"
+        String category = categoryDictionary.nameOf(
+                categoryDictionary.idForIgnoringCase(user.getId(), request.getCategory()));
+
+        Budget budget = budgetRepository.findByUserAndCategory(user, category)
+                .orElseGet(Budget::new);
+        budget.setUser(user);
+        budget.setCategory(category);
+        budget.setMonthlyLimit(request.getMonthlyLimit());
+        if (request.getAlertThreshold() != null) {
+            budget.setAlertThreshold(request.getAlertThreshold());
+        }
+        return budgetRepository.save(budget);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Budget> findAllByUser(User user) {
+        return budgetRepository.findByUserOrderByCategory(user);
+    }
+
+    @Transactional
+    public void delete(Long id, User user) {
+        Budget budget = budgetRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Orçamento não encontrado"));
+
+        if (!budget.getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("Acesso negado");
+        }
+
+        budgetRepository.delete(budget);
+    }
+
+    /**
+     * Situação dos orçamentos no mês: lê os contadores, sem agregar transações
+     */
+    @Transactional(readOnly = true)
+    public List<BudgetStatusDTO> status(YearMonth month, User user) {
+        Map<String, BigDecimal> spentByCategory = new HashMap<>();
+        for (Object[] row : budgetUsageRepository.findSpentByCategory(user, periodOf(month))) {
+            spentByCategory.put((String) row[0], (BigDecimal) row[1]);
+        }
+
+        return budgetRepository.findByUserOrderByCategory(user).stream()
+                .map(budget -> {
+                    BigDecimal spent = spentByCategory.getOrDefault(budget.getCategory(), BigDecimal.ZERO);
+                    int percent = percentUsed(spent, budget.getMonthlyLimit());
+                    return new BudgetStatusDTO(
+                            budget.getId(),
+                            budget.getCategory(),
+                            budget.getMonthlyLimit(),
+                            spent,
+                            percent,
+                            budget.getAlertThreshold(),
+                            levelFor(percent, budget.getAlertThreshold()));
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<BudgetAlert> recentAlerts(User user) {
+        return budgetAlertRepository.findTop50ByUserOrderByCreatedAtDesc(user);
+    }
+
+    /**
+     * Atualiza os contadores de despesas na mesma transação da escrita e avalia
+     * os alertas das categorias afetadas: custo O(1) por (categoria, mês) alterado.
+     */
+    @EventListener
+    public void onLedgerChange(LedgerChangeEvent event) {
+        Map<UsageKey, Long> deltas = new HashMap<>();
+        // Limites e gastos ficam na moeda base
+        collect(deltas, fxRateService.toBase(event.added()), false);
+        collect(deltas, fxRateService.toBase(event.removed()), true);
+
+        deltas.forEach((key, delta) -> {
+            if (delta == 0) {
+                return;
+            }
+            budgetUsageRepository.addSpent(key.userId(), key.category(), key.period(), Money.toBigDecimal(delta));
+            if (delta > 0) {
+                evaluateAlert(key);
+            }
+        });
+    }
+
+    private void evaluateAlert(UsageKey key) {
+        Budget budget = budgetRepository.findByUserIdAndCategory(key.userId(), key.category()).orElse(null);
+        if (budget == null) {
+            return;
+        }
+        BigDecimal spent = budgetUsageRepository.findSpent(key.userId(), key.category(), key.period())
+                .orElse(BigDecimal.ZERO);
+        BudgetAlertLevel level = levelFor(percentUsed(spent, budget.getMonthlyLimit()), budget.getAlertThreshold());
+        if (level == BudgetAlertLevel.EXCEEDED) {
+            // Quem estourou o limite também passou pelo aviso
+            budgetAlertRepository.insertIfAbsent(key.userId(), key.category(), key.period(),
+                    BudgetAlertLevel.WARNING.name(), spent, budget.getMonthlyLimit());
+        }
+        if (level != null) {
+            budgetAlertRepository.insertIfAbsent(key.userId(), key.category(), key.period(),
+                    level.name(), spent, budget.getMonthlyLimit());
+        }
+    }
+
+    private static void collect(Map<UsageKey, Long> deltas, List<LedgerEntry> entries, boolean negate) {
+        for (LedgerEntry entry : entries) {
+            // Orçamentos valem só para despesas com categoria
+            if (entry.type() != TransactionType.EXPENSE || entry.category() == null) {
+                continue;
+            }
+            UsageKey key = new UsageKey(entry.userId(), entry.category(),
+                    periodOf(YearMonth.from(entry.dateTime())));
+            long amount = entry.amountMinor();
+            deltas.merge(key, negate ? Math.negateExact(amount) : amount, Math::addExact);
+        }
+    }
+
+    private static int periodOf(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    private static int percentUsed(BigDecimal spent, BigDecimal limit) {
+        return spent.multiply(BigDecimal.valueOf(100))
+                .divide(limit, 0, RoundingMode.DOWN)
+                .intValue();
+    }
+
+    private static BudgetAlertLevel levelFor(int percentUsed, int alertThreshold) {
+        if (percentUsed >= 100) {
+            return BudgetAlertLevel.EXCEEDED;
+        }
+        if (percentUsed >= alertThreshold) {
+            return BudgetAlertLevel.WARNING;
+        }
+        return null;
+    }
+
+    private record UsageKey(Long userId, String category, int period) {
+    }
+}
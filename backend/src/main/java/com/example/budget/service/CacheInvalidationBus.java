@@ -0,0 +1,209 @@
+package com.example.budget.service;
+
+import com.example.budget.event.LedgerChangeEvent;
+import com.example.budget.event.LedgerEntry;
+import com.example.budget.event.UserCachesInvalidatedEvent;
+import com.example.budget.repository.CacheInvalidationJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Invalidação de caches em memória entre instâncias do backend via LISTEN/NOTIFY do PostgreSQL.
+ *
+ * Toda escrita no livro-caixa (LedgerChangeEvent) faz um NOTIFY com os ids dos usuários
+ * afetados na mesma transação, então a mensagem só sai no commit. Uma thread por instância
+ * fica em LISTEN numa conexão própria (fora do pool) e, ao receber mensagens de outras
+ * instâncias, publica {@link UserCachesInvalidatedEvent} localmente. A própria instância
+ * ignora suas mensagens: os listeners locais já atualizaram os caches no commit.
+ *
+ * Mensagem: "instância;epoch-ms do envio;id,id,...". O atraso de entrega usa o relógio das
+ * duas máquinas, então só é confiável com NTP.
+ */
+@Service
+@ConditionalOnProperty(name = "cache.invalidation.enabled", havingValue = "true")
+public class CacheInvalidationBus implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    static final String CHANNEL = "budget_cache_invalidation";
+    // O payload do NOTIFY tem limite de 8000 bytes
+    private static final int MAX_IDS_PER_MESSAGE = 400;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final CacheInvalidationJdbcRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int pollMs;
+
+    private final Timer lagTimer;
+    private final Counter sentCounter;
+    private final Counter receivedCounter;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public CacheInvalidationBus(CacheInvalidationJdbcRepository repository,
+                                ApplicationEventPublisher eventPublisher,
+                                MeterRegistry meterRegistry,
+                                @Value("${spring.datasource.url}") String url,
+                                @Value("${spring.datasource.username}") String username,
+                                @Value("${spring.datasource.password}") String password,
+                                @Value("${cache.invalidation.poll-ms:500}") int pollMs) {
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.pollMs = pollMs;
+
+        this.lagTimer = Timer.builder("cache.invalidation.lag")
+                .description("Tempo entre o envio de uma invalidação por outra instância e o recebimento")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("cache.invalidation.sent")
+                .description("Mensagens de invalidação enviadas por esta instância")
+                .register(meterRegistry);
+        this.receivedCounter = Counter.builder("cache.invalidation.received")
+                .description("Mensagens de invalidação de outras instâncias aplicadas aqui")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onLedgerChange(LedgerChangeEvent event) {
+        Set<Long> userIds = new TreeSet<>();
+        event.added().stream().map(LedgerEntry::userId).forEach(userIds::add);
+        event.removed().stream().map(LedgerEntry::userId).forEach(userIds::add);
+        if (!userIds.isEmpty()) {
+            publish(userIds);
+        }
+    }
+
+    /**
+     * Avisa as outras instâncias; dentro de uma transação a entrega acontece no commit
+     */
+    public void publish(Set<Long> userIds) {
+        List<Long> ids = new ArrayList<>(userIds);
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_MESSAGE) {
+            String joined = ids.subList(from, Math.min(from + MAX_IDS_PER_MESSAGE, ids.size())).stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(","));
+            repository.notify(CHANNEL, nodeId + ";" + System.currentTimeMillis() + ";" + joined);
+            sentCounter.increment();
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+            try {
+                listener.join(pollMs * 2L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        long backoffMs = 1000;
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                if (reconnecting) {
+                    // Avisos enviados enquanto a conexão estava fora foram perdidos
+                    logger.info("Cache invalidation listener reconnected; evicting all user caches");
+                    eventPublisher.publishEvent(UserCachesInvalidatedEvent.everyone());
+                }
+                backoffMs = 1000;
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            try {
+                                handle(notification.getParameter());
+                            } catch (RuntimeException e) {
+                                // Mensagem inválida ou falha de um listener local não derruba a escuta
+                                logger.error("Cache invalidation handling failed: {}", e.getMessage(), e);
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Cache invalidation listener disconnected, retrying in {} ms: {}", backoffMs, e.getMessage());
+                reconnecting = true;
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        String[] parts = payload.split(";", 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Mensagem de invalidação inválida: " + payload);
+        }
+        if (nodeId.equals(parts[0])) {
+            return;
+        }
+        long lagMs = System.currentTimeMillis() - Long.parseLong(parts[1]);
+        lagTimer.record(Duration.ofMillis(Math.max(0, lagMs)));
+
+        Set<Long> userIds = new HashSet<>();
+        for (String id : parts[2].split(",")) {
+            userIds.add(Long.parseLong(id));
+        }
+        eventPublisher.publishEvent(UserCachesInvalidatedEvent.of(userIds));
+        receivedCounter.increment();
+    }
+}
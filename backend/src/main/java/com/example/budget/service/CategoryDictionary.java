@@ -0,0 +1,155 @@
+package com.example.budget.service;
+
+import com.example.budget.event.UserCachesInvalidatedEvent;
+import com.example.budget.model.Transaction;
+import com.example.budget.repository.CategoryJdbcRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dicionário em memória entre nomes de categoria e seus ids inteiros.
+ *
+ * Cada nome é guardado uma única vez (namesById), então todas as transações carregadas
+ * compartilham a mesma instância de String. Só ids já confirmados no banco entram no cache:
+ * categorias novas são criadas em transação própria, de modo que um rollback da escrita
+ * não deixa no cache um id que não existe.
+ */
+@Service
+public class CategoryDictionary {
+
+    private final CategoryJdbcRepository repository;
+    private final TransactionTemplate requiresNew;
+    private final Map<Long, Map<String, Integer>> idsByUser = new ConcurrentHashMap<>();
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+
+    public CategoryDictionary(CategoryJdbcRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Id da categoria do usuário, criando-a se necessário; null para categoria vazia
+     */
+    public Integer idFor(Long userId, String name) {
+        if (!StringUtils.hasText(name)) {
+            return null;
+        }
+        String key = name.trim();
+        Map<String, Integer> ids = idsFor(userId);
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = requiresNew.execute(status -> repository.findOrCreate(userId, key));
+            ids.put(intern(id, key), id);
+        }
+        return id;
+    }
+
+    /**
+     * Id de uma categoria já existente do usuário, sem criá-la; null se não existir
+     */
+    public Integer findId(Long userId, String name) {
+        if (!StringUtils.hasText(name)) {
+            return null;
+        }
+        return idsFor(userId).get(name.trim());
+    }
+
+    /**
+     * Como {@link #idFor}, mas aceita o nome sem diferenciar maiúsculas quando o usuário já tem
+     * a categoria com outra grafia ("food" → "Food"); havendo várias, vale a de menor id
+     */
+    public Integer idForIgnoringCase(Long userId, String name) {
+        if (!StringUtils.hasText(name)) {
+            return null;
+        }
+        Integer id = findId(userId, name);
+        if (id != null) {
+            return id;
+        }
+        String key = name.trim();
+        Integer match = null;
+        for (Map.Entry<String, Integer> entry : idsFor(userId).entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(key) && (match == null || entry.getValue() < match)) {
+                match = entry.getValue();
+            }
+        }
+        return match != null ? match : idFor(userId, key);
+    }
+
+    /**
+     * Nome da categoria (instância compartilhada) ou null se o id for nulo/desconhecido
+     */
+    public String nameOf(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        String name = namesById.get(id);
+        if (name == null) {
+            name = repository.findName(id).map(n -> intern(id, n)).orElse(null);
+        }
+        return name;
+    }
+
+    /**
+     * Preenche categoryId e normaliza o nome da transação para o nome canônico do dicionário
+     */
+    public void resolve(Transaction transaction, Long userId) {
+        Integer id = idFor(userId, transaction.getCategory());
+        transaction.setCategoryId(id);
+        transaction.setCategory(nameOf(id));
+    }
+
+    /**
+     * Ids das categorias do usuário cujo nome contém o trecho (sem diferenciar maiúsculas)
+     */
+    public List<Integer> idsMatching(Long userId, String fragment) {
+        String needle = fragment.toLowerCase();
+        List<Integer> matches = new ArrayList<>();
+        idsFor(userId).forEach((name, id) -> {
+            if (name.toLowerCase().contains(needle)) {
+                matches.add(id);
+            }
+        });
+        return matches;
+    }
+
+    public void evict(Long userId) {
+        idsByUser.remove(userId);
+    }
+
+    /**
+     * Categorias criadas em outra instância só aparecem aqui após recarregar o mapa do usuário.
+     * namesById não é descartado: um id nunca muda de nome.
+     */
+    @EventListener
+    public void onCachesInvalidated(UserCachesInvalidatedEvent event) {
+        if (event.allUsers()) {
+            idsByUser.clear();
+        } else {
+            event.userIds().forEach(idsByUser::remove);
+        }
+    }
+
+    private Map<String, Integer> idsFor(Long userId) {
+        return idsByUser.computeIfAbsent(userId, id -> {
+            Map<String, Integer> ids = new ConcurrentHashMap<>();
+            repository.findIdsByName(id).forEach((name, categoryId) -> ids.put(intern(categoryId, name), categoryId));
+            return ids;
+        });
+    }
+
+    private String intern(Integer id, String name) {
+        String existing = namesById.putIfAbsent(id, name);
+        return existing != null ? existing : name;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.budget.service;
+
+import com.example.budget.model.TransactionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Naive Bayes multinomial de um usuário: categoria a partir dos tokens da descrição, do tipo
+ * e da ordem de grandeza do valor. Os contadores (token, categoria) ficam num
+ * {@link LongIntHashMap} indexado por hash de 64 bits, sem guardar os textos, e o modelo
+ * aceita "destreino" (delta -1) quando uma transação é removida ou muda de categoria.
+ * A predição percorre os tokens uma vez por categoria: microssegundos para dezenas de categorias.
+ */
+final class CategoryModel {
+
+    /**
+     * Categoria prevista e probabilidade normalizada entre as categorias conhecidas
+     */
+    record Prediction(String category, double probability) {
+    }
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Map<String, Integer> slotByCategory = new HashMap<>();
+    private String[] categories = new String[8];
+    private int[] documents = new int[8];
+    private long[] tokensPerCategory = new long[8];
+    private int totalDocuments;
+
+    // (token, categoria) → ocorrências e token → ocorrências em todas as categorias
+    private final LongIntHashMap tokenCounts = new LongIntHashMap(1024);
+    private final LongIntHashMap vocabulary = new LongIntHashMap(256);
+
+    // Momento (System.nanoTime) em que a leitura da tabela terminou
+    private final long loadedAt;
+
+    CategoryModel(long loadedAt) {
+        this.loadedAt = loadedAt;
+    }
+
+    long loadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Soma (delta 1) ou retira (delta -1) uma transação já categorizada do modelo
+     */
+    synchronized void train(String description, TransactionType type, long amountMinor, String category, int delta) {
+        int slot = slotFor(category);
+        long[] features = features(description, type, amountMinor);
+        documents[slot] += delta;
+        totalDocuments += delta;
+        tokensPerCategory[slot] += (long) features.length * delta;
+        for (long token : features) {
+            tokenCounts.add(key(token, slot), delta);
+            vocabulary.add(token, delta);
+        }
+    }
+
+    /**
+     * Até {@code limit} categorias mais prováveis, da maior para a menor probabilidade
+     */
+    synchronized List<Prediction> predict(String description, TransactionType type, long amountMinor, int limit) {
+        if (totalDocuments <= 0) {
+            return List.of();
+        }
+        long[] features = features(description, type, amountMinor);
+        int categoryCount = slotByCategory.size();
+        int known = 0;
+        for (int c = 0; c < categoryCount; c++) {
+            if (documents[c] > 0) {
+                known++;
+            }
+        }
+        // Suavização de Laplace sobre categorias e vocabulário (+1 para tokens nunca vistos)
+        double vocabularySize = vocabulary.size() + 1.0;
+        double[] logScores = new double[categoryCount];
+        double best = Double.NEGATIVE_INFINITY;
+        for (int c = 0; c < categoryCount; c++) {
+            if (documents[c] <= 0) {
+                logScores[c] = Double.NEGATIVE_INFINITY;
+                continue;
+            }
+            double score = Math.log((documents[c] + 1.0) / (totalDocuments + known));
+            double denominator = Math.log(tokensPerCategory[c] + vocabularySize);
+            for (long token : features) {
+                score += Math.log(tokenCounts.get(key(token, c)) + 1.0) - denominator;
+            }
+            logScores[c] = score;
+            best = Math.max(best, score);
+        }
+
+        // Normaliza em probabilidades (softmax estável)
+        double sum = 0;
+        for (int c = 0; c < categoryCount; c++) {
+            sum += Math.exp(logScores[c] - best);
+        }
+        Integer[] order = new Integer[categoryCount];
+        for (int c = 0; c < categoryCount; c++) {
+            order[c] = c;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(logScores[b], logScores[a]));
+
+        List<Prediction> predictions = new ArrayList<>(Math.min(limit, known));
+        for (int i = 0; i < order.length && predictions.size() < limit; i++) {
+            int c = order[i];
+            if (documents[c] > 0) {
+                predictions.add(new Prediction(categories[c], Math.exp(logScores[c] - best) / sum));
+            }
+        }
+        return predictions;
+    }
+
+    private int slotFor(String category) {
+        Integer slot = slotByCategory.get(category);
+        if (slot != null) {
+            return slot;
+        }
+        int next = slotByCategory.size();
+        if (next == categories.length) {
+            categories = Arrays.copyOf(categories, next * 2);
+            documents = Arrays.copyOf(documents, next * 2);
+            tokensPerCategory = Arrays.copyOf(tokensPerCategory, next * 2);
+        }
+        categories[next] = category;
+        slotByCategory.put(category, next);
+        return next;
+    }
+
+    /**
+     * Hashes dos tokens: palavras da descrição (letras e dígitos, minúsculas), tipo e
+     * faixa de valor em potências de 2 (R$ 10 e R$ 12 caem na mesma faixa)
+     */
+    static long[] features(String description, TransactionType type, long amountMinor) {
+        long[] tokens = new long[8];
+        int count = 0;
+        if (description != null) {
+            long hash = FNV_OFFSET;
+            int length = 0;
+            for (int i = 0; i <= description.length(); i++) {
+                char ch = i < description.length() ? description.charAt(i) : ' ';
+                if (Character.isLetterOrDigit(ch)) {
+                    hash = (hash ^ Character.toLowerCase(ch)) * FNV_PRIME;
+                    length++;
+                } else {
+                    if (length >= MIN_TOKEN_LENGTH) {
+                        if (count == tokens.length) {
+                            tokens = Arrays.copyOf(tokens, count * 2);
+                        }
+                        tokens[count++] = hash;
+                    }
+                    hash = FNV_OFFSET;
+                    length = 0;
+                }
+            }
+        }
+        if (count + 2 > tokens.length) {
+            tokens = Arrays.copyOf(tokens, count + 2);
+        }
+        tokens[count++] = mix(0x7479706500000000L + (type != null ? type.ordinal() + 1 : 0));
+        tokens[count++] = mix(0x616d6f756e740000L + (64 - Long.numberOfLeadingZeros(Math.max(0, amountMinor))));
+        return Arrays.copyOf(tokens, count);
+    }
+
+    private static long key(long token, int slot) {
+        return mix(token + 0x9E3779B97F4A7C15L * (slot + 1));
+    }
+
+    // Finalizador do SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
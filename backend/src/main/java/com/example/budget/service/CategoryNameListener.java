@@ -0,0 +1,26 @@
+package com.example.budget.service;
+
+import com.example.budget.model.Transaction;
+import jakarta.persistence.PostLoad;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Preenche o nome da categoria das transações carregadas a partir do category_id.
+ * O dicionário é obtido sob demanda: o Hibernate instancia o listener durante a criação
+ * do EntityManagerFactory, antes do gerenciador de transações que o dicionário usa.
+ */
+@Component
+public class CategoryNameListener {
+
+    private final ObjectProvider<CategoryDictionary> categoryDictionary;
+
+    public CategoryNameListener(ObjectProvider<CategoryDictionary> categoryDictionary) {
+        this.categoryDictionary = categoryDictionary;
+    }
+
+    @PostLoad
+    public void resolveName(Transaction transaction) {
+        transaction.setCategory(categoryDictionary.getObject().nameOf(transaction.getCategoryId()));
+    }
+}
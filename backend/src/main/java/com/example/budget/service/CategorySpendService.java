@@ -0,0 +1,208 @@
+package com.example.budget.service;
+
+import com.example.budget.dto.CategorySpendStats;
+import com.example.budget.dto.OutlierCheck;
+import com.example.budget.event.LedgerChangeEvent;
+import com.example.budget.event.LedgerEntry;
+import com.example.budget.model.Money;
+import com.example.budget.model.Transaction;
+import com.example.budget.model.TransactionType;
+import com.example.budget.model.User;
+import com.example.budget.repository.ArchivedTransactionRow;
+import com.example.budget.repository.CategorySketchJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Estatísticas de gasto por categoria (mediana, p90, maior e menor despesa, limite de outlier)
+ * a partir de um {@link KllSketch} por usuário e categoria, gravado em category_sketches.
+ *
+ * As despesas gravadas entram no sketch dentro da própria transação de escrita, com a linha
+ * da categoria travada. Um sketch não aceita remoções: exclusões, edições e trocas de categoria
+ * marcam o sketch como pendente (NULL) e ele é reconstruído a partir das transações na próxima
+ * leitura. A consulta lê um sketch de tamanho fixo por categoria, qualquer que seja o histórico.
+ */
+@Service
+public class CategorySpendService {
+
+    // Abaixo disso a amplitude interquartil não diz muito: não há limite de outlier
+    private static final int MIN_OUTLIER_COUNT = 8;
+    private static final double TUKEY_FENCE = 1.5;
+
+    private final CategorySketchJdbcRepository repository;
+    private final CategoryDictionary categoryDictionary;
+    private final FxRateService fxRateService;
+    private final InstallmentPlanService installmentPlanService;
+    private final TransactionArchiveService archiveService;
+    private final int k;
+
+    private final Counter rebuildCounter;
+
+    public CategorySpendService(CategorySketchJdbcRepository repository,
+                                CategoryDictionary categoryDictionary,
+                                FxRateService fxRateService,
+                                InstallmentPlanService installmentPlanService,
+                                TransactionArchiveService archiveService,
+                                MeterRegistry meterRegistry,
+                                @Value("${insights.sketch.k:200}") int k) {
+        this.repository = repository;
+        this.categoryDictionary = categoryDictionary;
+        this.fxRateService = fxRateService;
+        this.installmentPlanService = installmentPlanService;
+        this.archiveService = archiveService;
+        this.k = k;
+
+        this.rebuildCounter = Counter.builder("insights.sketch.rebuilds")
+                .description("Sketches de categoria reconstruídos a partir das transações")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Estatísticas das categorias com despesas, da maior para a menor mediana
+     */
+    @Transactional
+    public List<CategorySpendStats> categoryStats(User user) {
+        List<CategorySpendStats> stats = new ArrayList<>();
+        for (CategorySketchJdbcRepository.Row row : repository.findByUser(user.getId())) {
+            KllSketch sketch = row.sketch() != null ? KllSketch.fromBytes(row.sketch()) : rebuild(user, row.categoryId());
+            if (sketch.count() > 0) {
+                stats.add(toStats(categoryDictionary.nameOf(row.categoryId()), sketch));
+            }
+        }
+        stats.sort(Comparator.comparing(CategorySpendStats::getMedian).reversed());
+        return stats;
+    }
+
+    /**
+     * Posição de um valor de despesa (na moeda base) entre as despesas da categoria e se ele
+     * passa do limite de outlier
+     */
+    @Transactional
+    public OutlierCheck checkOutlier(User user, String category, BigDecimal amount) {
+        if (amount == null || amount.signum() < 0) {
+            throw new IllegalArgumentException("Amount must be zero or positive");
+        }
+        Integer categoryId = categoryDictionary.findId(user.getId(), category);
+        if (categoryId == null) {
+            throw new IllegalArgumentException("Unknown category: " + category);
+        }
+        byte[] stored = repository.find(user.getId(), categoryId)
+                .map(CategorySketchJdbcRepository.Row::sketch)
+                .orElse(null);
+        KllSketch sketch = stored != null ? KllSketch.fromBytes(stored) : rebuild(user, categoryId);
+
+        long amountMinor = Money.minorOf(amount);
+        Long fence = outlierFence(sketch);
+        return new OutlierCheck(categoryDictionary.nameOf(categoryId), amount, sketch.count(),
+                sketch.rank(amountMinor), fence != null && amountMinor > fence);
+    }
+
+    /**
+     * Atualiza os sketches no mesmo commit da escrita. Travas tomadas em ordem de
+     * (usuário, categoria) para que escritas concorrentes não entrem em deadlock.
+     */
+    @EventListener
+    public void onLedgerChange(LedgerChangeEvent event) {
+        Map<Long, Map<Integer, List<LedgerEntry>>> added = new TreeMap<>();
+        Map<Long, Map<Integer, List<LedgerEntry>>> removed = new TreeMap<>();
+        group(event.added(), added);
+        group(event.removed(), removed);
+
+        Map<Long, Map<Integer, Boolean>> touched = new TreeMap<>();
+        added.forEach((userId, byCategory) -> byCategory.keySet()
+                .forEach(categoryId -> touched.computeIfAbsent(userId, id -> new TreeMap<>()).put(categoryId, false)));
+        removed.forEach((userId, byCategory) -> byCategory.keySet()
+                .forEach(categoryId -> touched.computeIfAbsent(userId, id -> new TreeMap<>()).put(categoryId, true)));
+
+        touched.forEach((userId, byCategory) -> byCategory.forEach((categoryId, hasRemovals) -> {
+            byte[] stored = repository.lock(userId, categoryId);
+            if (stored == null) {
+                return;
+            }
+            if (hasRemovals) {
+                repository.update(userId, categoryId, null);
+                return;
+            }
+            KllSketch sketch = KllSketch.fromBytes(stored);
+            for (LedgerEntry entry : added.get(userId).get(categoryId)) {
+                sketch.update(fxRateService.toBase(entry).amountMinor());
+            }
+            repository.update(userId, categoryId, sketch.toBytes());
+        }));
+    }
+
+    private void group(List<LedgerEntry> entries, Map<Long, Map<Integer, List<LedgerEntry>>> target) {
+        for (LedgerEntry entry : entries) {
+            if (entry.type() != TransactionType.EXPENSE || entry.category() == null) {
+                continue;
+            }
+            Integer categoryId = categoryDictionary.idFor(entry.userId(), entry.category());
+            target.computeIfAbsent(entry.userId(), id -> new TreeMap<>())
+                    .computeIfAbsent(categoryId, id -> new ArrayList<>())
+                    .add(entry);
+        }
+    }
+
+    /**
+     * Monta o sketch com as despesas gravadas (no banco e nos anos arquivados) e as parcelas
+     * ainda virtuais da categoria e o grava. A linha é travada antes: se uma escrita concorrente já o reconstruiu, usa o dela
+     */
+    private KllSketch rebuild(User user, int categoryId) {
+        byte[] stored = repository.lock(user.getId(), categoryId);
+        if (stored != null) {
+            return KllSketch.fromBytes(stored);
+        }
+        KllSketch sketch = new KllSketch(k);
+        for (CategorySketchJdbcRepository.Expense expense : repository.findExpenses(user.getId(), categoryId)) {
+            sketch.update(fxRateService.convert(expense.amountMinor(), expense.currency(), null,
+                    expense.dateTime().toLocalDate()));
+        }
+        for (ArchivedTransactionRow row : archiveService.findRows(user.getId(), null, null)) {
+            if (row.type() == TransactionType.EXPENSE && row.categoryId() != null && row.categoryId() == categoryId) {
+                sketch.update(fxRateService.convert(row.amountMinor(), row.currency(), null,
+                        row.dateTime().toLocalDate()));
+            }
+        }
+        String category = categoryDictionary.nameOf(categoryId);
+        for (Transaction installment : installmentPlanService.virtualInstallments(user, null, null)) {
+            if (installment.getType() == TransactionType.EXPENSE && category.equals(installment.getCategory())) {
+                sketch.update(fxRateService.convert(installment.getMoney().minor(), installment.getCurrency(), null,
+                        installment.getDateTime().toLocalDate()));
+            }
+        }
+        repository.update(user.getId(), categoryId, sketch.toBytes());
+        rebuildCounter.increment();
+        return sketch;
+    }
+
+    private static CategorySpendStats toStats(String category, KllSketch sketch) {
+        Long fence = outlierFence(sketch);
+        return new CategorySpendStats(category, sketch.count(),
+                Money.toBigDecimal(sketch.min()),
+                Money.toBigDecimal(sketch.quantile(0.5)),
+                Money.toBigDecimal(sketch.quantile(0.9)),
+                Money.toBigDecimal(sketch.max()),
+                fence != null ? Money.toBigDecimal(fence) : null);
+    }
+
+    // Cerca de Tukey: Q3 + 1,5 × (Q3 - Q1)
+    private static Long outlierFence(KllSketch sketch) {
+        if (sketch.count() < MIN_OUTLIER_COUNT) {
+            return null;
+        }
+        long q1 = sketch.quantile(0.25);
+        long q3 = sketch.quantile(0.75);
+        return q3 + Math.round(TUKEY_FENCE * (q3 - q1));
+    }
+}
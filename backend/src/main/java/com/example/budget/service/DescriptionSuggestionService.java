@@ -0,0 +1,255 @@
+package com.example.budget.service;
+
+import com.example.budget.dto.DescriptionSuggestion;
+import com.example.budget.event.LedgerChangeEvent;
+import com.example.budget.event.LedgerEntry;
+import com.example.budget.event.UserCachesInvalidatedEvent;
+import com.example.budget.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Sugestões de descrição para o campo de lançamento, sem baixar o livro-caixa no cliente.
+ *
+ * Cada usuário tem um índice em memória (TreeMap pela descrição normalizada) com o número
+ * de usos e a data mais recente de cada descrição; a busca por prefixo percorre só o trecho
+ * do mapa que começa com o prefixo. O índice é montado na primeira consulta com um GROUP BY,
+ * atualizado após o commit de cada escrita (LedgerChangeEvent) e descartado por LRU quando
+ * há usuários demais em memória.
+ */
+@Service
+public class DescriptionSuggestionService {
+
+    private static final int MAX_LIMIT = 50;
+    // "Notebook (Installment 3/12)" conta como "Notebook"
+    private static final Pattern INSTALLMENT_SUFFIX = Pattern.compile("\\s*\\(Installment \\d+/\\d+\\)$");
+
+    private final TransactionRepository repository;
+    private final double halfLifeDays;
+    private final Map<Long, DescriptionIndex> indexes;
+
+    public DescriptionSuggestionService(TransactionRepository repository,
+                                        @Value("${transactions.suggest.max-users:2000}") int maxUsers,
+                                        @Value("${transactions.suggest.half-life-days:90}") double halfLifeDays) {
+        this.repository = repository;
+        this.halfLifeDays = halfLifeDays;
+        this.indexes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, DescriptionIndex> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    /**
+     * Descrições do usuário que começam com o prefixo (sem diferenciar maiúsculas), da mais
+     * relevante para a menos: usos, com peso que cai pela metade a cada halfLifeDays sem uso
+     */
+    public List<DescriptionSuggestion> suggest(Long userId, String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key == null) {
+            return List.of();
+        }
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        LocalDate today = LocalDate.now();
+        Comparator<Usage> byScore = Comparator.comparingDouble(usage -> usage.score(today, halfLifeDays));
+
+        DescriptionIndex index = indexFor(userId);
+        PriorityQueue<Usage> top = new PriorityQueue<>(byScore);
+        synchronized (index) {
+            for (Usage usage : index.usages.subMap(key, key + Character.MAX_VALUE).values()) {
+                top.add(usage.copy());
+                if (top.size() > size) {
+                    top.poll();
+                }
+            }
+        }
+
+        List<DescriptionSuggestion> suggestions = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Usage usage = top.poll();
+            suggestions.add(new DescriptionSuggestion(usage.text, usage.count, usage.lastUsed));
+        }
+        Collections.reverse(suggestions);
+        return suggestions;
+    }
+
+    /**
+     * Aplica as descrições gravadas/removidas após o commit, como o BalanceService
+     */
+    @EventListener
+    public void onLedgerChange(LedgerChangeEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private long committingAt;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    committingAt = System.nanoTime();
+                }
+
+                @Override
+                public void afterCommit() {
+                    apply(event, committingAt);
+                }
+            });
+        } else {
+            apply(event, System.nanoTime());
+        }
+    }
+
+    @EventListener
+    public void onCachesInvalidated(UserCachesInvalidatedEvent event) {
+        synchronized (indexes) {
+            if (event.allUsers()) {
+                indexes.clear();
+            } else {
+                event.userIds().forEach(indexes::remove);
+            }
+        }
+    }
+
+    private void apply(LedgerChangeEvent event, long committingAt) {
+        for (LedgerEntry entry : event.removed()) {
+            DescriptionIndex index = loadedIndex(entry.userId(), committingAt);
+            if (index != null) {
+                index.remove(normalize(entry.description()));
+            }
+        }
+        for (LedgerEntry entry : event.added()) {
+            DescriptionIndex index = loadedIndex(entry.userId(), committingAt);
+            String key = normalize(entry.description());
+            if (index != null && key != null) {
+                index.add(key, display(entry.description()), 1, entry.dateTime().toLocalDate());
+            }
+        }
+    }
+
+    /**
+     * Índice já em memória, ou null. Um índice lido durante o commit pode já conter a
+     * escrita: é descartado e remontado na próxima consulta.
+     */
+    private DescriptionIndex loadedIndex(Long userId, long committingAt) {
+        synchronized (indexes) {
+            DescriptionIndex index = indexes.get(userId);
+            if (index != null && index.loadedAt >= committingAt) {
+                indexes.remove(userId);
+                return null;
+            }
+            return index;
+        }
+    }
+
+    private DescriptionIndex indexFor(Long userId) {
+        synchronized (indexes) {
+            DescriptionIndex index = indexes.get(userId);
+            if (index != null) {
+                return index;
+            }
+        }
+        // Fora do lock: a consulta ao banco não bloqueia os outros usuários
+        DescriptionIndex built = new DescriptionIndex(System.nanoTime());
+        for (Object[] row : repository.countDescriptionsByUser(userId)) {
+            String description = (String) row[0];
+            String key = normalize(description);
+            if (key != null) {
+                built.add(key, display(description), ((Number) row[1]).intValue(), toDate(row[2]));
+            }
+        }
+        synchronized (indexes) {
+            DescriptionIndex existing = indexes.putIfAbsent(userId, built);
+            return existing != null ? existing : built;
+        }
+    }
+
+    private static String display(String description) {
+        return INSTALLMENT_SUFFIX.matcher(description.trim()).replaceFirst("");
+    }
+
+    private static String normalize(String description) {
+        if (description == null) {
+            return null;
+        }
+        String key = display(description).toLowerCase(Locale.ROOT);
+        return key.isEmpty() ? null : key;
+    }
+
+    private static LocalDate toDate(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toLocalDate();
+        }
+        return ((LocalDateTime) value).toLocalDate();
+    }
+
+    /**
+     * Descrições de um usuário; acesso sincronizado no próprio índice
+     */
+    private static final class DescriptionIndex {
+        private final long loadedAt;
+        private final TreeMap<String, Usage> usages = new TreeMap<>();
+
+        private DescriptionIndex(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        synchronized void add(String key, String text, int count, LocalDate usedAt) {
+            Usage usage = usages.computeIfAbsent(key, k -> new Usage(text));
+            usage.count += count;
+            if (usage.lastUsed == null || usedAt.isAfter(usage.lastUsed)) {
+                usage.lastUsed = usedAt;
+            }
+        }
+
+        // A data mais recente não é recalculada: só o peso de frequência cai
+        synchronized void remove(String key) {
+            if (key == null) {
+                return;
+            }
+            Usage usage = usages.get(key);
+            if (usage != null && --usage.count <= 0) {
+                usages.remove(key);
+            }
+        }
+    }
+
+    private static final class Usage {
+        private final String text;
+        private int count;
+        private LocalDate lastUsed;
+
+        private Usage(String text) {
+            this.text = text;
+        }
+
+        Usage copy() {
+            Usage copy = new Usage(text);
+            copy.count = count;
+            copy.lastUsed = lastUsed;
+            return copy;
+        }
+
+        // Parcelas futuras contam como usadas hoje
+        double score(LocalDate today, double halfLifeDays) {
+            long idleDays = Math.max(0, ChronoUnit.DAYS.between(lastUsed, today));
+            return count * Math.pow(2, -idleDays / halfLifeDays);
+        }
+    }
+}
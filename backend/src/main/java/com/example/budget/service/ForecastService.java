@@ -0,0 +1,395 @@
+package com.example.budget.service;
+
+import com.example.budget.dto.ForecastMonth;
+import com.example.budget.event.LedgerChangeEvent;
+import com.example.budget.event.LedgerEntry;
+import com.example.budget.event.UserCachesInvalidatedEvent;
+import com.example.budget.model.Money;
+import com.example.budget.model.RecurringRule;
+import com.example.budget.model.Transaction;
+import com.example.budget.model.TransactionType;
+import com.example.budget.model.User;
+import com.example.budget.repository.ArchivedTransactionRow;
+import com.example.budget.repository.RecurringRuleRepository;
+import com.example.budget.repository.TransactionRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Previsão de fluxo de caixa mês a mês a partir do mês atual.
+ *
+ * O saldo previsto parte do índice de saldos diários, que já inclui todo o cronograma das
+ * parcelas (gravadas ou virtuais), e soma:
+ * <ul>
+ *   <li>as ocorrências de regras recorrentes ainda não gravadas;</li>
+ *   <li>a estimativa de cada categoria: média do mesmo mês do ano no histórico lançado à mão
+ *       (sem parcelas nem recorrências, que já entram como agendadas), ou a média dos últimos
+ *       3 meses quando o histórico não cobre aquele mês. No mês atual entra só o que falta
+ *       para chegar à média.</li>
+ * </ul>
+ * O histórico vem de um GROUP BY por (categoria, tipo, moeda, mês), não de linhas, somado às
+ * linhas dos anos que já foram para o arquivo frio.
+ *
+ * O resultado fica em cache por usuário até o fim do dia ou até a próxima escrita do usuário
+ * (lançamentos, regras recorrentes ou escrita em outra instância).
+ */
+@Service
+public class ForecastService {
+
+    private static final int TRAILING_MONTHS = 3;
+    // Limite de ocorrências por regra na janela (regra semanal atrasada há anos)
+    private static final int MAX_OCCURRENCES_PER_RULE = 2000;
+
+    private final TransactionRepository transactionRepository;
+    private final RecurringRuleRepository recurringRuleRepository;
+    private final InstallmentPlanService installmentPlanService;
+    private final BalanceService balanceService;
+    private final CategoryDictionary categoryDictionary;
+    private final FxRateService fxRateService;
+    private final TransactionArchiveService archiveService;
+    private final ObjectProvider<CacheInvalidationBus> invalidationBus;
+    private final int maxMonths;
+    private final int historyMonths;
+    private final Map<Long, CachedForecast> cache;
+
+    public ForecastService(TransactionRepository transactionRepository,
+                           RecurringRuleRepository recurringRuleRepository,
+                           InstallmentPlanService installmentPlanService,
+                           BalanceService balanceService,
+                           CategoryDictionary categoryDictionary,
+                           FxRateService fxRateService,
+                           TransactionArchiveService archiveService,
+                           ObjectProvider<CacheInvalidationBus> invalidationBus,
+                           @Value("${forecast.max-months:24}") int maxMonths,
+                           @Value("${forecast.history-months:24}") int historyMonths,
+                           @Value("${forecast.max-users:2000}") int maxUsers) {
+        this.transactionRepository = transactionRepository;
+        this.recurringRuleRepository = recurringRuleRepository;
+        this.installmentPlanService = installmentPlanService;
+        this.balanceService = balanceService;
+        this.categoryDictionary = categoryDictionary;
+        this.fxRateService = fxRateService;
+        this.archiveService = archiveService;
+        this.invalidationBus = invalidationBus;
+        this.maxMonths = maxMonths;
+        this.historyMonths = historyMonths;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedForecast> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    /**
+     * Previsão para os próximos {@code months} meses (o primeiro é o mês atual), na moeda base
+     */
+    @Transactional(readOnly = true)
+    public List<ForecastMonth> forecast(User user, int months) {
+        if (months < 1 || months > maxMonths) {
+            throw new IllegalArgumentException("months must be between 1 and " + maxMonths);
+        }
+        LocalDate today = LocalDate.now();
+        synchronized (cache) {
+            CachedForecast cached = cache.get(user.getId());
+            if (cached != null && cached.covers(today, months)) {
+                return List.copyOf(cached.months().subList(0, months));
+            }
+        }
+
+        long startedAt = System.nanoTime();
+        List<ForecastMonth> result = compute(user, months, LocalDateTime.now());
+        synchronized (cache) {
+            CachedForecast existing = cache.get(user.getId());
+            // Uma escrita confirmada durante o cálculo pode não estar nele: não guarda
+            if (existing == null || existing.invalidatedAt() < startedAt) {
+                cache.put(user.getId(), new CachedForecast(today, result, 0L));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Regras recorrentes do usuário mudaram: descarta a previsão aqui (após o commit) e nas
+     * outras instâncias
+     */
+    public void rulesChanged(Long userId) {
+        invalidateAfterCommit(Set.of(userId));
+        invalidationBus.ifAvailable(bus -> bus.publish(Set.of(userId)));
+    }
+
+    @EventListener
+    public void onLedgerChange(LedgerChangeEvent event) {
+        Set<Long> userIds = new TreeSet<>();
+        event.added().stream().map(LedgerEntry::userId).forEach(userIds::add);
+        event.removed().stream().map(LedgerEntry::userId).forEach(userIds::add);
+        if (!userIds.isEmpty()) {
+            invalidateAfterCommit(userIds);
+        }
+    }
+
+    @EventListener
+    public void onCachesInvalidated(UserCachesInvalidatedEvent event) {
+        if (event.allUsers()) {
+            synchronized (cache) {
+                cache.clear();
+            }
+        } else {
+            invalidate(event.userIds());
+        }
+    }
+
+    private void invalidateAfterCommit(Set<Long> userIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(userIds);
+                }
+            });
+        } else {
+            invalidate(userIds);
+        }
+    }
+
+    // Troca a previsão por uma marca com o momento da invalidação (ver forecast)
+    private void invalidate(Set<Long> userIds) {
+        long now = System.nanoTime();
+        synchronized (cache) {
+            for (Long userId : userIds) {
+                cache.put(userId, new CachedForecast(null, List.of(), now));
+            }
+        }
+    }
+
+    private List<ForecastMonth> compute(User user, int months, LocalDateTime now) {
+        LocalDate today = now.toLocalDate();
+        YearMonth current = YearMonth.from(today);
+        LocalDateTime horizonEnd = current.plusMonths(months - 1L).atEndOfMonth().atTime(23, 59, 59);
+        MonthTotals[] totals = new MonthTotals[months];
+        for (int i = 0; i < months; i++) {
+            totals[i] = new MonthTotals();
+        }
+
+        // Agendado: lançamentos com data futura (parcelas gravadas), parcelas virtuais e regras
+        for (Object[] row : transactionRepository.sumMinorByCategoryAndMonthAfter(user.getId(), now, horizonEnd)) {
+            int index = monthIndex(current, toDate(row[3]));
+            long amount = fxRateService.convert(((Number) row[4]).longValue(), (String) row[2], null, today);
+            totals[index].schedule(categoryName(row[0]), TransactionType.valueOf((String) row[1]), amount, false);
+        }
+        for (Transaction installment : installmentPlanService.virtualInstallments(user, now, horizonEnd)) {
+            int index = monthIndex(current, installment.getDateTime().toLocalDate());
+            long amount = fxRateService.convert(installment.getMoney().minor(), installment.getCurrency(), null, today);
+            totals[index].schedule(installment.getCategory(), installment.getType(), amount, false);
+        }
+        for (RecurringRule rule : recurringRuleRepository.findByUserAndActiveTrue(user)) {
+            long amount = Money.minorOf(rule.getAmount());
+            for (int n = 0; n < MAX_OCCURRENCES_PER_RULE; n++) {
+                LocalDateTime at = rule.getFrequency().occurrence(rule.getStartAt(), rule.getOccurrenceCount() + (long) n);
+                if (at.isAfter(horizonEnd) || (rule.getEndDate() != null && at.toLocalDate().isAfter(rule.getEndDate()))) {
+                    break;
+                }
+                // Ocorrências vencidas ainda não gravadas entram no mês atual; não estão no saldo
+                int index = Math.max(0, monthIndex(current, at.toLocalDate()));
+                totals[index].schedule(rule.getCategory(), rule.getType(), amount, true);
+            }
+        }
+
+        estimate(user.getId(), current, now, totals);
+
+        // Saldo previsto: saldo diário (já com as parcelas) + recorrências e estimativas acumuladas
+        List<LocalDate> monthEnds = new ArrayList<>(months);
+        for (int i = 0; i < months; i++) {
+            monthEnds.add(current.plusMonths(i).atEndOfMonth());
+        }
+        long[] balances = balanceService.balancesAt(user.getId(), monthEnds);
+        List<ForecastMonth> result = new ArrayList<>(months);
+        long projected = 0;
+        for (int i = 0; i < months; i++) {
+            MonthTotals month = totals[i];
+            projected = Math.addExact(projected, month.unrecordedNet());
+            result.add(month.toDTO(current.plusMonths(i), Math.addExact(balances[i], projected)));
+        }
+        return result;
+    }
+
+    /**
+     * Estimativa por categoria e tipo: média do mesmo mês do ano nos meses completos do
+     * histórico ou, sem amostra, dos últimos meses; no mês atual, o que falta até a média
+     */
+    private void estimate(Long userId, YearMonth current, LocalDateTime now, MonthTotals[] totals) {
+        YearMonth first = current.minusMonths(historyMonths);
+        Map<SeriesKey, long[]> series = new HashMap<>();
+        int firstActive = historyMonths;
+        LocalDateTime start = first.atDay(1).atStartOfDay();
+        // Somas por (categoria, tipo, moeda, mês) do banco e dos anos arquivados, antes da conversão
+        Map<HistoryKey, Long> history = new HashMap<>();
+        for (Object[] row : transactionRepository.sumMinorUnscheduledByCategoryAndMonth(userId, start, now)) {
+            HistoryKey key = new HistoryKey(row[0] != null ? ((Number) row[0]).intValue() : null,
+                    TransactionType.valueOf((String) row[1]), (String) row[2], toDate(row[3]));
+            history.merge(key, ((Number) row[4]).longValue(), Math::addExact);
+        }
+        // Os totais mensais arquivados incluem as recorrências: o histórico vem das linhas
+        for (ArchivedTransactionRow row : archiveService.findRows(userId, start, now)) {
+            if (row.recurringRuleId() == null) {
+                HistoryKey key = new HistoryKey(row.categoryId(), row.type(), row.currency(),
+                        YearMonth.from(row.dateTime()).atDay(1));
+                history.merge(key, row.amountMinor(), Math::addExact);
+            }
+        }
+        for (Map.Entry<HistoryKey, Long> entry : history.entrySet()) {
+            HistoryKey key = entry.getKey();
+            int index = (int) ChronoUnit.MONTHS.between(first, YearMonth.from(key.month()));
+            long amount = fxRateService.convert(entry.getValue(), key.currency(), null, key.month());
+            SeriesKey seriesKey = new SeriesKey(categoryName(key.categoryId()), key.type());
+            series.computeIfAbsent(seriesKey, k -> new long[historyMonths + 1])[index] += amount;
+            firstActive = Math.min(firstActive, index);
+        }
+        // Meses completos desde o primeiro com movimento: [firstActive, historyMonths)
+        int fullMonths = historyMonths - firstActive;
+        if (fullMonths == 0) {
+            return;
+        }
+
+        for (Map.Entry<SeriesKey, long[]> entry : series.entrySet()) {
+            long[] amounts = entry.getValue();
+            for (int i = 0; i < totals.length; i++) {
+                int monthOfYear = current.plusMonths(i).getMonthValue();
+                long sum = 0;
+                int samples = 0;
+                for (int h = firstActive; h < historyMonths; h++) {
+                    if (first.plusMonths(h).getMonthValue() == monthOfYear) {
+                        sum += amounts[h];
+                        samples++;
+                    }
+                }
+                if (samples == 0) {
+                    int trailing = Math.min(TRAILING_MONTHS, fullMonths);
+                    for (int h = historyMonths - trailing; h < historyMonths; h++) {
+                        sum += amounts[h];
+                    }
+                    samples = trailing;
+                }
+                long expected = Math.round((double) sum / samples);
+                if (i == 0) {
+                    expected = Math.max(0, expected - amounts[historyMonths]);
+                }
+                if (expected > 0) {
+                    totals[i].estimate(entry.getKey().category(), entry.getKey().type(), expected);
+                }
+            }
+        }
+    }
+
+    private String categoryName(Object categoryId) {
+        return categoryDictionary.nameOf(categoryId != null ? ((Number) categoryId).intValue() : null);
+    }
+
+    private static int monthIndex(YearMonth current, LocalDate day) {
+        return (int) ChronoUnit.MONTHS.between(current, YearMonth.from(day));
+    }
+
+    private static LocalDate toDate(Object value) {
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+
+    private record SeriesKey(String category, TransactionType type) {
+    }
+
+    private record HistoryKey(Integer categoryId, TransactionType type, String currency, LocalDate month) {
+    }
+
+    /**
+     * Previsão guardada ({@code day} nulo = marca de invalidação)
+     */
+    private record CachedForecast(LocalDate day, List<ForecastMonth> months, long invalidatedAt) {
+
+        boolean covers(LocalDate today, int size) {
+            return today.equals(day) && months.size() >= size;
+        }
+    }
+
+    /**
+     * Acumuladores em centavos de um mês da previsão
+     */
+    private static final class MonthTotals {
+        private long scheduledIncome;
+        private long scheduledExpense;
+        private long estimatedIncome;
+        private long estimatedExpense;
+        // Parte que ainda não está no saldo diário: recorrências não gravadas e estimativas
+        private long unrecordedNet;
+        private final Map<String, long[]> categories = new HashMap<>();
+
+        void schedule(String category, TransactionType type, long amount, boolean unrecorded) {
+            if (type == TransactionType.INCOME) {
+                scheduledIncome = Math.addExact(scheduledIncome, amount);
+            } else {
+                scheduledExpense = Math.addExact(scheduledExpense, amount);
+            }
+            if (unrecorded) {
+                unrecordedNet = Math.addExact(unrecordedNet, type == TransactionType.INCOME ? amount : -amount);
+            }
+            addToCategory(category, type, amount);
+        }
+
+        void estimate(String category, TransactionType type, long amount) {
+            if (type == TransactionType.INCOME) {
+                estimatedIncome = Math.addExact(estimatedIncome, amount);
+                unrecordedNet = Math.addExact(unrecordedNet, amount);
+            } else {
+                estimatedExpense = Math.addExact(estimatedExpense, amount);
+                unrecordedNet = Math.subtractExact(unrecordedNet, amount);
+            }
+            addToCategory(category, type, amount);
+        }
+
+        long unrecordedNet() {
+            return unrecordedNet;
+        }
+
+        private void addToCategory(String category, TransactionType type, long amount) {
+            long[] values = categories.computeIfAbsent(category, c -> new long[2]);
+            int slot = type == TransactionType.INCOME ? 0 : 1;
+            values[slot] = Math.addExact(values[slot], amount);
+        }
+
+        ForecastMonth toDTO(YearMonth month, long projectedBalance) {
+            ForecastMonth dto = new ForecastMonth();
+            dto.setYear(month.getYear());
+            dto.setMonth(month.getMonthValue());
+            dto.setScheduledIncome(Money.toBigDecimal(scheduledIncome));
+            dto.setScheduledExpense(Money.toBigDecimal(scheduledExpense));
+            dto.setEstimatedIncome(Money.toBigDecimal(estimatedIncome));
+            dto.setEstimatedExpense(Money.toBigDecimal(estimatedExpense));
+            dto.setProjectedBalance(Money.toBigDecimal(projectedBalance));
+            dto.setByCategory(categories.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[1]).reversed())
+                    .map(e -> new ForecastMonth.CategoryForecast(e.getKey(),
+                            Money.toBigDecimal(e.getValue()[0]), Money.toBigDecimal(e.getValue()[1])))
+                    .toList());
+            return dto;
+        }
+    }
+}
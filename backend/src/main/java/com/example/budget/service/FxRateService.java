@@ -0,0 +1,162 @@
+package com.example.budget.service;
+
+import com.example.budget.event.LedgerEntry;
+import com.example.budget.repository.FxRateJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Conversão de valores em centavos entre moedas com a tabela local fx_rates, sem serviço externo.
+ *
+ * A tabela inteira fica em memória ({@link FxRateTable}), indexada por par de moedas e data.
+ * O FxRateRefreshJob recarrega a tabela e importa o arquivo de cotações.
+ */
+@Service
+public class FxRateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FxRateService.class);
+
+    private final FxRateJdbcRepository repository;
+    private final String baseCurrency;
+    private final String pivotCurrency;
+    private final Path ratesFile;
+
+    private volatile FxRateTable table;
+    private FileTime importedFileTime;
+
+    public FxRateService(FxRateJdbcRepository repository,
+                         @Value("${fx.base-currency:BRL}") String baseCurrency,
+                         @Value("${fx.pivot-currency:EUR}") String pivotCurrency,
+                         @Value("${fx.rates.file:}") String ratesFile) {
+        this.repository = repository;
+        this.baseCurrency = baseCurrency.toUpperCase(Locale.ROOT);
+        this.pivotCurrency = pivotCurrency.toUpperCase(Locale.ROOT);
+        this.ratesFile = StringUtils.hasText(ratesFile) ? Path.of(ratesFile) : null;
+    }
+
+    /**
+     * Moeda base: transações sem moeda, saldos diários e orçamentos estão nela
+     */
+    public String baseCurrency() {
+        return baseCurrency;
+    }
+
+    /**
+     * Código ISO em maiúsculas; vazio = moeda base. Rejeita moedas sem cotação ou que não
+     * tenham centavos (o valor é sempre guardado com duas casas)
+     */
+    public String normalize(String currency) {
+        return loaded().normalize(currency, baseCurrency);
+    }
+
+    /**
+     * Converte centavos de uma moeda para outra com a cotação vigente no dia (null = moeda base)
+     */
+    public long convert(long amountMinor, String from, String to, LocalDate day) {
+        String source = from != null ? from : baseCurrency;
+        String target = to != null ? to : baseCurrency;
+        if (amountMinor == 0 || source.equals(target)) {
+            return amountMinor;
+        }
+        return loaded().convert(amountMinor, source, target, day.toEpochDay());
+    }
+
+    /**
+     * Lançamento com o valor na moeda base: o gravado com a transação (amount_base_minor) ou,
+     * em linhas antigas sem ele, convertido com a cotação do dia da transação
+     */
+    public LedgerEntry toBase(LedgerEntry entry) {
+        if (entry.currency() == null || entry.currency().equals(baseCurrency)) {
+            return entry;
+        }
+        long amount = entry.amountBaseMinor() != null
+                ? entry.amountBaseMinor()
+                : toBase(entry.amountMinor(), entry.currency(), entry.dateTime().toLocalDate());
+        return new LedgerEntry(entry.userId(), entry.dateTime(), entry.type(), entry.category(),
+                entry.description(), amount, baseCurrency, amount);
+    }
+
+    /**
+     * Valor na moeda base com a cotação vigente no dia, para gravar em amount_base_minor
+     */
+    public long toBase(long amountMinor, String currency, LocalDate day) {
+        return convert(amountMinor, currency, baseCurrency, day);
+    }
+
+    public List<LedgerEntry> toBase(List<LedgerEntry> entries) {
+        return entries.stream().map(this::toBase).toList();
+    }
+
+    /**
+     * Importa o arquivo de cotações (se configurado e alterado desde a última leitura) e
+     * recarrega a tabela em memória
+     */
+    public synchronized void refresh() {
+        if (ratesFile != null && Files.isReadable(ratesFile)) {
+            try {
+                FileTime modified = Files.getLastModifiedTime(ratesFile);
+                if (!modified.equals(importedFileTime)) {
+                    List<FxRateJdbcRepository.Row> rows = parse(ratesFile);
+                    repository.upsertAll(rows);
+                    importedFileTime = modified;
+                    logger.info("Imported {} exchange rates from {}", rows.size(), ratesFile);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        table = load();
+    }
+
+    private FxRateTable loaded() {
+        FxRateTable loaded = table;
+        if (loaded == null) {
+            synchronized (this) {
+                if (table == null) {
+                    table = load();
+                }
+                loaded = table;
+            }
+        }
+        return loaded;
+    }
+
+    private FxRateTable load() {
+        return FxRateTable.of(repository.findAll(), pivotCurrency);
+    }
+
+    /**
+     * Linhas "BASE,COTADA,aaaa-mm-dd,cotação"; linhas vazias, comentários (#) e cabeçalho são ignorados
+     */
+    private static List<FxRateJdbcRepository.Row> parse(Path file) throws IOException {
+        List<FxRateJdbcRepository.Row> rows = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#") || trimmed.regionMatches(true, 0, "base", 0, 4)) {
+                continue;
+            }
+            String[] fields = trimmed.split("\\s*,\\s*");
+            if (fields.length != 4) {
+                throw new IllegalArgumentException("Invalid exchange rate line: " + line);
+            }
+            rows.add(new FxRateJdbcRepository.Row(fields[0].toUpperCase(Locale.ROOT), fields[1].toUpperCase(Locale.ROOT),
+                    LocalDate.parse(fields[2]), new BigDecimal(fields[3])));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.budget.service;
+
+import com.example.budget.repository.FxRateJdbcRepository;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tabela de cotações em memória, imutável: cada par tem os dias (epoch day) e as cotações em
+ * arrays ordenados, e a cotação de uma data é a mais recente até ela (busca binária). Pares sem
+ * cotação direta usam a inversa ou passam pela moeda pivô. Montada pelo FxRateService a partir
+ * de fx_rates; o módulo reativo monta a sua com as mesmas linhas.
+ */
+public final class FxRateTable {
+
+    private final Map<String, PairRates> pairs;
+    private final String pivotCurrency;
+
+    private FxRateTable(Map<String, PairRates> pairs, String pivotCurrency) {
+        this.pairs = pairs;
+        this.pivotCurrency = pivotCurrency;
+    }
+
+    /**
+     * Tabela a partir das linhas de fx_rates já ordenadas por par e data
+     */
+    public static FxRateTable of(List<FxRateJdbcRepository.Row> rows, String pivotCurrency) {
+        Map<String, List<FxRateJdbcRepository.Row>> byPair = new HashMap<>();
+        for (FxRateJdbcRepository.Row row : rows) {
+            byPair.computeIfAbsent(row.base() + "/" + row.quote(), p -> new ArrayList<>()).add(row);
+        }
+        Map<String, PairRates> pairs = new HashMap<>();
+        byPair.forEach((pair, pairRows) -> {
+            long[] days = new long[pairRows.size()];
+            double[] rates = new double[pairRows.size()];
+            for (int i = 0; i < pairRows.size(); i++) {
+                days[i] = pairRows.get(i).date().toEpochDay();
+                rates[i] = pairRows.get(i).rate().doubleValue();
+            }
+            pairs.put(pair, new PairRates(days, rates));
+        });
+        return new FxRateTable(pairs, pivotCurrency);
+    }
+
+    /**
+     * Código ISO em maiúsculas; vazio = moeda base. Rejeita moedas sem cotação para a moeda
+     * base ou que não tenham centavos (o valor é sempre guardado com duas casas)
+     */
+    public String normalize(String currency, String baseCurrency) {
+        if (!StringUtils.hasText(currency)) {
+            return baseCurrency;
+        }
+        String code = currency.trim().toUpperCase(Locale.ROOT);
+        Currency iso;
+        try {
+            iso = Currency.getInstance(code);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown currency: " + currency);
+        }
+        if (iso.getDefaultFractionDigits() != 2) {
+            throw new IllegalArgumentException("Unsupported currency: " + code);
+        }
+        if (!code.equals(baseCurrency) && Double.isNaN(rate(code, baseCurrency, LocalDate.now().toEpochDay()))) {
+            throw new IllegalArgumentException("No exchange rate for " + code + "/" + baseCurrency);
+        }
+        return code;
+    }
+
+    /**
+     * Cotação from → to no dia: direta, inversa ou pelo pivô; NaN se não houver caminho
+     */
+    public double rate(String from, String to, long epochDay) {
+        double direct = pairRate(from, to, epochDay);
+        if (!Double.isNaN(direct) || from.equals(pivotCurrency) || to.equals(pivotCurrency)) {
+            return direct;
+        }
+        return pairRate(pivotCurrency, to, epochDay) / pairRate(pivotCurrency, from, epochDay);
+    }
+
+    /**
+     * Converte centavos entre duas moedas (códigos ISO) com a cotação do dia
+     */
+    public long convert(long amountMinor, String from, String to, long epochDay) {
+        if (amountMinor == 0 || from.equals(to)) {
+            return amountMinor;
+        }
+        double rate = rate(from, to, epochDay);
+        if (Double.isNaN(rate)) {
+            throw new IllegalArgumentException("No exchange rate for " + from + "/" + to);
+        }
+        return Math.round(amountMinor * rate);
+    }
+
+    private double pairRate(String from, String to, long epochDay) {
+        PairRates pair = pairs.get(from + "/" + to);
+        if (pair != null) {
+            return pair.at(epochDay);
+        }
+        PairRates inverse = pairs.get(to + "/" + from);
+        return inverse != null ? 1.0 / inverse.at(epochDay) : Double.NaN;
+    }
+
+    /**
+     * Cotações de um par, ordenadas por dia
+     */
+    private record PairRates(long[] days, double[] rates) {
+
+        // Mais recente até o dia; antes da primeira cotação vale a primeira
+        double at(long epochDay) {
+            int i = Arrays.binarySearch(days, epochDay);
+            if (i < 0) {
+                i = Math.max(0, -i - 2);
+            }
+            return rates[i];
+        }
+    }
+}
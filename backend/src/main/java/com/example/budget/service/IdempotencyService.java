@@ -0,0 +1,218 @@
+package com.example.budget.service;
+
+import com.example.budget.model.User;
+import com.example.budget.repository.IdempotencyKeyJdbcRepository;
+import com.example.budget.repository.IdempotencyKeyJdbcRepository.StoredKey;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Deduplica requisições de escrita com cabeçalho Idempotency-Key.
+ *
+ * A primeira requisição reserva a chave na tabela idempotency_key, executa a operação e
+ * guarda status e corpo da resposta. Repetições com a mesma chave e o mesmo corpo recebem
+ * a resposta guardada sem executar a operação de novo; com outro corpo recebem 422, e
+ * enquanto a original ainda executa, 409. As respostas concluídas também ficam num LRU em
+ * memória com a mesma validade, então a repetição comum (retry após timeout) não vai ao banco.
+ * Só respostas 2xx são guardadas: em erro a reserva é liberada e o cliente pode repetir.
+ *
+ * A operação e a gravação da resposta rodam numa única transação: ou as duas ficam, ou
+ * nenhuma. Se o processo cai no meio, a reserva fica sem resposta e pode ser retomada após
+ * o lease (idempotency.lease-seconds), não só depois da validade da chave. Uma original lenta
+ * que perdeu o lease não consegue concluir: sua escrita é desfeita e ela responde como
+ * repetição.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyJdbcRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Map<String, StoredKey> cache;
+
+    private final Counter replayCounter;
+    private final Counter conflictCounter;
+
+    public IdempotencyService(IdempotencyKeyJdbcRepository repository,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${idempotency.lease-seconds:60}") long leaseSeconds,
+                              @Value("${idempotency.cache-size:10000}") int cacheSize) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredKey> eldest) {
+                return size() > cacheSize;
+            }
+        };
+
+        this.replayCounter = Counter.builder("idempotency.replays")
+                .description("Requisições respondidas com a resposta guardada")
+                .register(meterRegistry);
+        this.conflictCounter = Counter.builder("idempotency.conflicts")
+                .description("Chaves reutilizadas com outro corpo ou ainda em execução")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executa a operação uma única vez por (usuário, escopo, chave). Sem chave, apenas executa.
+     */
+    public ResponseEntity<?> execute(User user, String scope, String key, Object request,
+                                     Supplier<? extends ResponseEntity<?>> operation) {
+        if (key == null || key.isBlank()) {
+            return operation.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        String cacheKey = user.getId() + ":" + scope + ":" + key;
+        String requestHash = hash(request);
+        LocalDateTime now = LocalDateTime.now();
+
+        StoredKey cached = cached(cacheKey, now);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+
+        UUID reservationId = UUID.randomUUID();
+        if (!repository.reserve(user.getId(), scope, key, requestHash, reservationId,
+                now, now.plus(ttl), now.minus(lease))) {
+            return storedOrConflict(user, scope, key, cacheKey, requestHash);
+        }
+
+        Outcome outcome;
+        try {
+            outcome = transactionTemplate.execute(status -> {
+                ResponseEntity<?> result = operation.get();
+                if (!result.getStatusCode().is2xxSuccessful()) {
+                    // Nada a guardar: desfaz o que a operação tenha gravado antes do erro
+                    status.setRollbackOnly();
+                    return new Outcome(result, null, true);
+                }
+                String body = serialize(result.getBody());
+                if (!repository.complete(user.getId(), scope, key, reservationId,
+                        result.getStatusCode().value(), body)) {
+                    // Lease vencido e chave retomada por outra requisição: esta escrita não fica
+                    status.setRollbackOnly();
+                    return new Outcome(result, body, false);
+                }
+                return new Outcome(result, body, true);
+            });
+        } catch (RuntimeException e) {
+            repository.release(user.getId(), scope, key, reservationId);
+            throw e;
+        }
+        if (!outcome.owned()) {
+            return storedOrConflict(user, scope, key, cacheKey, requestHash);
+        }
+        ResponseEntity<?> response = outcome.response();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            repository.release(user.getId(), scope, key, reservationId);
+            return response;
+        }
+        remember(cacheKey, new StoredKey(requestHash, response.getStatusCode().value(), outcome.body(), now.plus(ttl)));
+        return response;
+    }
+
+    // Chave de outra requisição: resposta guardada se ela já concluiu, 409 enquanto executa
+    private ResponseEntity<?> storedOrConflict(User user, String scope, String key, String cacheKey,
+                                               String requestHash) {
+        Optional<StoredKey> stored = repository.find(user.getId(), scope, key);
+        if (stored.isEmpty() || !stored.get().completed()) {
+            // Original ainda executando (ou liberada neste instante): o cliente repete depois
+            conflictCounter.increment();
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        remember(cacheKey, stored.get());
+        return replay(stored.get(), requestHash);
+    }
+
+    private ResponseEntity<?> replay(StoredKey stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            conflictCounter.increment();
+            return ResponseEntity.unprocessableEntity().build();
+        }
+        replayCounter.increment();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.statusCode())
+                .header(REPLAYED_HEADER, "true");
+        if (stored.responseBody() == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(stored.responseBody());
+    }
+
+    private StoredKey cached(String cacheKey, LocalDateTime now) {
+        synchronized (cache) {
+            StoredKey stored = cache.get(cacheKey);
+            if (stored != null && stored.expiresAt().isBefore(now)) {
+                cache.remove(cacheKey);
+                return null;
+            }
+            return stored;
+        }
+    }
+
+    private void remember(String cacheKey, StoredKey stored) {
+        synchronized (cache) {
+            cache.put(cacheKey, stored);
+        }
+    }
+
+    private String serialize(Object body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Resposta não serializável", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Não foi possível calcular o hash da requisição", e);
+        }
+    }
+
+    // Resposta da operação, corpo serializado e se a reserva ainda era desta requisição
+    private record Outcome(ResponseEntity<?> response, String body, boolean owned) {
+    }
+}
@@ -2,12 +2,21 @@ package com.example.budget.service;
 
 import com.example.budget.dto.CreateInstallmentPlanRequest;
 import com.example.budget.dto.InstallmentPlanDTO;
+import com.example.budget.dto.UpdateInstallmentRequest;
+import com.example.budget.event.LedgerChangeEvent;
+import com.example.budget.event.LedgerEntry;
 import com.example.budget.model.InstallmentPlan;
+import com.example.budget.model.Money;
 import com.example.budget.model.Transaction;
 import com.example.budget.model.TransactionType;
 import com.example.budget.model.User;
+import com.example.budget.repository.InstallmentPlanJdbcRepository;
 import com.example.budget.repository.InstallmentPlanRepository;
+import com.example.budget.repository.TransactionJdbcRepository;
 import com.example.budget.repository.TransactionRepository;
+import com.example.budget.repository.TransactionRow;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,23 +24,46 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class InstallmentPlanService {
 
     private final InstallmentPlanRepository installmentPlanRepository;
+    private final InstallmentPlanJdbcRepository installmentPlanJdbcRepository;
     private final TransactionRepository transactionRepository;
+    private final TransactionJdbcRepository transactionJdbcRepository;
+    private final CategoryDictionary categoryDictionary;
+    private final TransactionPartitionManager partitionManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     public InstallmentPlanService(InstallmentPlanRepository installmentPlanRepository,
-                                  TransactionRepository transactionRepository) {
+                                  InstallmentPlanJdbcRepository installmentPlanJdbcRepository,
+                                  TransactionRepository transactionRepository,
+                                  TransactionJdbcRepository transactionJdbcRepository,
+                                  CategoryDictionary categoryDictionary,
+                                  TransactionPartitionManager partitionManager,
+                                  ApplicationEventPublisher eventPublisher) {
         this.installmentPlanRepository = installmentPlanRepository;
+        this.installmentPlanJdbcRepository = installmentPlanJdbcRepository;
         this.transactionRepository = transactionRepository;
+        this.transactionJdbcRepository = transactionJdbcRepository;
+        this.categoryDictionary = categoryDictionary;
+        this.partitionManager = partitionManager;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
-     * Cria um plano de parcelamento e gera automaticamente as transações mensais
+     * Cria um plano de parcelamento e gera automaticamente as transações mensais.
+     * No modo regra de agendamento (scheduleOnly) só as parcelas já vencidas são gravadas;
+     * as demais ficam virtuais até vencerem ou serem editadas.
      */
     @Transactional
     public InstallmentPlanDTO createInstallmentPlan(CreateInstallmentPlanRequest request, User user) {
@@ -47,43 +79,41 @@ public class InstallmentPlanService {
         InstallmentPlan plan = new InstallmentPlan();
         plan.setTotalInstallments(request.getTotalInstallments());
         plan.setInstallmentValue(request.getInstallmentValue());
-        plan.setTotalAmount(request.getInstallmentValue().multiply(new BigDecimal(request.getTotalInstallments())));
+        plan.setTotalAmount(Money.of(request.getInstallmentValue()).times(request.getTotalInstallments()).toBigDecimal());
+        plan.setScheduleOnly(request.isScheduleOnly());
+        plan.setFirstDueAt(resolveFirstDueAt(request));
+        plan.setCategory(request.getCategory());
+        plan.setDescription(request.getDescription());
         plan.setUser(user);
 
+        // Parcelas futuras caem em meses que podem ainda não ter partição; cria antes de
+        // gravar o plano, que é referenciado pelas partições novas
+        partitionManager.ensureCovered(plan.dueAt(1), plan.dueAt(plan.getTotalInstallments()));
+
         // Salvar o plano primeiro para obter o ID
         plan = installmentPlanRepository.save(plan);
 
-        // Criar as transações para cada parcela
-        List<Transaction> transactions = new ArrayList<>();
-        
-        // Usar startDateTime se disponível, senão usar startDate com horário atual
-        LocalDateTime baseDateTime;
-        if (request.getStartDateTime() != null) {
-            baseDateTime = request.getStartDateTime();
-        } else {
-            LocalDate currentDate = request.getStartDate() != null ? request.getStartDate() : LocalDate.now();
-            baseDateTime = currentDate.atTime(12, 0); // Usar meio-dia como padrão
-        }
-
+        // Gerar o cronograma completo de parcelas
+        List<Transaction> schedule = new ArrayList<>();
         for (int i = 1; i <= request.getTotalInstallments(); i++) {
-            Transaction transaction = new Transaction();
-            transaction.setType(TransactionType.EXPENSE); // Parcelamentos são sempre despesas
-            transaction.setCategory(request.getCategory());
-            transaction.setDescription(String.format("%s (Installment %d/%d)", 
-                                       request.getDescription(), i, request.getTotalInstallments()));
-            transaction.setAmount(request.getInstallmentValue());
-            transaction.setDateTime(baseDateTime.plusMonths(i - 1)); // Incrementar meses mantendo horário
-            transaction.setUser(user);
-            transaction.setInstallmentPlan(plan);
-            transaction.setInstallmentNumber(i); // Define o número da parcela
-
-            transactions.add(transaction);
+            schedule.add(buildInstallment(plan, i));
         }
 
-        // Salvar todas as transações
+        // Salvar as transações (todas, ou apenas as já vencidas no modo regra)
+        List<Transaction> transactions = schedule;
+        if (plan.isScheduleOnly()) {
+            LocalDateTime now = LocalDateTime.now();
+            transactions = schedule.stream()
+                    .filter(tx -> !tx.getDateTime().isAfter(now))
+                    .collect(Collectors.toList());
+            advanceSchedule(plan, transactions.size(), Set.of());
+        }
         transactionRepository.saveAll(transactions);
         plan.setTransactions(transactions);
 
+        // Saldos e contadores consideram o cronograma inteiro, materializado ou não
+        eventPublisher.publishEvent(LedgerChangeEvent.added(schedule));
+
         // Retornar o DTO com as informações completas
         return mapToDTO(plan);
     }
@@ -91,6 +121,7 @@ public class InstallmentPlanService {
     /**
      * Busca todos os planos de parcelamento de um usuário
      */
+    @Transactional(readOnly = true)
     public List<InstallmentPlanDTO> findAllByUser(User user) {
         List<InstallmentPlan> plans = installmentPlanRepository.findByUserOrderByIdDesc(user);
         return plans.stream()
@@ -101,23 +132,134 @@ public class InstallmentPlanService {
     /**
      * Busca um plano específico por ID
      */
+    @Transactional(readOnly = true)
     public InstallmentPlanDTO findById(Long id, User user) {
-        InstallmentPlan plan = installmentPlanRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Plano de parcelamento não encontrado"));
+        return mapToDTO(findOwnedPlan(id, user));
+    }
 
-        // Verificar se o plano pertence ao usuário
-        if (!plan.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Acesso negado");
+    /**
+     * Edita uma parcela; parcelas virtuais são materializadas com os novos valores
+     */
+    @Transactional
+    public InstallmentPlanDTO.InstallmentTransactionDTO updateInstallment(Long id, int number,
+                                                                           UpdateInstallmentRequest request,
+                                                                           User user) {
+        InstallmentPlan plan = findOwnedPlan(id, user);
+        if (number <= 0 || number > plan.getTotalInstallments()) {
+            throw new IllegalArgumentException("Número de parcela inválido");
+        }
+        partitionManager.ensureCovered(plan.dueAt(number));
+        if (request.getAmount() != null && request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("O valor da parcela deve ser maior que zero");
         }
 
-        return mapToDTO(plan);
+        Transaction installment = transactionRepository.findByInstallmentPlanAndInstallmentNumber(plan, number)
+                .orElse(null);
+        if (installment == null) {
+            if (!plan.isScheduleOnly()) {
+                throw new RuntimeException("Parcela não encontrada");
+            }
+            installment = buildInstallment(plan, number);
+        }
+        LedgerEntry before = LedgerEntry.of(installment);
+
+        if (request.getAmount() != null) {
+            installment.setAmount(request.getAmount());
+        }
+        if (request.getDescription() != null) {
+            installment.setDescription(request.getDescription());
+        }
+        if (request.getCategory() != null) {
+            installment.setCategory(request.getCategory());
+            categoryDictionary.resolve(installment, plan.getUser().getId());
+        }
+
+        Transaction saved = transactionRepository.save(installment);
+        eventPublisher.publishEvent(LedgerChangeEvent.replaced(before, saved));
+        return toInstallmentDTO(saved);
+    }
+
+    /**
+     * Grava as parcelas vencidas de um lote de planos em modo regra.
+     * Retorna quantos planos foram processados (menor que o lote quando não há mais trabalho).
+     */
+    @Transactional
+    public int materializeDueInstallments(LocalDateTime now, int batchSize) {
+        List<InstallmentPlan> plans = installmentPlanRepository.findDueSchedulesForUpdate(now, PageRequest.of(0, batchSize));
+        if (plans.isEmpty()) {
+            return 0;
+        }
+        // Antes de ler as parcelas já gravadas: a leitura prenderia a tabela pai
+        partitionManager.ensureCovered(plans.stream()
+                .map(plan -> plan.dueAt(plan.getMaterializedThrough() + 1))
+                .min(Comparator.naturalOrder()).orElseThrow(), now);
+        Map<Long, Set<Integer>> aheadOfSchedule = findInstallmentsAheadOfSchedule(plans);
+
+        List<Transaction> due = new ArrayList<>();
+        for (InstallmentPlan plan : plans) {
+            Set<Integer> materialized = aheadOfSchedule.getOrDefault(plan.getId(), Set.of());
+            int number = plan.getMaterializedThrough() + 1;
+            int dueCount = 0;
+            while (number <= plan.getTotalInstallments() && !plan.dueAt(number).isAfter(now)) {
+                if (!materialized.contains(number)) {
+                    due.add(buildInstallment(plan, number));
+                }
+                dueCount++;
+                number++;
+            }
+            advanceSchedule(plan, dueCount, materialized);
+        }
+
+        // Já contabilizadas em saldos/contadores na criação do plano: não publica evento
+        transactionRepository.saveAll(due);
+        installmentPlanRepository.saveAll(plans);
+        return plans.size();
+    }
+
+    /**
+     * Parcelas ainda virtuais dos planos do usuário com vencimento em [start, end] (limites opcionais)
+     */
+    public List<Transaction> virtualInstallments(User user, LocalDateTime start, LocalDateTime end) {
+        List<InstallmentPlan> plans = installmentPlanRepository.findPendingSchedulesByUser(user);
+        if (plans.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Set<Integer>> aheadOfSchedule = findInstallmentsAheadOfSchedule(plans);
+
+        List<Transaction> installments = new ArrayList<>();
+        for (InstallmentPlan plan : plans) {
+            installments.addAll(virtualInstallments(plan, aheadOfSchedule.getOrDefault(plan.getId(), Set.of()), start, end));
+        }
+        return installments;
     }
 
     /**
      * Deleta um plano de parcelamento e todas as suas transações associadas
+     * com dois comandos em lote (parcelas gravadas e o plano), sem carregá-los no contexto JPA
      */
     @Transactional
     public void delete(Long id, User user) {
+        List<TransactionRow> deleted = transactionJdbcRepository.deleteByInstallmentPlan(user.getId(), id);
+        InstallmentPlan plan = installmentPlanJdbcRepository.delete(id, user.getId())
+                .orElseThrow(() -> new RuntimeException("Plano de parcelamento não encontrado"));
+
+        List<LedgerEntry> removed = deleted.stream()
+                .map(TransactionRow::toLedgerEntry)
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (plan.isScheduleOnly()) {
+            plan.setUser(user);
+            Set<Integer> materialized = deleted.stream()
+                    .map(TransactionRow::installmentNumber)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            for (Transaction installment : virtualInstallments(plan, materialized, null, null)) {
+                removed.add(LedgerEntry.of(installment));
+            }
+        }
+        eventPublisher.publishEvent(new LedgerChangeEvent(List.of(), removed));
+    }
+
+    private InstallmentPlan findOwnedPlan(Long id, User user) {
         InstallmentPlan plan = installmentPlanRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Plano de parcelamento não encontrado"));
 
@@ -125,51 +267,110 @@ public class InstallmentPlanService {
         if (!plan.getUser().getId().equals(user.getId())) {
             throw new RuntimeException("Acesso negado");
         }
+        return plan;
+    }
+
+    /**
+     * Usa startDateTime se disponível, senão startDate (ou hoje) ao meio-dia
+     */
+    private LocalDateTime resolveFirstDueAt(CreateInstallmentPlanRequest request) {
+        if (request.getStartDateTime() != null) {
+            return request.getStartDateTime();
+        }
+        LocalDate currentDate = request.getStartDate() != null ? request.getStartDate() : LocalDate.now();
+        return currentDate.atTime(12, 0);
+    }
 
-        // Devido ao cascade = CascadeType.ALL e orphanRemoval = true, 
-        // as transações serão deletadas automaticamente
-        installmentPlanRepository.delete(plan);
+    /**
+     * Monta (sem gravar) a transação da parcela {@code number} a partir da regra do plano
+     */
+    private Transaction buildInstallment(InstallmentPlan plan, int number) {
+        Transaction transaction = new Transaction();
+        transaction.setType(TransactionType.EXPENSE); // Parcelamentos são sempre despesas
+        transaction.setCategory(plan.getCategory());
+        categoryDictionary.resolve(transaction, plan.getUser().getId());
+        transaction.setDescription(plan.installmentDescription(number));
+        transaction.setAmount(plan.getInstallmentValue());
+        transaction.setDateTime(plan.dueAt(number)); // Incrementar meses mantendo horário
+        transaction.setUser(plan.getUser());
+        transaction.setInstallmentPlan(plan);
+        transaction.setInstallmentNumber(number);
+        return transaction;
+    }
+
+    /**
+     * Avança o ponteiro de parcelas materializadas, pulando as que já foram gravadas por edição
+     */
+    private void advanceSchedule(InstallmentPlan plan, int dueCount, Set<Integer> materialized) {
+        int through = plan.getMaterializedThrough() + dueCount;
+        while (through < plan.getTotalInstallments() && materialized.contains(through + 1)) {
+            through++;
+        }
+        plan.setMaterializedThrough(through);
+        plan.setNextDueAt(through < plan.getTotalInstallments() ? plan.dueAt(through + 1) : null);
+    }
+
+    private List<Transaction> virtualInstallments(InstallmentPlan plan, Set<Integer> materialized,
+                                                  LocalDateTime start, LocalDateTime end) {
+        return plan.virtualInstallmentNumbers(materialized, start, end).stream()
+                .map(number -> buildInstallment(plan, number))
+                .toList();
+    }
+
+    private Map<Long, Set<Integer>> findInstallmentsAheadOfSchedule(List<InstallmentPlan> plans) {
+        Map<Long, Set<Integer>> result = new HashMap<>();
+        for (Object[] row : transactionRepository.findInstallmentsAheadOfSchedule(plans)) {
+            result.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((Integer) row[1]);
+        }
+        return result;
+    }
+
+    private Set<Integer> installmentNumbers(List<Transaction> transactions) {
+        return transactions.stream()
+                .map(this::resolveInstallmentNumber)
+                .collect(Collectors.toSet());
     }
 
     /**
      * Converte InstallmentPlan para InstallmentPlanDTO
      */
     private InstallmentPlanDTO mapToDTO(InstallmentPlan plan) {
-        List<InstallmentPlanDTO.InstallmentTransactionDTO> transactionDTOs = plan.getTransactions().stream()
-                .map(tx -> new InstallmentPlanDTO.InstallmentTransactionDTO(
-                        tx.getId(),
-                        tx.getDescription(),
-                        tx.getAmount(),
-                        tx.getCategory(),
-                        tx.getDateTime().toLocalDate(),
-                        extractInstallmentNumber(tx.getDescription())
-                ))
+        List<Transaction> installments = new ArrayList<>(plan.getTransactions());
+        if (plan.isScheduleOnly()) {
+            installments.addAll(virtualInstallments(plan, installmentNumbers(installments), null, null));
+        }
+
+        List<InstallmentPlanDTO.InstallmentTransactionDTO> transactionDTOs = installments.stream()
+                .map(this::toInstallmentDTO)
+                .sorted(Comparator.comparingInt(InstallmentPlanDTO.InstallmentTransactionDTO::getInstallmentNumber))
                 .collect(Collectors.toList());
 
-        return new InstallmentPlanDTO(
+        InstallmentPlanDTO dto = new InstallmentPlanDTO(
                 plan.getId(),
                 plan.getTotalInstallments(),
                 plan.getTotalAmount(),
                 plan.getInstallmentValue(),
                 transactionDTOs
         );
+        dto.setScheduleOnly(plan.isScheduleOnly());
+        return dto;
+    }
+
+    private InstallmentPlanDTO.InstallmentTransactionDTO toInstallmentDTO(Transaction tx) {
+        return new InstallmentPlanDTO.InstallmentTransactionDTO(
+                tx.getId(),
+                tx.getDescription(),
+                tx.getAmount(),
+                tx.getCategory(),
+                tx.getDateTime().toLocalDate(),
+                resolveInstallmentNumber(tx)
+        );
     }
 
     /**
-     * Extrai o número da parcela da descrição (ex: "Purchase (Installment 2/3)" -> 2)
+     * Número da parcela; para linhas antigas sem a coluna preenchida, extrai da descrição
      */
-    private int extractInstallmentNumber(String description) {
-        try {
-            // Procura por padrão "Installment X/Y"
-            int start = description.indexOf("Installment ") + 12;
-            int end = description.indexOf("/", start);
-            if (start > 11 && end > start) {
-                return Integer.parseInt(description.substring(start, end));
-            }
-        } catch (Exception e) {
-            // Se não conseguir extrair, retorna 0
-        }
-        return 0;
+    private int resolveInstallmentNumber(Transaction tx) {
+        return InstallmentPlan.installmentNumberOf(tx.getInstallmentNumber(), tx.getDescription());
     }
 }
-
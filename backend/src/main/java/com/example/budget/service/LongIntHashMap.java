@@ -0,0 +1,129 @@
+package com.example.budget.service;
+
+/**
+ * Mapa long → int com endereçamento aberto (sondagem linear) em dois arrays primitivos,
+ * sem objetos por entrada. Contadores que chegam a zero são removidos com deslocamento
+ * para trás, sem marcas de remoção, então o mapa não degrada com treinos e "destreinos".
+ * Não é thread-safe.
+ */
+final class LongIntHashMap {
+
+    private static final long EMPTY = 0L;
+    private static final float MAX_LOAD = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    // A chave 0 marca posição vazia; o contador dela fica à parte
+    private int zeroValue;
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / MAX_LOAD)) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    int get(long key) {
+        if (key == EMPTY) {
+            return zeroValue;
+        }
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                return values[i];
+            }
+            if (k == EMPTY) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Soma delta ao contador da chave e retorna o novo valor; zero remove a chave
+     */
+    int add(long key, int delta) {
+        if (key == EMPTY) {
+            if (zeroValue == 0 && delta != 0) {
+                size++;
+            }
+            zeroValue += delta;
+            if (zeroValue == 0 && delta != 0) {
+                size--;
+            }
+            return zeroValue;
+        }
+        int i = slot(key);
+        while (true) {
+            long k = keys[i];
+            if (k == key) {
+                int value = values[i] + delta;
+                if (value == 0) {
+                    removeAt(i);
+                } else {
+                    values[i] = value;
+                }
+                return value;
+            }
+            if (k == EMPTY) {
+                if (delta == 0) {
+                    return 0;
+                }
+                keys[i] = key;
+                values[i] = delta;
+                if (++size > keys.length * MAX_LOAD) {
+                    resize();
+                }
+                return delta;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void removeAt(int removed) {
+        size--;
+        // Puxa para a posição liberada as chaves seguintes que a sondagem não acharia mais
+        int gap = removed;
+        for (int i = (gap + 1) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+            int home = slot(keys[i]);
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = 0;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            long key = oldKeys[j];
+            if (key != EMPTY) {
+                int i = slot(key);
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private int slot(long key) {
+        // Mistura os bits altos (hashes de token já são bem distribuídos, mas slot + categoria não)
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
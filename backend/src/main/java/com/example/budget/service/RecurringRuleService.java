@@ -0,0 +1,111 @@
+package com.example.budget.service;
+
+import com.example.budget.dto.CreateRecurringRuleRequest;
+import com.example.budget.dto.RecurringRuleDTO;
+import com.example.budget.model.RecurringRule;
+import com.example.budget.model.User;
+import com.example.budget.repository.RecurringRuleRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class RecurringRuleService {
+
+    private final RecurringRuleRepository recurringRuleRepository;
+    private final ForecastService forecastService;
+
+    public RecurringRuleService(RecurringRuleRepository recurringRuleRepository, ForecastService forecastService) {
+        this.recurringRuleRepository = recurringRuleRepository;
+        this.forecastService = forecastService;
+    }
+
+    /**
+     * Cria uma regra recorrente; as ocorrências são gravadas pelo materializador agendado
+     */
+    @Transactional
+    public RecurringRuleDTO create(CreateRecurringRuleRequest request, User user) {
+        // Validações básicas
+        if (request.getType() == null || request.getFrequency() == null) {
+            throw new IllegalArgumentException("Tipo e frequência são obrigatórios");
+        }
+        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("O valor deve ser maior que zero");
+        }
+
+        LocalDateTime startAt;
+        if (request.getStartDateTime() != null) {
+            startAt = request.getStartDateTime();
+        } else {
+            LocalDate startDate = request.getStartDate() != null ? request.getStartDate() : LocalDate.now();
+            startAt = startDate.atTime(12, 0); // Usar meio-dia como padrão
+        }
+        if (request.getEndDate() != null && request.getEndDate().isBefore(startAt.toLocalDate())) {
+            throw new IllegalArgumentException("A data final deve ser posterior ao início");
+        }
+
+        RecurringRule rule = new RecurringRule();
+        rule.setUser(user);
+        rule.setType(request.getType());
+        rule.setCategory(request.getCategory());
+        rule.setDescription(request.getDescription());
+        rule.setAmount(request.getAmount());
+        rule.setFrequency(request.getFrequency());
+        rule.setStartAt(startAt);
+        rule.setEndDate(request.getEndDate());
+        rule.setNextOccurrenceAt(startAt);
+
+        RecurringRuleDTO saved = mapToDTO(recurringRuleRepository.save(rule));
+        forecastService.rulesChanged(user.getId());
+        return saved;
+    }
+
+    /**
+     * Lista as regras recorrentes do usuário
+     */
+    @Transactional(readOnly = true)
+    public List<RecurringRuleDTO> findAllByUser(User user) {
+        return recurringRuleRepository.findByUserOrderByIdDesc(user).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Encerra a regra: nenhuma nova ocorrência é gerada, as já gravadas são mantidas
+     */
+    @Transactional
+    public void deactivate(Long id, User user) {
+        RecurringRule rule = recurringRuleRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Regra recorrente não encontrada"));
+
+        if (!rule.getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("Acesso negado");
+        }
+
+        rule.setActive(false);
+        rule.setNextOccurrenceAt(null);
+        recurringRuleRepository.save(rule);
+        forecastService.rulesChanged(user.getId());
+    }
+
+    private RecurringRuleDTO mapToDTO(RecurringRule rule) {
+        return new RecurringRuleDTO(
+                rule.getId(),
+                rule.getType(),
+                rule.getCategory(),
+                rule.getDescription(),
+                rule.getAmount(),
+                rule.getFrequency(),
+                rule.getStartAt(),
+                rule.getEndDate(),
+                rule.getOccurrenceCount(),
+                rule.getNextOccurrenceAt(),
+                rule.isActive()
+        );
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.budget.service;
+
+import com.example.budget.model.TransactionType;
+import com.example.budget.repository.ArchivedTransactionRow;
+import com.example.budget.repository.TransactionArchiveJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Arquivo frio: move os anos fechados de cada usuário de "transactions" para segmentos
+ * colunares comprimidos em disco ({@link TransactionSegment}), deixando no banco só os totais
+ * mensais por categoria e moeda.
+ *
+ * O arquivamento de um (usuário, ano) é uma transação só: registra o ano (trava entre
+ * instâncias), trava e lê as linhas, grava o segmento (fsync + rename), grava os totais e
+ * apaga as linhas. Parcelas de planos ficam no banco. As linhas arquivadas não aceitam edição
+ * nem exclusão: não existem mais em "transactions", e o TransactionService recusa (409) os ids
+ * que {@link #isArchived} encontra nos segmentos.
+ *
+ * Transações gravadas depois com data num ano já arquivado ficam no banco (e aparecem nas
+ * leituras normalmente) até a próxima execução do job, que rearquiva o ano: trava o registro,
+ * grava um segmento novo com as linhas antigas e as novas, soma as linhas novas em
+ * archived_monthly_totals (as leituras somam as linhas repetidas de um mesmo mês) e aponta o
+ * registro para o arquivo novo. Cada gravação usa um nome novo, então leituras em andamento
+ * continuam com o segmento anterior; segmentos sem registro (substituídos ou de um commit que
+ * falhou) são apagados por {@link #pruneSegments} depois de transactions.archive.orphan-grace-ms.
+ *
+ * As leituras do TransactionService juntam o banco e os segmentos dos anos que cruzam o
+ * período; os segmentos abertos (mapeados em memória) ficam num LRU. Os sketches de categoria
+ * (CategorySpendService), o histórico da previsão (ForecastService) e a pilha reativa
+ * (ReactiveArchiveReader) também leem os anos arquivados.
+ */
+@Service
+public class TransactionArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiveService.class);
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final TransactionArchiveJdbcRepository repository;
+    private final TransactionSegmentCache segments;
+    private final Path directory;
+    private final long orphanGraceMs;
+
+    private final Counter archivedRowsCounter;
+    private final Counter blocksReadCounter;
+
+    public TransactionArchiveService(TransactionArchiveJdbcRepository repository,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${transactions.archive.enabled:false}") boolean enabled,
+                                     @Value("${transactions.archive.dir:data/archive}") String directory,
+                                     @Value("${transactions.archive.max-open-segments:512}") int maxOpenSegments,
+                                     @Value("${transactions.archive.orphan-grace-ms:3600000}") long orphanGraceMs) {
+        this.repository = repository;
+        this.directory = Path.of(directory);
+        // Relativo ao diretório de trabalho (no container, /app/application): os segmentos
+        // ficariam fora do volume e os anos arquivados se perderiam ao recriar o container
+        if (enabled && !this.directory.isAbsolute()) {
+            throw new IllegalStateException("transactions.archive.dir precisa ser um caminho absoluto "
+                    + "(volume persistente) com o arquivamento ligado: " + directory);
+        }
+        this.segments = new TransactionSegmentCache(this.directory, maxOpenSegments);
+        this.orphanGraceMs = orphanGraceMs;
+
+        this.archivedRowsCounter = Counter.builder("transactions.archive.rows")
+                .description("Transações movidas do banco para segmentos do arquivo frio")
+                .register(meterRegistry);
+        this.blocksReadCounter = Counter.builder("transactions.archive.blocks-read")
+                .description("Blocos mensais de segmentos descomprimidos em leituras")
+                .register(meterRegistry);
+    }
+
+    /**
+     * (usuário, ano) com transações anteriores a {@code beforeYear} ainda no banco
+     */
+    public List<TransactionArchiveJdbcRepository.PendingYear> findPendingYears(int beforeYear) {
+        return repository.findPendingYears(beforeYear);
+    }
+
+    /**
+     * Arquiva as transações do ano ainda no banco (o ano todo ou, se ele já estiver arquivado,
+     * as gravadas depois); devolve quantas saíram do banco (0 se outro processo já as arquivou)
+     */
+    @Transactional
+    public int archiveYear(Long userId, int year) {
+        String fileName = fileName(userId, year);
+        String previousFile = null;
+        if (!repository.register(userId, year, fileName)) {
+            // Espera um arquivamento concorrente do mesmo ano terminar; depois dele as linhas
+            // já saíram do banco e não há nada a fazer
+            previousFile = repository.lockArchive(userId, year);
+        }
+        List<ArchivedTransactionRow> rows = repository.lockRows(userId, year);
+        if (previousFile != null && rows.isEmpty()) {
+            return 0;
+        }
+
+        List<ArchivedTransactionRow> segmentRows = rows;
+        if (previousFile != null) {
+            segmentRows = new ArrayList<>(readAll(previousFile));
+            segmentRows.addAll(rows);
+            segmentRows.sort(Comparator.comparing(ArchivedTransactionRow::dateTime)
+                    .thenComparingLong(ArchivedTransactionRow::id));
+        }
+        Path file = segments.resolve(fileName);
+        long size;
+        try {
+            size = TransactionSegment.write(file, userId, year, segmentRows);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível gravar o segmento " + file, e);
+        }
+
+        repository.insertMonthlyTotals(userId, monthlyTotals(rows));
+        repository.deleteRows(userId, rows.stream().map(ArchivedTransactionRow::id).toList());
+        repository.complete(userId, year, fileName, rows.size(), size);
+        archivedRowsCounter.increment(rows.size());
+        logger.info("Archived {} transactions of user {} for {} ({} bytes, {} in segment)",
+                rows.size(), userId, year, size, segmentRows.size());
+        return rows.size();
+    }
+
+    /**
+     * Apaga os segmentos que nenhum ano arquivado referencia (substituídos por um rearquivamento
+     * ou gravados por uma transação que não fez commit), se modificados há mais de
+     * transactions.archive.orphan-grace-ms; devolve quantos foram apagados
+     */
+    public int pruneSegments() {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        Set<Path> referenced = new HashSet<>();
+        for (String fileName : repository.findFileNames()) {
+            referenced.add(segments.resolve(fileName).normalize());
+        }
+        long cutoff = System.currentTimeMillis() - orphanGraceMs;
+        List<Path> orphans;
+        try (Stream<Path> files = Files.walk(directory)) {
+            // .seg.tmp: gravação interrompida antes do rename
+            orphans = files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)
+                            || path.getFileName().toString().endsWith(SEGMENT_SUFFIX + ".tmp"))
+                    .filter(path -> !referenced.contains(path.normalize()))
+                    .filter(path -> lastModifiedMillis(path) < cutoff)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível listar o diretório " + directory, e);
+        }
+        int deleted = 0;
+        for (Path orphan : orphans) {
+            try {
+                if (Files.deleteIfExists(orphan)) {
+                    segments.evict(directory.relativize(orphan).toString());
+                    deleted++;
+                }
+            } catch (IOException e) {
+                logger.warn("Could not delete archive segment {}: {}", orphan, e.getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Transações arquivadas do usuário com data em [start, end] (null = sem limite), em ordem de data
+     */
+    public List<ArchivedTransactionRow> findRows(Long userId, LocalDateTime start, LocalDateTime end) {
+        List<ArchivedTransactionRow> rows = new ArrayList<>();
+        for (TransactionArchiveJdbcRepository.ArchivedYear archived : repository.findArchivedYears(userId)) {
+            if ((start != null && archived.year() < start.getYear()) || (end != null && archived.year() > end.getYear())) {
+                continue;
+            }
+            TransactionSegment segment = segments.segment(archived.fileName());
+            try {
+                rows.addAll(segment.read(start, end));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Não foi possível ler o segmento " + archived.fileName(), e);
+            }
+            blocksReadCounter.increment(segment.blocksIn(start, end));
+        }
+        return rows;
+    }
+
+    /**
+     * Se a transação do usuário está num segmento do arquivo. Percorre os segmentos de todos os
+     * anos arquivados: só é chamado quando o id não existe mais no banco
+     */
+    public boolean isArchived(Long userId, long id) {
+        for (TransactionArchiveJdbcRepository.ArchivedYear archived : repository.findArchivedYears(userId)) {
+            try {
+                if (segments.segment(archived.fileName()).contains(id)) {
+                    return true;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Não foi possível ler o segmento " + archived.fileName(), e);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Totais por categoria e moeda do mês, se ele estiver arquivado (lista vazia caso contrário)
+     */
+    public List<TransactionArchiveJdbcRepository.MonthlyTotal> findMonthlyTotals(Long userId, YearMonth month) {
+        LocalDate first = month.atDay(1);
+        return repository.findMonthlyTotals(userId, first, first);
+    }
+
+    private List<ArchivedTransactionRow> readAll(String fileName) {
+        try {
+            return segments.segment(fileName).read(null, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível ler o segmento " + fileName, e);
+        }
+    }
+
+    // Arquivo que sumiu no meio da listagem conta como recente: fica para a próxima limpeza
+    private static long lastModifiedMillis(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static List<TransactionArchiveJdbcRepository.MonthlyTotal> monthlyTotals(List<ArchivedTransactionRow> rows) {
+        // (mês, categoria, moeda) → [receitas, despesas, quantidade]
+        Map<TotalKey, long[]> totals = new LinkedHashMap<>();
+        for (ArchivedTransactionRow row : rows) {
+            TotalKey key = new TotalKey(YearMonth.from(row.dateTime()).atDay(1), row.categoryId(), row.currency());
+            long[] sums = totals.computeIfAbsent(key, k -> new long[3]);
+            if (row.type() == TransactionType.INCOME) {
+                sums[0] = Math.addExact(sums[0], row.amountMinor());
+            } else {
+                sums[1] = Math.addExact(sums[1], row.amountMinor());
+            }
+            sums[2]++;
+        }
+        List<TransactionArchiveJdbcRepository.MonthlyTotal> result = new ArrayList<>(totals.size());
+        totals.forEach((key, sums) -> result.add(new TransactionArchiveJdbcRepository.MonthlyTotal(
+                key.month(), key.categoryId(), key.currency(), sums[0], sums[1], (int) sums[2])));
+        return result;
+    }
+
+    private record TotalKey(LocalDate month, Integer categoryId, String currency) {
+    }
+
+    // Relativo ao diretório do arquivo: user-<id>/<ano>-<milissegundos>.seg, um nome novo a cada
+    // gravação (segmentos antigos se chamam user-<id>/<ano>.seg)
+    private static String fileName(Long userId, int year) {
+        return "user-" + userId + "/" + year + "-" + System.currentTimeMillis() + SEGMENT_SUFFIX;
+    }
+}
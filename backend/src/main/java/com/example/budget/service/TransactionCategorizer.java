@@ -0,0 +1,177 @@
+package com.example.budget.service;
+
+import com.example.budget.dto.CategoryPrediction;
+import com.example.budget.event.LedgerChangeEvent;
+import com.example.budget.event.LedgerEntry;
+import com.example.budget.event.UserCachesInvalidatedEvent;
+import com.example.budget.model.TransactionType;
+import com.example.budget.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sugere a categoria de uma transação a partir da descrição, do tipo e do valor, com um
+ * {@link CategoryModel} (naive Bayes) por usuário.
+ *
+ * O modelo é treinado na primeira consulta com as transações já categorizadas e depois
+ * incrementalmente após o commit de cada escrita: gravações somam, remoções e trocas de
+ * categoria retiram o exemplo antigo. Modelos de usuários inativos saem por LRU.
+ */
+@Service
+public class TransactionCategorizer {
+
+    private static final int MAX_LIMIT = 10;
+
+    private final TransactionRepository repository;
+    private final CategoryDictionary categoryDictionary;
+    private final double minConfidence;
+    private final Map<Long, CategoryModel> models;
+
+    private final Counter autoAssignedCounter;
+
+    public TransactionCategorizer(TransactionRepository repository,
+                                  CategoryDictionary categoryDictionary,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${transactions.categorizer.max-users:2000}") int maxUsers,
+                                  @Value("${transactions.categorizer.min-confidence:0.6}") double minConfidence) {
+        this.repository = repository;
+        this.categoryDictionary = categoryDictionary;
+        this.minConfidence = minConfidence;
+        this.models = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CategoryModel> eldest) {
+                return size() > maxUsers;
+            }
+        };
+
+        this.autoAssignedCounter = Counter.builder("transactions.categorizer.auto-assigned")
+                .description("Transações gravadas sem categoria que receberam a categoria prevista")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Categorias mais prováveis para a transação, da mais para a menos provável
+     */
+    public List<CategoryPrediction> predict(Long userId, String description, TransactionType type,
+                                            long amountMinor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return modelFor(userId).predict(description, type, amountMinor, size).stream()
+                .map(prediction -> new CategoryPrediction(prediction.category(), prediction.probability()))
+                .toList();
+    }
+
+    /**
+     * Categoria para uma transação enviada sem categoria, ou null se a previsão não for
+     * confiável (probabilidade abaixo de transactions.categorizer.min-confidence)
+     */
+    public String categoryFor(Long userId, String description, TransactionType type, long amountMinor) {
+        if (!StringUtils.hasText(description)) {
+            return null;
+        }
+        List<CategoryModel.Prediction> predictions = modelFor(userId).predict(description, type, amountMinor, 1);
+        if (predictions.isEmpty() || predictions.get(0).probability() < minConfidence) {
+            return null;
+        }
+        autoAssignedCounter.increment();
+        return predictions.get(0).category();
+    }
+
+    /**
+     * Treina após o commit, como o BalanceService
+     */
+    @EventListener
+    public void onLedgerChange(LedgerChangeEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private long committingAt;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    committingAt = System.nanoTime();
+                }
+
+                @Override
+                public void afterCommit() {
+                    apply(event, committingAt);
+                }
+            });
+        } else {
+            apply(event, System.nanoTime());
+        }
+    }
+
+    @EventListener
+    public void onCachesInvalidated(UserCachesInvalidatedEvent event) {
+        synchronized (models) {
+            if (event.allUsers()) {
+                models.clear();
+            } else {
+                event.userIds().forEach(models::remove);
+            }
+        }
+    }
+
+    private void apply(LedgerChangeEvent event, long committingAt) {
+        train(event.removed(), -1, committingAt);
+        train(event.added(), 1, committingAt);
+    }
+
+    private void train(List<LedgerEntry> entries, int delta, long committingAt) {
+        for (LedgerEntry entry : entries) {
+            if (entry.category() == null) {
+                continue;
+            }
+            CategoryModel model = loadedModel(entry.userId(), committingAt);
+            if (model != null) {
+                model.train(entry.description(), entry.type(), entry.amountMinor(), entry.category(), delta);
+            }
+        }
+    }
+
+    /**
+     * Modelo já em memória, ou null. Um modelo lido durante o commit pode já conter a
+     * escrita: é descartado e retreinado na próxima consulta.
+     */
+    private CategoryModel loadedModel(Long userId, long committingAt) {
+        synchronized (models) {
+            CategoryModel model = models.get(userId);
+            if (model != null && model.loadedAt() >= committingAt) {
+                models.remove(userId);
+                return null;
+            }
+            return model;
+        }
+    }
+
+    private CategoryModel modelFor(Long userId) {
+        synchronized (models) {
+            CategoryModel model = models.get(userId);
+            if (model != null) {
+                return model;
+            }
+        }
+        // Fora do lock: a consulta ao banco não bloqueia os outros usuários
+        CategoryModel built = new CategoryModel(System.nanoTime());
+        for (Object[] row : repository.findCategorizedByUser(userId)) {
+            String category = categoryDictionary.nameOf(((Number) row[3]).intValue());
+            if (category != null) {
+                built.train((String) row[0], TransactionType.valueOf((String) row[1]),
+                        ((Number) row[2]).longValue(), category, 1);
+            }
+        }
+        synchronized (models) {
+            CategoryModel existing = models.putIfAbsent(userId, built);
+            return existing != null ? existing : built;
+        }
+    }
+}
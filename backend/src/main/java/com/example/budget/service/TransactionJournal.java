@@ -0,0 +1,315 @@
+package com.example.budget.service;
+
+import com.example.budget.model.TransactionType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal local, somente de acréscimo, das transações aceitas pela fila de escrita.
+ *
+ * Os registros vão para segmentos de tamanho fixo mapeados em memória e cada append força
+ * as páginas escritas para o disco antes de retornar: o que foi confirmado ao cliente
+ * sobrevive a um crash do processo ou da máquina. O cabeçalho de cada segmento guarda até
+ * onde o conteúdo já foi gravado no banco, e segmentos inteiramente gravados são apagados.
+ *
+ * Formato do segmento: cabeçalho [magic int][versão int][offset gravado long] seguido de
+ * registros [tamanho int][crc32 int][payload]. Tamanho 0 marca o fim; um registro com CRC
+ * inválido (escrita interrompida) encerra a leitura do segmento. A versão 2 acrescenta a
+ * moeda ao fim do payload; segmentos da versão 1 continuam legíveis (moeda base) e não
+ * recebem mais registros.
+ */
+public class TransactionJournal implements Closeable {
+
+    private static final int MAGIC = 0x424A524E;
+    private static final int VERSION = 2;
+    private static final int FIRST_VERSION_WITH_CURRENCY = 2;
+    private static final int HEADER_SIZE = 16;
+    private static final int FLUSHED_OFFSET_POSITION = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * Transação aceita pela fila, com o id gerado pelo cliente; currency nula = moeda base
+     */
+    public record Entry(UUID clientId, long userId, LocalDateTime dateTime, TransactionType type,
+                        String category, String description, long amountMinor, String currency) {
+    }
+
+    /**
+     * Entrada do journal e a posição logo após o seu registro, usada para marcar o progresso
+     */
+    public record Journaled(Entry entry, long segment, int endOffset) {
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private Segment active;
+
+    public TransactionJournal(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Abre os segmentos existentes (ou cria o primeiro) e devolve, em ordem, as entradas
+     * que ainda não foram gravadas no banco
+     */
+    public synchronized List<Journaled> open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(TransactionJournal::isSegment).sorted().toList();
+        }
+        List<Journaled> pending = new ArrayList<>();
+        for (Path file : files) {
+            Segment segment = Segment.open(file, sequenceOf(file));
+            segments.put(segment.sequence, segment);
+            segment.recover(pending);
+        }
+        // Segmento de versão anterior só é lido: as próximas entradas vão para um novo
+        if (segments.isEmpty() || segments.lastEntry().getValue().version != VERSION) {
+            roll();
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+        return pending;
+    }
+
+    /**
+     * Anexa a entrada e só retorna depois que ela estiver no disco
+     */
+    public synchronized Journaled append(Entry entry) throws IOException {
+        byte[] payload = encode(entry);
+        if (RECORD_HEADER_SIZE + payload.length > segmentSize - HEADER_SIZE) {
+            throw new IllegalArgumentException("Registro maior que o segmento do journal");
+        }
+        if (!active.fits(payload.length)) {
+            roll();
+        }
+        return new Journaled(entry, active.sequence, active.write(payload));
+    }
+
+    /**
+     * Registra que tudo até a posição informada já está no banco. Segmentos anteriores já
+     * foram consumidos por inteiro e são apagados, assim como este se estiver fechado.
+     */
+    public synchronized void markFlushed(long segment, int endOffset) throws IOException {
+        Segment target = segments.get(segment);
+        if (target == null) {
+            return;
+        }
+        target.setFlushedOffset(endOffset);
+
+        Iterator<Segment> consumed = segments.headMap(segment, false).values().iterator();
+        while (consumed.hasNext()) {
+            consumed.next().delete();
+            consumed.remove();
+        }
+        if (target != active && endOffset >= target.writeOffset) {
+            target.delete();
+            segments.remove(segment);
+        }
+    }
+
+    /**
+     * Quantidade de segmentos em disco
+     */
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+        segments.clear();
+        active = null;
+    }
+
+    private void roll() throws IOException {
+        long sequence = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        active = Segment.create(file, sequence, segmentSize);
+        segments.put(sequence, active);
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static byte[] encode(Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(entry.clientId().getMostSignificantBits());
+            out.writeLong(entry.clientId().getLeastSignificantBits());
+            out.writeLong(entry.userId());
+            out.writeLong(entry.dateTime().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(entry.dateTime().getNano());
+            out.writeUTF(entry.type().name());
+            writeNullable(out, entry.category());
+            writeNullable(out, entry.description());
+            out.writeLong(entry.amountMinor());
+            writeNullable(out, entry.currency());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Entry decode(byte[] payload, int version) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            UUID clientId = new UUID(in.readLong(), in.readLong());
+            long userId = in.readLong();
+            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            TransactionType type = TransactionType.valueOf(in.readUTF());
+            String category = readNullable(in);
+            String description = readNullable(in);
+            long amountMinor = in.readLong();
+            String currency = version >= FIRST_VERSION_WITH_CURRENCY ? readNullable(in) : null;
+            return new Entry(clientId, userId, dateTime, type, category, description, amountMinor, currency);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static final class Segment {
+
+        private final long sequence;
+        private final int version;
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private int writeOffset = HEADER_SIZE;
+
+        private Segment(long sequence, int version, Path file, FileChannel channel, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.version = version;
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+
+        static Segment create(Path file, long sequence, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(FLUSHED_OFFSET_POSITION, HEADER_SIZE);
+            buffer.force();
+            return new Segment(sequence, VERSION, file, channel, buffer);
+        }
+
+        static Segment open(Path file, long sequence) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC
+                    || buffer.getInt(4) < 1 || buffer.getInt(4) > VERSION) {
+                channel.close();
+                throw new IOException("Segmento de journal inválido: " + file);
+            }
+            return new Segment(sequence, buffer.getInt(4), file, channel, buffer);
+        }
+
+        /**
+         * Percorre os registros válidos, posiciona a escrita no fim deles e coleta os ainda não gravados
+         */
+        void recover(List<Journaled> pending) throws IOException {
+            long flushed = buffer.getLong(FLUSHED_OFFSET_POSITION);
+            int offset = HEADER_SIZE;
+            while (offset + RECORD_HEADER_SIZE <= capacity) {
+                int length = buffer.getInt(offset);
+                if (length <= 0 || offset + RECORD_HEADER_SIZE + length > capacity) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(offset + RECORD_HEADER_SIZE, payload);
+                if (checksum(payload) != buffer.getInt(offset + 4)) {
+                    break;
+                }
+                offset += RECORD_HEADER_SIZE + length;
+                if (offset > flushed) {
+                    pending.add(new Journaled(decode(payload, version), sequence, offset));
+                }
+            }
+            writeOffset = offset;
+        }
+
+        boolean fits(int payloadLength) {
+            return writeOffset + RECORD_HEADER_SIZE + payloadLength <= capacity;
+        }
+
+        /**
+         * Escreve o registro e devolve o offset logo após ele. O tamanho é gravado por último e
+         * o tamanho seguinte é zerado, então lixo de uma escrita interrompida nunca parece válido.
+         */
+        int write(byte[] payload) {
+            int start = writeOffset;
+            int end = start + RECORD_HEADER_SIZE + payload.length;
+            int terminator = end + Integer.BYTES <= capacity ? Integer.BYTES : 0;
+            if (terminator > 0) {
+                buffer.putInt(end, 0);
+            }
+            buffer.put(start + RECORD_HEADER_SIZE, payload);
+            buffer.putInt(start + 4, checksum(payload));
+            buffer.putInt(start, payload.length);
+            buffer.force(start, end - start + terminator);
+            writeOffset = end;
+            return end;
+        }
+
+        void setFlushedOffset(int offset) {
+            buffer.putLong(FLUSHED_OFFSET_POSITION, offset);
+            buffer.force(FLUSHED_OFFSET_POSITION, Long.BYTES);
+        }
+
+        void delete() throws IOException {
+            channel.close();
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.budget.service;
+
+import com.example.budget.repository.TransactionPartitionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Garante que existe partição mensal de "transactions" para as datas que serão gravadas.
+ *
+ * Os meses já criados ficam em memória, então o caminho comum é uma consulta a um Set.
+ * A criação roda em transação própria e curta: CREATE TABLE ... PARTITION OF bloqueia a
+ * tabela pai e não pode ficar preso à transação da escrita. Pelo mesmo motivo deve ser
+ * chamado antes de a transação externa ler "transactions" ou escrever em tabelas que ela
+ * referencia (installment_plan, users): os locks já obtidos ali bloqueariam o DDL, que
+ * por sua vez espera pela transação externa. Sem a migração de particionamento aplicada,
+ * tudo vira no-op.
+ *
+ * As datas vêm do usuário: só meses dentro da janela (years-back anos atrás até years-ahead
+ * anos à frente) ganham partição. Fora dela a linha cai em transactions_default, então uma
+ * data como 0001-01-01 ou 9999-12-31 não dispara DDL.
+ */
+@Service
+public class TransactionPartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionPartitionManager.class);
+
+    private final TransactionPartitionRepository repository;
+    private final TransactionTemplate requiresNew;
+    private final Set<YearMonth> existing = ConcurrentHashMap.newKeySet();
+    private final int yearsBack;
+    private final int yearsAhead;
+    private volatile Boolean partitioned;
+
+    public TransactionPartitionManager(TransactionPartitionRepository repository,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${transactions.partitions.years-back:15}") int yearsBack,
+                                       @Value("${transactions.partitions.years-ahead:5}") int yearsAhead) {
+        this.repository = repository;
+        this.yearsBack = yearsBack;
+        this.yearsAhead = yearsAhead;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Cria, se faltarem, as partições dos meses entre {@code from} e {@code to} (inclusive)
+     * que estão dentro da janela; os demais meses ficam na partição padrão
+     */
+    public void ensureCovered(LocalDateTime from, LocalDateTime to) {
+        if (!isPartitioned()) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        YearMonth first = max(YearMonth.from(from), current.minusYears(yearsBack));
+        YearMonth last = min(YearMonth.from(to), current.plusYears(yearsAhead));
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            if (!existing.contains(month)) {
+                create(month);
+            }
+        }
+    }
+
+    public void ensureCovered(LocalDateTime at) {
+        ensureCovered(at, at);
+    }
+
+    public int knownPartitions() {
+        return existing.size();
+    }
+
+    public boolean isPartitioned() {
+        Boolean value = partitioned;
+        if (value == null) {
+            synchronized (this) {
+                if (partitioned == null) {
+                    boolean detected = requiresNew.execute(status -> repository.isPartitioned());
+                    if (detected) {
+                        requiresNew.executeWithoutResult(status -> repository.findPartitionNames()
+                                .forEach(name -> TransactionPartitionRepository.monthOf(name).ifPresent(existing::add)));
+                    }
+                    partitioned = detected;
+                }
+                value = partitioned;
+            }
+        }
+        return value;
+    }
+
+    private static YearMonth max(YearMonth a, YearMonth b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static YearMonth min(YearMonth a, YearMonth b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private synchronized void create(YearMonth month) {
+        if (existing.contains(month)) {
+            return;
+        }
+        try {
+            requiresNew.executeWithoutResult(status -> repository.createMonthlyPartition(month));
+            existing.add(month);
+            logger.info("Created partition {}", TransactionPartitionRepository.partitionName(month));
+        } catch (DataAccessException e) {
+            // Ex: linhas do mês já caíram em transactions_default; a gravação segue na partição padrão
+            logger.warn("Could not create partition for {}: {}", month, e.getMostSpecificCause().getMessage());
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package com.example.budget.service;
+
+import com.example.budget.model.TransactionType;
+import com.example.budget.repository.ArchivedTransactionRow;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Arquivo imutável com as transações de um ano fechado de um usuário, em colunas comprimidas.
+ *
+ * Cada mês é um bloco: as linhas (ordenadas por data e id) são gravadas coluna a coluna, com
+ * ids e datas em deltas, inteiros em varint e textos com tamanho, e o bloco inteiro passa pelo
+ * Deflate. O arquivo é lido mapeado em memória e uma consulta por período só descomprime os
+ * meses que cruzam o intervalo.
+ *
+ * Formato: cabeçalho [magic int][versão int][usuário long][ano int][blocos int], índice com
+ * [mês int][linhas int][offset long][tamanho comprimido int][tamanho original int][crc32 int]
+ * por bloco e, em seguida, os blocos.
+ */
+public final class TransactionSegment {
+
+    private static final int MAGIC = 0x42534547;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int INDEX_ENTRY_SIZE = 28;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private record Block(int month, int rows, long offset, int compressedLength, int rawLength, int checksum) {
+    }
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final long userId;
+    private final int year;
+    private final List<Block> blocks;
+
+    private TransactionSegment(Path file, MappedByteBuffer buffer, long userId, int year, List<Block> blocks) {
+        this.file = file;
+        this.buffer = buffer;
+        this.userId = userId;
+        this.year = year;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Grava o segmento (linhas ordenadas por data e id, todas do ano informado) num arquivo
+     * temporário, força para o disco e só então o move para o nome final. Devolve o tamanho
+     */
+    public static long write(Path file, long userId, int year, List<ArchivedTransactionRow> rows) throws IOException {
+        List<Integer> months = new ArrayList<>();
+        List<byte[]> raws = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        int from = 0;
+        while (from < rows.size()) {
+            int month = rows.get(from).dateTime().getMonthValue();
+            int to = from;
+            while (to < rows.size() && rows.get(to).dateTime().getMonthValue() == month) {
+                if (rows.get(to).dateTime().getYear() != year) {
+                    throw new IllegalArgumentException("Transaction " + rows.get(to).id() + " is not in " + year);
+                }
+                to++;
+            }
+            months.add(month);
+            raws.add(encode(rows.subList(from, to)));
+            counts.add(to - from);
+            from = to;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(userId);
+            out.writeInt(year);
+            out.writeInt(months.size());
+            List<byte[]> compressed = new ArrayList<>(raws.size());
+            long offset = HEADER_SIZE + (long) INDEX_ENTRY_SIZE * months.size();
+            for (int i = 0; i < months.size(); i++) {
+                byte[] raw = raws.get(i);
+                byte[] deflated = deflate(raw);
+                compressed.add(deflated);
+                out.writeInt(months.get(i));
+                out.writeInt(counts.get(i));
+                out.writeLong(offset);
+                out.writeInt(deflated.length);
+                out.writeInt(raw.length);
+                out.writeInt(checksum(raw));
+                offset += deflated.length;
+            }
+            for (byte[] deflated : compressed) {
+                out.write(deflated);
+            }
+        }
+
+        Files.createDirectories(file.getParent());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer content = ByteBuffer.wrap(bytes.toByteArray());
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return bytes.size();
+    }
+
+    /**
+     * Mapeia o arquivo (somente leitura) e valida cabeçalho e índice
+     */
+    public static TransactionSegment open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Segmento de arquivo inválido: " + file);
+        }
+        long userId = buffer.getLong(8);
+        int year = buffer.getInt(16);
+        int count = buffer.getInt(20);
+        if (count < 0 || HEADER_SIZE + (long) INDEX_ENTRY_SIZE * count > buffer.capacity()) {
+            throw new IOException("Índice inválido no segmento " + file);
+        }
+        List<Block> blocks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int position = HEADER_SIZE + INDEX_ENTRY_SIZE * i;
+            Block block = new Block(buffer.getInt(position), buffer.getInt(position + 4), buffer.getLong(position + 8),
+                    buffer.getInt(position + 16), buffer.getInt(position + 20), buffer.getInt(position + 24));
+            if (block.offset() + block.compressedLength() > buffer.capacity()) {
+                throw new IOException("Bloco fora do arquivo no segmento " + file);
+            }
+            blocks.add(block);
+        }
+        return new TransactionSegment(file, buffer, userId, year, blocks);
+    }
+
+    public long userId() {
+        return userId;
+    }
+
+    public int year() {
+        return year;
+    }
+
+    public int rowCount() {
+        int total = 0;
+        for (Block block : blocks) {
+            total += block.rows();
+        }
+        return total;
+    }
+
+    /**
+     * Linhas com data em [start, end] (null = sem limite), em ordem de data e id. Só os meses
+     * que cruzam o intervalo são descomprimidos
+     */
+    public List<ArchivedTransactionRow> read(LocalDateTime start, LocalDateTime end) throws IOException {
+        List<ArchivedTransactionRow> rows = new ArrayList<>();
+        for (Block block : blocks) {
+            if (!overlaps(block, start, end)) {
+                continue;
+            }
+            for (ArchivedTransactionRow row : decode(inflate(block), block.rows())) {
+                if ((start == null || !row.dateTime().isBefore(start)) && (end == null || !row.dateTime().isAfter(end))) {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Se a transação com o id está no segmento. Os ids não seguem a ordem das datas, então
+     * todos os blocos são descomprimidos, mas só a coluna de ids (a primeira) é decodificada
+     */
+    public boolean contains(long id) throws IOException {
+        for (Block block : blocks) {
+            ByteBuffer in = ByteBuffer.wrap(inflate(block));
+            long current = 0;
+            for (int i = 0; i < block.rows(); i++) {
+                current += unzigzag(readVarLong(in));
+                if (current == id) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Quantidade de meses (blocos) que uma leitura de [start, end] descomprime
+     */
+    public int blocksIn(LocalDateTime start, LocalDateTime end) {
+        int count = 0;
+        for (Block block : blocks) {
+            if (overlaps(block, start, end)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean overlaps(Block block, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime monthStart = LocalDateTime.of(year, block.month(), 1, 0, 0);
+        return (end == null || !monthStart.isAfter(end)) && (start == null || monthStart.plusMonths(1).isAfter(start));
+    }
+
+    private byte[] inflate(Block block) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buffer.slice((int) block.offset(), block.compressedLength()));
+            byte[] raw = new byte[block.rawLength()];
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, raw.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != raw.length || checksum(raw) != block.checksum()) {
+                throw new IOException("Bloco corrompido (mês " + block.month() + ") no segmento " + file);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Bloco corrompido (mês " + block.month() + ") no segmento " + file, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // Colunas do bloco, uma depois da outra
+    private static byte[] encode(List<ArchivedTransactionRow> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows.size() * 48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            long previousId = 0;
+            for (ArchivedTransactionRow row : rows) {
+                writeVarLong(out, zigzag(row.id() - previousId));
+                previousId = row.id();
+            }
+            long previousSecond = 0;
+            for (ArchivedTransactionRow row : rows) {
+                long second = row.dateTime().toEpochSecond(ZoneOffset.UTC);
+                writeVarLong(out, zigzag(second - previousSecond));
+                previousSecond = second;
+            }
+            for (ArchivedTransactionRow row : rows) {
+                writeVarLong(out, row.dateTime().getNano());
+            }
+            for (ArchivedTransactionRow row : rows) {
+                out.writeByte(row.type().ordinal());
+            }
+            for (ArchivedTransactionRow row : rows) {
+                writeNullable(out, row.categoryId() != null ? row.categoryId().longValue() : null);
+            }
+            for (ArchivedTransactionRow row : rows) {
+                writeVarLong(out, zigzag(row.amountMinor()));
+            }
+            for (ArchivedTransactionRow row : rows) {
+                writeString(out, row.currency());
+            }
+            for (ArchivedTransactionRow row : rows) {
+                writeString(out, row.description());
+            }
+            for (ArchivedTransactionRow row : rows) {
+                writeNullable(out, row.recurringRuleId());
+            }
+            for (ArchivedTransactionRow row : rows) {
+                writeNullable(out, row.installmentNumber() != null ? row.installmentNumber().longValue() : null);
+            }
+            for (ArchivedTransactionRow row : rows) {
+                out.writeLong(row.fingerprint());
+            }
+            for (ArchivedTransactionRow row : rows) {
+                out.writeBoolean(row.clientId() != null);
+                if (row.clientId() != null) {
+                    out.writeLong(row.clientId().getMostSignificantBits());
+                    out.writeLong(row.clientId().getLeastSignificantBits());
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<ArchivedTransactionRow> decode(byte[] raw, int count) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(raw);
+        long[] ids = new long[count];
+        long id = 0;
+        for (int i = 0; i < count; i++) {
+            id += unzigzag(readVarLong(in));
+            ids[i] = id;
+        }
+        long[] seconds = new long[count];
+        long second = 0;
+        for (int i = 0; i < count; i++) {
+            second += unzigzag(readVarLong(in));
+            seconds[i] = second;
+        }
+        int[] nanos = new int[count];
+        for (int i = 0; i < count; i++) {
+            nanos[i] = (int) readVarLong(in);
+        }
+        TransactionType[] types = new TransactionType[count];
+        for (int i = 0; i < count; i++) {
+            types[i] = TYPES[in.get()];
+        }
+        Integer[] categoryIds = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            Long value = readNullable(in);
+            categoryIds[i] = value != null ? value.intValue() : null;
+        }
+        long[] amounts = new long[count];
+        for (int i = 0; i < count; i++) {
+            amounts[i] = unzigzag(readVarLong(in));
+        }
+        String[] currencies = new String[count];
+        for (int i = 0; i < count; i++) {
+            currencies[i] = readString(in);
+        }
+        String[] descriptions = new String[count];
+        for (int i = 0; i < count; i++) {
+            descriptions[i] = readString(in);
+        }
+        Long[] recurringRuleIds = new Long[count];
+        for (int i = 0; i < count; i++) {
+            recurringRuleIds[i] = readNullable(in);
+        }
+        Integer[] installmentNumbers = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            Long value = readNullable(in);
+            installmentNumbers[i] = value != null ? value.intValue() : null;
+        }
+        long[] fingerprints = new long[count];
+        for (int i = 0; i < count; i++) {
+            fingerprints[i] = in.getLong();
+        }
+        List<ArchivedTransactionRow> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID clientId = in.get() != 0 ? new UUID(in.getLong(), in.getLong()) : null;
+            rows.add(new ArchivedTransactionRow(ids[i], LocalDateTime.ofEpochSecond(seconds[i], nanos[i], ZoneOffset.UTC), types[i],
+                    categoryIds[i], descriptions[i], amounts[i], currencies[i], recurringRuleIds[i],
+                    installmentNumbers[i], clientId, fingerprints[i]));
+        }
+        return rows;
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static int checksum(byte[] raw) {
+        CRC32 crc = new CRC32();
+        crc.update(raw);
+        return (int) crc.getValue();
+    }
+
+    // Nulo = 0; demais valores somados de 1
+    private static void writeNullable(DataOutputStream out, Long value) throws IOException {
+        writeVarLong(out, value == null ? 0 : zigzag(value) + 1);
+    }
+
+    private static Long readNullable(ByteBuffer in) throws IOException {
+        long value = readVarLong(in);
+        return value == 0 ? null : unzigzag(value - 1);
+    }
+
+    // Tamanho em bytes + 1 (0 = nulo) seguido do UTF-8
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, utf8.length + 1L);
+        out.write(utf8);
+    }
+
+    private static String readString(ByteBuffer in) throws IOException {
+        int length = (int) readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.position(), length - 1, StandardCharsets.UTF_8);
+        in.position(in.position() + length - 1);
+        return value;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.get() & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
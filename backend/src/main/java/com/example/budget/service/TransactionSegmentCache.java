@@ -0,0 +1,65 @@
+package com.example.budget.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Segmentos do arquivo frio abertos (mapeados em memória), num LRU de até
+ * {@code maxOpenSegments} arquivos. Compartilhado pelo TransactionArchiveService e pela pilha
+ * reativa: os dois leem os mesmos arquivos a partir do mesmo diretório.
+ */
+public final class TransactionSegmentCache {
+
+    private final Path directory;
+    private final Map<Path, TransactionSegment> openSegments;
+
+    public TransactionSegmentCache(Path directory, int maxOpenSegments) {
+        this.directory = directory;
+        this.openSegments = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, TransactionSegment> eldest) {
+                return size() > maxOpenSegments;
+            }
+        };
+    }
+
+    /**
+     * Caminho absoluto de um segmento (o nome é relativo ao diretório do arquivo)
+     */
+    public Path resolve(String fileName) {
+        return directory.resolve(fileName);
+    }
+
+    public TransactionSegment segment(String fileName) {
+        Path file = resolve(fileName);
+        synchronized (openSegments) {
+            TransactionSegment segment = openSegments.get(file);
+            if (segment != null) {
+                return segment;
+            }
+        }
+        // Fora do lock: abrir e validar o arquivo não bloqueia as outras leituras
+        TransactionSegment opened;
+        try {
+            opened = TransactionSegment.open(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir o segmento " + file, e);
+        }
+        synchronized (openSegments) {
+            TransactionSegment existing = openSegments.putIfAbsent(file, opened);
+            return existing != null ? existing : opened;
+        }
+    }
+
+    /**
+     * Esquece o segmento aberto (arquivo regravado ou removido)
+     */
+    public void evict(String fileName) {
+        synchronized (openSegments) {
+            openSegments.remove(resolve(fileName));
+        }
+    }
+}
@@ -1,78 +1,329 @@
 package com.example.budget.service;
 
+import com.example.budget.dto.DuplicateGroupDTO;
 import com.example.budget.dto.MonthlySummary;
+import com.example.budget.dto.TransactionSearchDTO;
+import com.example.budget.event.LedgerChangeEvent;
+import com.example.budget.event.LedgerEntry;
+import com.example.budget.model.Money;
 import com.example.budget.model.Transaction;
+import com.example.budget.model.TransactionFingerprint;
 import com.example.budget.model.TransactionType;
 import com.example.budget.model.User;
+import com.example.budget.repository.ArchivedTransactionRow;
+import com.example.budget.repository.TransactionArchiveJdbcRepository;
+import com.example.budget.repository.TransactionJdbcRepository;
 import com.example.budget.repository.TransactionRepository;
+import com.example.budget.repository.TransactionRow;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 public class TransactionService {
+    // Limite de ids por operação em lote
+    private static final int MAX_BULK_IDS = 1000;
+
     private final TransactionRepository repository;
+    private final TransactionJdbcRepository jdbcRepository;
+    private final InstallmentPlanService installmentPlanService;
+    private final CategoryDictionary categoryDictionary;
+    private final TransactionPartitionManager partitionManager;
+    private final TransactionCategorizer categorizer;
+    private final FxRateService fxRateService;
+    private final TransactionArchiveService archiveService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public TransactionService(TransactionRepository repository) {
+    public TransactionService(TransactionRepository repository,
+                              TransactionJdbcRepository jdbcRepository,
+                              InstallmentPlanService installmentPlanService,
+                              CategoryDictionary categoryDictionary,
+                              TransactionPartitionManager partitionManager,
+                              TransactionCategorizer categorizer,
+                              FxRateService fxRateService,
+                              TransactionArchiveService archiveService,
+                              ApplicationEventPublisher eventPublisher) {
         this.repository = repository;
+        this.jdbcRepository = jdbcRepository;
+        this.installmentPlanService = installmentPlanService;
+        this.categoryDictionary = categoryDictionary;
+        this.partitionManager = partitionManager;
+        this.categorizer = categorizer;
+        this.fxRateService = fxRateService;
+        this.archiveService = archiveService;
+        this.eventPublisher = eventPublisher;
     }
 
+    // As leituras abaixo juntam o banco e os segmentos do arquivo frio: REPEATABLE READ dá um
+    // único snapshot, então um ano arquivado no meio da leitura não some nem aparece duas vezes
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public List<Transaction> findAllByUser(User user) {
-        return repository.findByUser(user);
+        // anos arquivados primeiro: são os mais antigos
+        List<Transaction> transactions = new ArrayList<>();
+        for (ArchivedTransactionRow row : archiveService.findRows(user.getId(), null, null)) {
+            transactions.add(toTransaction(row));
+        }
+        transactions.addAll(repository.findByUser(user));
+        // parcelas de planos em modo regra que ainda não foram gravadas
+        transactions.addAll(installmentPlanService.virtualInstallments(user, null, null));
+        return transactions;
     }
 
+    @Transactional
     public Transaction save(Transaction t, User user) {
+        // Antes de ler a transação existente: a leitura prenderia a tabela pai
+        partitionManager.ensureCovered(t.getDateTime() != null ? t.getDateTime() : LocalDateTime.now());
+        LedgerEntry previous = null;
+        if (t.getId() != null) {
+            Transaction existing = repository.findById(t.getId()).orElse(null);
+            if (existing != null) {
+                if (!existing.getUser().getId().equals(user.getId())) {
+                    throw new RuntimeException("Access denied");
+                }
+                previous = LedgerEntry.of(existing);
+            } else if (archiveService.isArchived(user.getId(), t.getId())) {
+                // O merge inseriria uma cópia da transação arquivada
+                throw new IllegalStateException("Transação arquivada não pode ser alterada");
+            }
+        }
+
         t.setUser(user);
-        return repository.save(t);
+        // Moeda base fica nula: só transações em outra moeda guardam o código
+        String currency = fxRateService.normalize(t.getCurrency());
+        t.setCurrency(currency.equals(fxRateService.baseCurrency()) ? null : currency);
+        // Valor base com a cotação de agora: a reversão (edição ou exclusão) usa o mesmo valor
+        if (t.getMoney() != null) {
+            LocalDate day = t.getDateTime() != null ? t.getDateTime().toLocalDate() : LocalDate.now();
+            t.setAmountBaseMinor(fxRateService.toBase(t.getMoney().minor(), t.getCurrency(), day));
+        }
+        // Transação nova sem categoria: usa a prevista pelo histórico do usuário, se confiável
+        if (t.getId() == null && !StringUtils.hasText(t.getCategory()) && t.getMoney() != null) {
+            t.setCategory(categorizer.categoryFor(user.getId(), t.getDescription(), t.getType(), t.getMoney().minor()));
+        }
+        categoryDictionary.resolve(t, user.getId());
+        // Transação nova igual a uma já gravada (mesmo valor, dia e descrição): grava, mas avisa
+        if (t.getId() == null && t.getMoney() != null && t.getDateTime() != null) {
+            LocalDate day = t.getDateTime().toLocalDate();
+            long fingerprint = TransactionFingerprint.of(user.getId(), t.getMoney().minor(), t.getCurrency(), day,
+                    t.getDescription());
+            t.setPossibleDuplicateOf(jdbcRepository.findDuplicateId(user.getId(), fingerprint, day).orElse(null));
+        } else {
+            t.setPossibleDuplicateOf(null);
+        }
+        Transaction saved = repository.save(t);
+
+        eventPublisher.publishEvent(previous != null
+                ? LedgerChangeEvent.replaced(previous, saved)
+                : LedgerChangeEvent.added(List.of(saved)));
+        return saved;
     }
 
+    @Transactional
     public void delete(Long id, User user) {
-        Transaction transaction = repository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+        if (deleteAll(List.of(id), user) == 0) {
+            if (archiveService.isArchived(user.getId(), id)) {
+                throw new IllegalStateException("Transação arquivada não pode ser removida");
+            }
+            throw new RuntimeException("Transaction not found");
+        }
+    }
+
+    /**
+     * Remove várias transações do usuário com um único DELETE ... WHERE user_id = ? AND id = ANY(?).
+     * Ids inexistentes ou de outros usuários são ignorados.
+     */
+    @Transactional
+    public int deleteAll(List<Long> ids, User user) {
+        validateBulkIds(ids);
+        List<TransactionRow> deleted = jdbcRepository.deleteByIds(user.getId(), ids);
+        eventPublisher.publishEvent(new LedgerChangeEvent(List.of(), toLedgerEntries(deleted)));
+        return deleted.size();
+    }
+
+    /**
+     * Troca a categoria de várias transações do usuário com um único UPDATE
+     */
+    @Transactional
+    public int recategorize(List<Long> ids, String category, User user) {
+        validateBulkIds(ids);
+        if (!StringUtils.hasText(category)) {
+            throw new IllegalArgumentException("Category is required");
+        }
+
+        Integer categoryId = categoryDictionary.idFor(user.getId(), category);
+        String name = categoryDictionary.nameOf(categoryId);
+        List<TransactionRow> previous = jdbcRepository.recategorize(user.getId(), ids, categoryId);
+        List<LedgerEntry> updated = previous.stream()
+                .map(row -> new LedgerEntry(row.userId(), row.dateTime(), row.type(), name, row.description(),
+                        row.amountMinor(), row.currency(), row.amountBaseMinor()))
+                .toList();
+        eventPublisher.publishEvent(new LedgerChangeEvent(updated, toLedgerEntries(previous)));
+        return previous.size();
+    }
+
+    private static void validateBulkIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one id is required");
+        }
+        if (ids.size() > MAX_BULK_IDS) {
+            throw new IllegalArgumentException("Too many ids (max " + MAX_BULK_IDS + ")");
+        }
+    }
+
+    private static List<LedgerEntry> toLedgerEntries(List<TransactionRow> rows) {
+        return rows.stream().map(TransactionRow::toLedgerEntry).toList();
+    }
+
+    /**
+     * Grupos de possíveis duplicatas do usuário no período (padrão: últimos 12 meses).
+     * Cada grupo reúne transações com o mesmo fingerprint, da mais antiga para a mais recente.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<DuplicateGroupDTO> findDuplicateGroups(LocalDate startDate, LocalDate endDate, User user) {
+        LocalDate last = endDate != null ? endDate : LocalDate.now();
+        LocalDate first = startDate != null ? startDate : last.minusYears(1);
+        if (first.isAfter(last)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+
+        LocalDateTime start = first.atStartOfDay();
+        LocalDateTime end = last.atTime(23, 59, 59);
+        Map<Long, List<TransactionSearchDTO>> byFingerprint = new TreeMap<>();
+        for (TransactionJdbcRepository.DuplicateRow row : jdbcRepository.findDuplicateGroups(user.getId(), start, end)) {
+            byFingerprint.computeIfAbsent(row.fingerprint(), f -> new ArrayList<>())
+                    .add(new TransactionSearchDTO(row.id(), row.description(), row.type(),
+                            categoryDictionary.nameOf(row.categoryId()), Money.toBigDecimal(row.amountMinor()),
+                            row.dateTime().toLocalDate(), row.installmentPlanId()));
+        }
 
-        if (!transaction.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Access denied");
+        // Anos arquivados: mesmo agrupamento em memória sobre as linhas do segmento. O fingerprint
+        // inclui o dia, então duplicatas de um ano arquivado estão quase sempre todas no segmento.
+        // É recalculado: segmentos gravados antes da moeda entrar na fórmula guardam o antigo
+        Map<Long, List<ArchivedTransactionRow>> archived = new TreeMap<>();
+        for (ArchivedTransactionRow row : archiveService.findRows(user.getId(), start, end)) {
+            long fingerprint = TransactionFingerprint.of(user.getId(), row.amountMinor(), row.currency(),
+                    row.dateTime().toLocalDate(), row.description());
+            archived.computeIfAbsent(fingerprint, f -> new ArrayList<>()).add(row);
         }
+        archived.forEach((fingerprint, rows) -> {
+            List<TransactionSearchDTO> group = byFingerprint.get(fingerprint);
+            if (group == null && rows.size() < 2) {
+                return;
+            }
+            group = byFingerprint.computeIfAbsent(fingerprint, f -> new ArrayList<>());
+            for (ArchivedTransactionRow row : rows) {
+                group.add(new TransactionSearchDTO(row.id(), row.description(), row.type(),
+                        categoryDictionary.nameOf(row.categoryId()), Money.toBigDecimal(row.amountMinor()),
+                        row.dateTime().toLocalDate(), null));
+            }
+            group.sort(Comparator.comparing(TransactionSearchDTO::getDate).thenComparing(TransactionSearchDTO::getId));
+        });
 
-        repository.deleteById(id);
+        List<DuplicateGroupDTO> groups = new ArrayList<>(byFingerprint.size());
+        byFingerprint.forEach((fingerprint, group) ->
+                groups.add(new DuplicateGroupDTO(String.format("%016x", fingerprint), group)));
+        return groups;
     }
 
-    public MonthlySummary monthlySummary(int year, int month, User user) {
+    /**
+     * Resumo do mês na moeda pedida (null = moeda base); cada valor é convertido com a cotação
+     * do dia da transação
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public MonthlySummary monthlySummary(int year, int month, User user, String currency) {
         YearMonth ym = YearMonth.of(year, month);
         LocalDateTime start = ym.atDay(1).atStartOfDay();
         LocalDateTime end = ym.atEndOfMonth().atTime(23, 59, 59);
+        String target = fxRateService.normalize(currency);
 
-        BigDecimal income = repository.sumByDateTimeBetweenAndTypeAndUser(start, end, TransactionType.INCOME, user);
-        BigDecimal expense = repository.sumByDateTimeBetweenAndTypeAndUser(start, end, TransactionType.EXPENSE, user);
-        BigDecimal balance = income.subtract(expense);
+        // Uma única consulta agrupada por (category_id, moeda, dia) com valores em centavos; a
+        // conversão e os totais saem da mesma passada em long, sem BigDecimal intermediário
+        // overall = [receitas, despesas]; categories: nome → [receitas, despesas]
+        long[] overall = new long[2];
+        Map<String, long[]> categories = new LinkedHashMap<>();
+        for (Object[] row : repository.sumMinorByCategoryAndCurrencyBetweenAndUser(start, end, user.getId(),
+                fxRateService.baseCurrency(), target)) {
+            String rowCurrency = (String) row[1];
+            LocalDate day = toDate(row[2]);
+            long categoryIncome = day == null ? ((Number) row[3]).longValue()
+                    : fxRateService.convert(((Number) row[3]).longValue(), rowCurrency, target, day);
+            long categoryExpense = day == null ? ((Number) row[4]).longValue()
+                    : fxRateService.convert(((Number) row[4]).longValue(), rowCurrency, target, day);
+            String name = categoryDictionary.nameOf(row[0] != null ? ((Number) row[0]).intValue() : null);
+            accumulate(overall, categories, name, categoryIncome, categoryExpense);
+        }
+
+        // mês arquivado: totais mensais do banco; só moedas que precisam da cotação do dia
+        // descem ao segmento
+        boolean convertArchived = false;
+        for (TransactionArchiveJdbcRepository.MonthlyTotal total : archiveService.findMonthlyTotals(user.getId(), ym)) {
+            String totalCurrency = total.currency() != null ? total.currency() : fxRateService.baseCurrency();
+            if (totalCurrency.equals(target)) {
+                accumulate(overall, categories, categoryDictionary.nameOf(total.categoryId()),
+                        total.incomeMinor(), total.expenseMinor());
+            } else {
+                convertArchived = true;
+            }
+        }
+        if (convertArchived) {
+            // mesmo agrupamento da consulta acima, (categoria, moeda, dia), para a conversão
+            // arredondar igual à dos meses ainda no banco
+            Map<ArchivedDay, long[]> days = new LinkedHashMap<>();
+            for (ArchivedTransactionRow row : archiveService.findRows(user.getId(), start, end)) {
+                String rowCurrency = row.currency() != null ? row.currency() : fxRateService.baseCurrency();
+                if (rowCurrency.equals(target)) {
+                    continue;
+                }
+                long[] sums = days.computeIfAbsent(new ArchivedDay(row.categoryId(), rowCurrency,
+                        row.dateTime().toLocalDate()), d -> new long[2]);
+                int index = row.type() == TransactionType.INCOME ? 0 : 1;
+                sums[index] = Math.addExact(sums[index], row.amountMinor());
+            }
+            days.forEach((day, sums) -> accumulate(overall, categories, categoryDictionary.nameOf(day.categoryId()),
+                    fxRateService.convert(sums[0], day.currency(), target, day.date()),
+                    fxRateService.convert(sums[1], day.currency(), target, day.date())));
+        }
 
-        List<MonthlySummary.CategoryAggregate> byCategory = repository.sumByCategoryBetweenAndUser(start, end, user)
-                .stream()
-                .map(row -> new MonthlySummary.CategoryAggregate(
-                        (String) row[0],
-                        (BigDecimal) row[1],
-                        (BigDecimal) row[2]))
-                .collect(Collectors.toList());
+        // parcelas virtuais do mês (planos em modo regra) entram como despesas
+        for (Transaction installment : installmentPlanService.virtualInstallments(user, start, end)) {
+            long amount = fxRateService.convert(installment.getMoney().minor(), installment.getCurrency(), target,
+                    installment.getDateTime().toLocalDate());
+            accumulate(overall, categories, installment.getCategory(), 0, amount);
+        }
+        long income = overall[0];
+        long expense = overall[1];
+        long balance = Math.subtractExact(income, expense);
+        List<MonthlySummary.CategoryAggregate> byCategory = new ArrayList<>(categories.size());
+        categories.forEach((name, totals) -> byCategory.add(new MonthlySummary.CategoryAggregate(
+                name, Money.toBigDecimal(totals[0]), Money.toBigDecimal(totals[1]))));
 
         MonthlySummary s = new MonthlySummary();
         s.year = year;
         s.month = month;
-        s.totalIncome = income;
-        s.totalExpense = expense;
-        s.balance = balance;
+        s.currency = target;
+        s.totalIncome = Money.toBigDecimal(income);
+        s.totalExpense = Money.toBigDecimal(expense);
+        s.balance = Money.toBigDecimal(balance);
         s.byCategory = byCategory;
         return s;
     }
 
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public List<Transaction> searchTransactions(
             String text,
             String type,
@@ -120,9 +371,13 @@ public class TransactionService {
             spec = spec.and((root, query, cb) -> cb.equal(root.get("type"), txType));
         }
 
-        if (StringUtils.hasText(category)) {
-            String likeCategory = "%" + category.toLowerCase() + "%";
-            spec = spec.and((root, query, cb) -> cb.like(cb.lower(root.get("category")), likeCategory));
+        // o LIKE roda sobre os nomes do dicionário; no banco o filtro é category_id IN (...)
+        List<Integer> categoryIds = StringUtils.hasText(category)
+                ? categoryDictionary.idsMatching(user.getId(), category) : null;
+        if (categoryIds != null) {
+            spec = spec.and((root, query, cb) -> categoryIds.isEmpty()
+                    ? cb.disjunction()
+                    : root.get("categoryId").in(categoryIds));
         }
 
         if (start != null) {
@@ -133,6 +388,73 @@ public class TransactionService {
             spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("dateTime"), end));
         }
 
-        return repository.findAll(spec);
+        // anos arquivados (os mais antigos, vêm antes): os mesmos filtros sobre as linhas dos
+        // segmentos do período
+        List<Transaction> results = new ArrayList<>();
+        String likeText = StringUtils.hasText(text) ? text.toLowerCase() : null;
+        for (ArchivedTransactionRow row : archiveService.findRows(user.getId(), start, end)) {
+            if ((likeText == null || (row.description() != null && row.description().toLowerCase().contains(likeText)))
+                    && (txType == null || row.type() == txType)
+                    && (categoryIds == null || categoryIds.contains(row.categoryId()))) {
+                results.add(toTransaction(row));
+            }
+        }
+        results.addAll(repository.findAll(spec));
+
+        // parcelas virtuais são sempre despesas: aplica os mesmos filtros em memória
+        if (txType != TransactionType.INCOME) {
+            for (Transaction installment : installmentPlanService.virtualInstallments(user, start, end)) {
+                if (containsIgnoreCase(installment.getDescription(), text)
+                        && containsIgnoreCase(installment.getCategory(), category)) {
+                    results.add(installment);
+                }
+            }
+        }
+        return results;
+    }
+
+    private record ArchivedDay(Integer categoryId, String currency, LocalDate date) {
+    }
+
+    private static void accumulate(long[] overall, Map<String, long[]> categories, String name,
+                                   long income, long expense) {
+        overall[0] = Math.addExact(overall[0], income);
+        overall[1] = Math.addExact(overall[1], expense);
+        long[] totals = categories.computeIfAbsent(name, c -> new long[2]);
+        totals[0] = Math.addExact(totals[0], income);
+        totals[1] = Math.addExact(totals[1], expense);
+    }
+
+    // Transação arquivada como entidade solta (não gerenciada), só para leitura
+    private Transaction toTransaction(ArchivedTransactionRow row) {
+        Transaction transaction = new Transaction();
+        transaction.setId(row.id());
+        transaction.setDateTime(row.dateTime());
+        transaction.setType(row.type());
+        transaction.setCategoryId(row.categoryId());
+        transaction.setCategory(categoryDictionary.nameOf(row.categoryId()));
+        transaction.setDescription(row.description());
+        transaction.setMoney(Money.ofMinor(row.amountMinor()));
+        transaction.setCurrency(row.currency());
+        transaction.setInstallmentNumber(row.installmentNumber());
+        transaction.setClientId(row.clientId());
+        return transaction;
+    }
+
+    private static LocalDate toDate(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+
+    private static boolean containsIgnoreCase(String value, String filter) {
+        if (!StringUtils.hasText(filter)) {
+            return true;
+        }
+        return value != null && value.toLowerCase().contains(filter.toLowerCase());
     }
 }
@@ -0,0 +1,273 @@
+package com.example.budget.service;
+
+import com.example.budget.event.LedgerChangeEvent;
+import com.example.budget.model.Transaction;
+import com.example.budget.model.User;
+import com.example.budget.repository.TransactionJdbcRepository;
+import com.example.budget.repository.TransactionRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Caminho opcional de gravação assíncrona (write-behind) para lançamentos rápidos e importações.
+ *
+ * A requisição é validada, anexada ao {@link TransactionJournal} e confirmada com o id do
+ * cliente; {@link #flush()} agrupa as entradas pendentes em INSERTs de várias linhas, uma
+ * transação por lote. Depois de um crash as entradas ainda não marcadas como gravadas são
+ * relidas do journal e enviadas de novo: a unicidade de (user_id, client_id, date_time)
+ * descarta as que já estavam no banco, e só as linhas inseridas geram LedgerChangeEvent.
+ */
+@Service
+@ConditionalOnProperty(name = "transactions.write-behind.enabled", havingValue = "true")
+public class TransactionWriteBehindService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionWriteBehindService.class);
+
+    // Tamanho das colunas varchar(255) de description e categories.name
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final TransactionJournal journal;
+    private final Queue<TransactionJournal.Journaled> pending = new LinkedBlockingQueue<>();
+    private final Object appendLock = new Object();
+    private final TransactionJdbcRepository transactionJdbcRepository;
+    private final CategoryDictionary categoryDictionary;
+    private final TransactionCategorizer categorizer;
+    private final TransactionPartitionManager partitionManager;
+    private final FxRateService fxRateService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxPending;
+
+    private final Timer flushTimer;
+    private final Counter flushedCounter;
+    private final Counter rejectedCounter;
+
+    public TransactionWriteBehindService(TransactionJdbcRepository transactionJdbcRepository,
+                                         CategoryDictionary categoryDictionary,
+                                         TransactionCategorizer categorizer,
+                                         TransactionPartitionManager partitionManager,
+                                         FxRateService fxRateService,
+                                         PlatformTransactionManager transactionManager,
+                                         ApplicationEventPublisher eventPublisher,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${transactions.write-behind.dir:data/journal}") String directory,
+                                         @Value("${transactions.write-behind.segment-size-mb:16}") int segmentSizeMb,
+                                         @Value("${transactions.write-behind.batch-size:500}") int batchSize,
+                                         @Value("${transactions.write-behind.max-pending:100000}") int maxPending) {
+        this.transactionJdbcRepository = transactionJdbcRepository;
+        this.categoryDictionary = categoryDictionary;
+        this.categorizer = categorizer;
+        this.partitionManager = partitionManager;
+        this.fxRateService = fxRateService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+
+        this.journal = new TransactionJournal(Path.of(directory), segmentSizeMb * 1024 * 1024);
+        try {
+            pending.addAll(journal.open());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir o journal de escrita em " + directory, e);
+        }
+        if (!pending.isEmpty()) {
+            logger.info("Recovered {} queued transactions from journal {}", pending.size(), directory);
+        }
+
+        Gauge.builder("transactions.write-behind.pending", pending, Queue::size)
+                .description("Transações aceitas pela fila e ainda não gravadas no banco")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("transactions.write-behind.flush")
+                .description("Duração de cada lote gravado pela fila de escrita")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("transactions.write-behind.flushed")
+                .description("Transações da fila gravadas no banco")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("transactions.write-behind.rejected")
+                .description("Transações da fila descartadas por violar restrições do banco")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Valida (tipo, valor e data obrigatórios) e anexa a transação ao journal; retorna o id do
+     * cliente (gerado se ausente).
+     * Com a fila cheia (banco indisponível por muito tempo) lança IllegalStateException.
+     */
+    public UUID enqueue(Transaction request, User user) {
+        if (pending.size() >= maxPending) {
+            throw new IllegalStateException("Fila de escrita cheia");
+        }
+        if (request.getType() == null) {
+            throw new IllegalArgumentException("O tipo da transação é obrigatório");
+        }
+        if (request.getAmount() == null) {
+            throw new IllegalArgumentException("O valor da transação é obrigatório");
+        }
+        // A deduplicação é por (user_id, client_id, date_time): com a data preenchida aqui cada
+        // reenvio do cliente ganharia outro horário e seria gravado de novo
+        if (request.getDateTime() == null) {
+            throw new IllegalArgumentException("A data da transação é obrigatória");
+        }
+        if (tooLong(request.getDescription()) || tooLong(request.getCategory())) {
+            throw new IllegalArgumentException("Descrição e categoria aceitam até " + MAX_TEXT_LENGTH + " caracteres");
+        }
+        // Mesma normalização do TransactionService.save: moeda base fica nula; moeda
+        // desconhecida ou sem cotação é rejeitada aqui, antes de confirmar ao cliente
+        String currency = fxRateService.normalize(request.getCurrency());
+        UUID clientId = request.getClientId() != null ? request.getClientId() : UUID.randomUUID();
+        long amountMinor = request.getMoney().minor();
+        // Importações sem categoria: a previsão roda aqui, antes do journal
+        String category = StringUtils.hasText(request.getCategory())
+                ? request.getCategory()
+                : categorizer.categoryFor(user.getId(), request.getDescription(), request.getType(), amountMinor);
+        TransactionJournal.Entry entry = new TransactionJournal.Entry(
+                clientId,
+                user.getId(),
+                request.getDateTime(),
+                request.getType(),
+                category,
+                request.getDescription(),
+                amountMinor,
+                currency.equals(fxRateService.baseCurrency()) ? null : currency);
+
+        // A ordem da fila em memória precisa ser a mesma do journal
+        synchronized (appendLock) {
+            try {
+                pending.add(journal.append(entry));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao gravar no journal de escrita", e);
+            }
+        }
+        return clientId;
+    }
+
+    /**
+     * Grava as entradas pendentes em lotes até esvaziar a fila; retorna quantas foram gravadas.
+     * Sincronizado porque só quem grava remove itens da fila (job e desligamento).
+     */
+    public synchronized int flush() {
+        int flushed = 0;
+        while (true) {
+            List<TransactionJournal.Journaled> batch = peekBatch();
+            if (batch.isEmpty()) {
+                return flushed;
+            }
+            Timer.Sample sample = Timer.start();
+            int inserted = writeOrSplit(batch);
+            sample.stop(flushTimer);
+
+            for (int i = 0; i < batch.size(); i++) {
+                pending.poll();
+            }
+            TransactionJournal.Journaled last = batch.get(batch.size() - 1);
+            try {
+                journal.markFlushed(last.segment(), last.endOffset());
+            } catch (IOException e) {
+                // Só atrasa a limpeza: numa reabertura as entradas são reenviadas e ignoradas
+                logger.warn("Could not checkpoint write-behind journal: {}", e.getMessage());
+            }
+            flushedCounter.increment(inserted);
+            flushed += inserted;
+        }
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Write-behind queue not drained on shutdown ({} pending): {}", pending.size(), e.getMessage());
+        }
+        journal.close();
+    }
+
+    private List<TransactionJournal.Journaled> peekBatch() {
+        List<TransactionJournal.Journaled> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        Iterator<TransactionJournal.Journaled> iterator = pending.iterator();
+        while (iterator.hasNext() && batch.size() < batchSize) {
+            batch.add(iterator.next());
+        }
+        return batch;
+    }
+
+    /**
+     * Grava o lote inteiro; se alguma linha violar uma restrição, grava uma a uma e descarta
+     * só as rejeitadas. Outras falhas (banco fora do ar) sobem e o lote fica para a próxima execução.
+     */
+    private int writeOrSplit(List<TransactionJournal.Journaled> batch) {
+        try {
+            return write(batch);
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() == 1) {
+                TransactionJournal.Entry entry = batch.get(0).entry();
+                logger.error("Discarding queued transaction {} of user {}: {}",
+                        entry.clientId(), entry.userId(), e.getMostSpecificCause().getMessage());
+                rejectedCounter.increment();
+                return 0;
+            }
+            int inserted = 0;
+            for (TransactionJournal.Journaled journaled : batch) {
+                inserted += writeOrSplit(List.of(journaled));
+            }
+            return inserted;
+        }
+    }
+
+    private int write(List<TransactionJournal.Journaled> batch) {
+        List<TransactionRow> rows = batch.stream().map(journaled -> toRow(journaled.entry())).toList();
+        // Antes da transação da escrita (ver TransactionPartitionManager)
+        partitionManager.ensureCovered(
+                rows.stream().map(TransactionRow::dateTime).min(Comparator.naturalOrder()).orElseThrow(),
+                rows.stream().map(TransactionRow::dateTime).max(Comparator.naturalOrder()).orElseThrow());
+
+        List<TransactionRow> inserted = transactionTemplate.execute(status -> {
+            List<TransactionRow> result = transactionJdbcRepository.insertReturning(rows);
+            if (!result.isEmpty()) {
+                eventPublisher.publishEvent(new LedgerChangeEvent(
+                        result.stream().map(TransactionRow::toLedgerEntry).toList(), List.of()));
+            }
+            return result;
+        });
+        return inserted != null ? inserted.size() : 0;
+    }
+
+    private TransactionRow toRow(TransactionJournal.Entry entry) {
+        Integer categoryId = categoryDictionary.idFor(entry.userId(), entry.category());
+        return TransactionRow.queued(entry.clientId(), entry.userId(), entry.dateTime(), entry.type(),
+                categoryId, categoryDictionary.nameOf(categoryId), entry.description(), entry.amountMinor(),
+                entry.currency(), fxRateService.toBase(entry.amountMinor(), entry.currency(), entry.dateTime().toLocalDate()));
+    }
+
+    private static boolean tooLong(String value) {
+        return value != null && value.length() > MAX_TEXT_LENGTH;
+    }
+}
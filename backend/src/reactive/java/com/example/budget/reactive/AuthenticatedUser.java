@@ -0,0 +1,7 @@
+package com.example.budget.reactive;
+
+/**
+ * Usuário autenticado pelo token (principal das requisições reativas)
+ */
+public record AuthenticatedUser(Long id, String email) {
+}
@@ -0,0 +1,44 @@
+package com.example.budget.reactive;
+
+import com.example.budget.repository.ArchivedTransactionRow;
+import com.example.budget.service.TransactionSegmentCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * Linhas dos anos arquivados para a pilha reativa: os anos vêm de transaction_archives por
+ * R2DBC e os segmentos são lidos do mesmo diretório do backend MVC
+ * (transactions.archive.dir), com o mesmo {@link TransactionSegmentCache}. A leitura de um
+ * segmento é E/S de arquivo mapeado e descompressão: roda no boundedElastic, fora do event loop.
+ */
+@Component
+public class ReactiveArchiveReader {
+
+    private final ReactiveLedgerRepository repository;
+    private final TransactionSegmentCache segments;
+
+    public ReactiveArchiveReader(ReactiveLedgerRepository repository,
+                                 @Value("${transactions.archive.dir:data/archive}") String directory,
+                                 @Value("${transactions.archive.max-open-segments:512}") int maxOpenSegments) {
+        this.repository = repository;
+        this.segments = new TransactionSegmentCache(Path.of(directory), maxOpenSegments);
+    }
+
+    /**
+     * Transações arquivadas do usuário com data em [start, end] (null = sem limite), em ordem de data
+     */
+    public Flux<ArchivedTransactionRow> findRows(Long userId, LocalDateTime start, LocalDateTime end) {
+        return repository.findArchivedYears(userId)
+                .filter(archived -> (start == null || archived.year() >= start.getYear())
+                        && (end == null || archived.year() <= end.getYear()))
+                .concatMap(archived -> Mono.fromCallable(() -> segments.segment(archived.fileName()).read(start, end))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .flatMapIterable(rows -> rows);
+    }
+}
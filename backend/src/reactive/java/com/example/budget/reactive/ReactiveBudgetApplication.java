@@ -0,0 +1,49 @@
+package com.example.budget.reactive;
+
+import com.example.budget.config.JacksonConfig;
+import com.example.budget.util.JwtUtil;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+
+import java.util.Map;
+
+/**
+ * Pilha reativa opcional (perfil Maven "reactive"): WebFlux + R2DBC servindo só as leituras
+ * mais pesadas do backend — listagem (NDJSON), busca, resumo mensal e planos de parcelamento.
+ *
+ * Roda como outro processo, ao lado do backend MVC, sobre o mesmo banco. Reaproveita o JwtUtil
+ * (o token emitido pelo /api/auth/login do MVC vale aqui) e o JacksonConfig, então o JSON é o
+ * mesmo. As classes do backend estão no classpath, mas só o pacote reactive é escaneado e as
+ * configurações vêm de reactive.properties.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+@ComponentScan("com.example.budget.reactive")
+@Import({JwtUtil.class, JacksonConfig.class})
+public class ReactiveBudgetApplication {
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactiveBudgetApplication.class);
+        // spring-boot-starter-web também está no classpath: sem isso subiria o Tomcat
+        application.setWebApplicationType(WebApplicationType.REACTIVE);
+        application.setDefaultProperties(Map.of("spring.config.name", "reactive"));
+        application.run(args);
+    }
+
+    /**
+     * Reactor Netty explícito: com o Tomcat do spring-boot-starter-web no classpath, o
+     * Spring Boot serviria o WebFlux sobre servlet
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.budget.reactive;
+
+import com.example.budget.service.FxRateTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Tabela de cotações do módulo reativo: a mesma {@link FxRateTable} do FxRateService, lida de
+ * fx_rates por R2DBC e guardada por fx.rates.refresh-ms. Falhas de leitura não ficam em cache.
+ * A importação do arquivo de cotações continua só no backend MVC.
+ */
+@Component
+public class ReactiveFxRates {
+
+    private final String baseCurrency;
+    private final Mono<FxRateTable> table;
+
+    public ReactiveFxRates(ReactiveLedgerRepository repository,
+                           @Value("${fx.base-currency:BRL}") String baseCurrency,
+                           @Value("${fx.pivot-currency:EUR}") String pivotCurrency,
+                           @Value("${fx.rates.refresh-ms:3600000}") long refreshMs) {
+        this.baseCurrency = baseCurrency.toUpperCase(Locale.ROOT);
+        String pivot = pivotCurrency.toUpperCase(Locale.ROOT);
+        this.table = repository.findFxRates()
+                .collectList()
+                .map(rows -> FxRateTable.of(rows, pivot))
+                .cache(loaded -> Duration.ofMillis(refreshMs), error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    public String baseCurrency() {
+        return baseCurrency;
+    }
+
+    public Mono<FxRateTable> table() {
+        return table;
+    }
+}
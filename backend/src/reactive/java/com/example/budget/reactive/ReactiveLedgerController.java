@@ -0,0 +1,74 @@
+package com.example.budget.reactive;
+
+import com.example.budget.dto.InstallmentPlanDTO;
+import com.example.budget.dto.MonthlySummary;
+import com.example.budget.dto.TransactionSearchDTO;
+import com.example.budget.model.Transaction;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mesmos caminhos e parâmetros das leituras do TransactionController e do
+ * InstallmentPlanController, para o proxy poder mandar os GETs para cá sem mudar o frontend
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin
+public class ReactiveLedgerController {
+
+    private final ReactiveLedgerService service;
+
+    public ReactiveLedgerController(ReactiveLedgerService service) {
+        this.service = service;
+    }
+
+    /**
+     * Transações do usuário. Com Accept: application/x-ndjson (ou sem preferência) sai uma
+     * transação por linha, à medida que são lidas; com application/json, um array
+     * GET /api/transactions
+     */
+    @GetMapping(value = "/transactions", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<Transaction> all(@AuthenticationPrincipal AuthenticatedUser user) {
+        return service.findAllByUser(user);
+    }
+
+    /**
+     * GET /api/summary/month?year=2025&month=3&currency=EUR
+     */
+    @GetMapping("/summary/month")
+    public Mono<ResponseEntity<MonthlySummary>> monthSummary(
+            @RequestParam("year") int year,
+            @RequestParam("month") int month,
+            @RequestParam(value = "currency", required = false) String currency,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return service.monthlySummary(year, month, currency, user)
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    /**
+     * GET /api/transactions/search?text=&type=&category=&startDate=&endDate= (datas yyyy-MM-dd)
+     */
+    @GetMapping("/transactions/search")
+    public Flux<TransactionSearchDTO> searchTransactions(
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return service.searchTransactions(text, type, category, startDate, endDate, user);
+    }
+
+    /**
+     * GET /api/installment-plans
+     */
+    @GetMapping("/installment-plans")
+    public Flux<InstallmentPlanDTO> installmentPlans(@AuthenticationPrincipal AuthenticatedUser user) {
+        return service.findAllPlans(user);
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.budget.reactive;
+
+import com.example.budget.dto.TransactionSearchDTO;
+import com.example.budget.model.InstallmentPlan;
+import com.example.budget.model.Money;
+import com.example.budget.model.Transaction;
+import com.example.budget.model.TransactionType;
+import com.example.budget.repository.FxRateJdbcRepository;
+import com.example.budget.repository.TransactionArchiveJdbcRepository;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Consultas de leitura sobre R2DBC (DatabaseClient), equivalentes às do backend MVC: mesmas
+ * tabelas e filtros, sem contexto de persistência. Os nomes de categoria vêm de um JOIN com
+ * categories em vez do CategoryDictionary em memória.
+ */
+@Repository
+public class ReactiveLedgerRepository {
+
+    private static final String USER_BY_EMAIL_SQL = "SELECT id, email FROM users WHERE email = $1";
+
+    private static final String TRANSACTIONS_BY_USER_SQL =
+            "SELECT t.id, t.date_time, t.type, c.name AS category, t.description, t.amount_minor, t.currency, " +
+            "t.installment_number, t.client_id " +
+            "FROM transactions t LEFT JOIN categories c ON c.id = t.category_id " +
+            "WHERE t.user_id = $1";
+
+    private static final String SEARCH_SQL =
+            "SELECT t.id, t.description, t.type, c.name AS category, t.amount_minor, t.date_time, " +
+            "t.installment_plan_id, t.currency " +
+            "FROM transactions t LEFT JOIN categories c ON c.id = t.category_id " +
+            "WHERE t.user_id = $1";
+
+    // Mesma consulta de TransactionRepository.sumMinorByCategoryAndCurrencyBetweenAndUser, com o nome
+    private static final String MONTHLY_SUMS_SQL =
+            "SELECT c.name AS category, s.currency, s.day, s.income, s.expense FROM (" +
+            "SELECT category_id, currency, " +
+            "CASE WHEN COALESCE(currency, $3) = $4 THEN NULL ELSE CAST(date_time AS DATE) END AS day, " +
+            "CAST(COALESCE(SUM(CASE WHEN type = 'INCOME' THEN amount_minor ELSE 0 END), 0) AS BIGINT) AS income, " +
+            "CAST(COALESCE(SUM(CASE WHEN type = 'EXPENSE' THEN amount_minor ELSE 0 END), 0) AS BIGINT) AS expense " +
+            "FROM transactions " +
+            "WHERE date_time BETWEEN $1 AND $2 AND user_id = $5 " +
+            "GROUP BY 1, 2, 3) s LEFT JOIN categories c ON c.id = s.category_id";
+
+    // Arquivo frio (ver TransactionArchiveJdbcRepository): anos arquivados e totais de um mês
+    private static final String ARCHIVED_YEARS_SQL =
+            "SELECT year, file_name FROM transaction_archives WHERE user_id = $1 ORDER BY year";
+
+    private static final String ARCHIVED_TOTALS_SQL =
+            "SELECT c.name AS category, a.currency, a.income_minor, a.expense_minor " +
+            "FROM archived_monthly_totals a LEFT JOIN categories c ON c.id = a.category_id " +
+            "WHERE a.user_id = $1 AND a.month = $2 " +
+            "ORDER BY a.id";
+
+    private static final String CATEGORY_NAMES_SQL = "SELECT id, name FROM categories WHERE user_id = $1";
+
+    private static final String PLAN_COLUMNS =
+            "SELECT id, total_installments, total_amount, installment_value, schedule_only, first_due_at, " +
+            "category, description, materialized_through, next_due_at FROM installment_plan ";
+
+    private static final String PENDING_SCHEDULES_SQL =
+            PLAN_COLUMNS + "WHERE user_id = $1 AND schedule_only = true AND next_due_at IS NOT NULL";
+
+    private static final String PLANS_BY_USER_SQL = PLAN_COLUMNS + "WHERE user_id = $1 ORDER BY id DESC";
+
+    private static final String INSTALLMENTS_AHEAD_OF_SCHEDULE_SQL =
+            "SELECT t.installment_plan_id, t.installment_number " +
+            "FROM transactions t JOIN installment_plan p ON p.id = t.installment_plan_id " +
+            "WHERE p.id = ANY($1) AND t.installment_number > p.materialized_through";
+
+    private static final String PLAN_TRANSACTIONS_SQL =
+            "SELECT t.id, t.installment_plan_id, t.description, t.amount_minor, c.name AS category, t.date_time, " +
+            "t.installment_number " +
+            "FROM transactions t LEFT JOIN categories c ON c.id = t.category_id " +
+            "WHERE t.installment_plan_id = ANY($1)";
+
+    private static final String FX_RATES_SQL =
+            "SELECT base_currency, quote_currency, rate_date, rate FROM fx_rates " +
+            "ORDER BY base_currency, quote_currency, rate_date";
+
+    /**
+     * Linha do resumo mensal: centavos na moeda da linha; day só para moedas a converter
+     */
+    public record MonthlySumRow(String category, String currency, LocalDate day, long income, long expense) {
+    }
+
+    /**
+     * Parcela gravada de um plano
+     */
+    public record PlanTransactionRow(Long id, Long planId, String description, long amountMinor, String category,
+                                     LocalDateTime dateTime, Integer installmentNumber) {
+    }
+
+    /**
+     * Parcela gravada fora de ordem de um plano em modo regra
+     */
+    public record AheadOfScheduleRow(Long planId, Integer installmentNumber) {
+    }
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveLedgerRepository(DatabaseClient databaseClient,
+                                    @Value("${reactive.fetch-size:0}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    public Mono<AuthenticatedUser> findUserByEmail(String email) {
+        return databaseClient.sql(USER_BY_EMAIL_SQL)
+                .bind(0, email)
+                .map(row -> new AuthenticatedUser(row.get("id", Long.class), row.get("email", String.class)))
+                .one();
+    }
+
+    /**
+     * Todas as transações do usuário: cada linha sai para o cliente sem esperar o fim da consulta.
+     * Com reactive.fetch-size > 0 a leitura é por cursor, uma ida ao banco a cada lote
+     */
+    public Flux<Transaction> streamTransactions(Long userId) {
+        return databaseClient.sql(TRANSACTIONS_BY_USER_SQL)
+                .filter(statement -> fetchSize > 0 ? statement.fetchSize(fetchSize) : statement)
+                .bind(0, userId)
+                .map(ReactiveLedgerRepository::toTransaction)
+                .all();
+    }
+
+    /**
+     * Busca com os mesmos filtros de TransactionService.searchTransactions (todos opcionais)
+     */
+    public Flux<TransactionSearchDTO> search(Long userId, String text, TransactionType type, String categoryFragment,
+                                             LocalDateTime start, LocalDateTime end) {
+        StringBuilder sql = new StringBuilder(SEARCH_SQL);
+        List<Object> params = new ArrayList<>();
+        params.add(userId);
+        if (text != null) {
+            params.add("%" + text.toLowerCase() + "%");
+            sql.append(" AND lower(t.description) LIKE $").append(params.size());
+        }
+        if (type != null) {
+            params.add(type.name());
+            sql.append(" AND t.type = $").append(params.size());
+        }
+        if (categoryFragment != null) {
+            // Trecho do nome sem diferenciar maiúsculas, como CategoryDictionary.idsMatching
+            params.add(categoryFragment.toLowerCase());
+            sql.append(" AND strpos(lower(c.name), $").append(params.size()).append(") > 0");
+        }
+        if (start != null) {
+            params.add(start);
+            sql.append(" AND t.date_time >= $").append(params.size());
+        }
+        if (end != null) {
+            params.add(end);
+            sql.append(" AND t.date_time <= $").append(params.size());
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < params.size(); i++) {
+            spec = spec.bind(i, params.get(i));
+        }
+        return spec.map(row -> {
+            TransactionSearchDTO dto = new TransactionSearchDTO(
+                    row.get("id", Long.class),
+                    row.get("description", String.class),
+                    TransactionType.valueOf(row.get("type", String.class)),
+                    row.get("category", String.class),
+                    Money.toBigDecimal(row.get("amount_minor", Long.class)),
+                    row.get("date_time", LocalDateTime.class).toLocalDate(),
+                    row.get("installment_plan_id", Long.class));
+            dto.setCurrency(row.get("currency", String.class));
+            return dto;
+        }).all();
+    }
+
+    public Flux<MonthlySumRow> monthlySums(Long userId, LocalDateTime start, LocalDateTime end,
+                                           String baseCurrency, String targetCurrency) {
+        return databaseClient.sql(MONTHLY_SUMS_SQL)
+                .bind(0, start)
+                .bind(1, end)
+                .bind(2, baseCurrency)
+                .bind(3, targetCurrency)
+                .bind(4, userId)
+                .map(row -> new MonthlySumRow(
+                        row.get("category", String.class),
+                        row.get("currency", String.class),
+                        row.get("day", LocalDate.class),
+                        row.get("income", Long.class),
+                        row.get("expense", Long.class)))
+                .all();
+    }
+
+    public Flux<TransactionArchiveJdbcRepository.ArchivedYear> findArchivedYears(Long userId) {
+        return databaseClient.sql(ARCHIVED_YEARS_SQL)
+                .bind(0, userId)
+                .map(row -> new TransactionArchiveJdbcRepository.ArchivedYear(
+                        row.get("year", Integer.class),
+                        row.get("file_name", String.class)))
+                .all();
+    }
+
+    /**
+     * Totais arquivados do mês por categoria e moeda, sem dia (valores na moeda da linha)
+     */
+    public Flux<MonthlySumRow> archivedMonthlySums(Long userId, LocalDate month) {
+        return databaseClient.sql(ARCHIVED_TOTALS_SQL)
+                .bind(0, userId)
+                .bind(1, month)
+                .map(row -> new MonthlySumRow(
+                        row.get("category", String.class),
+                        row.get("currency", String.class),
+                        null,
+                        row.get("income_minor", Long.class),
+                        row.get("expense_minor", Long.class)))
+                .all();
+    }
+
+    /**
+     * Nomes das categorias do usuário por id, para as linhas dos segmentos arquivados
+     */
+    public Mono<Map<Integer, String>> findCategoryNames(Long userId) {
+        return databaseClient.sql(CATEGORY_NAMES_SQL)
+                .bind(0, userId)
+                .map(row -> Map.entry(row.get("id", Integer.class), row.get("name", String.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /**
+     * Planos em modo regra que ainda têm parcelas virtuais
+     */
+    public Flux<InstallmentPlan> findPendingSchedules(Long userId) {
+        return databaseClient.sql(PENDING_SCHEDULES_SQL)
+                .bind(0, userId)
+                .map(ReactiveLedgerRepository::toPlan)
+                .all();
+    }
+
+    public Flux<InstallmentPlan> findPlansByUser(Long userId) {
+        return databaseClient.sql(PLANS_BY_USER_SQL)
+                .bind(0, userId)
+                .map(ReactiveLedgerRepository::toPlan)
+                .all();
+    }
+
+    public Flux<AheadOfScheduleRow> findInstallmentsAheadOfSchedule(Long[] planIds) {
+        return databaseClient.sql(INSTALLMENTS_AHEAD_OF_SCHEDULE_SQL)
+                .bind(0, planIds)
+                .map(row -> new AheadOfScheduleRow(
+                        row.get("installment_plan_id", Long.class),
+                        row.get("installment_number", Integer.class)))
+                .all();
+    }
+
+    public Flux<PlanTransactionRow> findPlanTransactions(Long[] planIds) {
+        return databaseClient.sql(PLAN_TRANSACTIONS_SQL)
+                .bind(0, planIds)
+                .map(row -> new PlanTransactionRow(
+                        row.get("id", Long.class),
+                        row.get("installment_plan_id", Long.class),
+                        row.get("description", String.class),
+                        row.get("amount_minor", Long.class),
+                        row.get("category", String.class),
+                        row.get("date_time", LocalDateTime.class),
+                        row.get("installment_number", Integer.class)))
+                .all();
+    }
+
+    public Flux<FxRateJdbcRepository.Row> findFxRates() {
+        return databaseClient.sql(FX_RATES_SQL)
+                .map(row -> new FxRateJdbcRepository.Row(
+                        row.get("base_currency", String.class),
+                        row.get("quote_currency", String.class),
+                        row.get("rate_date", LocalDate.class),
+                        row.get("rate", BigDecimal.class)))
+                .all();
+    }
+
+    private static Transaction toTransaction(Readable row) {
+        Transaction transaction = new Transaction();
+        transaction.setId(row.get("id", Long.class));
+        transaction.setDateTime(row.get("date_time", LocalDateTime.class));
+        transaction.setType(TransactionType.valueOf(row.get("type", String.class)));
+        transaction.setCategory(row.get("category", String.class));
+        transaction.setDescription(row.get("description", String.class));
+        transaction.setMoney(Money.ofMinor(row.get("amount_minor", Long.class)));
+        transaction.setCurrency(row.get("currency", String.class));
+        transaction.setInstallmentNumber(row.get("installment_number", Integer.class));
+        transaction.setClientId(row.get("client_id", UUID.class));
+        return transaction;
+    }
+
+    private static InstallmentPlan toPlan(Readable row) {
+        InstallmentPlan plan = new InstallmentPlan();
+        plan.setId(row.get("id", Long.class));
+        plan.setTotalInstallments(row.get("total_installments", Integer.class));
+        plan.setTotalAmount(row.get("total_amount", BigDecimal.class));
+        plan.setInstallmentValue(row.get("installment_value", BigDecimal.class));
+        plan.setScheduleOnly(Boolean.TRUE.equals(row.get("schedule_only", Boolean.class)));
+        plan.setFirstDueAt(row.get("first_due_at", LocalDateTime.class));
+        plan.setCategory(row.get("category", String.class));
+        plan.setDescription(row.get("description", String.class));
+        plan.setMaterializedThrough(row.get("materialized_through", Integer.class));
+        plan.setNextDueAt(row.get("next_due_at", LocalDateTime.class));
+        return plan;
+    }
+}
@@ -0,0 +1,361 @@
+package com.example.budget.reactive;
+
+import com.example.budget.dto.InstallmentPlanDTO;
+import com.example.budget.dto.MonthlySummary;
+import com.example.budget.dto.TransactionSearchDTO;
+import com.example.budget.model.InstallmentPlan;
+import com.example.budget.model.Money;
+import com.example.budget.model.Transaction;
+import com.example.budget.model.TransactionType;
+import com.example.budget.repository.ArchivedTransactionRow;
+import com.example.budget.service.FxRateTable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * Leituras do módulo reativo com o mesmo resultado das do TransactionService e do
+ * InstallmentPlanService: transações gravadas mais as parcelas ainda virtuais dos planos em
+ * modo regra, resumo mensal convertido com a cotação do dia e planos com todas as parcelas.
+ * Nada bloqueia: cada consulta é um Flux do R2DBC e a montagem roda sobre as linhas recebidas.
+ *
+ * Listagem, busca e resumo incluem os anos do arquivo frio ({@link ReactiveArchiveReader}) e
+ * rodam numa transação REPEATABLE READ, como no TransactionService: um ano arquivado no meio
+ * da leitura não some nem aparece duas vezes.
+ */
+@Service
+public class ReactiveLedgerService {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private final ReactiveLedgerRepository repository;
+    private final ReactiveFxRates fxRates;
+    private final ReactiveArchiveReader archiveReader;
+    private final TransactionalOperator snapshot;
+
+    public ReactiveLedgerService(ReactiveLedgerRepository repository, ReactiveFxRates fxRates,
+                                 ReactiveArchiveReader archiveReader, ReactiveTransactionManager transactionManager) {
+        this.repository = repository;
+        this.fxRates = fxRates;
+        this.archiveReader = archiveReader;
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        definition.setReadOnly(true);
+        this.snapshot = TransactionalOperator.create(transactionManager, definition);
+    }
+
+    /**
+     * Transações arquivadas (as mais antigas), as gravadas (à medida que chegam do banco) e as
+     * parcelas virtuais
+     */
+    public Flux<Transaction> findAllByUser(AuthenticatedUser user) {
+        return archived(user.id(), null, null,
+                (row, names) -> toTransaction(row, names.get(row.categoryId())))
+                .concatWith(repository.streamTransactions(user.id()))
+                .concatWith(virtualInstallments(user.id(), null, null))
+                .as(snapshot::transactional);
+    }
+
+    public Flux<TransactionSearchDTO> searchTransactions(String text, String type, String category,
+                                                         String startDate, String endDate, AuthenticatedUser user) {
+        return Flux.defer(() -> {
+            LocalDateTime start = StringUtils.hasText(startDate)
+                    ? LocalDate.parse(startDate, DATE_FORMAT).atStartOfDay() : null;
+            LocalDateTime end = StringUtils.hasText(endDate)
+                    ? LocalDate.parse(endDate, DATE_FORMAT).atTime(23, 59, 59) : null;
+            TransactionType txType = "income".equalsIgnoreCase(type) ? TransactionType.INCOME
+                    : "expense".equalsIgnoreCase(type) ? TransactionType.EXPENSE : null;
+
+            // anos arquivados (os mais antigos, vêm antes): os mesmos filtros sobre as linhas
+            // dos segmentos do período
+            Flux<TransactionSearchDTO> archived = archived(user.id(), start, end, (row, names) -> {
+                String name = names.get(row.categoryId());
+                return containsIgnoreCase(row.description(), text)
+                        && (txType == null || row.type() == txType)
+                        && containsIgnoreCase(name, category) ? toSearchDTO(row, name) : null;
+            });
+            Flux<TransactionSearchDTO> stored = archived.concatWith(repository.search(user.id(),
+                    StringUtils.hasText(text) ? text : null, txType,
+                    StringUtils.hasText(category) ? category : null, start, end));
+            if (txType == TransactionType.INCOME) {
+                return stored;
+            }
+            // parcelas virtuais são sempre despesas: aplica os mesmos filtros em memória
+            return stored.concatWith(virtualInstallments(user.id(), start, end)
+                    .filter(installment -> containsIgnoreCase(installment.getDescription(), text)
+                            && containsIgnoreCase(installment.getCategory(), category))
+                    .map(ReactiveLedgerService::toSearchDTO));
+        }).as(snapshot::transactional);
+    }
+
+    /**
+     * Resumo do mês na moeda pedida (null = moeda base), como TransactionService.monthlySummary
+     */
+    public Mono<MonthlySummary> monthlySummary(int year, int month, String currency, AuthenticatedUser user) {
+        return Mono.defer(() -> {
+            YearMonth ym = YearMonth.of(year, month);
+            LocalDateTime start = ym.atDay(1).atStartOfDay();
+            LocalDateTime end = ym.atEndOfMonth().atTime(23, 59, 59);
+            return fxRates.table().flatMap(table -> {
+                String target = table.normalize(currency, fxRates.baseCurrency());
+                return repository.monthlySums(user.id(), start, end, fxRates.baseCurrency(), target)
+                        .concatWith(archivedMonthlySums(user.id(), ym, target))
+                        .collectList()
+                        // em sequência: dentro da transação as consultas dividem a conexão
+                        .flatMap(rows -> virtualInstallments(user.id(), start, end).collectList()
+                                .map(installments -> summarize(year, month, target, table, rows, installments)))
+                        .as(snapshot::transactional);
+            });
+        });
+    }
+
+    /**
+     * Planos do usuário (mais recentes primeiro) com as parcelas gravadas e as virtuais
+     */
+    public Flux<InstallmentPlanDTO> findAllPlans(AuthenticatedUser user) {
+        return repository.findPlansByUser(user.id())
+                .collectList()
+                .flatMapMany(plans -> {
+                    if (plans.isEmpty()) {
+                        return Flux.empty();
+                    }
+                    return repository.findPlanTransactions(planIds(plans))
+                            .collectMultimap(ReactiveLedgerRepository.PlanTransactionRow::planId)
+                            .flatMapIterable(byPlan -> plans.stream()
+                                    .map(plan -> toPlanDTO(plan, byPlan.getOrDefault(plan.getId(), List.of())))
+                                    .toList());
+                });
+    }
+
+    /**
+     * Linhas de {@code mapper} (null = descartada) para as transações arquivadas em [start, end];
+     * os nomes das categorias só são lidos se houver alguma
+     */
+    private <T> Flux<T> archived(Long userId, LocalDateTime start, LocalDateTime end,
+                                 BiFunction<ArchivedTransactionRow, Map<Integer, String>, T> mapper) {
+        return archiveReader.findRows(userId, start, end)
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .flatMapMany(rows -> repository.findCategoryNames(userId).flatMapIterable(names -> {
+                    List<T> mapped = new ArrayList<>(rows.size());
+                    for (ArchivedTransactionRow row : rows) {
+                        T value = mapper.apply(row, names);
+                        if (value != null) {
+                            mapped.add(value);
+                        }
+                    }
+                    return mapped;
+                }));
+    }
+
+    /**
+     * Mês arquivado: totais mensais do banco; só moedas que precisam da cotação do dia descem
+     * ao segmento, agrupadas por (categoria, moeda, dia) como a consulta dos meses no banco
+     */
+    private Flux<ReactiveLedgerRepository.MonthlySumRow> archivedMonthlySums(Long userId, YearMonth month,
+                                                                             String target) {
+        String base = fxRates.baseCurrency();
+        return repository.archivedMonthlySums(userId, month.atDay(1))
+                .collectList()
+                .flatMapMany(totals -> {
+                    List<ReactiveLedgerRepository.MonthlySumRow> inTarget = totals.stream()
+                            .filter(total -> (total.currency() != null ? total.currency() : base).equals(target))
+                            .toList();
+                    if (inTarget.size() == totals.size()) {
+                        return Flux.fromIterable(inTarget);
+                    }
+                    LocalDateTime start = month.atDay(1).atStartOfDay();
+                    LocalDateTime end = month.atEndOfMonth().atTime(23, 59, 59);
+                    return archiveReader.findRows(userId, start, end)
+                            .collectList()
+                            .flatMapMany(rows -> repository.findCategoryNames(userId).flatMapIterable(names -> {
+                                Map<ArchivedDay, long[]> days = new LinkedHashMap<>();
+                                for (ArchivedTransactionRow row : rows) {
+                                    String rowCurrency = row.currency() != null ? row.currency() : base;
+                                    if (rowCurrency.equals(target)) {
+                                        continue;
+                                    }
+                                    long[] sums = days.computeIfAbsent(new ArchivedDay(row.categoryId(), rowCurrency,
+                                            row.dateTime().toLocalDate()), d -> new long[2]);
+                                    int index = row.type() == TransactionType.INCOME ? 0 : 1;
+                                    sums[index] = Math.addExact(sums[index], row.amountMinor());
+                                }
+                                List<ReactiveLedgerRepository.MonthlySumRow> result = new ArrayList<>(inTarget);
+                                days.forEach((day, sums) -> result.add(new ReactiveLedgerRepository.MonthlySumRow(
+                                        names.get(day.categoryId()), day.currency(), day.date(), sums[0], sums[1])));
+                                return result;
+                            }));
+                });
+    }
+
+    private MonthlySummary summarize(int year, int month, String target, FxRateTable table,
+                                     List<ReactiveLedgerRepository.MonthlySumRow> rows, List<Transaction> installments) {
+        String base = fxRates.baseCurrency();
+        long income = 0;
+        long expense = 0;
+        Map<String, long[]> categories = new LinkedHashMap<>();
+        for (ReactiveLedgerRepository.MonthlySumRow row : rows) {
+            String rowCurrency = row.currency() != null ? row.currency() : base;
+            long categoryIncome = row.day() == null ? row.income()
+                    : table.convert(row.income(), rowCurrency, target, row.day().toEpochDay());
+            long categoryExpense = row.day() == null ? row.expense()
+                    : table.convert(row.expense(), rowCurrency, target, row.day().toEpochDay());
+            income = Math.addExact(income, categoryIncome);
+            expense = Math.addExact(expense, categoryExpense);
+            long[] totals = categories.computeIfAbsent(row.category(), c -> new long[2]);
+            totals[0] = Math.addExact(totals[0], categoryIncome);
+            totals[1] = Math.addExact(totals[1], categoryExpense);
+        }
+
+        // parcelas virtuais do mês (planos em modo regra) entram como despesas
+        for (Transaction installment : installments) {
+            long amount = table.convert(installment.getMoney().minor(), base, target,
+                    installment.getDateTime().toLocalDate().toEpochDay());
+            expense = Math.addExact(expense, amount);
+            long[] totals = categories.computeIfAbsent(installment.getCategory(), c -> new long[2]);
+            totals[1] = Math.addExact(totals[1], amount);
+        }
+        List<MonthlySummary.CategoryAggregate> byCategory = new ArrayList<>(categories.size());
+        categories.forEach((name, totals) -> byCategory.add(new MonthlySummary.CategoryAggregate(
+                name, Money.toBigDecimal(totals[0]), Money.toBigDecimal(totals[1]))));
+
+        MonthlySummary s = new MonthlySummary();
+        s.year = year;
+        s.month = month;
+        s.currency = target;
+        s.totalIncome = Money.toBigDecimal(income);
+        s.totalExpense = Money.toBigDecimal(expense);
+        s.balance = Money.toBigDecimal(Math.subtractExact(income, expense));
+        s.byCategory = byCategory;
+        return s;
+    }
+
+    /**
+     * Parcelas ainda virtuais dos planos em modo regra com vencimento em [start, end]
+     */
+    private Flux<Transaction> virtualInstallments(Long userId, LocalDateTime start, LocalDateTime end) {
+        return repository.findPendingSchedules(userId)
+                .collectList()
+                .flatMapMany(plans -> {
+                    if (plans.isEmpty()) {
+                        return Flux.empty();
+                    }
+                    return repository.findInstallmentsAheadOfSchedule(planIds(plans))
+                            .collectMultimap(ReactiveLedgerRepository.AheadOfScheduleRow::planId,
+                                    ReactiveLedgerRepository.AheadOfScheduleRow::installmentNumber)
+                            .flatMapIterable(ahead -> {
+                                List<Transaction> installments = new ArrayList<>();
+                                for (InstallmentPlan plan : plans) {
+                                    Collection<Integer> materialized = ahead.getOrDefault(plan.getId(), List.of());
+                                    for (int number : plan.virtualInstallmentNumbers(new HashSet<>(materialized), start, end)) {
+                                        installments.add(buildInstallment(plan, number));
+                                    }
+                                }
+                                return installments;
+                            });
+                });
+    }
+
+    private static Transaction buildInstallment(InstallmentPlan plan, int number) {
+        Transaction transaction = new Transaction();
+        transaction.setType(TransactionType.EXPENSE); // Parcelamentos são sempre despesas
+        transaction.setCategory(categoryOf(plan));
+        transaction.setDescription(plan.installmentDescription(number));
+        transaction.setAmount(plan.getInstallmentValue());
+        transaction.setDateTime(plan.dueAt(number));
+        transaction.setInstallmentPlan(plan);
+        transaction.setInstallmentNumber(number);
+        return transaction;
+    }
+
+    private static InstallmentPlanDTO toPlanDTO(InstallmentPlan plan,
+                                                Collection<ReactiveLedgerRepository.PlanTransactionRow> rows) {
+        List<InstallmentPlanDTO.InstallmentTransactionDTO> installments = new ArrayList<>();
+        Set<Integer> materialized = new HashSet<>();
+        for (ReactiveLedgerRepository.PlanTransactionRow row : rows) {
+            int number = InstallmentPlan.installmentNumberOf(row.installmentNumber(), row.description());
+            materialized.add(number);
+            installments.add(new InstallmentPlanDTO.InstallmentTransactionDTO(row.id(), row.description(),
+                    Money.toBigDecimal(row.amountMinor()), row.category(), row.dateTime().toLocalDate(), number));
+        }
+        if (plan.isScheduleOnly()) {
+            for (int number : plan.virtualInstallmentNumbers(materialized, null, null)) {
+                installments.add(new InstallmentPlanDTO.InstallmentTransactionDTO(null,
+                        plan.installmentDescription(number), plan.getInstallmentValue(), categoryOf(plan),
+                        plan.dueAt(number).toLocalDate(), number));
+            }
+        }
+        installments.sort(Comparator.comparingInt(InstallmentPlanDTO.InstallmentTransactionDTO::getInstallmentNumber));
+
+        InstallmentPlanDTO dto = new InstallmentPlanDTO(plan.getId(), plan.getTotalInstallments(),
+                plan.getTotalAmount(), plan.getInstallmentValue(), installments);
+        dto.setScheduleOnly(plan.isScheduleOnly());
+        return dto;
+    }
+
+    // Transação arquivada como entidade solta, só para leitura (como no TransactionService)
+    private static Transaction toTransaction(ArchivedTransactionRow row, String category) {
+        Transaction transaction = new Transaction();
+        transaction.setId(row.id());
+        transaction.setDateTime(row.dateTime());
+        transaction.setType(row.type());
+        transaction.setCategoryId(row.categoryId());
+        transaction.setCategory(category);
+        transaction.setDescription(row.description());
+        transaction.setMoney(Money.ofMinor(row.amountMinor()));
+        transaction.setCurrency(row.currency());
+        transaction.setInstallmentNumber(row.installmentNumber());
+        transaction.setClientId(row.clientId());
+        return transaction;
+    }
+
+    private static TransactionSearchDTO toSearchDTO(ArchivedTransactionRow row, String category) {
+        TransactionSearchDTO dto = new TransactionSearchDTO(row.id(), row.description(), row.type(), category,
+                Money.toBigDecimal(row.amountMinor()), row.dateTime().toLocalDate(), null);
+        dto.setCurrency(row.currency());
+        return dto;
+    }
+
+    private static TransactionSearchDTO toSearchDTO(Transaction tx) {
+        return new TransactionSearchDTO(tx.getId(), tx.getDescription(), tx.getType(), tx.getCategory(),
+                tx.getAmount(), tx.getDateTime().toLocalDate(), tx.getInstallmentPlan().getId());
+    }
+
+    // Nome canônico da categoria do plano, como CategoryDictionary.resolve (sem espaços nas pontas)
+    private static String categoryOf(InstallmentPlan plan) {
+        return StringUtils.hasText(plan.getCategory()) ? plan.getCategory().trim() : null;
+    }
+
+    private static Long[] planIds(List<InstallmentPlan> plans) {
+        return plans.stream().map(InstallmentPlan::getId).toArray(Long[]::new);
+    }
+
+    private record ArchivedDay(Integer categoryId, String currency, LocalDate date) {
+    }
+
+    private static boolean containsIgnoreCase(String value, String filter) {
+        if (!StringUtils.hasText(filter)) {
+            return true;
+        }
+        return value != null && value.toLowerCase().contains(filter.toLowerCase());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.budget.model;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fingerprint gravado pelo JPA numa coluna comum (a que o ddl-auto=update cria): o valor salvo
+ * é o de TransactionFingerprint e o mesmo da função SQL usada no preenchimento das linhas antigas.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TransactionFingerprintJpaTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // O banco embutido é um bean: para junto com o contexto, depois do EntityManagerFactory
+    @TestConfiguration
+    static class EmbeddedDatabase {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.builder().start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres postgres) {
+            return postgres.getPostgresDatabase();
+        }
+    }
+
+    @Test
+    void insertStoresTheJavaFingerprint() {
+        User user = entityManager.persist(new User("fingerprint@example.com", "secret", "Fingerprint"));
+        Transaction transaction = transaction(user, "  Mercado   CENTRAL ", "123.45", LocalDateTime.of(2025, 4, 2, 18, 5));
+
+        entityManager.persistAndFlush(transaction);
+
+        assertThat(storedFingerprint(transaction.getId())).isEqualTo(
+                TransactionFingerprint.of(user.getId(), 12_345L, null, transaction.getDateTime().toLocalDate(),
+                        "  Mercado   CENTRAL "));
+        // Na moeda base o valor base é o próprio valor
+        assertThat(jdbcTemplate.queryForObject("SELECT amount_base_minor FROM transactions WHERE id = ?",
+                Long.class, transaction.getId())).isEqualTo(12_345L);
+    }
+
+    @Test
+    void currencyIsPartOfTheFingerprint() {
+        User user = entityManager.persist(new User("currency@example.com", "secret", "Currency"));
+        LocalDateTime dateTime = LocalDateTime.of(2025, 4, 2, 9, 0);
+        Transaction inBase = entityManager.persist(transaction(user, "Hotel", "100.00", dateTime));
+        Transaction inEuro = transaction(user, "Hotel", "100.00", dateTime);
+        inEuro.setCurrency("EUR");
+        entityManager.persist(inEuro);
+        entityManager.flush();
+
+        assertThat(storedFingerprint(inEuro.getId()))
+                .isEqualTo(TransactionFingerprint.of(user.getId(), 10_000L, "EUR", dateTime.toLocalDate(), "Hotel"))
+                .isNotEqualTo(storedFingerprint(inBase.getId()));
+    }
+
+    @Test
+    void updateRecomputesTheFingerprint() {
+        User user = entityManager.persist(new User("update@example.com", "secret", "Update"));
+        Transaction transaction = entityManager.persistAndFlush(
+                transaction(user, "Padaria", "10.00", LocalDateTime.of(2025, 4, 2, 8, 0)));
+
+        transaction.setDescription("Padaria do bairro");
+        transaction.setDateTime(LocalDateTime.of(2025, 4, 3, 8, 0));
+        entityManager.flush();
+
+        assertThat(storedFingerprint(transaction.getId())).isEqualTo(
+                TransactionFingerprint.of(user.getId(), 1_000L, null, transaction.getDateTime().toLocalDate(),
+                        "Padaria do bairro"));
+    }
+
+    @Test
+    void javaAndSqlFormulasAgree() throws IOException {
+        // A migração roda sobre a coluna comum: cria a função e preenche só as linhas nulas
+        jdbcTemplate.execute(Files.readString(Path.of("migration-fingerprint.sql"), StandardCharsets.UTF_8));
+        User user = entityManager.persist(new User("sql@example.com", "secret", "Sql"));
+        Transaction first = entityManager.persist(
+                transaction(user, "Café\tda Esquina", "7.90", LocalDateTime.of(1999, 12, 31, 23, 59)));
+        Transaction second = entityManager.persist(
+                transaction(user, null, "-42.00", LocalDateTime.of(2031, 1, 1, 0, 0)));
+        Transaction third = transaction(user, "Taxi  ", "18.20", LocalDateTime.of(2025, 6, 7, 1, 2));
+        third.setCurrency("GBP");
+        entityManager.persist(third);
+        entityManager.flush();
+
+        for (Transaction transaction : new Transaction[]{first, second, third}) {
+            Long sql = jdbcTemplate.queryForObject(
+                    "SELECT transaction_fingerprint(user_id, amount_minor, currency, date_time, description) " +
+                    "FROM transactions WHERE id = ?", Long.class, transaction.getId());
+            assertThat(storedFingerprint(transaction.getId())).isEqualTo(sql);
+        }
+    }
+
+    private static Transaction transaction(User user, String description, String amount, LocalDateTime dateTime) {
+        Transaction transaction = new Transaction();
+        transaction.setUser(user);
+        transaction.setType(TransactionType.EXPENSE);
+        transaction.setDescription(description);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setDateTime(dateTime);
+        return transaction;
+    }
+
+    private Long storedFingerprint(Long id) {
+        return jdbcTemplate.queryForObject("SELECT fingerprint FROM transactions WHERE id = ?", Long.class, id);
+    }
+}
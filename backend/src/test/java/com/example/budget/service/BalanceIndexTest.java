@@ -0,0 +1,145 @@
+package com.example.budget.service;
+
+import com.example.budget.model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BalanceIndexTest {
+
+    private static final LocalDate WINDOW_START = LocalDate.of(2000, 1, 1);
+    private static final LocalDate WINDOW_END = LocalDate.of(2040, 12, 31);
+
+    @Test
+    void buildMatchesPrefixSums() {
+        Map<LocalDate, Long> deltas = new TreeMap<>();
+        deltas.put(LocalDate.of(2024, 1, 10), 10_000L);
+        deltas.put(LocalDate.of(2024, 1, 15), -2_550L);
+        deltas.put(LocalDate.of(2024, 3, 1), 99L);
+
+        BalanceIndex index = BalanceIndex.build(rows(deltas), 0L, WINDOW_START, WINDOW_END);
+
+        assertThat(index.balanceAt(LocalDate.of(2024, 1, 9))).isZero();
+        assertThat(index.balanceAt(LocalDate.of(2024, 1, 10))).isEqualTo(10_000L);
+        assertThat(index.balanceAt(LocalDate.of(2024, 2, 1))).isEqualTo(7_450L);
+        assertThat(index.balanceAt(LocalDate.of(2030, 1, 1))).isEqualTo(7_549L);
+    }
+
+    @Test
+    void growsBackwardAndForwardWithoutLosingDeltas() {
+        Map<LocalDate, Long> expected = new TreeMap<>();
+        expected.put(LocalDate.of(2024, 6, 1), 500L);
+        BalanceIndex index = BalanceIndex.build(rows(expected), 0L, WINDOW_START, WINDOW_END);
+
+        // Retroativo (antes da origem) e bem depois do último dia coberto: as duas pontas crescem
+        add(index, expected, LocalDate.of(2010, 2, 3), 1_200L);
+        add(index, expected, LocalDate.of(2035, 7, 8), -300L);
+        add(index, expected, LocalDate.of(2024, 6, 1), 25L);
+
+        assertMatches(index, expected, LocalDate.of(2009, 1, 1), LocalDate.of(2036, 1, 1));
+    }
+
+    @Test
+    void randomUpdatesMatchNaiveSums() {
+        Random random = new Random(42);
+        Map<LocalDate, Long> expected = new TreeMap<>();
+        for (int i = 0; i < 200; i++) {
+            expected.merge(randomDay(random), (long) random.nextInt(20_000) - 10_000, Long::sum);
+        }
+        BalanceIndex index = BalanceIndex.build(rows(expected), 0L, WINDOW_START, WINDOW_END);
+        for (int i = 0; i < 2_000; i++) {
+            add(index, expected, randomDay(random), (long) random.nextInt(20_000) - 10_000);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            LocalDate day = randomDay(random);
+            assertThat(index.balanceAt(day)).as("balance at %s", day).isEqualTo(naiveBalance(expected, day));
+        }
+    }
+
+    @Test
+    void curveMatchesBalanceAtEachDay() {
+        Map<LocalDate, Long> expected = new TreeMap<>();
+        expected.put(LocalDate.of(2024, 1, 1), 1_000L);
+        expected.put(LocalDate.of(2024, 1, 3), -400L);
+        BalanceIndex index = BalanceIndex.build(rows(expected), 0L, WINDOW_START, WINDOW_END);
+        add(index, expected, LocalDate.of(2023, 12, 30), 7L);
+
+        LocalDate from = LocalDate.of(2023, 12, 28);
+        long[] curve = index.curve(from, LocalDate.of(2024, 1, 5));
+
+        for (int d = 0; d < curve.length; d++) {
+            assertThat(curve[d]).isEqualTo(naiveBalance(expected, from.plusDays(d)));
+        }
+    }
+
+    @Test
+    void datesOutsideTheWindowDoNotGrowTheIndex() {
+        Map<LocalDate, Long> stored = new TreeMap<>();
+        stored.put(LocalDate.of(1, 1, 1), 300L);
+        stored.put(LocalDate.of(2024, 5, 5), 1_000L);
+        stored.put(LocalDate.of(9999, 12, 31), 50_000L);
+        BalanceIndex index = BalanceIndex.build(rows(stored), 0L, WINDOW_START, WINDOW_END);
+
+        index.add(LocalDate.of(1, 6, 1), 20L);
+        index.add(LocalDate.of(9999, 1, 1), 70_000L);
+
+        // Antes da janela entra no saldo inicial; depois dela fica só em daily_balance
+        assertThat(index.balanceAt(WINDOW_START)).isEqualTo(320L);
+        assertThat(index.balanceAt(WINDOW_END)).isEqualTo(1_320L);
+        assertThat(index.covers(LocalDate.of(1, 1, 1))).isFalse();
+        assertThat(index.covers(LocalDate.of(9999, 12, 31))).isFalse();
+        assertThatThrownBy(() -> index.balanceAt(LocalDate.of(9999, 12, 31)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void emptyIndexStartsInsideTheWindow() {
+        BalanceIndex index = BalanceIndex.build(List.of(), 0L, WINDOW_START, WINDOW_END);
+
+        index.add(LocalDate.of(2040, 12, 31), 5L);
+        index.add(WINDOW_START, 1L);
+
+        assertThat(index.balanceAt(WINDOW_START)).isEqualTo(1L);
+        assertThat(index.balanceAt(WINDOW_END)).isEqualTo(6L);
+    }
+
+    private static void add(BalanceIndex index, Map<LocalDate, Long> expected, LocalDate day, long delta) {
+        index.add(day, delta);
+        expected.merge(day, delta, Long::sum);
+    }
+
+    private static void assertMatches(BalanceIndex index, Map<LocalDate, Long> expected, LocalDate from, LocalDate to) {
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            assertThat(index.balanceAt(day)).as("balance at %s", day).isEqualTo(naiveBalance(expected, day));
+        }
+    }
+
+    private static long naiveBalance(Map<LocalDate, Long> deltas, LocalDate day) {
+        long sum = 0;
+        for (Map.Entry<LocalDate, Long> entry : deltas.entrySet()) {
+            if (!entry.getKey().isAfter(day)) {
+                sum += entry.getValue();
+            }
+        }
+        return sum;
+    }
+
+    private static LocalDate randomDay(Random random) {
+        return WINDOW_START.plusDays(random.nextInt((int) (WINDOW_END.toEpochDay() - WINDOW_START.toEpochDay() + 1)));
+    }
+
+    private static List<Object[]> rows(Map<LocalDate, Long> deltas) {
+        List<Object[]> rows = new ArrayList<>();
+        new TreeMap<>(deltas).forEach((day, delta) -> rows.add(new Object[]{day, Money.toBigDecimal(delta)}));
+        return rows;
+    }
+}
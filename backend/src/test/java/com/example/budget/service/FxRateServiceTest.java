@@ -0,0 +1,72 @@
+package com.example.budget.service;
+
+import com.example.budget.event.LedgerEntry;
+import com.example.budget.model.TransactionType;
+import com.example.budget.repository.FxRateJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FxRateServiceTest {
+
+    private static final LocalDate RATE_DATE = LocalDate.of(2025, 1, 1);
+    private static final LocalDateTime WHEN = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    private FxRateJdbcRepository repository;
+    private FxRateService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(FxRateJdbcRepository.class);
+        rates("6.0000");
+        service = new FxRateService(repository, "BRL", "EUR", "");
+    }
+
+    @Test
+    void removalUsesTheBaseAmountStoredAtInsert() {
+        // Gravada com 1 EUR = 6 BRL: 100,00 EUR valem 600,00 BRL
+        long stored = service.toBase(10_000L, "EUR", WHEN.toLocalDate());
+        assertThat(stored).isEqualTo(60_000L);
+        LedgerEntry added = service.toBase(entry(stored));
+
+        // A cotação do mesmo dia é corrigida depois da gravação
+        rates("6.5000");
+        service.refresh();
+        LedgerEntry removed = service.toBase(entry(stored));
+
+        assertThat(removed.amountMinor()).isEqualTo(added.amountMinor());
+        assertThat(added.signedMinor() - removed.signedMinor()).isZero();
+    }
+
+    @Test
+    void legacyEntriesWithoutBaseAmountAreConvertedWithTheCurrentRate() {
+        rates("6.5000");
+        service.refresh();
+
+        assertThat(service.toBase(entry(null)).amountMinor()).isEqualTo(65_000L);
+    }
+
+    @Test
+    void baseCurrencyEntriesAreUnchanged() {
+        LedgerEntry entry = new LedgerEntry(1L, WHEN, TransactionType.EXPENSE, "Food", "Mercado", 1_234L, null, 1_234L);
+
+        assertThat(service.toBase(entry)).isSameAs(entry);
+    }
+
+    private void rates(String brlPerEuro) {
+        when(repository.findAll()).thenReturn(List.of(
+                new FxRateJdbcRepository.Row("EUR", "BRL", RATE_DATE, new BigDecimal(brlPerEuro))));
+    }
+
+    private static LedgerEntry entry(Long amountBaseMinor) {
+        return new LedgerEntry(1L, WHEN, TransactionType.EXPENSE, "Travel", "Hotel", 10_000L, "EUR", amountBaseMinor);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.budget.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class KllSketchTest {
+
+    private static final int K = 200;
+    // Erro de posto nominal de ~1,7% para k = 200; a folga cobre a compactação aleatória
+    private static final double RANK_TOLERANCE = 0.03;
+
+    @Test
+    void rankErrorStaysWithinBound() {
+        long[] values = skewedValues(new Random(7), 200_000);
+        KllSketch sketch = sketchOf(values);
+        long[] sorted = sorted(values);
+
+        for (int p = 1; p < 100; p++) {
+            long value = sorted[(int) ((long) p * sorted.length / 100)];
+            assertThat(sketch.rank(value)).as("rank of p%d", p)
+                    .isCloseTo(exactRank(sorted, value), within(RANK_TOLERANCE));
+        }
+    }
+
+    @Test
+    void quantileErrorStaysWithinBound() {
+        long[] values = skewedValues(new Random(11), 200_000);
+        KllSketch sketch = sketchOf(values);
+        long[] sorted = sorted(values);
+
+        for (int p = 1; p < 100; p++) {
+            double q = p / 100.0;
+            assertThat(exactRank(sorted, sketch.quantile(q))).as("rank of quantile %.2f", q)
+                    .isCloseTo(q, within(RANK_TOLERANCE));
+        }
+        assertThat(sketch.quantile(0)).isEqualTo(sorted[0]);
+        assertThat(sketch.quantile(1)).isEqualTo(sorted[sorted.length - 1]);
+        assertThat(sketch.count()).isEqualTo(values.length);
+    }
+
+    @Test
+    void mergedSketchKeepsTheBound() {
+        Random random = new Random(13);
+        long[] first = skewedValues(random, 80_000);
+        long[] second = new long[120_000];
+        for (int i = 0; i < second.length; i++) {
+            // Outra distribuição: a união não é parecida com nenhuma das duas
+            second[i] = 50_000 + random.nextInt(10_000);
+        }
+        KllSketch sketch = sketchOf(first);
+        sketch.merge(sketchOf(second));
+
+        long[] all = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, all, first.length, second.length);
+        long[] sorted = sorted(all);
+        for (int p = 1; p < 100; p++) {
+            long value = sorted[(int) ((long) p * sorted.length / 100)];
+            assertThat(sketch.rank(value)).as("rank of p%d", p)
+                    .isCloseTo(exactRank(sorted, value), within(RANK_TOLERANCE));
+        }
+        assertThat(sketch.min()).isEqualTo(sorted[0]);
+        assertThat(sketch.max()).isEqualTo(sorted[sorted.length - 1]);
+    }
+
+    @Test
+    void serializationKeepsTheSketch() {
+        long[] values = skewedValues(new Random(17), 50_000);
+        KllSketch sketch = sketchOf(values);
+
+        KllSketch copy = KllSketch.fromBytes(sketch.toBytes());
+
+        assertThat(copy.count()).isEqualTo(sketch.count());
+        assertThat(copy.min()).isEqualTo(sketch.min());
+        assertThat(copy.max()).isEqualTo(sketch.max());
+        for (int p = 0; p <= 100; p += 5) {
+            assertThat(copy.quantile(p / 100.0)).isEqualTo(sketch.quantile(p / 100.0));
+        }
+    }
+
+    @Test
+    void smallInputsAreExact() {
+        KllSketch sketch = new KllSketch(K);
+        for (long value = 1; value <= 100; value++) {
+            sketch.update(value);
+        }
+
+        assertThat(sketch.quantile(0.5)).isEqualTo(50L);
+        assertThat(sketch.rank(25)).isEqualTo(0.25);
+    }
+
+    // Valores em centavos com cauda longa, como gastos reais
+    private static long[] skewedValues(Random random, int n) {
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = Math.round(Math.exp(7 + 1.5 * random.nextGaussian()));
+        }
+        return values;
+    }
+
+    private static KllSketch sketchOf(long[] values) {
+        KllSketch sketch = new KllSketch(K);
+        for (long value : values) {
+            sketch.update(value);
+        }
+        return sketch;
+    }
+
+    private static long[] sorted(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    // Fração dos valores menores ou iguais a value
+    private static double exactRank(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return (double) low / sorted.length;
+    }
+}
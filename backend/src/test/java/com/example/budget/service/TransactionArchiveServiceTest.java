@@ -0,0 +1,183 @@
+package com.example.budget.service;
+
+import com.example.budget.model.TransactionType;
+import com.example.budget.repository.ArchivedTransactionRow;
+import com.example.budget.repository.TransactionArchiveJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionArchiveServiceTest {
+
+    private static final Long USER_ID = 3L;
+    private static final int YEAR = 2022;
+    private static final long GRACE_MS = 60_000;
+
+    @TempDir
+    Path directory;
+
+    private TransactionArchiveJdbcRepository repository;
+    private TransactionArchiveService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TransactionArchiveJdbcRepository.class);
+        service = new TransactionArchiveService(repository, new SimpleMeterRegistry(), true,
+                directory.toString(), 16, GRACE_MS);
+    }
+
+    @Test
+    void archiveYearWritesTheSegmentAndRemovesTheRows() {
+        List<ArchivedTransactionRow> rows = List.of(
+                row(10, LocalDateTime.of(YEAR, 1, 5, 10, 0), TransactionType.EXPENSE, 1, 2_500, null),
+                row(11, LocalDateTime.of(YEAR, 1, 20, 10, 0), TransactionType.EXPENSE, 1, 1_500, null),
+                row(12, LocalDateTime.of(YEAR, 2, 1, 8, 0), TransactionType.INCOME, 2, 900_000, null),
+                row(13, LocalDateTime.of(YEAR, 2, 2, 8, 0), TransactionType.EXPENSE, 1, 4_000, "EUR"));
+        when(repository.register(eq(USER_ID), eq(YEAR), anyString())).thenReturn(true);
+        when(repository.lockRows(USER_ID, YEAR)).thenReturn(rows);
+
+        assertThat(service.archiveYear(USER_ID, YEAR)).isEqualTo(4);
+
+        String fileName = completedFileName(4);
+        assertThat(Files.isRegularFile(directory.resolve(fileName))).isTrue();
+        verify(repository).deleteRows(USER_ID, List.of(10L, 11L, 12L, 13L));
+        assertThat(monthlyTotals()).containsExactlyInAnyOrder(
+                new TransactionArchiveJdbcRepository.MonthlyTotal(LocalDate.of(YEAR, 1, 1), 1, null, 0, 4_000, 2),
+                new TransactionArchiveJdbcRepository.MonthlyTotal(LocalDate.of(YEAR, 2, 1), 2, null, 900_000, 0, 1),
+                new TransactionArchiveJdbcRepository.MonthlyTotal(LocalDate.of(YEAR, 2, 1), 1, "EUR", 0, 4_000, 1));
+
+        archived(fileName);
+        assertThat(service.findRows(USER_ID, null, null)).containsExactlyElementsOf(rows);
+        assertThat(service.findRows(USER_ID, LocalDateTime.of(YEAR, 2, 1, 0, 0), null))
+                .extracting(ArchivedTransactionRow::id).containsExactly(12L, 13L);
+        assertThat(service.isArchived(USER_ID, 12L)).isTrue();
+        assertThat(service.isArchived(USER_ID, 99L)).isFalse();
+    }
+
+    @Test
+    void rearchiveMergesNewRowsIntoANewSegment() throws IOException {
+        List<ArchivedTransactionRow> first = List.of(
+                row(20, LocalDateTime.of(YEAR, 3, 1, 9, 0), TransactionType.EXPENSE, 1, 1_000, null),
+                row(21, LocalDateTime.of(YEAR, 6, 1, 9, 0), TransactionType.EXPENSE, 1, 2_000, null));
+        String previousFile = "user-3/" + YEAR + "-1.seg";
+        TransactionSegment.write(directory.resolve(previousFile), USER_ID, YEAR, first);
+
+        // Gravada depois, com data no meio do ano já arquivado
+        List<ArchivedTransactionRow> late = List.of(
+                row(95, LocalDateTime.of(YEAR, 4, 10, 12, 0), TransactionType.EXPENSE, 1, 700, null));
+        when(repository.register(eq(USER_ID), eq(YEAR), anyString())).thenReturn(false);
+        when(repository.lockArchive(USER_ID, YEAR)).thenReturn(previousFile);
+        when(repository.lockRows(USER_ID, YEAR)).thenReturn(late);
+
+        assertThat(service.archiveYear(USER_ID, YEAR)).isEqualTo(1);
+
+        // Só a linha nova entra nos contadores; o segmento novo tem todas, em ordem de data
+        String fileName = completedFileName(1);
+        assertThat(fileName).isNotEqualTo(previousFile);
+        verify(repository).deleteRows(USER_ID, List.of(95L));
+        assertThat(monthlyTotals()).containsExactly(
+                new TransactionArchiveJdbcRepository.MonthlyTotal(LocalDate.of(YEAR, 4, 1), 1, null, 0, 700, 1));
+        archived(fileName);
+        assertThat(service.findRows(USER_ID, null, null))
+                .extracting(ArchivedTransactionRow::id).containsExactly(20L, 95L, 21L);
+        // O segmento anterior fica até a limpeza (leituras em andamento)
+        assertThat(Files.exists(directory.resolve(previousFile))).isTrue();
+    }
+
+    @Test
+    void rearchiveWithoutNewRowsDoesNothing() {
+        when(repository.register(eq(USER_ID), eq(YEAR), anyString())).thenReturn(false);
+        when(repository.lockArchive(USER_ID, YEAR)).thenReturn("user-3/" + YEAR + "-1.seg");
+        when(repository.lockRows(USER_ID, YEAR)).thenReturn(List.of());
+
+        assertThat(service.archiveYear(USER_ID, YEAR)).isZero();
+
+        verify(repository, never()).complete(any(), anyInt(), anyString(), anyInt(), anyLong());
+        verify(repository, never()).deleteRows(any(), any());
+    }
+
+    @Test
+    void pruneDeletesOnlyOldUnreferencedSegments() throws IOException {
+        Path current = segmentFile("user-3/2022-300.seg");
+        Path replaced = segmentFile("user-3/2022-100.seg");
+        Path interrupted = segmentFile("user-3/2022-200.seg.tmp");
+        Path recent = segmentFile("user-3/2022-400.seg");
+        Path unrelated = segmentFile("user-3/notes.txt");
+        FileTime old = FileTime.fromMillis(System.currentTimeMillis() - 2 * GRACE_MS);
+        for (Path file : List.of(current, replaced, interrupted, unrelated)) {
+            Files.setLastModifiedTime(file, old);
+        }
+        when(repository.findFileNames()).thenReturn(List.of("user-3/2022-300.seg"));
+
+        assertThat(service.pruneSegments()).isEqualTo(2);
+
+        assertThat(current).exists();
+        assertThat(recent).exists();
+        assertThat(unrelated).exists();
+        assertThat(replaced).doesNotExist();
+        assertThat(interrupted).doesNotExist();
+    }
+
+    @Test
+    void relativeDirectoryIsRejectedWhenArchivingIsEnabled() {
+        assertThatThrownBy(() -> new TransactionArchiveService(repository, new SimpleMeterRegistry(), true,
+                "data/archive", 16, GRACE_MS))
+                .isInstanceOf(IllegalStateException.class);
+
+        // Desligado: só leitura de segmentos que já existam (desenvolvimento local)
+        new TransactionArchiveService(repository, new SimpleMeterRegistry(), false, "data/archive", 16, GRACE_MS);
+    }
+
+    private String completedFileName(int addedRows) {
+        ArgumentCaptor<String> fileName = ArgumentCaptor.forClass(String.class);
+        verify(repository).complete(eq(USER_ID), eq(YEAR), fileName.capture(), eq(addedRows), anyLong());
+        return fileName.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TransactionArchiveJdbcRepository.MonthlyTotal> monthlyTotals() {
+        ArgumentCaptor<List<TransactionArchiveJdbcRepository.MonthlyTotal>> totals = ArgumentCaptor.forClass(List.class);
+        verify(repository).insertMonthlyTotals(eq(USER_ID), totals.capture());
+        return totals.getValue();
+    }
+
+    private void archived(String fileName) {
+        when(repository.findArchivedYears(USER_ID))
+                .thenReturn(List.of(new TransactionArchiveJdbcRepository.ArchivedYear(YEAR, fileName)));
+    }
+
+    private Path segmentFile(String name) throws IOException {
+        Path file = directory.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[]{0});
+        return file;
+    }
+
+    private static ArchivedTransactionRow row(long id, LocalDateTime dateTime, TransactionType type, Integer categoryId,
+                                              long amountMinor, String currency) {
+        return new ArchivedTransactionRow(id, dateTime, type, categoryId, "Transação " + id, amountMinor, currency,
+                null, null, null, id * 31);
+    }
+}
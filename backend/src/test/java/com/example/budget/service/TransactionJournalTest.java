@@ -0,0 +1,213 @@
+package com.example.budget.service;
+
+import com.example.budget.model.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenReturnsEveryEntryInOrder() throws IOException {
+        List<TransactionJournal.Entry> written = List.of(entry(1, null), entry(2, "EUR"), entry(3, "USD"));
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE)) {
+            assertThat(journal.open()).isEmpty();
+            for (TransactionJournal.Entry entry : written) {
+                journal.append(entry);
+            }
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE)) {
+            assertThat(entries(journal.open())).containsExactlyElementsOf(written);
+        }
+    }
+
+    @Test
+    void flushedEntriesAreNotReplayed() throws IOException {
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE)) {
+            journal.open();
+            journal.append(entry(1, null));
+            TransactionJournal.Journaled second = journal.append(entry(2, null));
+            journal.append(entry(3, null));
+            journal.markFlushed(second.segment(), second.endOffset());
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE)) {
+            assertThat(entries(journal.open())).containsExactly(entry(3, null));
+        }
+    }
+
+    @Test
+    void recordWithBadChecksumEndsRecoveryAndIsOverwritten() throws IOException {
+        TransactionJournal.Journaled second;
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE)) {
+            journal.open();
+            journal.append(entry(1, null));
+            second = journal.append(entry(2, null));
+            journal.append(entry(3, null));
+        }
+        // Um byte do payload do terceiro registro muda: escrita interrompida no meio
+        Path segment = singleSegment();
+        flipByte(segment, second.endOffset() + RECORD_HEADER_SIZE + 3);
+
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE)) {
+            assertThat(entries(journal.open())).containsExactly(entry(1, null), entry(2, null));
+            journal.append(entry(4, null));
+        }
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE)) {
+            assertThat(entries(journal.open())).containsExactly(entry(1, null), entry(2, null), entry(4, null));
+        }
+    }
+
+    @Test
+    void tornLengthEndsRecovery() throws IOException {
+        TransactionJournal.Journaled first;
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE)) {
+            journal.open();
+            first = journal.append(entry(1, null));
+            journal.append(entry(2, null));
+        }
+        // Tamanho que passa do fim do segmento
+        try (FileChannel channel = FileChannel.open(singleSegment(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, SEGMENT_SIZE), first.endOffset());
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE)) {
+            assertThat(entries(journal.open())).containsExactly(entry(1, null));
+        }
+    }
+
+    @Test
+    void readsVersionOneSegmentsAndRollsToANewOne() throws IOException {
+        TransactionJournal.Entry legacy = entry(7, null);
+        writeVersionOneSegment(directory.resolve(String.format("segment-%020d.log", 1)), legacy);
+
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE)) {
+            assertThat(entries(journal.open())).containsExactly(legacy);
+            TransactionJournal.Journaled appended = journal.append(entry(8, "EUR"));
+            // O segmento v1 não recebe registros com moeda
+            assertThat(appended.segment()).isEqualTo(2L);
+            assertThat(journal.segmentCount()).isEqualTo(2);
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE)) {
+            assertThat(entries(journal.open())).containsExactly(legacy, entry(8, "EUR"));
+        }
+    }
+
+    @Test
+    void markFlushedDeletesConsumedSegments() throws IOException {
+        // Segmentos pequenos: dois registros por segmento
+        int segmentSize = 200;
+        List<TransactionJournal.Journaled> appended = new ArrayList<>();
+        try (TransactionJournal journal = new TransactionJournal(directory, segmentSize)) {
+            journal.open();
+            for (int i = 1; i <= 5; i++) {
+                appended.add(journal.append(entry(i, null)));
+            }
+            long segmentsBefore = journal.segmentCount();
+            assertThat(segmentsBefore).isGreaterThanOrEqualTo(3);
+
+            // Tudo até o fim de um segmento fechado: ele e os anteriores saem do disco
+            TransactionJournal.Journaled lastOfSecond = appended.stream()
+                    .filter(j -> j.segment() == 2L)
+                    .reduce((a, b) -> b)
+                    .orElseThrow();
+            journal.markFlushed(lastOfSecond.segment(), lastOfSecond.endOffset());
+
+            assertThat(segmentFiles()).allMatch(file -> !file.getFileName().toString().equals(String.format("segment-%020d.log", 1))
+                    && !file.getFileName().toString().equals(String.format("segment-%020d.log", 2)));
+            assertThat(journal.segmentCount()).isEqualTo((int) segmentsBefore - 2);
+
+            // O segmento ativo fica, mesmo todo gravado
+            TransactionJournal.Journaled last = appended.get(appended.size() - 1);
+            journal.markFlushed(last.segment(), last.endOffset());
+            assertThat(segmentFiles()).hasSize(1);
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(directory, segmentSize)) {
+            assertThat(journal.open()).isEmpty();
+        }
+    }
+
+    private static TransactionJournal.Entry entry(int n, String currency) {
+        return new TransactionJournal.Entry(new UUID(0, n), 42L, LocalDateTime.of(2025, 3, n, 10, 30, 0, 123_000_000),
+                n % 2 == 0 ? TransactionType.INCOME : TransactionType.EXPENSE, "Food", "entry " + n, 1_000L * n, currency);
+    }
+
+    private static List<TransactionJournal.Entry> entries(List<TransactionJournal.Journaled> journaled) {
+        return journaled.stream().map(TransactionJournal.Journaled::entry).toList();
+    }
+
+    private Path singleSegment() throws IOException {
+        List<Path> files = segmentFiles();
+        assertThat(files).hasSize(1);
+        return files.get(0);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing.filter(file -> file.getFileName().toString().startsWith("segment-")).sorted().toList();
+        }
+    }
+
+    private static void flipByte(Path file, int position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, position);
+            one.put(0, (byte) (one.get(0) ^ 0xFF));
+            one.rewind();
+            channel.write(one, position);
+        }
+    }
+
+    // Formato da versão 1: mesmo payload, sem a moeda no fim
+    private static void writeVersionOneSegment(Path file, TransactionJournal.Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(entry.clientId().getMostSignificantBits());
+            out.writeLong(entry.clientId().getLeastSignificantBits());
+            out.writeLong(entry.userId());
+            out.writeLong(entry.dateTime().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(entry.dateTime().getNano());
+            out.writeUTF(entry.type().name());
+            out.writeBoolean(true);
+            out.writeUTF(entry.category());
+            out.writeBoolean(true);
+            out.writeUTF(entry.description());
+            out.writeLong(entry.amountMinor());
+        }
+        byte[] payload = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer segment = ByteBuffer.allocate(SEGMENT_SIZE);
+        segment.putInt(0x424A524E).putInt(1).putLong(HEADER_SIZE);
+        segment.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        Files.write(file, segment.array());
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.budget.service;
+
+import com.example.budget.model.TransactionType;
+import com.example.budget.repository.ArchivedTransactionRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionSegmentTest {
+
+    private static final long USER_ID = 7L;
+    private static final int YEAR = 2023;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeThenReadReturnsEveryRow() throws IOException {
+        List<ArchivedTransactionRow> rows = rows();
+        Path file = directory.resolve("user-7/2023-1.seg");
+
+        long size = TransactionSegment.write(file, USER_ID, YEAR, rows);
+        TransactionSegment segment = TransactionSegment.open(file);
+
+        assertThat(size).isEqualTo(Files.size(file));
+        assertThat(Files.exists(file.resolveSibling("2023-1.seg.tmp"))).isFalse();
+        assertThat(segment.userId()).isEqualTo(USER_ID);
+        assertThat(segment.year()).isEqualTo(YEAR);
+        assertThat(segment.rowCount()).isEqualTo(rows.size());
+        assertThat(segment.read(null, null)).containsExactlyElementsOf(rows);
+    }
+
+    @Test
+    void periodReadOnlyTouchesOverlappingMonths() throws IOException {
+        List<ArchivedTransactionRow> rows = rows();
+        Path file = directory.resolve("segment.seg");
+        TransactionSegment.write(file, USER_ID, YEAR, rows);
+        TransactionSegment segment = TransactionSegment.open(file);
+
+        LocalDateTime start = LocalDateTime.of(YEAR, 3, 15, 0, 0);
+        LocalDateTime end = LocalDateTime.of(YEAR, 5, 31, 23, 59, 59);
+
+        assertThat(segment.read(start, end)).containsExactlyElementsOf(rows.stream()
+                .filter(row -> !row.dateTime().isBefore(start) && !row.dateTime().isAfter(end))
+                .toList());
+        // Blocos de março e maio (as linhas só têm meses ímpares)
+        assertThat(segment.blocksIn(start, end)).isEqualTo(2);
+        assertThat(segment.blocksIn(LocalDateTime.of(YEAR + 1, 1, 1, 0, 0), null)).isZero();
+    }
+
+    @Test
+    void containsFindsArchivedIds() throws IOException {
+        List<ArchivedTransactionRow> rows = rows();
+        Path file = directory.resolve("segment.seg");
+        TransactionSegment.write(file, USER_ID, YEAR, rows);
+        TransactionSegment segment = TransactionSegment.open(file);
+
+        for (ArchivedTransactionRow row : rows) {
+            assertThat(segment.contains(row.id())).as("id %d", row.id()).isTrue();
+        }
+        assertThat(segment.contains(999_999L)).isFalse();
+    }
+
+    @Test
+    void emptySegmentHasNoRows() throws IOException {
+        Path file = directory.resolve("empty.seg");
+        TransactionSegment.write(file, USER_ID, YEAR, List.of());
+
+        TransactionSegment segment = TransactionSegment.open(file);
+
+        assertThat(segment.rowCount()).isZero();
+        assertThat(segment.read(null, null)).isEmpty();
+        assertThat(segment.contains(1L)).isFalse();
+    }
+
+    @Test
+    void rowsFromAnotherYearAreRejected() {
+        List<ArchivedTransactionRow> rows = List.of(row(1, LocalDateTime.of(YEAR + 1, 1, 1, 0, 0), null, null));
+
+        assertThatThrownBy(() -> TransactionSegment.write(directory.resolve("bad.seg"), USER_ID, YEAR, rows))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void corruptedBlockFailsTheRead() throws IOException {
+        Path file = directory.resolve("corrupt.seg");
+        TransactionSegment.write(file, USER_ID, YEAR, rows());
+        // Último byte do último bloco
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = channel.size() - 1;
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, position);
+            one.put(0, (byte) (one.get(0) ^ 0x5A));
+            one.rewind();
+            channel.write(one, position);
+        }
+
+        TransactionSegment segment = TransactionSegment.open(file);
+
+        assertThatThrownBy(() -> segment.read(null, null)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void fileWithoutHeaderIsRejected() throws IOException {
+        Path file = directory.resolve("garbage.seg");
+        Files.write(file, new byte[]{1, 2, 3});
+
+        assertThatThrownBy(() -> TransactionSegment.open(file)).isInstanceOf(IOException.class);
+    }
+
+    // Linhas de vários meses, ordenadas por data e id, com todos os campos opcionais variando;
+    // ids fora da ordem das datas (transações lançadas depois com data retroativa)
+    private static List<ArchivedTransactionRow> rows() {
+        List<ArchivedTransactionRow> rows = new ArrayList<>();
+        long[] ids = {40, 12, 13, 90, 5, 61, 62, 7, 300, 8};
+        int i = 0;
+        for (int month = 1; month <= 12; month += 2) {
+            for (int d = 0; d < 2 && i < ids.length; d++, i++) {
+                LocalDateTime dateTime = LocalDateTime.of(YEAR, month, 3 + d * 20, 9 + d, 15, 30, d * 500_000);
+                rows.add(row(ids[i], dateTime, i % 3 == 0 ? "EUR" : null,
+                        i % 2 == 0 ? new UUID(i, i * 31L) : null));
+            }
+        }
+        rows.sort((a, b) -> a.dateTime().equals(b.dateTime())
+                ? Long.compare(a.id(), b.id())
+                : a.dateTime().compareTo(b.dateTime()));
+        return rows;
+    }
+
+    private static ArchivedTransactionRow row(long id, LocalDateTime dateTime, String currency, UUID clientId) {
+        return new ArchivedTransactionRow(id, dateTime, id % 2 == 0 ? TransactionType.INCOME : TransactionType.EXPENSE,
+                id % 5 == 0 ? null : (int) (id % 4) + 1, id % 7 == 0 ? null : "Compra " + id + " ção",
+                id * 1_001 - 50_000, currency, id % 3 == 0 ? id * 10 : null, id % 4 == 0 ? (int) id % 12 + 1 : null,
+                clientId, id * 0x9E3779B97F4A7C15L);
+    }
+}
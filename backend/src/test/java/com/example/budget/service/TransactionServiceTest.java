@@ -0,0 +1,100 @@
+package com.example.budget.service;
+
+import com.example.budget.event.LedgerChangeEvent;
+import com.example.budget.model.Transaction;
+import com.example.budget.model.TransactionType;
+import com.example.budget.model.User;
+import com.example.budget.repository.TransactionJdbcRepository;
+import com.example.budget.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionServiceTest {
+
+    private static final long ARCHIVED_ID = 41L;
+
+    @Mock
+    private TransactionRepository repository;
+    @Mock
+    private TransactionJdbcRepository jdbcRepository;
+    @Mock
+    private InstallmentPlanService installmentPlanService;
+    @Mock
+    private CategoryDictionary categoryDictionary;
+    @Mock
+    private TransactionPartitionManager partitionManager;
+    @Mock
+    private TransactionCategorizer categorizer;
+    @Mock
+    private FxRateService fxRateService;
+    @Mock
+    private TransactionArchiveService archiveService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private TransactionService service;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("archive@example.com", "secret", "Archive");
+        user.setId(5L);
+    }
+
+    @Test
+    void updatingAnArchivedTransactionIsRejected() {
+        Transaction update = new Transaction();
+        update.setId(ARCHIVED_ID);
+        update.setType(TransactionType.EXPENSE);
+        update.setAmount(new BigDecimal("12.00"));
+        update.setDescription("Editada");
+        update.setDateTime(LocalDateTime.of(2021, 5, 4, 10, 0));
+        when(repository.findById(ARCHIVED_ID)).thenReturn(Optional.empty());
+        when(archiveService.isArchived(user.getId(), ARCHIVED_ID)).thenReturn(true);
+
+        assertThatThrownBy(() -> service.save(update, user)).isInstanceOf(IllegalStateException.class);
+
+        // Sem a checagem o merge inseriria uma cópia da linha arquivada
+        verify(repository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void deletingAnArchivedTransactionIsRejected() {
+        when(jdbcRepository.deleteByIds(user.getId(), List.of(ARCHIVED_ID))).thenReturn(List.of());
+        when(archiveService.isArchived(user.getId(), ARCHIVED_ID)).thenReturn(true);
+
+        assertThatThrownBy(() -> service.delete(ARCHIVED_ID, user)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void deletingAMissingTransactionIsStillNotFound() {
+        when(jdbcRepository.deleteByIds(user.getId(), List.of(ARCHIVED_ID))).thenReturn(List.of());
+        when(archiveService.isArchived(user.getId(), ARCHIVED_ID)).thenReturn(false);
+
+        assertThatThrownBy(() -> service.delete(ARCHIVED_ID, user))
+                .isInstanceOf(RuntimeException.class)
+                .isNotInstanceOf(IllegalStateException.class)
+                .hasMessage("Transaction not found");
+        verify(eventPublisher).publishEvent(any(LedgerChangeEvent.class));
+    }
+}
@@ -0,0 +1,16 @@
+#!/bin/bash
+# Executado pelo entrypoint do postgres na primeira inicialização do volume do primário:
+# cria o usuário de replicação e libera conexões de streaming vindas da rede do compose.
+set -e
+
+psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$POSTGRES_DB" <<-EOSQL
+    DO \$\$
+    BEGIN
+        IF NOT EXISTS (SELECT 1 FROM pg_roles WHERE rolname = 'replicator') THEN
+            CREATE ROLE replicator WITH REPLICATION LOGIN PASSWORD '${REPLICATION_PASSWORD:-replicator}';
+        END IF;
+    END
+    \$\$;
+EOSQL
+
+echo "host replication replicator all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,19 @@
+#!/bin/bash
+# Inicializa a réplica com pg_basebackup (-R grava standby.signal e primary_conninfo)
+# na primeira execução e depois sobe o postgres em modo standby.
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    until pg_isready -h db -p 5432 -U "${POSTGRES_USER:-postgres}"; do
+        sleep 2
+    done
+    until PGPASSWORD="${REPLICATION_PASSWORD:-replicator}" \
+          pg_basebackup -h db -p 5432 -U replicator -D "$PGDATA" -Fp -Xs -R; do
+        echo "pg_basebackup falhou, tentando novamente..."
+        rm -rf "${PGDATA:?}"/*
+        sleep 3
+    done
+    chmod 0700 "$PGDATA"
+fi
+
+exec postgres
@@ -0,0 +1,70 @@
+package com.example.budget.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latências de um cenário em nanossegundos, sem agregação até o relatório.
+ *
+ * Cada worker grava no seu próprio recorder e o driver junta todos no fim com
+ * {@link #merge}, então não há sincronização no caminho da medição.
+ */
+class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private int errors;
+
+    void record(long nanos, boolean ok) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = nanos;
+        if (!ok) {
+            errors++;
+        }
+    }
+
+    void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.count; i++) {
+            record(other.samples[i], true);
+        }
+        errors += other.errors;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int errors() {
+        return errors;
+    }
+
+    /**
+     * Linha do relatório: total, erros, vazão e percentis em milissegundos
+     */
+    String report(String name, double seconds) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return String.format("%-16s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f",
+                name, count, errors, count / seconds,
+                millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.95)),
+                millis(percentile(sorted, 0.99)), millis(count > 0 ? sorted[count - 1] : 0));
+    }
+
+    static String header() {
+        return String.format("%-16s %8s %7s %9s %9s %9s %9s %9s",
+                "cenário", "total", "erros", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,352 @@
+package com.example.budget.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Gera usuários com anos de transações e planos de parcelamento direto no PostgreSQL.
+ *
+ * Tudo sai de um Random com semente fixa, então a mesma semente produz os mesmos dados.
+ * Transações e parcelas entram por COPY, os planos e categorias por INSERT ... RETURNING,
+ * e no fim as tabelas derivadas (daily_balance, budget_usage) são recalculadas para os
+ * usuários gerados, como fazem as migrations. Com a tabela particionada, as partições
+ * mensais necessárias são criadas antes da carga.
+ */
+public class LedgerDataGenerator {
+
+    static final String PASSWORD = "loadtest-password";
+    // BCrypt (custo 10) de PASSWORD, o mesmo formato gravado pelo AuthService
+    private static final String PASSWORD_HASH = "$2a$10$M8dTpqjbJN.A/sdel9okAegI5GPdv.Hhknc8drFN/PPA0OUO/B/.K";
+    private static final String EMAIL_PATTERN = "loadtest-%%@example.com";
+
+    private static final int USERS_PER_COMMIT = 50;
+
+    /**
+     * Categoria de despesa: peso no sorteio, mediana do valor em centavos e descrições típicas
+     */
+    private record ExpenseCategory(String name, int weight, long medianMinor, String... descriptions) {
+    }
+
+    private static final List<ExpenseCategory> EXPENSES = List.of(
+            new ExpenseCategory("Food", 30, 4_500, "Supermarket", "Bakery", "Restaurant", "Lunch", "Groceries", "Pizza"),
+            new ExpenseCategory("Transport", 15, 2_500, "Uber", "Bus ticket", "Fuel", "Parking", "Subway"),
+            new ExpenseCategory("Leisure", 10, 6_000, "Cinema", "Concert", "Streaming", "Bar", "Games"),
+            new ExpenseCategory("Health", 8, 9_000, "Pharmacy", "Doctor", "Dentist", "Gym"),
+            new ExpenseCategory("Shopping", 12, 12_000, "Clothes", "Shoes", "Electronics", "Books", "Gift"),
+            new ExpenseCategory("Education", 5, 15_000, "Course", "Books", "School supplies"),
+            new ExpenseCategory("Travel", 4, 40_000, "Hotel", "Flight", "Car rental"),
+            new ExpenseCategory("Home", 6, 8_000, "Furniture", "Cleaning", "Repairs", "Hardware store"));
+
+    private static final String SALARY = "Salary";
+    private static final String RENT = "Rent";
+    private static final String UTILITIES = "Utilities";
+    private static final String[] PLAN_ITEMS = {"Laptop", "Phone", "Sofa", "Refrigerator", "TV", "Bike", "Course", "Washing machine"};
+
+    private final LoadTestMain.Options options;
+    private final Random random;
+    private final int users;
+    private final int years;
+    private final int transactionsPerMonth;
+    private final int plansPerUser;
+
+    public LedgerDataGenerator(LoadTestMain.Options options) {
+        this.options = options;
+        this.random = new Random(options.seed());
+        this.users = options.users();
+        this.years = options.getInt("years", 3);
+        this.transactionsPerMonth = options.getInt("transactions-per-month", 60);
+        this.plansPerUser = options.getInt("plans-per-user", 4);
+    }
+
+    /**
+     * E-mail do i-ésimo usuário gerado com a semente informada
+     */
+    static String email(long seed, int index) {
+        return "loadtest-" + seed + "-" + index + "@example.com";
+    }
+
+    public void generate() throws SQLException, IOException {
+        long started = System.nanoTime();
+        YearMonth last = YearMonth.now();
+        YearMonth first = last.minusYears(years).plusMonths(1);
+
+        try (Connection connection = DriverManager.getConnection(options.dbUrl(), options.dbUser(), options.dbPassword())) {
+            if (options.getBoolean("reset")) {
+                reset(connection);
+            }
+            // Parcelas podem ir até 24 meses depois do mês atual
+            ensurePartitions(connection, first, last.plusMonths(24));
+
+            connection.setAutoCommit(false);
+            CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+            List<Long> userIds = new ArrayList<>(users);
+            long rows = 0;
+            for (int i = 0; i < users; i++) {
+                long userId = insertUser(connection, i);
+                userIds.add(userId);
+                Map<String, Integer> categories = insertCategories(connection, userId);
+                rows += copyTransactions(copy, userId, categories, first, last);
+                rows += insertPlans(connection, copy, userId, categories, first, last);
+                if ((i + 1) % USERS_PER_COMMIT == 0) {
+                    connection.commit();
+                    System.out.printf("%d/%d usuários, %d transações%n", i + 1, users, rows);
+                }
+            }
+            connection.commit();
+
+            rebuildDerivedTables(connection, userIds);
+            connection.commit();
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE transactions");
+            }
+            System.out.printf("Gerados %d usuários e %d transações (%s a %s, semente %d) em %d ms%n",
+                    users, rows, first, last, options.seed(), (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private void reset(Connection connection) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (PreparedStatement select = connection.prepareStatement("SELECT id FROM users WHERE email LIKE ?")) {
+            select.setString(1, EMAIL_PATTERN);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        Array idArray = connection.createArrayOf("bigint", ids.toArray());
+        // Ordem respeita as chaves estrangeiras
+        for (String table : List.of("transactions", "installment_plan", "recurring_rule", "daily_balance",
+                "budget_usage", "budget_alert", "budget", "idempotency_key", "categories")) {
+            if (tableExists(connection, table)) {
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM " + table + " WHERE user_id = ANY(?)")) {
+                    delete.setArray(1, idArray);
+                    delete.executeUpdate();
+                }
+            }
+        }
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM users WHERE id = ANY(?)")) {
+            delete.setArray(1, idArray);
+            delete.executeUpdate();
+        }
+        System.out.printf("Removidos %d usuários de carga anteriores%n", ids.size());
+    }
+
+    private void ensurePartitions(Connection connection, YearMonth from, YearMonth to) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                     "WHERE c.relname = 'transactions')")) {
+            rs.next();
+            if (!rs.getBoolean(1)) {
+                return;
+            }
+        }
+        // Mesmo nome e limites do TransactionPartitionRepository do backend
+        try (Statement statement = connection.createStatement()) {
+            for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+                statement.execute(String.format(
+                        "CREATE TABLE IF NOT EXISTS transactions_p%04d%02d PARTITION OF transactions " +
+                        "FOR VALUES FROM ('%s-01 00:00:00') TO ('%s-01 00:00:00')",
+                        month.getYear(), month.getMonthValue(), month, month.plusMonths(1)));
+            }
+        }
+    }
+
+    private long insertUser(Connection connection, int index) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO users (email, name, password, created_at) VALUES (?, ?, ?, now()) RETURNING id")) {
+            insert.setString(1, email(options.seed(), index));
+            insert.setString(2, "Load Test " + index);
+            insert.setString(3, PASSWORD_HASH);
+            try (ResultSet rs = insert.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private Map<String, Integer> insertCategories(Connection connection, long userId) throws SQLException {
+        List<String> names = new ArrayList<>(List.of(SALARY, RENT, UTILITIES));
+        EXPENSES.forEach(category -> names.add(category.name()));
+        Map<String, Integer> ids = new HashMap<>();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO categories (user_id, name) SELECT ?, unnest(?::text[]) RETURNING id, name")) {
+            insert.setLong(1, userId);
+            insert.setArray(2, connection.createArrayOf("text", names.toArray()));
+            try (ResultSet rs = insert.executeQuery()) {
+                while (rs.next()) {
+                    ids.put(rs.getString("name"), rs.getInt("id"));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private long copyTransactions(CopyManager copy, long userId, Map<String, Integer> categories,
+                                  YearMonth first, YearMonth last) throws SQLException, IOException {
+        // Renda e custos fixos estáveis por usuário, com variação mensal pequena
+        long salary = 300_000 + random.nextInt(900_000);
+        long rent = salary / 4 + random.nextInt(20_000);
+        int totalWeight = EXPENSES.stream().mapToInt(ExpenseCategory::weight).sum();
+
+        StringBuilder csv = new StringBuilder();
+        long rows = 0;
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            appendRow(csv, userId, month.atDay(5).atTime(9, 0), "INCOME", categories.get(SALARY),
+                    "Monthly salary", salary, null, null);
+            appendRow(csv, userId, month.atDay(10).atTime(10, 0), "EXPENSE", categories.get(RENT),
+                    "Apartment rent", rent, null, null);
+            appendRow(csv, userId, month.atDay(15).atTime(11, 0), "EXPENSE", categories.get(UTILITIES),
+                    "Electricity and water", 15_000 + random.nextInt(10_000), null, null);
+            rows += 3;
+            for (int i = 3; i < transactionsPerMonth; i++) {
+                ExpenseCategory category = pick(totalWeight);
+                LocalDateTime at = month.atDay(1 + random.nextInt(month.lengthOfMonth()))
+                        .atTime(7 + random.nextInt(16), random.nextInt(60));
+                String description = category.descriptions()[random.nextInt(category.descriptions().length)];
+                appendRow(csv, userId, at, "EXPENSE", categories.get(category.name()), description,
+                        logNormal(category.medianMinor()), null, null);
+                rows++;
+            }
+        }
+        copy(copy, csv);
+        return rows;
+    }
+
+    private long insertPlans(Connection connection, CopyManager copy, long userId, Map<String, Integer> categories,
+                             YearMonth first, YearMonth last) throws SQLException, IOException {
+        StringBuilder csv = new StringBuilder();
+        long rows = 0;
+        int months = (int) first.until(last, ChronoUnit.MONTHS) + 1;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO installment_plan (user_id, category, description, first_due_at, installment_value, " +
+                "total_installments, total_amount, materialized_through, schedule_only) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, 0, FALSE) RETURNING id")) {
+            for (int p = 0; p < plansPerUser; p++) {
+                String item = PLAN_ITEMS[random.nextInt(PLAN_ITEMS.length)];
+                ExpenseCategory category = EXPENSES.get(random.nextInt(EXPENSES.size()));
+                int installments = 3 + random.nextInt(22);
+                long valueMinor = 5_000 + random.nextInt(75_000);
+                LocalDateTime firstDue = first.plusMonths(random.nextInt(months)).atDay(1 + random.nextInt(28)).atTime(12, 0);
+
+                insert.setLong(1, userId);
+                insert.setString(2, category.name());
+                insert.setString(3, item);
+                insert.setTimestamp(4, Timestamp.valueOf(firstDue));
+                insert.setBigDecimal(5, BigDecimal.valueOf(valueMinor, 2));
+                insert.setInt(6, installments);
+                insert.setBigDecimal(7, BigDecimal.valueOf(valueMinor * installments, 2));
+                long planId;
+                try (ResultSet rs = insert.executeQuery()) {
+                    rs.next();
+                    planId = rs.getLong(1);
+                }
+                for (int n = 1; n <= installments; n++) {
+                    // Mesmo formato de descrição do InstallmentPlanService
+                    appendRow(csv, userId, firstDue.plusMonths(n - 1L), "EXPENSE", categories.get(category.name()),
+                            String.format("%s (Installment %d/%d)", item, n, installments), valueMinor, planId, n);
+                    rows++;
+                }
+            }
+        }
+        copy(copy, csv);
+        return rows;
+    }
+
+    private void rebuildDerivedTables(Connection connection, List<Long> userIds) throws SQLException {
+        Array ids = connection.createArrayOf("bigint", userIds.toArray());
+        try (PreparedStatement daily = connection.prepareStatement(
+                "INSERT INTO daily_balance (user_id, balance_date, net_amount) " +
+                "SELECT user_id, CAST(date_time AS DATE), " +
+                "       SUM(CASE WHEN type = 'INCOME' THEN amount_minor ELSE -amount_minor END) / 100.0 " +
+                "FROM transactions WHERE user_id = ANY(?) " +
+                "GROUP BY user_id, CAST(date_time AS DATE) " +
+                "ON CONFLICT (user_id, balance_date) DO UPDATE SET net_amount = EXCLUDED.net_amount")) {
+            daily.setArray(1, ids);
+            daily.executeUpdate();
+        }
+        try (PreparedStatement usage = connection.prepareStatement(
+                "INSERT INTO budget_usage (user_id, category, period_month, spent) " +
+                "SELECT t.user_id, c.name, CAST(to_char(t.date_time, 'YYYYMM') AS INTEGER), SUM(t.amount_minor) / 100.0 " +
+                "FROM transactions t JOIN categories c ON c.id = t.category_id " +
+                "WHERE t.type = 'EXPENSE' AND t.user_id = ANY(?) " +
+                "GROUP BY t.user_id, c.name, CAST(to_char(t.date_time, 'YYYYMM') AS INTEGER) " +
+                "ON CONFLICT (user_id, category, period_month) DO UPDATE SET spent = EXCLUDED.spent")) {
+            usage.setArray(1, ids);
+            usage.executeUpdate();
+        }
+    }
+
+    private ExpenseCategory pick(int totalWeight) {
+        int roll = random.nextInt(totalWeight);
+        for (ExpenseCategory category : EXPENSES) {
+            roll -= category.weight();
+            if (roll < 0) {
+                return category;
+            }
+        }
+        return EXPENSES.get(EXPENSES.size() - 1);
+    }
+
+    // Valores de gastos são assimétricos: muitos pequenos, poucos grandes
+    private long logNormal(long medianMinor) {
+        return Math.max(100, Math.round(medianMinor * Math.exp(0.6 * random.nextGaussian())));
+    }
+
+    private static void appendRow(StringBuilder csv, long userId, LocalDateTime at, String type, Integer categoryId,
+                                  String description, long amountMinor, Long planId, Integer installmentNumber) {
+        csv.append(userId).append(',')
+                .append(Timestamp.valueOf(at)).append(',')
+                .append(type).append(',')
+                .append(categoryId).append(',')
+                .append('"').append(description.replace("\"", "\"\"")).append('"').append(',')
+                .append(amountMinor).append(',')
+                .append(planId != null ? planId.toString() : "").append(',')
+                .append(installmentNumber != null ? installmentNumber.toString() : "")
+                .append('\n');
+    }
+
+    private static void copy(CopyManager copy, StringBuilder csv) throws SQLException, IOException {
+        if (csv.length() == 0) {
+            return;
+        }
+        copy.copyIn("COPY transactions (user_id, date_time, type, category_id, description, amount_minor, " +
+                "installment_plan_id, installment_number) FROM STDIN WITH (FORMAT csv)", new StringReader(csv.toString()));
+    }
+
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT to_regclass(?) IS NOT NULL")) {
+            statement.setString(1, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getBoolean(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.budget.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Dispara uma mistura de cenários contra o backend por um tempo fixo e imprime os percentis.
+ *
+ * Cada worker entra como um usuário gerado pelo {@link LedgerDataGenerator} (mesma semente)
+ * e sorteia o próximo cenário pelos pesos de --mix. As medições do aquecimento (--warmup)
+ * são descartadas. Sem dependências além do JDK: HttpClient e regex para ler o token.
+ */
+public class LoadDriver {
+
+    enum Scenario {
+        LOGIN, LIST, SUMMARY, SEARCH, PLAN, PLANS
+    }
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final String[] SEARCH_TERMS = {
+            "Supermarket", "Uber", "Pharmacy", "Restaurant", "Installment", "Fuel", "Books", "Hotel", "rent"};
+
+    private final LoadTestMain.Options options;
+    private final String baseUrl;
+    private final String authUrl;
+    private final int threads;
+    private final Duration duration;
+    private final Duration warmup;
+    private final Map<Scenario, Integer> mix;
+    private final HttpClient client;
+
+    public LoadDriver(LoadTestMain.Options options) {
+        this.options = options;
+        this.baseUrl = options.get("base-url", "http://localhost:8080");
+        // O módulo reativo só tem as leituras: o login pode ir para outro servidor
+        this.authUrl = options.get("auth-url", baseUrl);
+        this.threads = options.getInt("threads", 16);
+        this.duration = Duration.ofSeconds(options.getInt("duration", 60));
+        this.warmup = Duration.ofSeconds(options.getInt("warmup", 10));
+        this.mix = parseMix(options.get("mix", "login:5,list:20,summary:35,search:30,plan:10"));
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public void run() throws Exception {
+        System.out.printf("%d threads, %ds (+%ds de aquecimento) contra %s, mistura %s%n",
+                threads, duration.toSeconds(), warmup.toSeconds(), baseUrl, mix);
+        System.out.println(LatencyRecorder.header());
+        print(measure(), "");
+    }
+
+    /**
+     * Roda a carga e devolve as latências medidas por cenário
+     */
+    Map<Scenario, LatencyRecorder> measure() throws Exception {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Map<Scenario, LatencyRecorder>>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(options.seed() * 31 + t);
+            futures.add(executor.submit(() -> work(random, measureFrom, stopAt)));
+        }
+
+        Map<Scenario, LatencyRecorder> totals = new EnumMap<>(Scenario.class);
+        for (Future<Map<Scenario, LatencyRecorder>> future : futures) {
+            future.get().forEach((scenario, recorder) ->
+                    totals.computeIfAbsent(scenario, s -> new LatencyRecorder()).merge(recorder));
+        }
+        executor.shutdown();
+        return totals;
+    }
+
+    /**
+     * Uma linha por cenário e a linha total; prefix identifica a execução (ex: "mvc ")
+     */
+    void print(Map<Scenario, LatencyRecorder> totals, String prefix) {
+        double seconds = duration.toMillis() / 1000.0;
+        LatencyRecorder all = new LatencyRecorder();
+        for (Map.Entry<Scenario, LatencyRecorder> entry : totals.entrySet()) {
+            System.out.println(entry.getValue().report(prefix + entry.getKey().name().toLowerCase(), seconds));
+            all.merge(entry.getValue());
+        }
+        System.out.println(all.report(prefix + "total", seconds));
+    }
+
+    private Map<Scenario, LatencyRecorder> work(Random random, long measureFrom, long stopAt) throws Exception {
+        Map<Scenario, LatencyRecorder> recorders = new EnumMap<>(Scenario.class);
+        String token = login(LedgerDataGenerator.email(options.seed(), random.nextInt(options.users())));
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        while (System.nanoTime() < stopAt) {
+            Scenario scenario = pick(random, totalWeight);
+            long started = System.nanoTime();
+            boolean ok;
+            try {
+                if (scenario == Scenario.LOGIN) {
+                    // Troca de usuário: também espalha a carga pelos dados gerados
+                    token = login(LedgerDataGenerator.email(options.seed(), random.nextInt(options.users())));
+                    ok = true;
+                } else {
+                    ok = isSuccess(client.send(request(scenario, random, token), HttpResponse.BodyHandlers.discarding()));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Falha de login mantém o token anterior
+                ok = false;
+            }
+            long elapsed = System.nanoTime() - started;
+            if (started >= measureFrom) {
+                recorders.computeIfAbsent(scenario, s -> new LatencyRecorder()).record(elapsed, ok);
+            }
+        }
+        return recorders;
+    }
+
+    private HttpRequest request(Scenario scenario, Random random, String token) {
+        LocalDate today = LocalDate.now();
+        HttpRequest.Builder builder = switch (scenario) {
+            case LIST -> get("/api/transactions");
+            case SUMMARY -> {
+                LocalDate month = today.minusMonths(random.nextInt(12));
+                yield get("/api/summary/month?year=" + month.getYear() + "&month=" + month.getMonthValue());
+            }
+            case SEARCH -> {
+                LocalDate end = today.minusDays(random.nextInt(365));
+                LocalDate start = end.minusDays(30 + random.nextInt(150));
+                String text = SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)];
+                yield get("/api/transactions/search?text=" + URLEncoder.encode(text, StandardCharsets.UTF_8)
+                        + "&startDate=" + start + "&endDate=" + end);
+            }
+            case PLAN -> {
+                String body = String.format(
+                        "{\"totalInstallments\":%d,\"installmentValue\":%d.%02d,\"category\":\"Shopping\"," +
+                        "\"description\":\"Load test plan\",\"startDate\":\"%s\"}",
+                        2 + random.nextInt(11), 50 + random.nextInt(500), random.nextInt(100), today);
+                yield HttpRequest.newBuilder(URI.create(baseUrl + "/api/installment-plans"))
+                        .header("Content-Type", "application/json")
+                        .header("Idempotency-Key", UUID.randomUUID().toString())
+                        .POST(HttpRequest.BodyPublishers.ofString(body));
+            }
+            case PLANS -> get("/api/installment-plans");
+            case LOGIN -> throw new IllegalArgumentException("Login não é uma requisição autenticada");
+        };
+        return builder.header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+    }
+
+    private String login(String email) throws IOException, InterruptedException {
+        String body = String.format("{\"email\":\"%s\",\"password\":\"%s\"}",
+                email, options.get("password", LedgerDataGenerator.PASSWORD));
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create(authUrl + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .timeout(Duration.ofSeconds(30))
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = TOKEN.matcher(response.body());
+        if (!isSuccess(response) || !matcher.find()) {
+            throw new IllegalStateException("Login de " + email + " falhou com status " + response.statusCode()
+                    + " (os dados foram gerados com a mesma --seed e --users?)");
+        }
+        return matcher.group(1);
+    }
+
+    private Scenario pick(Random random, int totalWeight) {
+        int roll = random.nextInt(totalWeight);
+        for (Map.Entry<Scenario, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Mistura de cenários vazia");
+    }
+
+    private static boolean isSuccess(HttpResponse<?> response) {
+        return response.statusCode() >= 200 && response.statusCode() < 300;
+    }
+
+    private static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.split(":");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Scenario.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("--mix precisa de ao menos um cenário com peso positivo");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.budget.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ponto de entrada do módulo de carga.
+ *
+ * <pre>
+ *   seed  --users=100 --years=3 [--reset]   gera os dados direto no PostgreSQL
+ *   run   --threads=16 --duration=60        dispara os cenários contra o backend
+ *   compare --concurrency=16,64,256         mesma carga de leitura no MVC e no módulo reativo
+ * </pre>
+ *
+ * Opções comuns: --seed (padrão 42), --db-url, --db-user, --db-password, --base-url.
+ * A mesma semente e a mesma quantidade de usuários precisam ser usadas no seed e no run:
+ * o driver deriva delas os e-mails dos usuários gerados.
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Uso: LoadTestMain seed|run|compare [--opção=valor ...]");
+            System.exit(2);
+        }
+        Options options = Options.parse(args);
+        switch (args[0]) {
+            case "seed" -> new LedgerDataGenerator(options).generate();
+            case "run" -> new LoadDriver(options).run();
+            case "compare" -> new StackComparison(options).run();
+            default -> {
+                System.err.println("Comando desconhecido: " + args[0]);
+                System.exit(2);
+            }
+        }
+    }
+
+    /**
+     * Opções --chave=valor da linha de comando (--flag sozinho vale "true")
+     */
+    record Options(Map<String, String> values) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (int i = 1; i < args.length; i++) {
+                String arg = args[i];
+                if (!arg.startsWith("--")) {
+                    throw new IllegalArgumentException("Opção inválida: " + arg);
+                }
+                int eq = arg.indexOf('=');
+                if (eq < 0) {
+                    values.put(arg.substring(2), "true");
+                } else {
+                    values.put(arg.substring(2, eq), arg.substring(eq + 1));
+                }
+            }
+            return new Options(values);
+        }
+
+        /**
+         * Cópia com uma opção trocada
+         */
+        Options with(String key, String value) {
+            Map<String, String> copy = new HashMap<>(values);
+            copy.put(key, value);
+            return new Options(copy);
+        }
+
+        String get(String key, String defaultValue) {
+            return values.getOrDefault(key, defaultValue);
+        }
+
+        int getInt(String key, int defaultValue) {
+            return values.containsKey(key) ? Integer.parseInt(values.get(key)) : defaultValue;
+        }
+
+        long getLong(String key, long defaultValue) {
+            return values.containsKey(key) ? Long.parseLong(values.get(key)) : defaultValue;
+        }
+
+        boolean getBoolean(String key) {
+            return Boolean.parseBoolean(values.getOrDefault(key, "false"));
+        }
+
+        String dbUrl() {
+            return get("db-url", "jdbc:postgresql://localhost:5433/personalbudget");
+        }
+
+        String dbUser() {
+            return get("db-user", "postgres");
+        }
+
+        String dbPassword() {
+            return get("db-password", "postgres");
+        }
+
+        long seed() {
+            return getLong("seed", 42);
+        }
+
+        int users() {
+            return getInt("users", 100);
+        }
+    }
+}
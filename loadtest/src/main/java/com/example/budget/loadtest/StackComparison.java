@@ -0,0 +1,52 @@
+package com.example.budget.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compara o backend MVC (JPA/JDBC, uma thread por requisição) com o módulo reativo
+ * (WebFlux + R2DBC) sob a mesma carga só de leitura, em níveis crescentes de concorrência.
+ *
+ * Em cada nível as duas pilhas rodam uma depois da outra, com a mesma semente, os mesmos
+ * usuários e a mesma mistura. O login vai sempre para o MVC (--mvc-url): o módulo reativo
+ * aceita o mesmo token. Os dois processos devem apontar para o mesmo banco, com pools do
+ * mesmo tamanho.
+ */
+class StackComparison {
+
+    private static final String READ_MIX = "list:20,summary:35,search:30,plans:15";
+
+    private final LoadTestMain.Options options;
+    private final String mvcUrl;
+    private final String reactiveUrl;
+    private final List<Integer> concurrency;
+
+    StackComparison(LoadTestMain.Options options) {
+        this.mvcUrl = options.get("mvc-url", "http://localhost:8080");
+        this.reactiveUrl = options.get("reactive-url", "http://localhost:8081");
+        this.options = options
+                .with("mix", options.get("mix", READ_MIX))
+                .with("auth-url", mvcUrl);
+        this.concurrency = new ArrayList<>();
+        for (String level : options.get("concurrency", "16,64,256").split(",")) {
+            concurrency.add(Integer.parseInt(level.trim()));
+        }
+    }
+
+    void run() throws Exception {
+        System.out.printf("MVC %s x reativo %s, mistura %s, %s s por execução (+%s s de aquecimento)%n",
+                mvcUrl, reactiveUrl, options.get("mix", READ_MIX),
+                options.get("duration", "60"), options.get("warmup", "10"));
+        for (int threads : concurrency) {
+            System.out.printf("%n== %d usuários simultâneos ==%n", threads);
+            System.out.println(LatencyRecorder.header());
+            String[][] stacks = {{"mvc", mvcUrl}, {"reativo", reactiveUrl}};
+            for (String[] stack : stacks) {
+                LoadDriver driver = new LoadDriver(options
+                        .with("base-url", stack[1])
+                        .with("threads", Integer.toString(threads)));
+                driver.print(driver.measure(), stack[0] + " ");
+            }
+        }
+    }
+}